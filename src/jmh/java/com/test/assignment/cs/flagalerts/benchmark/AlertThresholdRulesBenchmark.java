@@ -0,0 +1,83 @@
+package com.test.assignment.cs.flagalerts.benchmark;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threshold lookup of {@link AlertThresholdRules} by event type and host, by number of rules - a third each of exact type and host,
+ * type prefix and host prefix, and exact type with any host rules. The lookup time is expected to stay flat as the rules grow
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AlertThresholdRulesBenchmark {
+
+    private static final int EVENT_COUNT = 1024;
+
+    @Param({"0", "100", "10000"})
+    private int ruleCount;
+
+    private AlertThresholdRules alertThresholdRules;
+    private final String[] eventTypes = new String[EVENT_COUNT];
+    private final String[] eventHosts = new String[EVENT_COUNT];
+
+    @Setup
+    public void compileRules() throws Exception {
+        List<String> rules = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            switch (i % 3) {
+                case 0:
+                    rules.add(String.format("TYPE_%d,host-%d,%d", i, i, i % 50));
+                    break;
+                case 1:
+                    rules.add(String.format("TYPE_%d*,host-%d*,%d", i, i, i % 50));
+                    break;
+                default:
+                    rules.add(String.format("TYPE_%d,*,%d", i, i % 50));
+            }
+        }
+        Path rulesFile = Files.createTempFile("alert-threshold-rules", ".csv");
+        rulesFile.toFile().deleteOnExit();
+        Files.write(rulesFile, rules, StandardCharsets.UTF_8);
+        alertThresholdRules = new AlertThresholdRules(rulesFile, 4L);
+
+        Random random = new Random(42);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            int rule = random.nextInt(Math.max(ruleCount, 1) * 2);
+            eventTypes[i] = random.nextInt(10) == 0 ? null : "TYPE_" + rule + (rule % 3 == 1 ? "_SUFFIX" : "");
+            eventHosts[i] = random.nextInt(10) == 0 ? null : "host-" + rule + (rule % 3 == 1 ? ".example.com" : "");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENT_COUNT)
+    public long thresholdFor() {
+        long thresholdSum = 0;
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            thresholdSum += alertThresholdRules.thresholdFor(eventTypes[i], eventHosts[i]);
+        }
+        return thresholdSum;
+    }
+}
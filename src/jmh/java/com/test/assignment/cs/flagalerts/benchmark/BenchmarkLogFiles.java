@@ -0,0 +1,28 @@
+package com.test.assignment.cs.flagalerts.benchmark;
+
+import com.test.assignment.cs.flagalerts.utils.RandomizedLogFileGenerator;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Generated log files for the benchmarks, kept under target/jmh-logs and reused across runs with the same size and seed
+ */
+@UtilityClass
+class BenchmarkLogFiles {
+
+    static final String SEED_PROPERTY = "flag-alerts.benchmark.seed";
+
+    Path generatedLogFile(long fileSizeBytes) throws IOException {
+        long seed = Long.getLong(SEED_PROPERTY, RandomizedLogFileGenerator.DEFAULT_SEED);
+        Path logFile = Paths.get("target", "jmh-logs", String.format("logfile-%d-%d.txt", fileSizeBytes, seed));
+        if (!Files.exists(logFile)) {
+            Files.createDirectories(logFile.getParent());
+            RandomizedLogFileGenerator.generateLogFile(logFile.toString(), fileSizeBytes, seed);
+        }
+        return logFile;
+    }
+}
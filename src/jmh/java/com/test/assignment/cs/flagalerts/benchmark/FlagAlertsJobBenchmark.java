@@ -0,0 +1,91 @@
+package com.test.assignment.cs.flagalerts.benchmark;
+
+import com.test.assignment.cs.flagalerts.FlagAlertsBatchApplication;
+import com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end run of parseLogEventsForAlertsJob over generated log files, by pairing mode. The application context is
+ * started once per trial, with an in-memory database. Run a single size with e.g. -p fileSizeBytes=1048576
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FlagAlertsJobBenchmark {
+
+    @Param({"1048576", "104857600", "1073741824"})
+    private long fileSizeBytes;
+    @Param({"staging", "in-memory"})
+    private String pairingMode;
+
+    private ConfigurableApplicationContext applicationContext;
+    private JobLauncher jobLauncher;
+    private Job parseLogEventsForAlertsJob;
+    private JdbcTemplate jdbcTemplate;
+    private Path logFile;
+
+    @Setup
+    public void startApplication() throws Exception {
+        logFile = BenchmarkLogFiles.generatedLogFile(fileSizeBytes);
+        applicationContext = new SpringApplicationBuilder(FlagAlertsBatchApplication.class)
+                .properties("spring.batch.job.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:hsqldb:mem:flag-alerts-benchmark",
+                        "flag-alerts.pairing.mode=" + pairingMode)
+                .run();
+        jobLauncher = applicationContext.getBean(JobLauncher.class);
+        parseLogEventsForAlertsJob = applicationContext.getBean("parseLogEventsForAlertsJob", Job.class);
+        jdbcTemplate = applicationContext.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncateTables() {
+        jdbcTemplate.execute("TRUNCATE TABLE LOG_EVENT_ALERT_ENCODED");
+        jdbcTemplate.execute("TRUNCATE TABLE TMP_LOG_EVENT_STARTED");
+        jdbcTemplate.execute("TRUNCATE TABLE TMP_LOG_EVENT_FINISHED");
+    }
+
+    @TearDown
+    public void stopApplication() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public JobExecution parseLogEventsForAlertsJob() throws Exception {
+        JobExecution jobExecution = jobLauncher.run(parseLogEventsForAlertsJob, new JobParametersBuilder()
+                .addString(ParseLogEntryStepConfiguration.PARAM_LOG_EVENT_FILE_READER, logFile.toString())
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Job did not complete: " + jobExecution.getExitStatus());
+        }
+        return jobExecution;
+    }
+}
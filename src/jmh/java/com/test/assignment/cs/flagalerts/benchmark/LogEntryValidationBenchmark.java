@@ -0,0 +1,60 @@
+package com.test.assignment.cs.flagalerts.benchmark;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryParser;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.validator.BeanValidatingItemProcessor;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of parsed {@link LogEventEntry}, by the fast path {@link LogEventEntryValidator}, or JSR-303 validation by {@link BeanValidatingItemProcessor}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LogEntryValidationBenchmark {
+
+    @Param({"fast", "jsr"})
+    private String validationMode;
+
+    private ValidatingItemProcessor<LogEventEntry> logEntryValidator;
+    private LogEventEntry[] logEventEntries;
+    private int entryIndex;
+
+    @Setup
+    public void parseEntries() throws Exception {
+        logEntryValidator = "jsr".equals(validationMode) ? new BeanValidatingItemProcessor<>()
+                : new ValidatingItemProcessor<>(new LogEventEntryValidator());
+        logEntryValidator.afterPropertiesSet();
+        LogEventEntryParser logEventEntryParser = new LogEventEntryParser();
+        List<String> lines = Files.readAllLines(BenchmarkLogFiles.generatedLogFile(1024 * 1024));
+        logEventEntries = new LogEventEntry[lines.size()];
+        for (int i = 0; i < logEventEntries.length; i++) {
+            logEventEntries[i] = logEventEntryParser.mapLine(lines.get(i), i + 1);
+        }
+    }
+
+    @Benchmark
+    public LogEventEntry validate() throws Exception {
+        entryIndex = entryIndex + 1 == logEventEntries.length ? 0 : entryIndex + 1;
+        return logEntryValidator.process(logEventEntries[entryIndex]);
+    }
+}
@@ -0,0 +1,82 @@
+package com.test.assignment.cs.flagalerts.benchmark;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlertRowMapper;
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of the joined event rows to {@link LogEventAlert} by {@link LogEventAlertRowMapper}, over rows cached in
+ * memory so only the mapping is measured
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LogEventAlertRowMapperBenchmark {
+
+    private static final int ROW_COUNT = 1000;
+
+    private LogEventAlertRowMapper logEventAlertRowMapper;
+    private CachedRowSet eventRows;
+
+    @Setup
+    public void cacheEventRows() throws Exception {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .generateUniqueName(true)
+                .addScript("schema-all.sql")
+                .build();
+        EventDictionary eventDictionary = new EventDictionary(database);
+        logEventAlertRowMapper = new LogEventAlertRowMapper(new AlertThresholdRules(null, 4L), eventDictionary);
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT 'event-' || ROWNUM() AS EVENT_ID, MOD(ROWNUM(), 10) AS EVENT_DURATION, " +
+                    eventDictionary.idOf("APPLICATION_LOG") + " AS EVENT_TYPE_ID, CAST(NULL AS INTEGER) AS EVENT_HOST_ID " +
+                    "FROM UNNEST(SEQUENCE_ARRAY(1, " + ROW_COUNT + ", 1))");
+            eventRows = RowSetProvider.newFactory().createCachedRowSet();
+            eventRows.populate(resultSet);
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    @TearDown
+    public void closeEventRows() throws Exception {
+        eventRows.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void mapRow(Blackhole blackhole) throws Exception {
+        eventRows.beforeFirst();
+        int rowNum = 0;
+        while (eventRows.next()) {
+            blackhole.consume(logEventAlertRowMapper.mapRow(eventRows, rowNum++));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.test.assignment.cs.flagalerts.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a log file line to {@link LogEventEntry}: the streaming parser from a String(flat file reader) and from
+ * bytes(mapped reader), against the ObjectMapper data binding it replaced
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LogEventEntryParserBenchmark {
+
+    private final LogEventEntryParser logEventEntryParser = new LogEventEntryParser();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String[] lines;
+    private byte[][] lineBytes;
+    private int lineIndex;
+
+    @Setup
+    public void generateLines() throws Exception {
+        List<String> logFileLines = Files.readAllLines(BenchmarkLogFiles.generatedLogFile(1024 * 1024));
+        lines = logFileLines.toArray(new String[0]);
+        lineBytes = new byte[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            lineBytes[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private int nextLineIndex() {
+        lineIndex = lineIndex + 1 == lines.length ? 0 : lineIndex + 1;
+        return lineIndex;
+    }
+
+    @Benchmark
+    public LogEventEntry mapLine() throws Exception {
+        int i = nextLineIndex();
+        return logEventEntryParser.mapLine(lines[i], i);
+    }
+
+    @Benchmark
+    public LogEventEntry parseBytes() {
+        int i = nextLineIndex();
+        return logEventEntryParser.parse(lineBytes[i], 0, lineBytes[i].length, i);
+    }
+
+    @Benchmark
+    public LogEventEntry objectMapperReadValue() throws Exception {
+        return objectMapper.readValue(lines[nextLineIndex()], LogEventEntry.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.test.assignment.cs.flagalerts.benchmark;
+
+import com.test.assignment.cs.flagalerts.FlagAlertsBatchApplication;
+import com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing step alone(parseLogsEntriesStep) over generated log files, by parse execution mode - the chunk oriented step,
+ * or the pipeline of reader thread, parsing workers and writer. Run on JDK 21 for the workers on virtual threads,
+ * or with -p virtualThreads=false for the ForkJoinPool workers, and -p workers=1,2,4 for the scaling of the pipeline with the
+ * cores of the machine(the chunk step does not use the workers)
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ParseLogEntryStepBenchmark {
+
+    @Param({"104857600", "1073741824"})
+    private long fileSizeBytes;
+    @Param({"chunk", "pipelined"})
+    private String parseExecution;
+    @Param({"true"})
+    private boolean virtualThreads;
+    @Param({"4"})
+    private int workers;
+
+    private ConfigurableApplicationContext applicationContext;
+    private JobLauncherTestUtils jobLauncherTestUtils;
+    private JdbcTemplate jdbcTemplate;
+    private Path logFile;
+
+    @Setup
+    public void startApplication() throws Exception {
+        logFile = BenchmarkLogFiles.generatedLogFile(fileSizeBytes);
+        applicationContext = new SpringApplicationBuilder(FlagAlertsBatchApplication.class)
+                .properties("spring.batch.job.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:hsqldb:mem:flag-alerts-benchmark",
+                        "flag-alerts.parser.execution=" + parseExecution,
+                        "flag-alerts.parser.pipeline.virtual-threads=" + virtualThreads,
+                        "flag-alerts.parser.pipeline.workers=" + workers)
+                .run();
+        jobLauncherTestUtils = new JobLauncherTestUtils();
+        jobLauncherTestUtils.setJobLauncher(applicationContext.getBean(JobLauncher.class));
+        jobLauncherTestUtils.setJobRepository(applicationContext.getBean(JobRepository.class));
+        jobLauncherTestUtils.setJob(applicationContext.getBean("parseLogEventsForAlertsJob", Job.class));
+        jdbcTemplate = applicationContext.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncateTables() {
+        jdbcTemplate.execute("TRUNCATE TABLE TMP_LOG_EVENT_STARTED");
+        jdbcTemplate.execute("TRUNCATE TABLE TMP_LOG_EVENT_FINISHED");
+    }
+
+    @TearDown
+    public void stopApplication() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public JobExecution parseLogsEntriesStep() {
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep("parseLogsEntriesStep", new JobParametersBuilder()
+                .addString(ParseLogEntryStepConfiguration.PARAM_LOG_EVENT_FILE_READER, logFile.toString())
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Step did not complete: " + jobExecution.getExitStatus());
+        }
+        return jobExecution;
+    }
+}
@@ -0,0 +1,103 @@
+package com.test.assignment.cs.flagalerts.benchmark;
+
+import com.test.assignment.cs.flagalerts.processing.parser.BulkLogEventEntryItemWriter;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryParser;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryPreparedStatementSetter;
+import com.test.assignment.cs.flagalerts.processing.parser.StagingTableLoaderType;
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a chunk of log entries to the temporary table TMP_LOG_EVENT_STARTED, by each {@link StagingTableLoaderType}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StagingTableWriterBenchmark {
+
+    private static final String TABLE_NAME = "TMP_LOG_EVENT_STARTED";
+
+    @Param({"JDBC_BATCH", "BULK"})
+    private StagingTableLoaderType loaderType;
+    @Param({"100", "1000"})
+    private int chunkSize;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private ItemWriter<LogEventEntry> logEventEntryWriter;
+    private List<LogEventEntry> chunk;
+
+    @Setup
+    public void createWriter() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .generateUniqueName(true)
+                .addScript("schema-all.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        EventDictionary eventDictionary = new EventDictionary(database);
+        if (loaderType == StagingTableLoaderType.BULK) {
+            logEventEntryWriter = new BulkLogEventEntryItemWriter(database, eventDictionary, TABLE_NAME);
+        } else {
+            JdbcBatchItemWriter<LogEventEntry> jdbcBatchItemWriter = new JdbcBatchItemWriterBuilder<LogEventEntry>()
+                    .itemPreparedStatementSetter(new LogEventEntryPreparedStatementSetter(eventDictionary))
+                    .sql(String.format("INSERT INTO %s (%s) VALUES (?, ?, ?, ?, ?)", TABLE_NAME, LogEventEntryPreparedStatementSetter.INSERT_COLUMNS))
+                    .dataSource(database)
+                    .build();
+            jdbcBatchItemWriter.afterPropertiesSet();
+            logEventEntryWriter = jdbcBatchItemWriter;
+        }
+
+        LogEventEntryParser logEventEntryParser = new LogEventEntryParser();
+        chunk = new ArrayList<>(chunkSize);
+        for (String line : Files.readAllLines(BenchmarkLogFiles.generatedLogFile(1024 * 1024))) {
+            LogEventEntry logEventEntry = logEventEntryParser.mapLine(line, chunk.size() + 1);
+            if (chunk.size() < chunkSize && "STARTED".equals(logEventEntry.getStateAsString())) {
+                chunk.add(logEventEntry);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void truncateTable() {
+        jdbcTemplate.execute("TRUNCATE TABLE " + TABLE_NAME);
+    }
+
+    @TearDown
+    public void shutdownDatabase() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public void write() throws Exception {
+        logEventEntryWriter.write(chunk);
+    }
+}
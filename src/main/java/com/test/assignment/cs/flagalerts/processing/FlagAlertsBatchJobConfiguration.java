@@ -1,20 +1,65 @@
 package com.test.assignment.cs.flagalerts.processing;
 
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.metrics.MetricsExportListener;
+import com.test.assignment.cs.flagalerts.processing.parser.ParseExecutionMode;
+import com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration;
+import com.test.assignment.cs.flagalerts.processing.prefilter.EventIdPrefilterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.job.DefaultJobParametersValidator;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.JobFlowBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Batch Job consisting of below steps:
- * 1. Parsing the logfile for Log Events {@link com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration#parseLogsEntriesStep}
- * 2. Flag Events and Persist found Event Alerts into LOG_EVENT_ALERT Table {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#flagEventsForAlertsStep}
+ * Batch Job consisting of below steps, for pairing mode {@link PairingMode#STAGING}:
+ * 1. Parsing the logfile for Log Events {@link com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration#parseLogsEntriesStep},
+ * or its byte ranges in parallel when "flag-alerts.parser.partition.grid-size" is more than 1 {@link com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration#parseLogsEntriesPartitionedStep}
+ * 2. Flag Events and Persist found Event Alerts into LOG_EVENT_ALERT Table {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#flagEventsForAlertsStep},
+ * or its ranges in parallel when "flag-alerts.alerts.partition.grid-size" is more than 1 {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#flagEventsForAlertsPartitionedStep}
+ * <br>
+ * In incremental mode "flag-alerts.incremental.enabled", only the bytes appended to the log file since the last run are parsed,
+ * and the unmatched entries are carried over to the next run, with the steps above run between
+ * {@link com.test.assignment.cs.flagalerts.processing.incremental.IncrementalStepConfiguration#resolveIncrementalRangeStep} and
+ * {@link com.test.assignment.cs.flagalerts.processing.incremental.IncrementalStepConfiguration#cleanupPairedEntriesStep}
+ * <br>
+ * For pairing mode {@link PairingMode#IN_MEMORY}, a single step parses the logfile, pairs and persists the Event Alerts
+ * {@link com.test.assignment.cs.flagalerts.processing.pairing.InMemoryPairingStepConfiguration#pairLogEventsInMemoryStep},
+ * and for pairing mode {@link PairingMode#SORT_MERGE} by sort-merge of the entries on disk
+ * {@link com.test.assignment.cs.flagalerts.processing.pairing.SortMergePairingStepConfiguration#pairLogEventsSortMergeStep}
+ * <br>
+ * With "flag-alerts.checkpoint.enabled", the parsed entries are also written to the event checkpoint file of Job Parameter
+ * "checkpoint.file", for re-flagging the events with another threshold by
+ * {@link com.test.assignment.cs.flagalerts.processing.checkpoint.ReflagJobConfiguration#reflagLogEventsJob}
+ * <br>
+ * With "flag-alerts.prefilter.enabled", a first pass over the logfile builds the Bloom filters of the event ids
+ * {@link com.test.assignment.cs.flagalerts.processing.prefilter.PrefilterStepConfiguration#buildEventIdFiltersStep}, and
+ * the parsing step drops the orphan entries before staging
+ * <br>
+ * With "flag-alerts.parser.staging.deferred-index", the entries are staged into the temporary tables without constraints,
+ * dropped by {@link com.test.assignment.cs.flagalerts.processing.parser.DeferredIndexStepConfiguration#dropStagingConstraintsStep}
+ * and built back after parsing by {@link com.test.assignment.cs.flagalerts.processing.parser.DeferredIndexStepConfiguration#buildStagingIndexesStep}
+ * <br>
+ * With "flag-alerts.parser.quarantine.enabled", the unparseable, invalid and duplicate entries are written to table LOG_EVENT_QUARANTINE
+ * by {@link com.test.assignment.cs.flagalerts.processing.quarantine.QuarantiningLogEventEntryWriter} instead of skipped
+ * <br>
+ * With "flag-alerts.partition.remote.enabled", the partitions of the partitioned steps are run by worker JVMs sharing the job repository
+ * {@link com.test.assignment.cs.flagalerts.processing.remote.RemotePartitionConfiguration}
  */
 @Configuration
 @EnableBatchProcessing
@@ -25,16 +70,108 @@ public class FlagAlertsBatchJobConfiguration {
     public JobBuilderFactory jobBuilderFactory;
 
     @Bean
+    @Primary
     public Job parseLogEventsForAlertsJob(JobCompletionNotificationListener listener,
+                                          MetricsExportListener metricsExportListener,
+                                          AlertThresholdRules alertThresholdRules,
+                                          EventIdPrefilterRegistry eventIdPrefilterRegistry,
                                           @Qualifier("parseLogsEntriesStep") Step parseLogsEntriesStep,
-                                          @Qualifier("flagEventsForAlertsStep") Step flagEventsForAlertsStep) {
-        return jobBuilderFactory.get("parseLogEventsForAlertsJob")
+                                          @Qualifier("parseLogsEntriesPartitionedStep") Step parseLogsEntriesPartitionedStep,
+                                          @Qualifier("flagEventsForAlertsStep") Step flagEventsForAlertsStep,
+                                          @Qualifier("flagEventsForAlertsPartitionedStep") Step flagEventsForAlertsPartitionedStep,
+                                          @Qualifier("pairLogEventsInMemoryStep") Step pairLogEventsInMemoryStep,
+                                          @Qualifier("pairLogEventsSortMergeStep") Step pairLogEventsSortMergeStep,
+                                          @Qualifier("resolveIncrementalRangeStep") Step resolveIncrementalRangeStep,
+                                          @Qualifier("cleanupPairedEntriesStep") Step cleanupPairedEntriesStep,
+                                          @Qualifier("buildEventIdFiltersStep") Step buildEventIdFiltersStep,
+                                          @Qualifier("dropStagingConstraintsStep") Step dropStagingConstraintsStep,
+                                          @Qualifier("buildStagingIndexesStep") Step buildStagingIndexesStep,
+                                          @Value("${flag-alerts.pairing.mode:staging}") PairingMode pairingMode,
+                                          @Value("${flag-alerts.incremental.enabled:false}") boolean incremental,
+                                          @Value("${flag-alerts.checkpoint.enabled:false}") boolean checkpointEnabled,
+                                          @Value("${flag-alerts.prefilter.enabled:false}") boolean prefilterEnabled,
+                                          @Value("${flag-alerts.parser.staging.deferred-index:false}") boolean deferredIndex,
+                                          @Value("${flag-alerts.parser.quarantine.enabled:false}") boolean quarantineEnabled,
+                                          @Value("${flag-alerts.partition.remote.enabled:false}") boolean remotePartitioning,
+                                          @Value("${flag-alerts.parser.execution:chunk}") ParseExecutionMode parseExecutionMode,
+                                          @Value("${flag-alerts.parser.partition.grid-size:1}") int parserGridSize,
+                                          @Value("${flag-alerts.alerts.partition.grid-size:1}") int alertsGridSize) {
+        log.info("Initializing parseLogEventsForAlertsJob with pairing mode {}{}", pairingMode, incremental ? ", incremental" : "");
+        JobBuilder jobBuilder = jobBuilderFactory.get("parseLogEventsForAlertsJob")
                 .incrementer(new RunIdIncrementer())
+                .listener(alertThresholdRules)
                 .listener(listener)
-                .flow(parseLogsEntriesStep)
-                .next(flagEventsForAlertsStep)
-                .end()
-                .build();
+                .listener(metricsExportListener);
+
+        if (checkpointEnabled) {
+            if (pairingMode != PairingMode.STAGING || incremental || parserGridSize > 1 || parseExecutionMode != ParseExecutionMode.CHUNK) {
+                throw new IllegalStateException("The event checkpoint is written by the chunk oriented parseLogsEntriesStep of the whole log file, " +
+                        "and requires pairing mode " + PairingMode.STAGING + ", parser grid size 1, parser execution " + ParseExecutionMode.CHUNK + " and no incremental mode");
+            }
+            jobBuilder.validator(new DefaultJobParametersValidator(new String[]{ParseLogEntryStepConfiguration.PARAM_CHECKPOINT_FILE}, new String[0]));
+        }
+        if (prefilterEnabled) {
+            if (pairingMode != PairingMode.STAGING || incremental || parseExecutionMode != ParseExecutionMode.CHUNK || remotePartitioning) {
+                throw new IllegalStateException("The prefilter drops the orphan entries of the whole log file before the temporary tables, " +
+                        "and requires pairing mode " + PairingMode.STAGING + ", parser execution " + ParseExecutionMode.CHUNK + ", no incremental mode and no remote partitioning, " +
+                        "as its filters are held in the memory of the manager");
+            }
+            jobBuilder.listener(eventIdPrefilterRegistry);
+        }
+        if (deferredIndex && (pairingMode != PairingMode.STAGING || incremental)) {
+            throw new IllegalStateException("Deferred index staging rebuilds the constraints of the temporary tables created by schema-all.sql, " +
+                    "and requires pairing mode " + PairingMode.STAGING + " and no incremental mode");
+        }
+        if (quarantineEnabled && (pairingMode != PairingMode.STAGING || parseExecutionMode != ParseExecutionMode.CHUNK)) {
+            throw new IllegalStateException("The quarantine of log entries is written by the chunk oriented parsing step into the temporary tables, " +
+                    "and requires pairing mode " + PairingMode.STAGING + " and parser execution " + ParseExecutionMode.CHUNK);
+        }
+        if (pairingMode != PairingMode.STAGING) {
+            if (incremental) {
+                throw new IllegalStateException("Incremental mode carries over unmatched entries in the temporary tables, and requires pairing mode " + PairingMode.STAGING);
+            }
+            return jobBuilder
+                    .flow(pairingMode == PairingMode.IN_MEMORY ? pairLogEventsInMemoryStep : pairLogEventsSortMergeStep)
+                    .end()
+                    .build();
+        }
+        List<Step> steps = new ArrayList<>();
+        if (incremental) {
+            steps.add(resolveIncrementalRangeStep);
+        }
+        if (prefilterEnabled) {
+            steps.add(buildEventIdFiltersStep);
+        }
+        if (deferredIndex) {
+            steps.add(dropStagingConstraintsStep);
+        }
+        steps.add(parserGridSize > 1 ? parseLogsEntriesPartitionedStep : parseLogsEntriesStep);
+        if (deferredIndex) {
+            steps.add(buildStagingIndexesStep);
+        }
+        steps.add(alertsGridSize > 1 ? flagEventsForAlertsPartitionedStep : flagEventsForAlertsStep);
+        if (incremental) {
+            steps.add(cleanupPairedEntriesStep);
+        }
+        JobFlowBuilder jobFlowBuilder = jobBuilder.flow(steps.get(0));
+        for (Step step : steps.subList(1, steps.size())) {
+            jobFlowBuilder.next(step);
+        }
+        return jobFlowBuilder.end().build();
+    }
+
+    /**
+     * Task executor for running the partitions of partitioned steps in parallel
+     *
+     * @param maxThreads maximum number of partitions running in parallel. Defaults to the available processors
+     */
+    @Bean
+    public TaskExecutor flagAlertsTaskExecutor(@Value("${flag-alerts.partition.max-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int maxThreads) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(maxThreads);
+        taskExecutor.setMaxPoolSize(maxThreads);
+        taskExecutor.setThreadNamePrefix("flag-alerts-partition-");
+        return taskExecutor;
     }
 
 
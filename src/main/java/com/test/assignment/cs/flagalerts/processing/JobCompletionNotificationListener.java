@@ -1,32 +1,86 @@
 package com.test.assignment.cs.flagalerts.processing;
 
+import com.test.assignment.cs.flagalerts.processing.alerts.DurationHistogram;
+import com.test.assignment.cs.flagalerts.processing.alerts.DurationSummary;
+import com.test.assignment.cs.flagalerts.processing.alerts.DurationSummaryRepository;
+import com.test.assignment.cs.flagalerts.processing.alerts.NonAlertingEventFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.listener.JobExecutionListenerSupport;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
- * Job completion listener to log completion status
+ * Job completion listener to log completion status, the duration summaries by event type and host of the alerts written by the job,
+ * and the events within the alert threshold not persisted in output mode alerts-only
  */
 @Component
 @Slf4j
 public class JobCompletionNotificationListener extends JobExecutionListenerSupport {
 
     private final JdbcTemplate jdbcTemplate;
+    private final DurationSummaryRepository durationSummaryRepository;
 
     @Autowired
-    public JobCompletionNotificationListener(JdbcTemplate jdbcTemplate) {
+    public JobCompletionNotificationListener(JdbcTemplate jdbcTemplate, DurationSummaryRepository durationSummaryRepository) {
         this.jdbcTemplate = jdbcTemplate;
+        this.durationSummaryRepository = durationSummaryRepository;
     }
 
     @Override
     public void afterJob(JobExecution jobExecution) {
         if (jobExecution.getStatus() == BatchStatus.COMPLETED && log.isInfoEnabled()) {
             log.info("!!! JOB FINISHED !!!");
-            log.info("Event Count By Alert - {}", jdbcTemplate.queryForList("select ALERT, count(*) as EVENT_COUNT from LOG_EVENT_ALERT group by ALERT;"));
+            logDurationSummaries(jobExecution);
+            logNonAlertingEvents(jobExecution);
+        }
+    }
+
+    /**
+     * Logs the counts and duration percentiles by event type and host, from the summaries of the flagging steps(or partitions)
+     * merged across the executions of the job instance. Without summaries("flag-alerts.alerts.duration-summary.enabled" false),
+     * the output table is scanned for the counts by alert instead
+     */
+    private void logDurationSummaries(JobExecution jobExecution) {
+        List<DurationSummary> durationSummaries = durationSummaryRepository.findByJobInstance(jobExecution.getJobInstance().getInstanceId());
+        if (durationSummaries.isEmpty()) {
+            log.info("Event Count By Alert - {}", jdbcTemplate.queryForList("select ALERT, count(*) as EVENT_COUNT from LOG_EVENT_ALERT_ENCODED group by ALERT;"));
+            return;
+        }
+        long eventCount = 0;
+        long alertCount = 0;
+        for (DurationSummary durationSummary : durationSummaries) {
+            DurationHistogram durationHistogram = durationSummary.getDurationHistogram();
+            log.info("Event Durations of type {} host {} - count {}, alerts {}, p50 {} ms, p99 {} ms, max {} ms", durationSummary.getEventType(),
+                    durationSummary.getEventHost(), durationSummary.getEventCount(), durationSummary.getAlertCount(),
+                    durationHistogram.getValueAtQuantile(0.5), durationHistogram.getValueAtQuantile(0.99), durationHistogram.getMax());
+            eventCount += durationSummary.getEventCount();
+            alertCount += durationSummary.getAlertCount();
+        }
+        log.info("Event Count By Alert - alerts {}, not alerts {}", alertCount, eventCount - alertCount);
+    }
+
+    /**
+     * Sums the counts of the steps(or partitions) filtering out the events within the alert threshold
+     */
+    private void logNonAlertingEvents(JobExecution jobExecution) {
+        long eventCount = 0;
+        long durationSum = 0;
+        boolean filtered = false;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (stepExecution.getExecutionContext().containsKey(NonAlertingEventFilter.NON_ALERTING_EVENT_COUNT_KEY)) {
+                filtered = true;
+                eventCount += stepExecution.getExecutionContext().getLong(NonAlertingEventFilter.NON_ALERTING_EVENT_COUNT_KEY);
+                durationSum += stepExecution.getExecutionContext().getLong(NonAlertingEventFilter.NON_ALERTING_DURATION_SUM_KEY);
+            }
+        }
+        if (filtered) {
+            log.info("Events within the alert threshold, not persisted - count {}, total duration {} ms", eventCount, durationSum);
         }
     }
 }
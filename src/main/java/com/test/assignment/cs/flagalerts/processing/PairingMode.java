@@ -0,0 +1,21 @@
+package com.test.assignment.cs.flagalerts.processing;
+
+/**
+ * Strategy used by {@link FlagAlertsBatchJobConfiguration} for pairing STARTED/FINISHED log entries into alerts.
+ * Configurable via property "flag-alerts.pairing.mode"
+ */
+public enum PairingMode {
+    /**
+     * Log entries are persisted to TMP_LOG_EVENT_STARTED, TMP_LOG_EVENT_FINISHED, and joined by EVENT_ID
+     */
+    STAGING,
+    /**
+     * Log entries are paired in memory by id while streaming the log file once, only alerts are persisted
+     */
+    IN_MEMORY,
+    /**
+     * Log entries are written to sorted runs on disk, and paired by id while merging the runs, only alerts are persisted.
+     * Memory stays bounded however far apart the entries of an event are
+     */
+    SORT_MERGE
+}
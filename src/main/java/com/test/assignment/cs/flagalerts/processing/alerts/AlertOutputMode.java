@@ -0,0 +1,16 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+/**
+ * Events persisted to LOG_EVENT_ALERT, configurable via property "flag-alerts.alerts.output"
+ */
+public enum AlertOutputMode {
+    /**
+     * Every paired event, flagged with ALERT true or false
+     */
+    ALL,
+    /**
+     * Only the events with duration beyond the threshold, filtered out after reading the join, or by the in-memory pairing, before writing.
+     * The events within the threshold are only counted, see {@link NonAlertingEventFilter}
+     */
+    ALERTS_ONLY
+}
@@ -0,0 +1,352 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event duration thresholds by event type and host, loaded from the rules file "flag-alerts.alerts.threshold-rules.file",
+ * one rule per line - {@code type,host,threshold-ms}. Type and host are an exact value, a prefix ending with '*', or '*' for any,
+ * and lines starting with '#' are comments.<br>
+ * The most specific type wins - exact, then the longest prefix, then any - and within it the most specific host. Events matching
+ * no rule take the default threshold "flag-alerts.alerts.event-duration.threshold-ms".<br>
+ * The rules are compiled into a hash map of the exact types and a hash table of the type prefixes, each holding the host rules
+ * inherited from the less specific types, so a lookup is a hash lookup and a single pass over the type, then over the host,
+ * independent of the number of rules.<br>
+ * The rules file is reloaded when modified, before each job execution, and on each tail of the streaming mode
+ */
+@Slf4j
+public class AlertThresholdRules extends JobExecutionListenerSupport {
+
+    private static final String ANY = "*";
+
+    private final Path rulesFile;
+    private final long defaultThreshold;
+
+    private volatile RuleTable ruleTable;
+    private FileTime loadedModifiedTime;
+
+    /**
+     * @param rulesFile        rules file, or null for the default threshold only
+     * @param defaultThreshold threshold of the events matching no rule
+     * @throws IllegalStateException    when the rules file can not be read
+     * @throws IllegalArgumentException for an invalid rule
+     */
+    public AlertThresholdRules(Path rulesFile, long defaultThreshold) {
+        this.rulesFile = rulesFile;
+        this.defaultThreshold = defaultThreshold;
+        if (rulesFile == null) {
+            this.ruleTable = RuleTable.compile(new ArrayList<>(), defaultThreshold);
+        } else {
+            try {
+                reloadIfModified();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read the alert threshold rules " + rulesFile, e);
+            }
+        }
+    }
+
+    /**
+     * @return threshold of the most specific rule matching the event type and host, either may be null
+     */
+    public long thresholdFor(String type, String host) {
+        return ruleTable.thresholdFor(type, host);
+    }
+
+    /**
+     * @return lowest threshold of the rules and the default threshold, events within it are not alerts whatever their type and host
+     */
+    public long getMinThreshold() {
+        return ruleTable.minThreshold;
+    }
+
+    public int getRuleCount() {
+        return ruleTable.ruleCount;
+    }
+
+    /**
+     * Recompiles the rules when the rules file was modified since they were loaded
+     *
+     * @return true if the rules were reloaded
+     * @throws IllegalArgumentException for an invalid rule, the previous rules are kept
+     */
+    public synchronized boolean reloadIfModified() throws IOException {
+        if (rulesFile == null) {
+            return false;
+        }
+        FileTime modifiedTime = Files.getLastModifiedTime(rulesFile);
+        if (modifiedTime.equals(loadedModifiedTime)) {
+            return false;
+        }
+        ruleTable = RuleTable.compile(parse(Files.readAllLines(rulesFile, StandardCharsets.UTF_8)), defaultThreshold);
+        loadedModifiedTime = modifiedTime;
+        log.info("Loaded {} alert threshold rules from {}, default threshold {} ms", ruleTable.ruleCount, rulesFile, defaultThreshold);
+        return true;
+    }
+
+    /**
+     * Reloads the rules file when modified, keeping the previous rules when it can not be read or has invalid rules
+     */
+    public void refresh() {
+        try {
+            reloadIfModified();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Keeping the previous alert threshold rules, failed to reload {} - {}", rulesFile, e.getMessage());
+        }
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        refresh();
+    }
+
+    private List<Rule> parse(List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            try {
+                if (fields.length != 3) {
+                    throw new IllegalArgumentException("expected type,host,threshold-ms");
+                }
+                long threshold = Long.parseLong(fields[2].trim());
+                if (threshold < 0) {
+                    throw new IllegalArgumentException("threshold must be greater than or equal to 0");
+                }
+                rules.add(new Rule(fields[0].trim(), fields[1].trim(), threshold));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Invalid alert threshold rule at line %d of %s [%s] - %s",
+                        i + 1, rulesFile, line, e.getMessage()), e);
+            }
+        }
+        return rules;
+    }
+
+    private static boolean isPrefix(String pattern) {
+        return pattern.endsWith(ANY) && !pattern.equals(ANY);
+    }
+
+    private static String prefixOf(String pattern) {
+        return pattern.substring(0, pattern.length() - 1);
+    }
+
+    private static class Rule {
+        private final String type;
+        private final String host;
+        private final long threshold;
+
+        Rule(String type, String host, long threshold) {
+            this.type = type;
+            this.host = host;
+            this.threshold = threshold;
+        }
+    }
+
+    /**
+     * Compiled rules, the host rules of each type pattern(exact, prefix or any) include those inherited from the less specific
+     * type patterns, except the host patterns covered by its own, so the first type pattern matched decides the threshold
+     */
+    private static final class RuleTable {
+        private final Map<String, HostRules> exactTypes = new HashMap<>();
+        private PrefixTable<HostRules> typePrefixes;
+        private HostRules anyType;
+        private final long defaultThreshold;
+        private long minThreshold;
+        private int ruleCount;
+
+        private RuleTable(long defaultThreshold) {
+            this.defaultThreshold = defaultThreshold;
+            this.minThreshold = defaultThreshold;
+        }
+
+        static RuleTable compile(List<Rule> rules, long defaultThreshold) {
+            RuleTable ruleTable = new RuleTable(defaultThreshold);
+            Map<String, Map<String, Long>> hostRulesByType = new LinkedHashMap<>();
+            for (Rule rule : rules) {
+                hostRulesByType.computeIfAbsent(rule.type, type -> new LinkedHashMap<>()).put(rule.host, rule.threshold);
+                ruleTable.minThreshold = Math.min(ruleTable.minThreshold, rule.threshold);
+                ruleTable.ruleCount++;
+            }
+
+            // less specific type patterns first, so the inherited host rules are complete - any, prefixes by length, exact types
+            List<String> typePatterns = new ArrayList<>(hostRulesByType.keySet());
+            typePatterns.sort(Comparator.comparingInt(RuleTable::specificity));
+            Map<String, Map<String, Long>> compiledHostRules = new HashMap<>();
+            Map<String, HostRules> typePrefixes = new HashMap<>();
+            for (String typePattern : typePatterns) {
+                Map<String, Long> ownHostRules = hostRulesByType.get(typePattern);
+                Map<String, Long> hostRules = new LinkedHashMap<>(ownHostRules);
+                Map<String, Long> parentHostRules = compiledHostRules.get(ruleTable.parentOf(typePattern, compiledHostRules));
+                if (parentHostRules != null) {
+                    parentHostRules.forEach((hostPattern, threshold) -> {
+                        if (ownHostRules.keySet().stream().noneMatch(ownHostPattern -> covers(ownHostPattern, hostPattern))) {
+                            hostRules.put(hostPattern, threshold);
+                        }
+                    });
+                }
+                compiledHostRules.put(typePattern, hostRules);
+                HostRules compiled = new HostRules(hostRules);
+                if (typePattern.equals(ANY)) {
+                    ruleTable.anyType = compiled;
+                } else if (isPrefix(typePattern)) {
+                    typePrefixes.put(prefixOf(typePattern), compiled);
+                } else {
+                    ruleTable.exactTypes.put(typePattern, compiled);
+                }
+            }
+            ruleTable.typePrefixes = new PrefixTable<>(typePrefixes);
+            return ruleTable;
+        }
+
+        /**
+         * @return the most specific type pattern compiled so far, matching all the types of the given pattern
+         */
+        private String parentOf(String typePattern, Map<String, Map<String, Long>> compiledHostRules) {
+            if (typePattern.equals(ANY)) {
+                return null;
+            }
+            String key = isPrefix(typePattern) ? prefixOf(typePattern) : typePattern;
+            for (int length = isPrefix(typePattern) ? key.length() - 1 : key.length(); length >= 0; length--) {
+                String parentPattern = key.substring(0, length) + ANY;
+                if (compiledHostRules.containsKey(parentPattern)) {
+                    return parentPattern;
+                }
+            }
+            return null;
+        }
+
+        private static int specificity(String pattern) {
+            if (pattern.equals(ANY)) {
+                return 0;
+            }
+            return isPrefix(pattern) ? pattern.length() : Integer.MAX_VALUE;
+        }
+
+        /**
+         * @return true if every host matched by the inherited pattern is matched by the own pattern
+         */
+        private static boolean covers(String ownPattern, String inheritedPattern) {
+            if (ownPattern.equals(ANY)) {
+                return true;
+            }
+            if (isPrefix(ownPattern)) {
+                return !inheritedPattern.equals(ANY) && inheritedPattern.startsWith(prefixOf(ownPattern));
+            }
+            return ownPattern.equals(inheritedPattern);
+        }
+
+        long thresholdFor(String type, String host) {
+            HostRules hostRules = null;
+            if (type != null) {
+                hostRules = exactTypes.get(type);
+                if (hostRules == null) {
+                    hostRules = typePrefixes.longestMatch(type);
+                }
+            }
+            if (hostRules == null) {
+                hostRules = anyType;
+            }
+            return hostRules == null ? defaultThreshold : hostRules.thresholdFor(host, defaultThreshold);
+        }
+    }
+
+    private static final class HostRules {
+        private final Map<String, Long> exactHosts = new HashMap<>();
+        private final PrefixTable<Long> hostPrefixes;
+        private Long anyHost;
+
+        HostRules(Map<String, Long> hostRules) {
+            Map<String, Long> hostPrefixRules = new HashMap<>();
+            hostRules.forEach((hostPattern, threshold) -> {
+                if (hostPattern.equals(ANY)) {
+                    anyHost = threshold;
+                } else if (isPrefix(hostPattern)) {
+                    hostPrefixRules.put(prefixOf(hostPattern), threshold);
+                } else {
+                    exactHosts.put(hostPattern, threshold);
+                }
+            });
+            hostPrefixes = new PrefixTable<>(hostPrefixRules);
+        }
+
+        long thresholdFor(String host, long defaultThreshold) {
+            Long threshold = null;
+            if (host != null) {
+                threshold = exactHosts.get(host);
+                if (threshold == null) {
+                    threshold = hostPrefixes.longestMatch(host);
+                }
+            }
+            if (threshold == null) {
+                threshold = anyHost;
+            }
+            return threshold == null ? defaultThreshold : threshold;
+        }
+    }
+
+    /**
+     * Open addressing hash table of the prefixes, probed with the hash of each leading substring of the key as it is computed
+     * in a single pass, at the distinct prefix lengths only, so the longest prefix is matched without allocating the substrings
+     */
+    private static final class PrefixTable<V> {
+        private final int[] prefixLengths;
+        private final String[] prefixes;
+        private final Object[] values;
+        private final int mask;
+
+        PrefixTable(Map<String, V> prefixValues) {
+            prefixLengths = prefixValues.keySet().stream().mapToInt(String::length).distinct().sorted().toArray();
+            int capacity = Integer.highestOneBit(Math.max(prefixValues.size(), 1) * 2) << 1;
+            prefixes = new String[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+            prefixValues.forEach((prefix, value) -> {
+                int slot = prefix.hashCode() & mask;
+                while (prefixes[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                prefixes[slot] = prefix;
+                values[slot] = value;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        V longestMatch(String key) {
+            V match = null;
+            int hash = 0;
+            int length = 0;
+            for (int prefixLength : prefixLengths) {
+                if (prefixLength > key.length()) {
+                    break;
+                }
+                // the hash of the leading substring, as String#hashCode of the prefix
+                for (; length < prefixLength; length++) {
+                    hash = 31 * hash + key.charAt(length);
+                }
+                for (int slot = hash & mask; prefixes[slot] != null; slot = (slot + 1) & mask) {
+                    String prefix = prefixes[slot];
+                    if (prefix.length() == prefixLength && key.startsWith(prefix)) {
+                        match = (V) values[slot];
+                        break;
+                    }
+                }
+            }
+            return match;
+        }
+    }
+}
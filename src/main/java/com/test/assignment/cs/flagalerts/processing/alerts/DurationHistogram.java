@@ -0,0 +1,186 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Mergeable histogram of event durations(ms), with log-linear buckets in the layout of an HDR histogram of 2 significant digits:<br>
+ * 1. Durations below 128 are counted exactly, one bucket per value,<br>
+ * 2. Above, each power of 2 range is split into 64 buckets, so a bucket spans less than 1/64 of its values.<br>
+ * A quantile is the highest value of its bucket(capped by the max), within 1.6% of the exact duration. Histograms of
+ * partitions are merged by adding the counts of their buckets, as accurate as a histogram of all their durations.
+ * The bucket array grows up to the highest duration recorded. Not thread safe
+ */
+public class DurationHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT << 1;
+
+    private long[] counts = new long[LINEAR_BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void recordValue(long duration) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Duration must not be negative - " + duration);
+        }
+        int index = bucketIndex(duration);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, index + 1);
+        }
+        counts[index]++;
+        totalCount++;
+        sum += duration;
+        min = Math.min(min, duration);
+        max = Math.max(max, duration);
+    }
+
+    /**
+     * Adds the durations of the other histogram, e.g. of another chunk or partition
+     */
+    public void merge(DurationHistogram other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Clears the counts, keeping the bucket array for reuse
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.99 for p99
+     * @return the duration at the quantile, 0 when empty
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * totalCount));
+        long cumulativeCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= rank) {
+                return Math.max(min, Math.min(max, highestValueOf(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Durations below {@link #LINEAR_BUCKET_COUNT} index their own bucket, above the exponent of the highest bit above the
+     * sub bucket bits selects the range, and the next {@link #SUB_BUCKET_BITS} bits the bucket within it
+     */
+    static int bucketIndex(long duration) {
+        if (duration < LINEAR_BUCKET_COUNT) {
+            return (int) duration;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(duration) - SUB_BUCKET_BITS;
+        return LINEAR_BUCKET_COUNT + (exponent - 1) * SUB_BUCKET_HALF_COUNT + (int) (duration >>> exponent) - SUB_BUCKET_HALF_COUNT;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < LINEAR_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - LINEAR_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        long highestValue = ((subBucket + 1) << exponent) - 1;
+        return highestValue < 0 ? Long.MAX_VALUE : highestValue;
+    }
+
+    /**
+     * Serializes the totals and the non-empty buckets, as index and count
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeLong(totalCount);
+            output.writeLong(sum);
+            output.writeLong(min);
+            output.writeLong(max);
+            int bucketCount = 0;
+            for (long count : counts) {
+                bucketCount += count == 0 ? 0 : 1;
+            }
+            output.writeInt(bucketCount);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    output.writeInt(i);
+                    output.writeLong(counts[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param bytes histogram serialized by {@link #toBytes()}
+     */
+    public static DurationHistogram fromBytes(byte[] bytes) {
+        DurationHistogram histogram = new DurationHistogram();
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            histogram.totalCount = input.readLong();
+            histogram.sum = input.readLong();
+            histogram.min = input.readLong();
+            histogram.max = input.readLong();
+            int bucketCount = input.readInt();
+            for (int i = 0; i < bucketCount; i++) {
+                int index = input.readInt();
+                if (index >= histogram.counts.length) {
+                    histogram.counts = Arrays.copyOf(histogram.counts, index + 1);
+                }
+                histogram.counts[index] = input.readLong();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid serialized duration histogram", e);
+        }
+        return histogram;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the lowest duration, 0 when empty
+     */
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,52 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Summary of the written events of an event type and host: histogram of their durations, and count of the alerts
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class DurationSummary {
+
+    private final String eventType;
+    private final String eventHost;
+    private final DurationHistogram durationHistogram;
+    private long alertCount;
+
+    public DurationSummary(String eventType, String eventHost) {
+        this(eventType, eventHost, new DurationHistogram());
+    }
+
+    DurationSummary(String eventType, String eventHost, DurationHistogram durationHistogram, long alertCount) {
+        this(eventType, eventHost, durationHistogram);
+        this.alertCount = alertCount;
+    }
+
+    public void record(LogEventAlert logEventAlert) {
+        durationHistogram.recordValue(logEventAlert.getEventDuration());
+        if (logEventAlert.getAlert()) {
+            alertCount++;
+        }
+    }
+
+    /**
+     * Adds the events of the other summary of the same type and host, e.g. of another chunk or partition
+     */
+    public void merge(DurationSummary other) {
+        durationHistogram.merge(other.durationHistogram);
+        alertCount += other.alertCount;
+    }
+
+    public void reset() {
+        durationHistogram.reset();
+        alertCount = 0;
+    }
+
+    public long getEventCount() {
+        return durationHistogram.getTotalCount();
+    }
+}
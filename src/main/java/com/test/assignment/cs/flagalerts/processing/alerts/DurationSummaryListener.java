@@ -0,0 +1,260 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains a {@link DurationSummary} per event type and host of the alerts written by a flagging step, saved to
+ * LOG_EVENT_DURATION_SUMMARY by {@link DurationSummaryRepository} at the end of the step(or of each partition):<br>
+ * 1. The alerts written are recorded into the summaries of the current chunk,<br>
+ * 2. Merged into the summaries of the step once the chunk is committed, or discarded with a rolled back chunk,<br>
+ * 3. The summaries of the event types and hosts written by the chunk, merged with those of the step, are saved in the step
+ * execution context within the transaction of the chunk, one key per type and host, so a restarted step execution goes on
+ * from the summaries of the chunks committed, even by a JVM that died. The summaries not written by the chunk are not
+ * serialized again, only those of a rolled back chunk are saved again with the next chunk.<br>
+ * The summaries of a failed step execution are saved as well, replaced by those of the restarted execution. A step reading
+ * its input again from the beginning on restart must remove them from the execution context before it is opened -
+ * {@link #removeSummaries(ExecutionContext)}.
+ * In output mode {@link AlertOutputMode#ALERTS_ONLY}, only the events persisted are summarized.
+ * Must be step scoped, as the summaries are kept per step execution. A no-op when "flag-alerts.alerts.duration-summary.enabled" is false
+ */
+@Slf4j
+public class DurationSummaryListener implements StepExecutionListener, ChunkListener, ItemWriteListener<LogEventAlert>, ItemStream {
+
+    /**
+     * Prefix of the execution context keys of the summaries, suffixed by the index of the type and host
+     */
+    public static final String SUMMARIES_KEY = "duration-summary.summaries.";
+
+    private final DurationSummaryRepository durationSummaryRepository;
+    private final boolean enabled;
+
+    private final Map<List<String>, DurationSummary> chunkSummaries = new HashMap<>();
+    private final Map<List<String>, DurationSummary> stepSummaries = new HashMap<>();
+    // execution context key of each type and host, and those to be saved again after a rolled back chunk
+    private final Map<List<String>, String> summaryKeys = new HashMap<>();
+    private final Set<List<String>> rolledBackSummaries = new HashSet<>();
+    private int nextSummaryIndex;
+
+    public DurationSummaryListener(DurationSummaryRepository durationSummaryRepository, boolean enabled) {
+        this.durationSummaryRepository = durationSummaryRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Registers the listener for all of its callbacks on the step builder, and as a stream of the step
+     *
+     * @return the step builder
+     */
+    public static <I> SimpleStepBuilder<I, LogEventAlert> register(SimpleStepBuilder<I, LogEventAlert> stepBuilder,
+                                                                  DurationSummaryListener durationSummaryListener) {
+        stepBuilder.listener((StepExecutionListener) durationSummaryListener);
+        stepBuilder.listener((ChunkListener) durationSummaryListener);
+        stepBuilder.listener((ItemWriteListener<LogEventAlert>) durationSummaryListener);
+        stepBuilder.stream(durationSummaryListener);
+        return stepBuilder;
+    }
+
+    /**
+     * Removes the summaries saved in the execution context, for a step reading its input again from the beginning
+     */
+    public static void removeSummaries(ExecutionContext executionContext) {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+            if (entry.getKey().startsWith(SUMMARIES_KEY)) {
+                keys.add(entry.getKey());
+            }
+        }
+        keys.forEach(executionContext::remove);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        chunkSummaries.clear();
+        stepSummaries.clear();
+        summaryKeys.clear();
+        rolledBackSummaries.clear();
+        nextSummaryIndex = 0;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (enabled && !stepSummaries.isEmpty()) {
+            durationSummaryRepository.save(stepExecution, stepSummaries.values());
+            log.debug("Saved duration summaries of {} event types and hosts of step {}", stepSummaries.size(), stepExecution.getStepName());
+        }
+        return null;
+    }
+
+    /**
+     * Restores the summaries of the chunks committed by the failed execution of the step
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+            if (entry.getKey().startsWith(SUMMARIES_KEY)) {
+                DurationSummary durationSummary = fromString((String) entry.getValue());
+                List<String> key = Arrays.asList(durationSummary.getEventType(), durationSummary.getEventHost());
+                stepSummaries.put(key, durationSummary);
+                summaryKeys.put(key, entry.getKey());
+                nextSummaryIndex = Math.max(nextSummaryIndex, Integer.parseInt(entry.getKey().substring(SUMMARIES_KEY.length())) + 1);
+            }
+        }
+        if (!stepSummaries.isEmpty()) {
+            log.info("Restored duration summaries of {} event types and hosts", stepSummaries.size());
+        }
+    }
+
+    /**
+     * Saves the summaries of the types and hosts written by the chunk, or by a rolled back chunk, merged with those of the
+     * step, as the execution context is saved within the transaction of the chunk
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (!enabled) {
+            return;
+        }
+        Set<List<String>> changedSummaries = new HashSet<>(rolledBackSummaries);
+        for (Map.Entry<List<String>, DurationSummary> chunkSummary : chunkSummaries.entrySet()) {
+            if (chunkSummary.getValue().getEventCount() > 0) {
+                changedSummaries.add(chunkSummary.getKey());
+            }
+        }
+        for (List<String> key : changedSummaries) {
+            DurationSummary committedSummary = new DurationSummary(key.get(0), key.get(1));
+            for (Map<List<String>, DurationSummary> summaries : Arrays.asList(stepSummaries, chunkSummaries)) {
+                DurationSummary summary = summaries.get(key);
+                if (summary != null) {
+                    committedSummary.merge(summary);
+                }
+            }
+            String summaryKey = summaryKeys.computeIfAbsent(key, newKey -> SUMMARIES_KEY + nextSummaryIndex++);
+            if (committedSummary.getEventCount() > 0) {
+                executionContext.putString(summaryKey, toString(committedSummary));
+            } else {
+                executionContext.remove(summaryKey);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // saved at the end of the step
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        // summaries of the chunk are reset once merged or discarded
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        for (Map.Entry<List<String>, DurationSummary> chunkSummary : chunkSummaries.entrySet()) {
+            if (chunkSummary.getValue().getEventCount() > 0) {
+                stepSummaries.computeIfAbsent(chunkSummary.getKey(), key -> new DurationSummary(key.get(0), key.get(1)))
+                        .merge(chunkSummary.getValue());
+                chunkSummary.getValue().reset();
+            }
+        }
+        rolledBackSummaries.clear();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        for (Map.Entry<List<String>, DurationSummary> chunkSummary : chunkSummaries.entrySet()) {
+            if (chunkSummary.getValue().getEventCount() > 0) {
+                // possibly saved by the update of the rolled back chunk
+                rolledBackSummaries.add(chunkSummary.getKey());
+                chunkSummary.getValue().reset();
+            }
+        }
+    }
+
+    @Override
+    public void beforeWrite(List<? extends LogEventAlert> items) {
+        // recorded once written
+    }
+
+    @Override
+    public void afterWrite(List<? extends LogEventAlert> items) {
+        if (!enabled) {
+            return;
+        }
+        for (LogEventAlert item : items) {
+            chunkSummaries.computeIfAbsent(Arrays.asList(item.getEventType(), item.getEventHost()), key -> new DurationSummary(key.get(0), key.get(1)))
+                    .record(item);
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<? extends LogEventAlert> items) {
+        // the chunk is rolled back, see afterChunkError
+    }
+
+    /**
+     * Serializes the summary, as its type, host, alert count and histogram
+     */
+    private static String toString(DurationSummary durationSummary) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            writeNullableString(output, durationSummary.getEventType());
+            writeNullableString(output, durationSummary.getEventHost());
+            output.writeLong(durationSummary.getAlertCount());
+            output.write(durationSummary.getDurationHistogram().toBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    private static DurationSummary fromString(String serializedSummary) {
+        byte[] bytes = Base64.getDecoder().decode(serializedSummary);
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            String eventType = readNullableString(input);
+            String eventHost = readNullableString(input);
+            long alertCount = input.readLong();
+            byte[] histogram = new byte[input.available()];
+            input.readFully(histogram);
+            return new DurationSummary(eventType, eventHost, DurationHistogram.fromBytes(histogram), alertCount);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid serialized duration summary", e);
+        }
+    }
+
+    private static void writeNullableString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
@@ -0,0 +1,67 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table LOG_EVENT_DURATION_SUMMARY of the {@link DurationSummary} written by each flagging step(or partition) of a job instance,
+ * those of a restarted step execution replacing the ones of the failed execution. The summaries of a job are merged by type
+ * and host when read, across its partitions
+ */
+@RequiredArgsConstructor
+public class DurationSummaryRepository {
+
+    private static final String INSERT_SUMMARY_SQL =
+            "INSERT INTO LOG_EVENT_DURATION_SUMMARY (JOB_INSTANCE_ID, JOB_EXECUTION_ID, STEP_EXECUTION_ID, STEP_NAME, EVENT_TYPE, " +
+                    "EVENT_HOST, EVENT_COUNT, ALERT_COUNT, MAX_DURATION, DURATION_HISTOGRAM) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_STEP_SUMMARIES_SQL =
+            "DELETE FROM LOG_EVENT_DURATION_SUMMARY WHERE JOB_INSTANCE_ID = ? AND STEP_NAME = ?";
+    private static final String SELECT_SUMMARIES_SQL =
+            "SELECT EVENT_TYPE, EVENT_HOST, ALERT_COUNT, DURATION_HISTOGRAM FROM LOG_EVENT_DURATION_SUMMARY " +
+                    "WHERE JOB_INSTANCE_ID = ? ORDER BY EVENT_TYPE, EVENT_HOST";
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Saves the summaries of the step execution, in place of those saved by an earlier execution of the step in the job instance,
+     * as the summaries of a restarted step execution include those of the chunks committed by the earlier one
+     */
+    public void save(StepExecution stepExecution, Collection<DurationSummary> durationSummaries) {
+        jdbcTemplate.update(DELETE_STEP_SUMMARIES_SQL, stepExecution.getJobExecution().getJobInstance().getInstanceId(), stepExecution.getStepName());
+        List<Object[]> rows = new ArrayList<>(durationSummaries.size());
+        for (DurationSummary durationSummary : durationSummaries) {
+            rows.add(new Object[]{stepExecution.getJobExecution().getJobInstance().getInstanceId(), stepExecution.getJobExecutionId(),
+                    stepExecution.getId(), stepExecution.getStepName(), durationSummary.getEventType(), durationSummary.getEventHost(),
+                    durationSummary.getEventCount(), durationSummary.getAlertCount(), durationSummary.getDurationHistogram().getMax(),
+                    durationSummary.getDurationHistogram().toBytes()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SUMMARY_SQL, rows);
+    }
+
+    /**
+     * @return the summaries of the job instance merged by type and host, ordered by type and host
+     */
+    public List<DurationSummary> findByJobInstance(long jobInstanceId) {
+        Map<List<String>, DurationSummary> durationSummaries = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_SUMMARIES_SQL, resultSet -> {
+            DurationSummary durationSummary = new DurationSummary(resultSet.getString("EVENT_TYPE"), resultSet.getString("EVENT_HOST"),
+                    DurationHistogram.fromBytes(resultSet.getBytes("DURATION_HISTOGRAM")), resultSet.getLong("ALERT_COUNT"));
+            durationSummaries.merge(Arrays.asList(durationSummary.getEventType(), durationSummary.getEventHost()), durationSummary,
+                    (mergedSummary, partitionSummary) -> {
+                        mergedSummary.merge(partitionSummary);
+                        return mergedSummary;
+                    });
+        }, jobInstanceId);
+        return new ArrayList<>(durationSummaries.values());
+    }
+}
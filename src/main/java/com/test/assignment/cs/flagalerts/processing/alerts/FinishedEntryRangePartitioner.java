@@ -0,0 +1,55 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits the join of TMP_LOG_EVENT_FINISHED, TMP_LOG_EVENT_STARTED into ranges of the FINISHED entry key ENTRY_ID_PK,
+ * so each event is flagged by exactly one partition.
+ * Each partition execution context holds the inclusive range [{@link #PARTITION_MIN_ENTRY_ID_KEY}, {@link #PARTITION_MAX_ENTRY_ID_KEY}]
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class FinishedEntryRangePartitioner implements Partitioner {
+
+    public static final String PARTITION_MIN_ENTRY_ID_KEY = "finished-entry.min-id";
+    public static final String PARTITION_MAX_ENTRY_ID_KEY = "finished-entry.max-id";
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, Object> entryIdRange = jdbcTemplate.queryForMap(
+                "SELECT MIN(ENTRY_ID_PK) AS MIN_ID, MAX(ENTRY_ID_PK) AS MAX_ID FROM TMP_LOG_EVENT_FINISHED");
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        if (entryIdRange.get("MIN_ID") == null) {
+            partitions.put("partition0", createPartitionContext(0, -1));
+            return partitions;
+        }
+
+        long minEntryId = ((Number) entryIdRange.get("MIN_ID")).longValue();
+        long maxEntryId = ((Number) entryIdRange.get("MAX_ID")).longValue();
+        long rangeSize = (maxEntryId - minEntryId) / gridSize + 1;
+        for (long rangeStart = minEntryId; rangeStart <= maxEntryId; rangeStart += rangeSize) {
+            partitions.put("partition" + partitions.size(),
+                    createPartitionContext(rangeStart, Math.min(rangeStart + rangeSize - 1, maxEntryId)));
+        }
+        log.info("Partitioned FINISHED entries [{}-{}] into {} ranges", minEntryId, maxEntryId, partitions.size());
+        return partitions;
+    }
+
+    private ExecutionContext createPartitionContext(long minEntryId, long maxEntryId) {
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putLong(PARTITION_MIN_ENTRY_ID_KEY, minEntryId);
+        executionContext.putLong(PARTITION_MAX_ENTRY_ID_KEY, maxEntryId);
+        return executionContext;
+    }
+}
@@ -1,25 +1,47 @@
 package com.test.assignment.cs.flagalerts.processing.alerts;
 
+import com.test.assignment.cs.flagalerts.processing.metrics.StepMetricsListener;
+import com.test.assignment.cs.flagalerts.processing.remote.PartitionRequestTransport;
+import com.test.assignment.cs.flagalerts.processing.remote.RemotePartitionConfiguration;
+import com.test.assignment.cs.flagalerts.processing.support.AdaptiveChunkCompletionPolicy;
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import com.test.assignment.cs.flagalerts.processing.support.ValidationMode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.step.builder.PartitionStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.batch.item.support.builder.CompositeItemProcessorBuilder;
 import org.springframework.batch.item.validator.BeanValidatingItemProcessor;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
 import javax.sql.DataSource;
+import java.nio.file.Paths;
+import java.sql.Types;
+import java.util.Arrays;
 
 /**
  * Batch Step Configuration for flagging alerts: <br>
  * 1. Reading the events from tables TMP_LOG_EVENT_FINISHED, TMP_LOG_EVENT_STARTED joined by EVENT_ID - {@link #logAlertsJdbcReader(DataSource, LogEventAlertRowMapper)},<br>
- * 2. Inserting {@link LogEventAlert} to table LOG_EVENT_ALERT - {@link #logAlertsJdbcWriter(DataSource)}
+ * 2. Inserting {@link LogEventAlert} to table LOG_EVENT_ALERT - {@link #logAlertsJdbcWriter(DataSource, EventDictionary)},<br>
+ * 3. Summarizing the durations of the alerts written by type and host into LOG_EVENT_DURATION_SUMMARY - {@link DurationSummaryListener}<br>
+ * The join can be flagged in parallel by ranges of FINISHED entries - {@link #flagEventsForAlertsPartitionedStep(Step, FinishedEntryRangePartitioner, TaskExecutor, int, RemotePartitionConfiguration, PartitionRequestTransport)}.<br>
+ * In output mode {@link AlertOutputMode#ALERTS_ONLY}, the events within their threshold are filtered out before writing, and only
+ * counted by {@link NonAlertingEventFilter}
  */
 @Configuration
 @Slf4j
@@ -27,80 +49,258 @@ public class FlagAlertStepConfiguration {
 
     @Autowired
     public StepBuilderFactory stepBuilderFactory;
+    @Autowired
+    @Qualifier("flagAlertsChunkCompletionPolicy")
+    private AdaptiveChunkCompletionPolicy flagAlertsChunkCompletionPolicy;
+    @Autowired
+    private StepMetricsListener stepMetricsListener;
+    @Value("${flag-alerts.alerts.reader.fetch-size:100}")
+    private int fetchSize;
+    @Value("${flag-alerts.alerts.output:all}")
+    private AlertOutputMode alertOutputMode;
+
+    private static final String JOIN_ENTRIES_FOR_ALERTS_SQL =
+            "SELECT fe.EVENT_ID, fe.EVENT_TIMESTAMP - se.EVENT_TIMESTAMP as EVENT_DURATION, fe.EVENT_TYPE_ID, fe.EVENT_HOST_ID " +
+                    " FROM TMP_LOG_EVENT_FINISHED fe, TMP_LOG_EVENT_STARTED se where se.EVENT_ID=fe.EVENT_ID";
 
     /**
      * Step configuration for flagging alerts and inserting alerts into LOG_EVENT_ALERT
      *
-     * @param logAlertsJdbcReader {@link #logAlertsJdbcReader(DataSource, LogEventAlertRowMapper)}
-     * @param logAlertsValidator  {@link #logAlertValidator()}
-     * @param logAlertsJdbcWriter {@link #logAlertsJdbcWriter(DataSource)}
+     * @param logAlertsJdbcReader           {@link #logAlertsJdbcReader(DataSource, LogEventAlertRowMapper)}
+     * @param logAlertsValidator            {@link #logAlertValidator(ValidationMode)}
+     * @param logAlertsJdbcWriter           {@link #logAlertsJdbcWriter(DataSource, EventDictionary)}
+     * @param nonAlertingEventFilter        {@link #nonAlertingEventFilter()}
+     * @param durationSummaryListener       {@link #durationSummaryListener(DurationSummaryRepository, boolean)}
      */
     @Bean("flagEventsForAlertsStep")
-    public Step flagEventsForAlertsStep(JdbcCursorItemReader<LogEventAlert> logAlertsJdbcReader,
-                                        BeanValidatingItemProcessor<LogEventAlert> logAlertsValidator,
-                                        JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter) {
-        return stepBuilderFactory.get("flagEventsForAlertsStep")
-                .<LogEventAlert, LogEventAlert>chunk(10)
+    public Step flagEventsForAlertsStep(@Qualifier("logAlertsJdbcReader") JdbcCursorItemReader<LogEventAlert> logAlertsJdbcReader,
+                                        ValidatingItemProcessor<LogEventAlert> logAlertsValidator,
+                                        JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter,
+                                        NonAlertingEventFilter nonAlertingEventFilter,
+                                        DurationSummaryListener durationSummaryListener) {
+        return createFlagAlertsStep("flagEventsForAlertsStep", logAlertsJdbcReader, logAlertsValidator, logAlertsJdbcWriter,
+                nonAlertingEventFilter, durationSummaryListener);
+    }
+
+    /**
+     * Worker step for flagging alerts of a range of FINISHED entries, with its own cursor and writer
+     *
+     * @param partitionedLogAlertsJdbcReader {@link #partitionedLogAlertsJdbcReader(DataSource, LogEventAlertRowMapper, Long, Long)}
+     * @param logAlertsValidator             {@link #logAlertValidator(ValidationMode)}
+     * @param logAlertsJdbcWriter            {@link #logAlertsJdbcWriter(DataSource, EventDictionary)}
+     * @param nonAlertingEventFilter         {@link #nonAlertingEventFilter()}
+     * @param durationSummaryListener        {@link #durationSummaryListener(DurationSummaryRepository, boolean)}
+     */
+    @Bean("flagEventsForAlertsWorkerStep")
+    public Step flagEventsForAlertsWorkerStep(@Qualifier("partitionedLogAlertsJdbcReader") JdbcCursorItemReader<LogEventAlert> partitionedLogAlertsJdbcReader,
+                                              ValidatingItemProcessor<LogEventAlert> logAlertsValidator,
+                                              JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter,
+                                              NonAlertingEventFilter nonAlertingEventFilter,
+                                              DurationSummaryListener durationSummaryListener) {
+        return createFlagAlertsStep("flagEventsForAlertsWorkerStep", partitionedLogAlertsJdbcReader, logAlertsValidator, logAlertsJdbcWriter,
+                nonAlertingEventFilter, durationSummaryListener);
+    }
+
+    /**
+     * Creates a step validating and inserting the alerts of the reader. In output mode {@link AlertOutputMode#ALERTS_ONLY}, the valid
+     * events within their alert threshold are filtered out and counted. The durations of the alerts written are summarized by type and host
+     */
+    private Step createFlagAlertsStep(String name, JdbcCursorItemReader<LogEventAlert> logAlertsJdbcReader,
+                                      ValidatingItemProcessor<LogEventAlert> logAlertsValidator,
+                                      JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter,
+                                      NonAlertingEventFilter nonAlertingEventFilter,
+                                      DurationSummaryListener durationSummaryListener) {
+        ItemProcessor<LogEventAlert, LogEventAlert> logAlertsProcessor = logAlertsValidator;
+        if (alertOutputMode == AlertOutputMode.ALERTS_ONLY) {
+            logAlertsProcessor = new CompositeItemProcessorBuilder<LogEventAlert, LogEventAlert>()
+                    .delegates(Arrays.asList(logAlertsValidator, nonAlertingEventFilter))
+                    .build();
+        }
+        SimpleStepBuilder<LogEventAlert, LogEventAlert> stepBuilder = StepMetricsListener.register(stepBuilderFactory.get(name)
+                .<LogEventAlert, LogEventAlert>chunk(flagAlertsChunkCompletionPolicy)
                 .reader(logAlertsJdbcReader)
-                .processor(logAlertsValidator)
-                .writer(logAlertsJdbcWriter)
+                .processor(logAlertsProcessor)
+                .writer(logAlertsJdbcWriter), stepMetricsListener);
+        if (alertOutputMode == AlertOutputMode.ALERTS_ONLY) {
+            stepBuilder.stream(nonAlertingEventFilter);
+        }
+        return AdaptiveChunkCompletionPolicy.register(DurationSummaryListener.register(stepBuilder, durationSummaryListener),
+                        flagAlertsChunkCompletionPolicy)
                 .build();
     }
 
+    /**
+     * Partitioned step flagging the ranges of FINISHED entries in parallel. With "flag-alerts.partition.remote.enabled",
+     * the partitions are run by the remote workers instead of the task executor
+     *
+     * @param flagEventsForAlertsWorkerStep {@link #flagEventsForAlertsWorkerStep(JdbcCursorItemReader, ValidatingItemProcessor, JdbcBatchItemWriter, NonAlertingEventFilter, DurationSummaryListener)}
+     * @param finishedEntryRangePartitioner {@link FinishedEntryRangePartitioner}
+     * @param gridSize                      Number of ranges the FINISHED entries are split into
+     * @param remotePartitionConfiguration  {@link RemotePartitionConfiguration#createPartitionHandler(PartitionRequestTransport, String, int)}
+     * @param partitionRequestTransport     {@link RemotePartitionConfiguration#partitionRequestTransport(String, long)}
+     */
+    @Bean("flagEventsForAlertsPartitionedStep")
+    public Step flagEventsForAlertsPartitionedStep(@Qualifier("flagEventsForAlertsWorkerStep") Step flagEventsForAlertsWorkerStep,
+                                                   FinishedEntryRangePartitioner finishedEntryRangePartitioner,
+                                                   @Qualifier("flagAlertsTaskExecutor") TaskExecutor flagAlertsTaskExecutor,
+                                                   @Value("${flag-alerts.alerts.partition.grid-size:1}") int gridSize,
+                                                   RemotePartitionConfiguration remotePartitionConfiguration,
+                                                   PartitionRequestTransport partitionRequestTransport) {
+        PartitionStepBuilder stepBuilder = stepBuilderFactory.get("flagEventsForAlertsPartitionedStep")
+                .partitioner("flagEventsForAlertsWorkerStep", finishedEntryRangePartitioner)
+                .step(flagEventsForAlertsWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(flagAlertsTaskExecutor);
+        if (remotePartitionConfiguration.isRemoteEnabled()) {
+            stepBuilder.partitionHandler(remotePartitionConfiguration.createPartitionHandler(partitionRequestTransport, "flagEventsForAlertsWorkerStep", gridSize));
+        }
+        return stepBuilder.build();
+    }
+
     /**
      * JDBC reader for reading alerts from TMP_LOG_EVENT_FINISHED, TMP_LOG_EVENT_STARTED joined by EVENT_ID
      *
-     * @param logEventAlertRowMapper mapper with threshold of event duration for flagging event as alert. Defaults to 4 ms
+     * @param logEventAlertRowMapper mapper with thresholds of event duration for flagging event as alert
      */
     @Bean("logAlertsJdbcReader")
+    @StepScope
     public JdbcCursorItemReader<LogEventAlert> logAlertsJdbcReader(
             DataSource dataSource, LogEventAlertRowMapper logEventAlertRowMapper) {
 
-        final String joinEntriesForAlertsSql =
-                "SELECT fe.EVENT_ID, fe.EVENT_TIMESTAMP - se.EVENT_TIMESTAMP as EVENT_DURATION, fe.EVENT_TYPE, fe.EVENT_HOST " +
-                        " FROM TMP_LOG_EVENT_FINISHED fe, TMP_LOG_EVENT_STARTED se where se.EVENT_ID=fe.EVENT_ID";
-
-        log.debug("Initializing Log Alert JDBC reader with SQL - {}", joinEntriesForAlertsSql);
+        log.debug("Initializing Log Alert JDBC reader with SQL - {}", JOIN_ENTRIES_FOR_ALERTS_SQL);
         return new JdbcCursorItemReaderBuilder<LogEventAlert>()
                 .dataSource(dataSource)
-                .fetchSize(100)
+                .fetchSize(fetchSize)
                 .name("logEntriesForAlertsJdbcReader")
+                .sql(JOIN_ENTRIES_FOR_ALERTS_SQL)
+                .rowMapper(logEventAlertRowMapper)
+                .build();
+
+    }
+
+    /**
+     * JDBC reader for reading alerts of a range of FINISHED entries, joined by EVENT_ID
+     *
+     * @see FinishedEntryRangePartitioner
+     */
+    @Bean("partitionedLogAlertsJdbcReader")
+    @StepScope
+    public JdbcCursorItemReader<LogEventAlert> partitionedLogAlertsJdbcReader(
+            DataSource dataSource, LogEventAlertRowMapper logEventAlertRowMapper,
+            @Value("#{stepExecutionContext['" + FinishedEntryRangePartitioner.PARTITION_MIN_ENTRY_ID_KEY + "']}") Long minEntryId,
+            @Value("#{stepExecutionContext['" + FinishedEntryRangePartitioner.PARTITION_MAX_ENTRY_ID_KEY + "']}") Long maxEntryId) {
+
+        final String joinEntriesForAlertsSql = JOIN_ENTRIES_FOR_ALERTS_SQL + " and fe.ENTRY_ID_PK between ? and ?";
+
+        log.debug("Initializing partitioned Log Alert JDBC reader for FINISHED entries [{}-{}] with SQL - {}", minEntryId, maxEntryId, joinEntriesForAlertsSql);
+        return new JdbcCursorItemReaderBuilder<LogEventAlert>()
+                .dataSource(dataSource)
+                .fetchSize(fetchSize)
+                .name("partitionedLogAlertsJdbcReader")
                 .sql(joinEntriesForAlertsSql)
+                .queryArguments(new Object[]{minEntryId, maxEntryId})
                 .rowMapper(logEventAlertRowMapper)
                 .build();
+    }
 
+    /**
+     * Filters out and counts the events within their alert threshold, in output mode {@link AlertOutputMode#ALERTS_ONLY}.
+     * Step scoped, so each partition counts its own events
+     */
+    @Bean
+    @StepScope
+    public NonAlertingEventFilter nonAlertingEventFilter() {
+        return new NonAlertingEventFilter();
+    }
+
+    /**
+     * Summaries of the durations of the alerts written by type and host, in table LOG_EVENT_DURATION_SUMMARY
+     */
+    @Bean
+    public DurationSummaryRepository durationSummaryRepository(JdbcTemplate jdbcTemplate) {
+        return new DurationSummaryRepository(jdbcTemplate);
+    }
+
+    /**
+     * Summarizes the durations of the alerts written by a flagging step. Step scoped, so each partition saves its own summaries
+     *
+     * @param enabled Configurable via property "flag-alerts.alerts.duration-summary.enabled". Enabled by default
+     */
+    @Bean
+    @StepScope
+    public DurationSummaryListener durationSummaryListener(DurationSummaryRepository durationSummaryRepository,
+                                                           @Value("${flag-alerts.alerts.duration-summary.enabled:true}") boolean enabled) {
+        return new DurationSummaryListener(durationSummaryRepository, enabled);
+    }
+
+    /**
+     * Partitions the FINISHED entries into ranges of ENTRY_ID_PK
+     */
+    @Bean
+    public FinishedEntryRangePartitioner finishedEntryRangePartitioner(JdbcTemplate jdbcTemplate) {
+        return new FinishedEntryRangePartitioner(jdbcTemplate);
     }
 
     /**
-     * JDBC writer for persisting found alerts into Table LOG_EVENT_ALERT
+     * JDBC writer for persisting found alerts into Table LOG_EVENT_ALERT. Step scoped, so each partition uses its own writer
      */
     @Bean
-    public JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter(DataSource dataSource) {
+    @StepScope
+    public JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter(DataSource dataSource, EventDictionary eventDictionary) {
+        return createLogAlertsJdbcWriter(dataSource, eventDictionary);
+    }
+
+    /**
+     * Creates a JDBC writer for persisting alerts into Table LOG_EVENT_ALERT, for use outside of a step. Host and type are
+     * inserted into LOG_EVENT_ALERT_ENCODED as their {@link EventDictionary} ids
+     */
+    public static JdbcBatchItemWriter<LogEventAlert> createLogAlertsJdbcWriter(DataSource dataSource, EventDictionary eventDictionary) {
 
         final String insertLogAlertSql =
-                "INSERT INTO LOG_EVENT_ALERT (EVENT_ID, EVENT_DURATION, EVENT_HOST, EVENT_TYPE, ALERT) " +
-                        "VALUES (:eventId, :eventDuration, :eventHost, :eventType, :alert)";
+                "INSERT INTO LOG_EVENT_ALERT_ENCODED (EVENT_ID, EVENT_DURATION, EVENT_HOST_ID, EVENT_TYPE_ID, ALERT) " +
+                        "VALUES (:eventId, :eventDuration, :eventHostId, :eventTypeId, :alert)";
         log.debug("Initializing Log Alert JDBC writer with SQL - {}", insertLogAlertSql);
 
         return new JdbcBatchItemWriterBuilder<LogEventAlert>()
-                .itemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>())
+                .itemSqlParameterSourceProvider(logEventAlert -> new MapSqlParameterSource()
+                        .addValue("eventId", logEventAlert.getEventId())
+                        .addValue("eventDuration", logEventAlert.getEventDuration())
+                        .addValue("eventHostId", eventDictionary.idOf(logEventAlert.getEventHost()), Types.INTEGER)
+                        .addValue("eventTypeId", eventDictionary.idOf(logEventAlert.getEventType()), Types.INTEGER)
+                        .addValue("alert", logEventAlert.getAlert(), Types.BOOLEAN))
                 .sql(insertLogAlertSql)
                 .dataSource(dataSource)
                 .build();
     }
 
     /**
-     * JSR Bean Validator for {@link LogEventAlert}
+     * Validator for {@link LogEventAlert}, failing invalid alerts with {@link org.springframework.batch.item.validator.ValidationException}
+     *
+     * @param validationMode {@link LogEventAlertValidator} by default, or the JSR Bean Validator. Configurable via property "flag-alerts.validation.mode"
      */
     @Bean
-    public BeanValidatingItemProcessor<LogEventAlert> logAlertValidator() {
-        return new BeanValidatingItemProcessor<>();
+    public ValidatingItemProcessor<LogEventAlert> logAlertValidator(@Value("${flag-alerts.validation.mode:fast}") ValidationMode validationMode) {
+        if (validationMode == ValidationMode.JSR) {
+            return new BeanValidatingItemProcessor<>();
+        }
+        return new ValidatingItemProcessor<>(new LogEventAlertValidator());
+    }
+
+    @Bean
+    public LogEventAlertRowMapper logEventAlertRowMapper(AlertThresholdRules alertThresholdRules, EventDictionary eventDictionary) {
+        return new LogEventAlertRowMapper(alertThresholdRules, eventDictionary);
     }
 
+    /**
+     * Thresholds of event duration for flagging event as alert, by event type and host
+     *
+     * @param rulesFile        rules file {@link AlertThresholdRules}, reloaded before each job when modified. None by default
+     * @param defaultThreshold threshold of the events matching no rule. Defaults to 4 ms
+     */
     @Bean
-    public LogEventAlertRowMapper logEventAlertRowMapper(
-            @Value("${flag-alerts.alerts.event-duration.threshold-ms:4}") Long alertThreshold) {
-        return new LogEventAlertRowMapper(alertThreshold);
+    public AlertThresholdRules alertThresholdRules(@Value("${flag-alerts.alerts.threshold-rules.file:}") String rulesFile,
+                                                   @Value("${flag-alerts.alerts.event-duration.threshold-ms:4}") long defaultThreshold) {
+        return new AlertThresholdRules(rulesFile.isEmpty() ? null : Paths.get(rulesFile), defaultThreshold);
     }
 
 
@@ -29,4 +29,13 @@ public class LogEventAlert {
 	public boolean getAlert() {
 		return eventDuration > alertThreshold;
 	}
+
+	/**
+	 * Events within the threshold are not persisted in output mode {@link AlertOutputMode#ALERTS_ONLY}, negative durations
+	 * are kept for the validator to reject
+	 * @return true if 0 <= eventDuration <= alertThreshold
+	 */
+	public boolean isWithinThreshold() {
+		return eventDuration >= 0 && eventDuration <= alertThreshold;
+	}
 }
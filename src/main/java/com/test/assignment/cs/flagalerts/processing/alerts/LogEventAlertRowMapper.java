@@ -1,5 +1,6 @@
 package com.test.assignment.cs.flagalerts.processing.alerts;
 
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.RowMapper;
@@ -10,12 +11,14 @@ import java.sql.SQLException;
 @RequiredArgsConstructor
 public class LogEventAlertRowMapper implements RowMapper<LogEventAlert> {
 	@NonNull
-	final private Long alertThreshold;
+	final private AlertThresholdRules alertThresholdRules;
+	@NonNull
+	final private EventDictionary eventDictionary;
 
 	public static final String EVENT_ID_COLUMN = "EVENT_ID";
 	public static final String EVENT_DURATION_COLUMN = "EVENT_DURATION";
-	public static final String EVENT_TYPE_COLUMN = "EVENT_TYPE";
-	public static final String EVENT_HOST_COLUMN = "EVENT_HOST";
+	public static final String EVENT_TYPE_ID_COLUMN = "EVENT_TYPE_ID";
+	public static final String EVENT_HOST_ID_COLUMN = "EVENT_HOST_ID";
 
 	@Override
 	public LogEventAlert mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -23,10 +26,15 @@ public class LogEventAlertRowMapper implements RowMapper<LogEventAlert> {
 
 		logEventAlert.setEventId(rs.getString(EVENT_ID_COLUMN));
 		logEventAlert.setEventDuration(rs.getLong(EVENT_DURATION_COLUMN));
-		logEventAlert.setEventType(rs.getString(EVENT_TYPE_COLUMN));
-		logEventAlert.setEventHost(rs.getString(EVENT_HOST_COLUMN));
-		logEventAlert.setAlertThreshold(alertThreshold);
+		logEventAlert.setEventType(eventDictionary.valueOf(getNullableInt(rs, EVENT_TYPE_ID_COLUMN)));
+		logEventAlert.setEventHost(eventDictionary.valueOf(getNullableInt(rs, EVENT_HOST_ID_COLUMN)));
+		logEventAlert.setAlertThreshold(alertThresholdRules.thresholdFor(logEventAlert.getEventType(), logEventAlert.getEventHost()));
 
 		return logEventAlert;
 	}
-}
\ No newline at end of file
+
+	private static Integer getNullableInt(ResultSet rs, String column) throws SQLException {
+		int value = rs.getInt(column);
+		return rs.wasNull() ? null : value;
+	}
+}
@@ -0,0 +1,32 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import com.test.assignment.cs.flagalerts.processing.support.ConstraintChecks;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.item.validator.Validator;
+
+/**
+ * Fast path validator of the constraints declared on {@link LogEventAlert} - non blank event id, event duration of at least 0,
+ * and alert threshold of at least 0 when present, without the reflection and allocation of JSR-303 validation for valid alerts.
+ * Must be kept in line with the annotations of {@link LogEventAlert}
+ */
+public class LogEventAlertValidator implements Validator<LogEventAlert> {
+
+    private static final long MIN_EVENT_DURATION = 0;
+    private static final long MIN_ALERT_THRESHOLD = 0;
+
+    @Override
+    public void validate(LogEventAlert logEventAlert) throws ValidationException {
+        if (ConstraintChecks.isBlank(logEventAlert.getEventId())) {
+            throw ConstraintChecks.validationFailure(logEventAlert, "eventId", "must not be blank");
+        }
+        if (logEventAlert.getEventDuration() == null) {
+            throw ConstraintChecks.validationFailure(logEventAlert, "eventDuration", "must not be null");
+        }
+        if (logEventAlert.getEventDuration() < MIN_EVENT_DURATION) {
+            throw ConstraintChecks.validationFailure(logEventAlert, "eventDuration", "must be greater than or equal to " + MIN_EVENT_DURATION);
+        }
+        if (logEventAlert.getAlertThreshold() != null && logEventAlert.getAlertThreshold() < MIN_ALERT_THRESHOLD) {
+            throw ConstraintChecks.validationFailure(logEventAlert, "alertThreshold", "must be greater than or equal to " + MIN_ALERT_THRESHOLD);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+
+/**
+ * Filters out the events within their alert threshold of {@link AlertThresholdRules} in output mode {@link AlertOutputMode#ALERTS_ONLY},
+ * counting them with their total duration in the step execution context, as they are read by the same pass over the join of the
+ * STARTED/FINISHED entries. The in-memory pairing readers save their own counts under the same keys
+ */
+public class NonAlertingEventFilter implements ItemProcessor<LogEventAlert, LogEventAlert>, ItemStream {
+
+    public static final String NON_ALERTING_EVENT_COUNT_KEY = "alerts.non-alerting-event.count";
+    public static final String NON_ALERTING_DURATION_SUM_KEY = "alerts.non-alerting-event.duration-sum";
+
+    private long nonAlertingEventCount;
+    private long nonAlertingDurationSum;
+
+    @Override
+    public LogEventAlert process(LogEventAlert logEventAlert) {
+        if (!logEventAlert.isWithinThreshold()) {
+            return logEventAlert;
+        }
+        nonAlertingEventCount++;
+        nonAlertingDurationSum += logEventAlert.getEventDuration();
+        return null;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        nonAlertingEventCount = executionContext.getLong(NON_ALERTING_EVENT_COUNT_KEY, 0);
+        nonAlertingDurationSum = executionContext.getLong(NON_ALERTING_DURATION_SUM_KEY, 0);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(NON_ALERTING_EVENT_COUNT_KEY, nonAlertingEventCount);
+        executionContext.putLong(NON_ALERTING_DURATION_SUM_KEY, nonAlertingDurationSum);
+    }
+
+    @Override
+    public void close() {
+        // counts are saved by update
+    }
+}
@@ -0,0 +1,118 @@
+package com.test.assignment.cs.flagalerts.processing.checkpoint;
+
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Layout of the event checkpoint file, the parsed log entries in blocks of columns: <br>
+ * header - magic "FAEC" int, version short<br>
+ * block - body length int, body, CRC32 of the body int<br>
+ * body - entry count int, count of the dictionary values new in the block int, each value as length short and UTF-8 bytes,
+ * timestamps as long per entry, states as a bitset of (count + 7) / 8 bytes with the FINISHED entries set,
+ * host and type codes as int per entry({@link #NULL_CODE} for null), ids as length short and UTF-8 bytes per entry<br>
+ * The host and type codes index the dictionary values in the order they were added by the blocks before, so a block is
+ * decoded with the values of the blocks before it only
+ */
+final class EventCheckpointFormat {
+
+    static final int MAGIC = 0x46414543;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 6;
+    static final int BLOCK_LENGTH_BYTES = 4;
+    static final int BLOCK_CHECKSUM_BYTES = 4;
+    static final int NULL_CODE = -1;
+
+    private EventCheckpointFormat() {
+    }
+
+    /**
+     * @throws ItemStreamException when the file does not start with the header of this format and version
+     */
+    static void checkHeader(FileChannel fileChannel, Path checkpointFile) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(fileChannel, header, 0);
+        if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+            throw new ItemStreamException("Not an event checkpoint file of version " + VERSION + " - " + checkpointFile);
+        }
+    }
+
+    /**
+     * Checks the CRC32 of the block body
+     *
+     * @param block block from its length to its checksum
+     * @throws ItemStreamException when the checksum does not match
+     */
+    static void checkBlock(ByteBuffer block, long blockOffset, Path checkpointFile) {
+        int bodyLength = block.getInt(block.position());
+        ByteBuffer body = block.duplicate();
+        body.position(block.position() + BLOCK_LENGTH_BYTES);
+        body.limit(body.position() + bodyLength);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != block.getInt(block.position() + BLOCK_LENGTH_BYTES + bodyLength)) {
+            throw new ItemStreamException(String.format("Checksum mismatch of the block at offset %d of event checkpoint %s", blockOffset, checkpointFile));
+        }
+    }
+
+    /**
+     * Adds the dictionary values new in the block body to the dictionary
+     *
+     * @param body buffer positioned at the dictionary values of the block, after its counts
+     * @return position after the dictionary values
+     */
+    static int readDictionaryValues(ByteBuffer body, int position, int valueCount, List<String> dictionary) {
+        for (int i = 0; i < valueCount; i++) {
+            int length = body.getShort(position) & 0xFFFF;
+            dictionary.add(decode(body, position + 2, length));
+            position += 2 + length;
+        }
+        return position;
+    }
+
+    /**
+     * Reads the dictionary of the blocks in the first bytes of the file, for appending blocks after them
+     *
+     * @param endOffset end of the last block read
+     */
+    static void readDictionary(FileChannel fileChannel, long endOffset, Path checkpointFile, List<String> dictionary) throws IOException {
+        checkHeader(fileChannel, checkpointFile);
+        ByteBuffer blockLength = ByteBuffer.allocate(BLOCK_LENGTH_BYTES);
+        long blockOffset = HEADER_BYTES;
+        while (blockOffset < endOffset) {
+            readFully(fileChannel, blockLength, blockOffset);
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_LENGTH_BYTES + blockLength.getInt(0) + BLOCK_CHECKSUM_BYTES);
+            readFully(fileChannel, block, blockOffset);
+            checkBlock(block, blockOffset, checkpointFile);
+            readDictionaryValues(block, BLOCK_LENGTH_BYTES + 8, block.getInt(BLOCK_LENGTH_BYTES + 4), dictionary);
+            blockOffset += block.capacity();
+        }
+    }
+
+    static String decode(ByteBuffer buffer, int position, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position);
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readFully(FileChannel fileChannel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, position + buffer.position()) < 0) {
+                throw new ItemStreamException("Unexpected end of event checkpoint at offset " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+    }
+}
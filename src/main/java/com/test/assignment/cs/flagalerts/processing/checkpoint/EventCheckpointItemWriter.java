@@ -0,0 +1,320 @@
+package com.test.assignment.cs.flagalerts.processing.checkpoint;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes the parsed {@link LogEventEntry} to an event checkpoint file, in blocks of columns - {@link EventCheckpointFormat}.
+ * A block is closed when it holds the block size entries, and on each {@link #update(ExecutionContext)}, so the saved
+ * file position is always at a block boundary.<br>
+ * Within a transaction, the blocks are written to the file just before the commit, like
+ * {@link org.springframework.batch.item.support.AbstractFileItemWriter}, and dropped on rollback along with the host and
+ * type values they added to the dictionary. A restarted writer truncates the file to the saved position, and reads back
+ * the dictionary of the blocks before it
+ */
+@Slf4j
+public class EventCheckpointItemWriter extends ItemStreamSupport implements ItemStreamWriter<LogEventEntry> {
+
+    public static final String POSITION_KEY = "position";
+    public static final String ENTRY_COUNT_KEY = "entry.count";
+    public static final String BLOCK_COUNT_KEY = "block.count";
+
+    private final Path checkpointFile;
+    private final int blockSize;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+    private final List<LogEventEntry> openBlock = new ArrayList<>();
+    private final List<byte[]> pendingBlocks = new ArrayList<>();
+    private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+    private final DataOutputStream blockOutput = new DataOutputStream(blockBytes);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel fileChannel;
+    private int writtenDictionarySize;
+    private long pendingBytes;
+    private long entryCount;
+    private long blockCount;
+    private Snapshot transactionSnapshot;
+
+    /**
+     * @param blockSize maximum number of entries per block
+     */
+    public EventCheckpointItemWriter(Path checkpointFile, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1 - " + blockSize);
+        }
+        this.checkpointFile = checkpointFile;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void write(List<? extends LogEventEntry> items) throws IOException {
+        joinTransaction();
+        for (LogEventEntry logEventEntry : items) {
+            openBlock.add(logEventEntry);
+            if (openBlock.size() == blockSize) {
+                closeBlock();
+            }
+        }
+        entryCount += items.size();
+        if (transactionSnapshot == null) {
+            writePendingBlocks();
+        }
+    }
+
+    /**
+     * Serializes the entries of the open block to the pending blocks, with the dictionary values added since the last block
+     */
+    private void closeBlock() throws IOException {
+        if (openBlock.isEmpty()) {
+            return;
+        }
+        int[] hostCodes = new int[openBlock.size()];
+        int[] typeCodes = new int[openBlock.size()];
+        for (int i = 0; i < openBlock.size(); i++) {
+            hostCodes[i] = encode(openBlock.get(i).getHost());
+            typeCodes[i] = encode(openBlock.get(i).getType());
+        }
+
+        blockBytes.reset();
+        blockOutput.writeInt(0);
+        blockOutput.writeInt(openBlock.size());
+        blockOutput.writeInt(dictionary.size() - writtenDictionarySize);
+        for (int i = writtenDictionarySize; i < dictionary.size(); i++) {
+            writeString(dictionary.get(i));
+        }
+        for (LogEventEntry logEventEntry : openBlock) {
+            blockOutput.writeLong(logEventEntry.getTimestamp());
+        }
+        int states = 0;
+        for (int i = 0; i < openBlock.size(); i++) {
+            if (LogState.FINISHED.equals(openBlock.get(i).getState())) {
+                states |= 1 << (i & 7);
+            }
+            if ((i & 7) == 7 || i == openBlock.size() - 1) {
+                blockOutput.writeByte(states);
+                states = 0;
+            }
+        }
+        for (int hostCode : hostCodes) {
+            blockOutput.writeInt(hostCode);
+        }
+        for (int typeCode : typeCodes) {
+            blockOutput.writeInt(typeCode);
+        }
+        for (LogEventEntry logEventEntry : openBlock) {
+            writeString(logEventEntry.getId());
+        }
+        blockOutput.writeInt(0);
+
+        byte[] block = blockBytes.toByteArray();
+        int bodyLength = block.length - EventCheckpointFormat.BLOCK_LENGTH_BYTES - EventCheckpointFormat.BLOCK_CHECKSUM_BYTES;
+        crc.reset();
+        crc.update(block, EventCheckpointFormat.BLOCK_LENGTH_BYTES, bodyLength);
+        ByteBuffer.wrap(block).putInt(0, bodyLength).putInt(block.length - EventCheckpointFormat.BLOCK_CHECKSUM_BYTES, (int) crc.getValue());
+
+        pendingBlocks.add(block);
+        pendingBytes += block.length;
+        writtenDictionarySize = dictionary.size();
+        blockCount++;
+        openBlock.clear();
+    }
+
+    private int encode(String value) {
+        if (value == null) {
+            return EventCheckpointFormat.NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            codes.put(value, code);
+            dictionary.add(value);
+        }
+        return code;
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new ItemStreamException("Value longer than 65535 bytes can not be checkpointed - " + value.substring(0, 80) + "...");
+        }
+        blockOutput.writeShort(bytes.length);
+        blockOutput.write(bytes);
+    }
+
+    /**
+     * Writes the pending blocks to the file
+     */
+    private void writePendingBlocks() throws IOException {
+        for (byte[] block : pendingBlocks) {
+            ByteBuffer buffer = ByteBuffer.wrap(block);
+            while (buffer.hasRemaining()) {
+                fileChannel.write(buffer);
+            }
+        }
+        pendingBlocks.clear();
+        pendingBytes = 0;
+    }
+
+    /**
+     * Registers the writer with the active transaction once, to write the blocks before the commit, or drop them on rollback
+     */
+    private void joinTransaction() throws IOException {
+        if (transactionSnapshot != null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        transactionSnapshot = new Snapshot();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    writePendingBlocks();
+                } catch (IOException e) {
+                    throw new ItemStreamException("Failed to write the event checkpoint " + checkpointFile, e);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status != STATUS_COMMITTED) {
+                        transactionSnapshot.restore();
+                    }
+                } catch (IOException e) {
+                    log.error("Failed to roll back the event checkpoint {}", checkpointFile, e);
+                } finally {
+                    transactionSnapshot = null;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            fileChannel = FileChannel.open(checkpointFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (executionContext.containsKey(getExecutionContextKey(POSITION_KEY))) {
+                long position = executionContext.getLong(getExecutionContextKey(POSITION_KEY));
+                if (fileChannel.size() < position) {
+                    throw new ItemStreamException(String.format("Event checkpoint %s is shorter(%d bytes) than its committed position %d",
+                            checkpointFile, fileChannel.size(), position));
+                }
+                fileChannel.truncate(position);
+                EventCheckpointFormat.readDictionary(fileChannel, position, checkpointFile, dictionary);
+                for (int i = 0; i < dictionary.size(); i++) {
+                    codes.put(dictionary.get(i), i);
+                }
+                writtenDictionarySize = dictionary.size();
+                entryCount = executionContext.getLong(getExecutionContextKey(ENTRY_COUNT_KEY));
+                blockCount = executionContext.getLong(getExecutionContextKey(BLOCK_COUNT_KEY));
+                fileChannel.position(position);
+                log.info("Restarted event checkpoint {} at offset {}, after {} entries", checkpointFile, position, entryCount);
+            } else {
+                fileChannel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(EventCheckpointFormat.HEADER_BYTES)
+                        .putInt(EventCheckpointFormat.MAGIC).putShort(EventCheckpointFormat.VERSION);
+                header.flip();
+                fileChannel.write(header, 0);
+                fileChannel.position(EventCheckpointFormat.HEADER_BYTES);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open the event checkpoint " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Closes the open block, and saves the file position after the pending blocks, written before the commit
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            joinTransaction();
+            closeBlock();
+            if (transactionSnapshot == null) {
+                writePendingBlocks();
+            }
+            executionContext.putLong(getExecutionContextKey(POSITION_KEY), fileChannel.position() + pendingBytes);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to write the event checkpoint " + checkpointFile, e);
+        }
+        executionContext.putLong(getExecutionContextKey(ENTRY_COUNT_KEY), entryCount);
+        executionContext.putLong(getExecutionContextKey(BLOCK_COUNT_KEY), blockCount);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (fileChannel == null) {
+            return;
+        }
+        try {
+            closeBlock();
+            writePendingBlocks();
+            fileChannel.force(false);
+            log.info("Closed event checkpoint {} with {} entries in {} blocks, {} bytes", checkpointFile, entryCount, blockCount, fileChannel.size());
+            fileChannel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close the event checkpoint " + checkpointFile, e);
+        } finally {
+            fileChannel = null;
+        }
+    }
+
+    /**
+     * State of the writer at the start of a transaction, restored on rollback
+     */
+    private class Snapshot {
+        private final long filePosition;
+        private final List<LogEventEntry> openBlockEntries;
+        private final int dictionarySize;
+        private final int writtenDictionarySize;
+        private final long entryCount;
+        private final long blockCount;
+
+        Snapshot() throws IOException {
+            this.filePosition = fileChannel.position() + pendingBytes;
+            this.openBlockEntries = new ArrayList<>(openBlock);
+            this.dictionarySize = dictionary.size();
+            this.writtenDictionarySize = EventCheckpointItemWriter.this.writtenDictionarySize;
+            this.entryCount = EventCheckpointItemWriter.this.entryCount;
+            this.blockCount = EventCheckpointItemWriter.this.blockCount;
+            writePendingBlocks();
+        }
+
+        void restore() throws IOException {
+            pendingBlocks.clear();
+            pendingBytes = 0;
+            fileChannel.truncate(filePosition);
+            fileChannel.position(filePosition);
+            openBlock.clear();
+            openBlock.addAll(openBlockEntries);
+            while (dictionary.size() > dictionarySize) {
+                codes.remove(dictionary.remove(dictionary.size() - 1));
+            }
+            EventCheckpointItemWriter.this.writtenDictionarySize = writtenDictionarySize;
+            EventCheckpointItemWriter.this.entryCount = entryCount;
+            EventCheckpointItemWriter.this.blockCount = blockCount;
+        }
+    }
+}
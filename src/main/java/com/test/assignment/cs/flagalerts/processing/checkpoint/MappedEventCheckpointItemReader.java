@@ -0,0 +1,173 @@
+package com.test.assignment.cs.flagalerts.processing.checkpoint;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the {@link LogEventEntry} of an event checkpoint file written by {@link EventCheckpointItemWriter}, over windows of
+ * the file mapped to memory with {@link FileChannel#map}. Each block is checked against its checksum when first mapped,
+ * and its entries are decoded straight from the mapped columns, with the host and type values shared through the dictionary.<br>
+ * Saves the offset of the current block and the number of its entries read in the {@link ExecutionContext} for restart
+ */
+@Slf4j
+public class MappedEventCheckpointItemReader extends ItemStreamSupport implements ItemStreamReader<LogEventEntry> {
+
+    public static final String BLOCK_OFFSET_KEY = "block.offset";
+    public static final String BLOCK_INDEX_KEY = "block.index";
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final Path checkpointFile;
+    private final int windowSize;
+
+    private final List<String> dictionary = new ArrayList<>();
+    private FileChannel fileChannel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long fileSize;
+
+    private long blockOffset;
+    private long nextBlockOffset;
+    private int blockEntryCount;
+    private int blockIndex;
+    private int timestampsPosition;
+    private int statesPosition;
+    private int hostsPosition;
+    private int typesPosition;
+    private int idPosition;
+
+    public MappedEventCheckpointItemReader(Path checkpointFile, int windowSize) {
+        this.checkpointFile = checkpointFile;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public LogEventEntry read() throws IOException {
+        if (blockIndex == blockEntryCount) {
+            if (nextBlockOffset >= fileSize) {
+                return null;
+            }
+            mapBlock(nextBlockOffset);
+        }
+        int i = blockIndex++;
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setTimestamp(window.getLong(timestampsPosition + i * 8));
+        logEventEntry.setState((window.get(statesPosition + (i >> 3)) & (1 << (i & 7))) != 0 ? LogState.FINISHED : LogState.STARTED);
+        logEventEntry.setHost(decode(window.getInt(hostsPosition + i * 4)));
+        logEventEntry.setType(decode(window.getInt(typesPosition + i * 4)));
+        int idLength = window.getShort(idPosition) & 0xFFFF;
+        logEventEntry.setId(EventCheckpointFormat.decode(window, idPosition + 2, idLength));
+        idPosition += 2 + idLength;
+        return logEventEntry;
+    }
+
+    private String decode(int code) {
+        return code == EventCheckpointFormat.NULL_CODE ? null : dictionary.get(code);
+    }
+
+    /**
+     * Maps the block at the offset, remapping the window from the block when it does not fit, checks its checksum,
+     * adds its dictionary values and positions the columns at its first entry
+     */
+    private void mapBlock(long offset) throws IOException {
+        if (offset + EventCheckpointFormat.BLOCK_LENGTH_BYTES > fileSize) {
+            throw new ItemStreamException(String.format("Truncated block at offset %d of event checkpoint %s", offset, checkpointFile));
+        }
+        if (window == null || offset + EventCheckpointFormat.BLOCK_LENGTH_BYTES > windowStart + window.limit()) {
+            mapWindow(offset, EventCheckpointFormat.BLOCK_LENGTH_BYTES);
+        }
+        int bodyLength = window.getInt((int) (offset - windowStart));
+        long blockLength = EventCheckpointFormat.BLOCK_LENGTH_BYTES + (long) bodyLength + EventCheckpointFormat.BLOCK_CHECKSUM_BYTES;
+        if (bodyLength < 8 || offset + blockLength > fileSize) {
+            throw new ItemStreamException(String.format("Truncated block at offset %d of event checkpoint %s", offset, checkpointFile));
+        }
+        if (offset + blockLength > windowStart + window.limit()) {
+            mapWindow(offset, blockLength);
+        }
+        int blockStart = (int) (offset - windowStart);
+        window.position(blockStart);
+        EventCheckpointFormat.checkBlock(window, offset, checkpointFile);
+
+        int bodyStart = blockStart + EventCheckpointFormat.BLOCK_LENGTH_BYTES;
+        blockEntryCount = window.getInt(bodyStart);
+        timestampsPosition = EventCheckpointFormat.readDictionaryValues(window, bodyStart + 8, window.getInt(bodyStart + 4), dictionary);
+        statesPosition = timestampsPosition + blockEntryCount * 8;
+        hostsPosition = statesPosition + (blockEntryCount + 7) / 8;
+        typesPosition = hostsPosition + blockEntryCount * 4;
+        idPosition = typesPosition + blockEntryCount * 4;
+        blockIndex = 0;
+        blockOffset = offset;
+        nextBlockOffset = offset + blockLength;
+    }
+
+    private void mapWindow(long position, long minimumSize) throws IOException {
+        if (minimumSize > Integer.MAX_VALUE) {
+            throw new ItemStreamException(String.format("Block at offset %d of event checkpoint %s is too large to be mapped", position, checkpointFile));
+        }
+        windowStart = position;
+        window = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(windowSize, minimumSize), fileSize - position));
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            fileChannel = FileChannel.open(checkpointFile, StandardOpenOption.READ);
+            fileSize = fileChannel.size();
+            EventCheckpointFormat.checkHeader(fileChannel, checkpointFile);
+            window = null;
+            dictionary.clear();
+            blockEntryCount = 0;
+            blockIndex = 0;
+            nextBlockOffset = executionContext.getLong(getExecutionContextKey(BLOCK_OFFSET_KEY), EventCheckpointFormat.HEADER_BYTES);
+            if (executionContext.containsKey(getExecutionContextKey(BLOCK_OFFSET_KEY)) && nextBlockOffset < fileSize) {
+                EventCheckpointFormat.readDictionary(fileChannel, nextBlockOffset, checkpointFile, dictionary);
+                mapBlock(nextBlockOffset);
+                int entriesRead = executionContext.getInt(getExecutionContextKey(BLOCK_INDEX_KEY));
+                for (int i = 0; i < entriesRead; i++) {
+                    idPosition += 2 + (window.getShort(idPosition) & 0xFFFF);
+                }
+                blockIndex = entriesRead;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open event checkpoint " + checkpointFile, e);
+        }
+        log.debug("Opened mapped event checkpoint {} of {} bytes at block offset {}", checkpointFile, fileSize, nextBlockOffset);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (blockIndex == blockEntryCount) {
+            executionContext.putLong(getExecutionContextKey(BLOCK_OFFSET_KEY), nextBlockOffset);
+            executionContext.putInt(getExecutionContextKey(BLOCK_INDEX_KEY), 0);
+        } else {
+            executionContext.putLong(getExecutionContextKey(BLOCK_OFFSET_KEY), blockOffset);
+            executionContext.putInt(getExecutionContextKey(BLOCK_INDEX_KEY), blockIndex);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        window = null;
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Failed to close event checkpoint " + checkpointFile, e);
+            } finally {
+                fileChannel = null;
+            }
+        }
+    }
+}
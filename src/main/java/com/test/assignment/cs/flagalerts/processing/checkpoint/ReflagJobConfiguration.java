@@ -0,0 +1,154 @@
+package com.test.assignment.cs.flagalerts.processing.checkpoint;
+
+import com.test.assignment.cs.flagalerts.processing.JobCompletionNotificationListener;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertOutputMode;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.alerts.DurationSummaryListener;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.metrics.MetricsExportListener;
+import com.test.assignment.cs.flagalerts.processing.metrics.PendingEventStoreGauges;
+import com.test.assignment.cs.flagalerts.processing.metrics.StepMetricsListener;
+import com.test.assignment.cs.flagalerts.processing.pairing.LogEventPairingItemReader;
+import com.test.assignment.cs.flagalerts.processing.pairing.PairingStepRestartListener;
+import com.test.assignment.cs.flagalerts.processing.parser.InvalidLogEntrySkipListener;
+import com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration;
+import com.test.assignment.cs.flagalerts.processing.support.AdaptiveChunkCompletionPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.job.DefaultJobParametersValidator;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.support.PassThroughItemProcessor;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Paths;
+
+/**
+ * Batch Job re-flagging the events of an event checkpoint file, written by the parse step with "flag-alerts.checkpoint.enabled",
+ * with another alert threshold and without parsing the log file again: <br>
+ * 1. Deleting the alerts flagged before from table LOG_EVENT_ALERT - {@link #clearLogEventAlertsStep(JdbcTemplate)},<br>
+ * 2. Reading the entries of the checkpoint file mapped to memory {@link MappedEventCheckpointItemReader}, pairing them in memory
+ * {@link LogEventPairingItemReader}, and inserting the re-flagged {@link LogEventAlert} to table LOG_EVENT_ALERT - {@link #reflagLogEventsStep}<br>
+ * Run with "spring.batch.job.names=reflagLogEventsJob", the Job Parameter "checkpoint.file", and optionally the threshold
+ * "alerts.event-duration.threshold-ms" in place of the property "flag-alerts.alerts.event-duration.threshold-ms"
+ */
+@Configuration
+@Slf4j
+public class ReflagJobConfiguration {
+
+    public static final String PARAM_THRESHOLD = "alerts.event-duration.threshold-ms";
+
+    @Autowired
+    public JobBuilderFactory jobBuilderFactory;
+    @Autowired
+    public StepBuilderFactory stepBuilderFactory;
+    @Autowired
+    @Qualifier("flagAlertsChunkCompletionPolicy")
+    private AdaptiveChunkCompletionPolicy flagAlertsChunkCompletionPolicy;
+    @Autowired
+    private StepMetricsListener stepMetricsListener;
+    @Autowired
+    private DurationSummaryListener durationSummaryListener;
+
+    @Bean
+    public Job reflagLogEventsJob(JobCompletionNotificationListener listener,
+                                  MetricsExportListener metricsExportListener,
+                                  @Qualifier("clearLogEventAlertsStep") Step clearLogEventAlertsStep,
+                                  @Qualifier("reflagLogEventsStep") Step reflagLogEventsStep) {
+        return jobBuilderFactory.get("reflagLogEventsJob")
+                .incrementer(new RunIdIncrementer())
+                .validator(new DefaultJobParametersValidator(new String[]{ParseLogEntryStepConfiguration.PARAM_CHECKPOINT_FILE}, new String[0]))
+                .listener(listener)
+                .listener(metricsExportListener)
+                .flow(clearLogEventAlertsStep)
+                .next(reflagLogEventsStep)
+                .end()
+                .build();
+    }
+
+    /**
+     * Deletes the alerts of LOG_EVENT_ALERT, replaced by the re-flagged events
+     */
+    @Bean("clearLogEventAlertsStep")
+    public Step clearLogEventAlertsStep(JdbcTemplate jdbcTemplate) {
+        return stepBuilderFactory.get("clearLogEventAlertsStep")
+                .tasklet((contribution, chunkContext) -> {
+                    int deletedAlertCount = jdbcTemplate.update("DELETE FROM LOG_EVENT_ALERT_ENCODED");
+                    log.info("Deleted {} alerts before re-flagging", deletedAlertCount);
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
+
+    /**
+     * Fault tolerant step pairing the checkpointed entries, and persisting the re-flagged alerts into LOG_EVENT_ALERT.
+     * Duplicate entries of an event state are skipped as in the log file parsing
+     *
+     * @param reflagPairingReader        {@link #reflagPairingReader(String, int, String, long, Long, long, String, AlertOutputMode)}
+     * @param pairingStepRestartListener {@link com.test.assignment.cs.flagalerts.processing.pairing.InMemoryPairingStepConfiguration#pairingStepRestartListener(JdbcTemplate)}, as the reader reads the checkpoint file from the beginning on restart
+     * @param skipLimit                  Number of records with exceptions to be skipped before job failure
+     */
+    @Bean("reflagLogEventsStep")
+    public Step reflagLogEventsStep(@Qualifier("reflagPairingReader") LogEventPairingItemReader reflagPairingReader,
+                                    ValidatingItemProcessor<LogEventAlert> logAlertsValidator,
+                                    JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter,
+                                    InvalidLogEntrySkipListener invalidLogEntrySkipListener,
+                                    PairingStepRestartListener pairingStepRestartListener,
+                                    @Value("${flag-alerts.parser.invalid-entry.skip-limit:10}") int skipLimit) {
+        return AdaptiveChunkCompletionPolicy.register(DurationSummaryListener.register(StepMetricsListener.register(stepBuilderFactory.get("reflagLogEventsStep")
+                .listener(pairingStepRestartListener)
+                .<LogEventAlert, LogEventAlert>chunk(flagAlertsChunkCompletionPolicy)
+                .reader(reflagPairingReader)
+                .processor(logAlertsValidator)
+                .writer(logAlertsJdbcWriter)
+                .faultTolerant()
+                .skip(ValidationException.class)
+                .skipLimit(skipLimit)
+                .listener(invalidLogEntrySkipListener), stepMetricsListener), durationSummaryListener), flagAlertsChunkCompletionPolicy)
+                .build();
+    }
+
+    /**
+     * Reader pairing the entries of the checkpoint file, validated when parsed, into {@link LogEventAlert} flagged by the
+     * rules of "flag-alerts.alerts.threshold-rules.file", with the default threshold of the Job Parameter if given
+     *
+     * @param checkpointFile   event checkpoint file. Configurable via Job Parameter "checkpoint.file"
+     * @param windowSize       size of the windows of the checkpoint file mapped to memory
+     * @param threshold        default alert threshold for this job, in place of the property. Configurable via Job Parameter "alerts.event-duration.threshold-ms"
+     * @param memoryBudgetBytes memory budget of the pending entries, beyond which they are spilled to disk
+     * @param pendingEventStoreGauges gauges of the pending entries
+     */
+    @Bean("reflagPairingReader")
+    @JobScope
+    public LogEventPairingItemReader reflagPairingReader(
+            @Value("#{jobParameters['" + ParseLogEntryStepConfiguration.PARAM_CHECKPOINT_FILE + "']}") String checkpointFile,
+            @Value("${flag-alerts.checkpoint.reader.window-size-bytes:" + MappedEventCheckpointItemReader.DEFAULT_WINDOW_SIZE + "}") int windowSize,
+            @Value("${flag-alerts.alerts.threshold-rules.file:}") String rulesFile,
+            @Value("${flag-alerts.alerts.event-duration.threshold-ms:4}") long defaultThreshold,
+            @Value("#{jobParameters['" + PARAM_THRESHOLD + "']}") Long threshold,
+            @Value("${flag-alerts.pairing.memory-budget-bytes:268435456}") long memoryBudgetBytes,
+            @Value("${flag-alerts.pairing.spill-directory:${java.io.tmpdir}}") String spillDirectory,
+            @Value("${flag-alerts.alerts.output:all}") AlertOutputMode alertOutputMode,
+            PendingEventStoreGauges pendingEventStoreGauges) {
+        AlertThresholdRules alertThresholdRules = new AlertThresholdRules(rulesFile.isEmpty() ? null : Paths.get(rulesFile),
+                threshold == null ? defaultThreshold : threshold);
+        log.info("Initializing re-flagging of event checkpoint {} with default threshold {} ms and {} alert threshold rules, output {}",
+                checkpointFile, threshold == null ? defaultThreshold : threshold, alertThresholdRules.getRuleCount(), alertOutputMode);
+        MappedEventCheckpointItemReader eventCheckpointReader = new MappedEventCheckpointItemReader(Paths.get(checkpointFile), windowSize);
+        eventCheckpointReader.setName("eventCheckpointReader");
+        return new LogEventPairingItemReader(eventCheckpointReader, new PassThroughItemProcessor<>(), alertThresholdRules,
+                memoryBudgetBytes, Paths.get(spillDirectory), alertOutputMode, pendingEventStoreGauges);
+    }
+}
@@ -0,0 +1,173 @@
+package com.test.assignment.cs.flagalerts.processing.incremental;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogFiles;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Resolves the byte range of the log file appended since the last completed run of the job for the same file: <br>
+ * 1. Rows staged/ flagged by a later run which did not complete are deleted, using the row id watermarks it recorded,<br>
+ * 2. The range starts at the end offset of the last completed run, if the log file was only appended to since
+ * {@link LogFileIdentity#isContinuedBy(LogFileIdentity, Path)}. Otherwise(rotated/ rewritten file) the range starts at 0,
+ * and the entries carried over in the temporary tables are deleted,<br>
+ * 3. The range ends after the last complete line, so a partially written line is parsed by the next run.<br>
+ * The range, file identity and row id watermarks are saved to the job execution context, for the parsing step and the next run
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class IncrementalRangeTasklet implements Tasklet {
+
+    public static final String FILE_KEY = "incremental.file";
+    public static final String START_OFFSET_KEY = "incremental.start-offset";
+    public static final String END_OFFSET_KEY = "incremental.end-offset";
+    static final String STARTED_ENTRY_WATERMARK_KEY = "incremental.watermark.started-entry-id";
+    static final String FINISHED_ENTRY_WATERMARK_KEY = "incremental.watermark.finished-entry-id";
+    static final String ALERT_WATERMARK_KEY = "incremental.watermark.alert-id";
+
+    private static final int JOB_INSTANCE_PAGE_SIZE = 100;
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    @NonNull
+    private final JobExplorer jobExplorer;
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+    @NonNull
+    private final String inputLogEventsFile;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws IOException {
+        JobExecution jobExecution = chunkContext.getStepContext().getStepExecution().getJobExecution();
+        List<Path> logFiles = LogFiles.resolve(inputLogEventsFile);
+        if (logFiles.size() != 1 || LogFiles.isGzip(logFiles.get(0))) {
+            throw new IllegalStateException("Incremental mode requires a single plain log file, found " + logFiles.size() + " log files of " + inputLogEventsFile);
+        }
+        Path logFile = logFiles.get(0).toAbsolutePath().normalize();
+
+        JobExecution lastExecution = null;
+        JobExecution lastCompletedExecution = null;
+        String jobName = jobExecution.getJobInstance().getJobName();
+        for (int start = 0; lastCompletedExecution == null; start += JOB_INSTANCE_PAGE_SIZE) {
+            List<JobInstance> jobInstances = jobExplorer.getJobInstances(jobName, start, JOB_INSTANCE_PAGE_SIZE);
+            for (JobInstance jobInstance : jobInstances) {
+                List<JobExecution> jobExecutions = jobExplorer.getJobExecutions(jobInstance);
+                jobExecutions.sort(Comparator.comparing(JobExecution::getId).reversed());
+                for (JobExecution previousExecution : jobExecutions) {
+                    if (previousExecution.getId().equals(jobExecution.getId())
+                            || !logFile.toString().equals(previousExecution.getExecutionContext().getString(FILE_KEY, null))) {
+                        continue;
+                    }
+                    if (lastExecution == null) {
+                        lastExecution = previousExecution;
+                    }
+                    if (previousExecution.getStatus() == BatchStatus.COMPLETED) {
+                        lastCompletedExecution = previousExecution;
+                        break;
+                    }
+                }
+                if (lastCompletedExecution != null) {
+                    break;
+                }
+            }
+            if (jobInstances.size() < JOB_INSTANCE_PAGE_SIZE) {
+                break;
+            }
+        }
+
+        if (lastExecution != null && lastExecution != lastCompletedExecution) {
+            rollbackIncompleteExecution(lastExecution);
+        }
+
+        LogFileIdentity identity = LogFileIdentity.of(logFile);
+        long startOffset = 0;
+        if (lastCompletedExecution != null) {
+            ExecutionContext lastCompletedContext = lastCompletedExecution.getExecutionContext();
+            LogFileIdentity lastIdentity = LogFileIdentity.from(lastCompletedContext);
+            if (lastIdentity != null && lastIdentity.isContinuedBy(identity, logFile)) {
+                startOffset = lastCompletedContext.getLong(END_OFFSET_KEY);
+            } else {
+                log.warn("Log file {} was rotated or rewritten since job execution {}, parsing from the start and discarding carried over entries",
+                        logFile, lastCompletedExecution.getId());
+                jdbcTemplate.update("DELETE FROM TMP_LOG_EVENT_STARTED");
+                jdbcTemplate.update("DELETE FROM TMP_LOG_EVENT_FINISHED");
+            }
+        }
+        long endOffset = lastLineEnd(logFile, startOffset, identity.getSize());
+
+        ExecutionContext jobContext = jobExecution.getExecutionContext();
+        jobContext.putString(FILE_KEY, logFile.toString());
+        jobContext.putLong(START_OFFSET_KEY, startOffset);
+        jobContext.putLong(END_OFFSET_KEY, endOffset);
+        identity.putTo(jobContext);
+        jobContext.putLong(STARTED_ENTRY_WATERMARK_KEY, maxId("ENTRY_ID_PK", "TMP_LOG_EVENT_STARTED"));
+        jobContext.putLong(FINISHED_ENTRY_WATERMARK_KEY, maxId("ENTRY_ID_PK", "TMP_LOG_EVENT_FINISHED"));
+        jobContext.putLong(ALERT_WATERMARK_KEY, maxId("ALERT_ID_PK", "LOG_EVENT_ALERT_ENCODED"));
+        log.info("Incremental range of log file {} - [{}-{}) of {} bytes", logFile, startOffset, endOffset, identity.getSize());
+        return RepeatStatus.FINISHED;
+    }
+
+    /**
+     * Deletes the rows inserted by a job execution which did not complete, restoring the state of the last completed run
+     */
+    private void rollbackIncompleteExecution(JobExecution incompleteExecution) {
+        ExecutionContext incompleteContext = incompleteExecution.getExecutionContext();
+        if (!incompleteContext.containsKey(ALERT_WATERMARK_KEY)) {
+            return;
+        }
+        int startedEntries = jdbcTemplate.update("DELETE FROM TMP_LOG_EVENT_STARTED WHERE ENTRY_ID_PK > ?",
+                incompleteContext.getLong(STARTED_ENTRY_WATERMARK_KEY));
+        int finishedEntries = jdbcTemplate.update("DELETE FROM TMP_LOG_EVENT_FINISHED WHERE ENTRY_ID_PK > ?",
+                incompleteContext.getLong(FINISHED_ENTRY_WATERMARK_KEY));
+        int alerts = jdbcTemplate.update("DELETE FROM LOG_EVENT_ALERT_ENCODED WHERE ALERT_ID_PK > ?",
+                incompleteContext.getLong(ALERT_WATERMARK_KEY));
+        log.warn("Rolled back job execution {} with status {} - {} STARTED, {} FINISHED entries and {} alerts deleted",
+                incompleteExecution.getId(), incompleteExecution.getStatus(), startedEntries, finishedEntries, alerts);
+    }
+
+    private long maxId(String idColumn, String tableName) {
+        Long maxId = jdbcTemplate.queryForObject(String.format("SELECT MAX(%s) FROM %s", idColumn, tableName), Long.class);
+        return maxId == null ? -1 : maxId;
+    }
+
+    /**
+     * @return offset following the last line feed in [startOffset, endOffset), or startOffset when there is no complete line
+     */
+    private long lastLineEnd(Path logFile, long startOffset, long endOffset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        try (FileChannel fileChannel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long position = endOffset;
+            while (position > startOffset) {
+                int length = (int) Math.min(SCAN_BUFFER_SIZE, position - startOffset);
+                position -= length;
+                buffer.clear().limit(length);
+                while (buffer.hasRemaining() && fileChannel.read(buffer, position + buffer.position()) > 0) {
+                    // read till the buffer is full
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+            }
+        }
+        return startOffset;
+    }
+}
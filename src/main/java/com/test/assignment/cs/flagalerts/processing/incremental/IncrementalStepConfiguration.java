@@ -0,0 +1,62 @@
+package com.test.assignment.cs.flagalerts.processing.incremental;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Batch Step Configuration for the incremental mode "flag-alerts.incremental.enabled", parsing only the bytes appended to
+ * the log file since the last run: <br>
+ * 1. Resolving the appended byte range of the log file, before parsing - {@link #resolveIncrementalRangeStep(IncrementalRangeTasklet)},<br>
+ * 2. Deleting the paired entries from the temporary tables after flagging, carrying over the unmatched entries to the next run - {@link #cleanupPairedEntriesStep(JdbcTemplate)}
+ */
+@Configuration
+@Slf4j
+public class IncrementalStepConfiguration {
+
+    @Autowired
+    public StepBuilderFactory stepBuilderFactory;
+
+    /**
+     * Step resolving the byte range of the log file to be parsed
+     *
+     * @param incrementalRangeTasklet {@link #incrementalRangeTasklet(JobExplorer, JdbcTemplate, String)}
+     */
+    @Bean("resolveIncrementalRangeStep")
+    public Step resolveIncrementalRangeStep(IncrementalRangeTasklet incrementalRangeTasklet) {
+        return stepBuilderFactory.get("resolveIncrementalRangeStep")
+                .tasklet(incrementalRangeTasklet)
+                .build();
+    }
+
+    /**
+     * Step deleting the paired entries from the temporary tables
+     */
+    @Bean("cleanupPairedEntriesStep")
+    public Step cleanupPairedEntriesStep(JdbcTemplate jdbcTemplate) {
+        return stepBuilderFactory.get("cleanupPairedEntriesStep")
+                .tasklet(new PairedEntriesCleanupTasklet(jdbcTemplate))
+                .build();
+    }
+
+    /**
+     * @param inputLogEventsFile input log events file. Configurable via Job Parameter "log-events.file"
+     */
+    @Bean
+    @StepScope
+    public IncrementalRangeTasklet incrementalRangeTasklet(JobExplorer jobExplorer, JdbcTemplate jdbcTemplate,
+                                                           @Value("#{jobParameters['log-events.file']}") String inputLogEventsFile) {
+        if (StringUtils.isEmpty(inputLogEventsFile)) {
+            inputLogEventsFile = "logfile.txt";
+        }
+        return new IncrementalRangeTasklet(jobExplorer, jdbcTemplate, inputLogEventsFile);
+    }
+}
@@ -0,0 +1,102 @@
+package com.test.assignment.cs.flagalerts.processing.incremental;
+
+import lombok.Value;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CRC32;
+
+/**
+ * Identity of the log file at the time of a run - the file key(inode), its size and the checksum of its first
+ * {@link #MAX_HEAD_LENGTH} bytes. A later file with the same key, at least the same size and the same head was only
+ * appended to since, so the run can continue from the offset processed before
+ */
+@Value
+public class LogFileIdentity {
+
+    static final int MAX_HEAD_LENGTH = 4096;
+
+    static final String FILE_KEY_KEY = "incremental.identity.file-key";
+    static final String SIZE_KEY = "incremental.identity.size";
+    static final String HEAD_LENGTH_KEY = "incremental.identity.head-length";
+    static final String HEAD_CHECKSUM_KEY = "incremental.identity.head-checksum";
+
+    String fileKey;
+    long size;
+    int headLength;
+    long headChecksum;
+
+    /**
+     * Reads the identity of the log file
+     */
+    public static LogFileIdentity of(Path logFile) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long size = fileChannel.size();
+            int headLength = (int) Math.min(MAX_HEAD_LENGTH, size);
+            return new LogFileIdentity(readFileKey(logFile), size, headLength, headChecksum(fileChannel, headLength));
+        }
+    }
+
+    /**
+     * Identity saved to the execution context by {@link #putTo(ExecutionContext)}, or null when the context has none
+     */
+    public static LogFileIdentity from(ExecutionContext executionContext) {
+        if (!executionContext.containsKey(FILE_KEY_KEY)) {
+            return null;
+        }
+        return new LogFileIdentity(executionContext.getString(FILE_KEY_KEY), executionContext.getLong(SIZE_KEY),
+                executionContext.getInt(HEAD_LENGTH_KEY), executionContext.getLong(HEAD_CHECKSUM_KEY));
+    }
+
+    public void putTo(ExecutionContext executionContext) {
+        executionContext.putString(FILE_KEY_KEY, fileKey);
+        executionContext.putLong(SIZE_KEY, size);
+        executionContext.putInt(HEAD_LENGTH_KEY, headLength);
+        executionContext.putLong(HEAD_CHECKSUM_KEY, headChecksum);
+    }
+
+    /**
+     * @param current identity of the log file now
+     * @return true if the log file was only appended to since this identity was read, false if it was rotated, truncated or rewritten
+     */
+    public boolean isContinuedBy(LogFileIdentity current, Path logFile) throws IOException {
+        if (!fileKey.equals(current.fileKey) || current.size < size) {
+            return false;
+        }
+        if (current.headLength == headLength) {
+            return current.headChecksum == headChecksum;
+        }
+        try (FileChannel fileChannel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            return headChecksum(fileChannel, headLength) == headChecksum;
+        }
+    }
+
+    /**
+     * Inode of the file where supported, or else the file key of the file system
+     */
+    private static String readFileKey(Path logFile) throws IOException {
+        try {
+            return String.valueOf(Files.getAttribute(logFile, "unix:ino"));
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            Object fileKey = Files.readAttributes(logFile, BasicFileAttributes.class).fileKey();
+            return fileKey == null ? "" : fileKey.toString();
+        }
+    }
+
+    private static long headChecksum(FileChannel fileChannel, int headLength) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(headLength);
+        while (head.hasRemaining() && fileChannel.read(head, head.position()) > 0) {
+            // read till the head is full, or the end of file
+        }
+        head.flip();
+        CRC32 crc32 = new CRC32();
+        crc32.update(head.array(), 0, head.limit());
+        return crc32.getValue();
+    }
+}
@@ -0,0 +1,50 @@
+package com.test.assignment.cs.flagalerts.processing.incremental;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Deletes the paired(flagged) entries from the temporary tables TMP_LOG_EVENT_STARTED, TMP_LOG_EVENT_FINISHED, once the
+ * alerts are flagged. The remaining unmatched entries are carried over to be paired by the next run, and their count is
+ * saved to the job execution context
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class PairedEntriesCleanupTasklet implements Tasklet {
+
+    public static final String CARRIED_OVER_STARTED_COUNT_KEY = "incremental.carried-over.started.count";
+    public static final String CARRIED_OVER_FINISHED_COUNT_KEY = "incremental.carried-over.finished.count";
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        int pairedEvents = jdbcTemplate.update("INSERT INTO TMP_LOG_EVENT_PAIRED (EVENT_ID) " +
+                "SELECT fe.EVENT_ID FROM TMP_LOG_EVENT_FINISHED fe, TMP_LOG_EVENT_STARTED se WHERE se.EVENT_ID=fe.EVENT_ID");
+        jdbcTemplate.update("DELETE FROM TMP_LOG_EVENT_STARTED WHERE EVENT_ID IN (SELECT EVENT_ID FROM TMP_LOG_EVENT_PAIRED)");
+        jdbcTemplate.update("DELETE FROM TMP_LOG_EVENT_FINISHED WHERE EVENT_ID IN (SELECT EVENT_ID FROM TMP_LOG_EVENT_PAIRED)");
+        jdbcTemplate.update("DELETE FROM TMP_LOG_EVENT_PAIRED");
+
+        long carriedOverStarted = countEntries("TMP_LOG_EVENT_STARTED");
+        long carriedOverFinished = countEntries("TMP_LOG_EVENT_FINISHED");
+        ExecutionContext jobContext = chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext();
+        jobContext.putLong(CARRIED_OVER_STARTED_COUNT_KEY, carriedOverStarted);
+        jobContext.putLong(CARRIED_OVER_FINISHED_COUNT_KEY, carriedOverFinished);
+        log.info("Deleted {} paired events from temporary tables, carrying over {} STARTED and {} FINISHED unmatched entries",
+                pairedEvents, carriedOverStarted, carriedOverFinished);
+        return RepeatStatus.FINISHED;
+    }
+
+    private long countEntries(String tableName) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tableName, Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,69 @@
+package com.test.assignment.cs.flagalerts.processing.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the job metrics:<br>
+ * 1. Step metrics of chunk timings and item counts - {@link StepMetricsListener},<br>
+ * 2. Gauges of the pending entries of the in-memory pairing - {@link PendingEventStoreGauges},<br>
+ * 3. Export of the metrics to a Prometheus text exposition file at the end of the job - {@link MetricsExportListener}
+ */
+@Configuration
+public class MetricsConfiguration implements DisposableBean {
+
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    /**
+     * Prometheus registry of the metrics, also added to the global registry so the built-in Spring Batch metrics
+     * (spring.batch.*) are exported along
+     */
+    @Bean(destroyMethod = "")
+    public PrometheusMeterRegistry prometheusMeterRegistry() {
+        prometheusMeterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        Metrics.addRegistry(prometheusMeterRegistry);
+        return prometheusMeterRegistry;
+    }
+
+    @Bean
+    public StepThroughputGauges stepThroughputGauges(PrometheusMeterRegistry prometheusMeterRegistry) {
+        return new StepThroughputGauges(prometheusMeterRegistry);
+    }
+
+    @Bean
+    public PendingEventStoreGauges pendingEventStoreGauges(PrometheusMeterRegistry prometheusMeterRegistry) {
+        return new PendingEventStoreGauges(prometheusMeterRegistry);
+    }
+
+    /**
+     * Step metrics listener, step scoped to keep the timings of each step execution apart
+     */
+    @Bean
+    @StepScope
+    public StepMetricsListener stepMetricsListener(PrometheusMeterRegistry prometheusMeterRegistry, StepThroughputGauges stepThroughputGauges) {
+        return new StepMetricsListener(prometheusMeterRegistry, stepThroughputGauges);
+    }
+
+    /**
+     * @param exportFile metrics export file, written at the end of each job. Export is disabled when empty
+     */
+    @Bean
+    public MetricsExportListener metricsExportListener(PrometheusMeterRegistry prometheusMeterRegistry,
+                                                       @Value("${flag-alerts.metrics.export-file:}") String exportFile) {
+        return new MetricsExportListener(prometheusMeterRegistry, exportFile);
+    }
+
+    @Override
+    public void destroy() {
+        if (prometheusMeterRegistry != null) {
+            Metrics.removeRegistry(prometheusMeterRegistry);
+            prometheusMeterRegistry.close();
+        }
+    }
+}
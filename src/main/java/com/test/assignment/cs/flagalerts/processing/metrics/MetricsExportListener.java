@@ -0,0 +1,45 @@
+package com.test.assignment.cs.flagalerts.processing.metrics;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Exports the metrics in Prometheus text exposition format to the export file at the end of each job, replacing the
+ * file of the previous run. The file is written to a temporary file first, so a reader never sees a partial export
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MetricsExportListener extends JobExecutionListenerSupport {
+
+    private final PrometheusMeterRegistry prometheusMeterRegistry;
+    private final String exportFile;
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (StringUtils.isEmpty(exportFile)) {
+            return;
+        }
+        Path exportPath = Paths.get(exportFile).toAbsolutePath();
+        try {
+            Files.createDirectories(exportPath.getParent());
+            Path tempExportPath = Files.createTempFile(exportPath.getParent(), exportPath.getFileName().toString(), ".tmp");
+            Files.write(tempExportPath, prometheusMeterRegistry.scrape().getBytes(StandardCharsets.UTF_8));
+            Files.move(tempExportPath, exportPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Exported metrics of job {} to {}", jobExecution.getJobInstance().getJobName(), exportPath);
+        } catch (IOException e) {
+            // metrics are diagnostics, not failing the job for them
+            log.warn("Failed to export metrics to {} - {}", exportPath, e.getMessage());
+        }
+    }
+}
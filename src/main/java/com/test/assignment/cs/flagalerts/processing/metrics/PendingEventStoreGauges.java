@@ -0,0 +1,54 @@
+package com.test.assignment.cs.flagalerts.processing.metrics;
+
+import com.test.assignment.cs.flagalerts.processing.pairing.PendingEventStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gauges of the {@link PendingEventStore} of the in-memory pairing reader, recorded at each chunk commit along with
+ * the step execution context. The gauges keep the values of the last recording, the store itself is not read by the
+ * metrics export
+ */
+public class PendingEventStoreGauges {
+
+    private static final String METRIC_PREFIX = StepMetricsListener.METRIC_PREFIX + "pairing.pending-store.";
+
+    private volatile long pendingCount;
+    private volatile int capacity;
+    private volatile double loadFactor;
+    private volatile long memoryBytes;
+    private volatile int spillCount;
+    private volatile long spilledEntryCount;
+    private volatile int repartitionCount;
+
+    public PendingEventStoreGauges(MeterRegistry meterRegistry) {
+        gauge(meterRegistry, "entries", "Unmatched entries pending their other state, in memory and spilled", null, gauges -> gauges.pendingCount);
+        gauge(meterRegistry, "capacity", "Slots of the hash table", null, gauges -> gauges.capacity);
+        gauge(meterRegistry, "load-factor", "Ratio of the used slots of the hash table", null, gauges -> gauges.loadFactor);
+        gauge(meterRegistry, "memory", "Estimated memory of the pending entries", "bytes", gauges -> gauges.memoryBytes);
+        gauge(meterRegistry, "spills", "Spills of the pending entries beyond the memory budget", null, gauges -> gauges.spillCount);
+        gauge(meterRegistry, "spilled-entries", "Entries spilled beyond the memory budget", null, gauges -> gauges.spilledEntryCount);
+        gauge(meterRegistry, "repartitions", "Spill partitions over the memory budget, spilled again while paired", null,
+                gauges -> gauges.repartitionCount);
+    }
+
+    public void record(PendingEventStore pendingEventStore) {
+        pendingCount = pendingEventStore.getPendingCount();
+        capacity = pendingEventStore.getCapacity();
+        loadFactor = pendingEventStore.getLoadFactor();
+        memoryBytes = pendingEventStore.getEstimatedMemoryBytes();
+        spillCount = pendingEventStore.getSpillCount();
+        spilledEntryCount = pendingEventStore.getSpilledEntryCount();
+        repartitionCount = pendingEventStore.getRepartitionCount();
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String description, String baseUnit,
+                       ToDoubleFunction<PendingEventStoreGauges> value) {
+        Gauge.builder(METRIC_PREFIX + name, this, value)
+                .description(description)
+                .baseUnit(baseUnit)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,191 @@
+package com.test.assignment.cs.flagalerts.processing.metrics;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Step metrics recorded to the {@link MeterRegistry}, tagged by step name(partitions share the tag of their worker step):<br>
+ * 1. Timers(with histograms) of the read, process and write time of each chunk, and of the whole chunk,<br>
+ * 2. Counters of the read, written, filtered and skipped(by phase) items, and of the flagged alerts written(counted once
+ * their chunk is committed),<br>
+ * 3. Throughput(items/sec) of the last execution of the step, across its partitions - {@link StepThroughputGauges}.<br>
+ * Must be step scoped, as the timings of the current chunk are kept per step execution
+ */
+public class StepMetricsListener implements StepExecutionListener, ChunkListener, ItemReadListener<Object>,
+        ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+    public static final String METRIC_PREFIX = "flag.alerts.";
+    private static final String STEP_TAG = "step";
+
+    private final MeterRegistry meterRegistry;
+    private final StepThroughputGauges stepThroughputGauges;
+
+    private String stepName;
+    private Timer chunkReadTimer;
+    private Timer chunkProcessTimer;
+    private Timer chunkWriteTimer;
+    private Timer chunkTimer;
+    private Counter flaggedAlertCounter;
+
+    private long chunkStartNanos;
+    private long readNanos;
+    private long processNanos;
+    private long writeNanos;
+    private long itemStartNanos;
+    private long chunkFlaggedAlerts;
+
+    public StepMetricsListener(MeterRegistry meterRegistry, StepThroughputGauges stepThroughputGauges) {
+        this.meterRegistry = meterRegistry;
+        this.stepThroughputGauges = stepThroughputGauges;
+    }
+
+    /**
+     * Registers the listener for all of its callbacks on the step builder
+     *
+     * @return the step builder
+     */
+    public static <I, O> SimpleStepBuilder<I, O> register(SimpleStepBuilder<I, O> stepBuilder, StepMetricsListener stepMetricsListener) {
+        stepBuilder.listener((StepExecutionListener) stepMetricsListener);
+        stepBuilder.listener((ChunkListener) stepMetricsListener);
+        stepBuilder.listener((ItemReadListener<Object>) stepMetricsListener);
+        stepBuilder.listener((ItemProcessListener<Object, Object>) stepMetricsListener);
+        stepBuilder.listener((ItemWriteListener<Object>) stepMetricsListener);
+        return stepBuilder;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        // partition step names are suffixed by ':partition<n>'
+        stepName = stepExecution.getStepName().split(":")[0];
+        chunkReadTimer = chunkTimer("chunk.read", "Time reading the items of a chunk");
+        chunkProcessTimer = chunkTimer("chunk.process", "Time processing the items of a chunk");
+        chunkWriteTimer = chunkTimer("chunk.write", "Time writing a chunk");
+        chunkTimer = chunkTimer("chunk", "Time of a chunk, from the first read till commit");
+        flaggedAlertCounter = counter("alerts.flagged", "Written events flagged as alert");
+        chunkFlaggedAlerts = 0;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        counter("items.read", "Items read").increment(stepExecution.getReadCount());
+        counter("items.written", "Items written").increment(stepExecution.getWriteCount());
+        counter("items.filtered", "Items filtered by the processor").increment(stepExecution.getFilterCount());
+        skippedCounter("read", stepExecution.getReadSkipCount());
+        skippedCounter("process", stepExecution.getProcessSkipCount());
+        skippedCounter("write", stepExecution.getWriteSkipCount());
+        stepThroughputGauges.record(stepExecution);
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStartNanos = System.nanoTime();
+        readNanos = 0;
+        processNanos = 0;
+        writeNanos = 0;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        chunkReadTimer.record(readNanos, TimeUnit.NANOSECONDS);
+        chunkProcessTimer.record(processNanos, TimeUnit.NANOSECONDS);
+        chunkWriteTimer.record(writeNanos, TimeUnit.NANOSECONDS);
+        chunkTimer.record(System.nanoTime() - chunkStartNanos, TimeUnit.NANOSECONDS);
+        flaggedAlertCounter.increment(chunkFlaggedAlerts);
+        chunkFlaggedAlerts = 0;
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        // timings and alerts of a failed chunk are not recorded, the retried items are recorded with the next chunks
+        chunkFlaggedAlerts = 0;
+    }
+
+    @Override
+    public void beforeRead() {
+        itemStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        readNanos += System.nanoTime() - itemStartNanos;
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        readNanos += System.nanoTime() - itemStartNanos;
+    }
+
+    @Override
+    public void beforeProcess(Object item) {
+        itemStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+        processNanos += System.nanoTime() - itemStartNanos;
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+        processNanos += System.nanoTime() - itemStartNanos;
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+        itemStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+        writeNanos += System.nanoTime() - itemStartNanos;
+        for (Object item : items) {
+            if (item instanceof LogEventAlert && ((LogEventAlert) item).getAlert()) {
+                chunkFlaggedAlerts++;
+            }
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+        writeNanos += System.nanoTime() - itemStartNanos;
+    }
+
+    private Timer chunkTimer(String name, String description) {
+        return Timer.builder(METRIC_PREFIX + name)
+                .description(description)
+                .tag(STEP_TAG, stepName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter counter(String name, String description) {
+        return Counter.builder(METRIC_PREFIX + name)
+                .description(description)
+                .tag(STEP_TAG, stepName)
+                .register(meterRegistry);
+    }
+
+    private void skippedCounter(String phase, long skipCount) {
+        Counter.builder(METRIC_PREFIX + "items.skipped")
+                .description("Items skipped, by the phase of the failure")
+                .tags(Tags.of(STEP_TAG, stepName, "phase", phase))
+                .register(meterRegistry)
+                .increment(skipCount);
+    }
+}
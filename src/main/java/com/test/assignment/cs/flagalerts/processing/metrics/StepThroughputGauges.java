@@ -0,0 +1,67 @@
+package com.test.assignment.cs.flagalerts.processing.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.StepExecution;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gauges of the throughput(items read/sec) of the last execution of each step, tagged by step name. The partitions of a
+ * partitioned step share the tag of their worker step, and are aggregated: items read by all the partitions of the job
+ * execution, over the time from the start of the first partition to the end of the last one
+ */
+@RequiredArgsConstructor
+public class StepThroughputGauges {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, StepThroughput> stepThroughputs = new ConcurrentHashMap<>();
+
+    /**
+     * Records the items read by the step execution(or partition), ending now
+     */
+    public void record(StepExecution stepExecution) {
+        // partition step names are suffixed by ':partition<n>'
+        String stepName = stepExecution.getStepName().split(":")[0];
+        StepThroughput stepThroughput = stepThroughputs.computeIfAbsent(stepName, name -> {
+            StepThroughput newStepThroughput = new StepThroughput();
+            Gauge.builder(StepMetricsListener.METRIC_PREFIX + "step.throughput", newStepThroughput, StepThroughput::getItemsPerSecond)
+                    .description("Items read per second by the last execution of the step, and all of its partitions")
+                    .baseUnit("items.per.second")
+                    .tag("step", name)
+                    .register(meterRegistry);
+            return newStepThroughput;
+        });
+        stepThroughput.record(stepExecution.getJobExecutionId(), stepExecution.getReadCount(),
+                stepExecution.getStartTime().getTime(), System.currentTimeMillis());
+    }
+
+    /**
+     * Items read by the executions of a step within a job execution, and the time spanned by them
+     */
+    private static class StepThroughput {
+
+        private Long jobExecutionId;
+        private long readCount;
+        private long startMillis;
+        private long endMillis;
+
+        synchronized void record(Long jobExecutionId, long readCount, long startMillis, long endMillis) {
+            if (!jobExecutionId.equals(this.jobExecutionId)) {
+                this.jobExecutionId = jobExecutionId;
+                this.readCount = 0;
+                this.startMillis = startMillis;
+                this.endMillis = endMillis;
+            }
+            this.readCount += readCount;
+            this.startMillis = Math.min(this.startMillis, startMillis);
+            this.endMillis = Math.max(this.endMillis, endMillis);
+        }
+
+        synchronized double getItemsPerSecond() {
+            return readCount * 1000.0 / Math.max(1, endMillis - startMillis);
+        }
+    }
+}
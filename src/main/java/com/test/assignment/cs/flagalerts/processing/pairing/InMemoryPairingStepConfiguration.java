@@ -0,0 +1,115 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertOutputMode;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.alerts.DurationSummaryListener;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.parser.InvalidLogEntrySkipListener;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.metrics.PendingEventStoreGauges;
+import com.test.assignment.cs.flagalerts.processing.metrics.StepMetricsListener;
+import com.test.assignment.cs.flagalerts.processing.support.AdaptiveChunkCompletionPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Paths;
+
+/**
+ * Batch Step Configuration for pairing log entries in memory, without the temporary tables: <br>
+ * 1. Reading the log entries from logfile, and pairing them by id - {@link LogEventPairingItemReader},<br>
+ * 2. Inserting {@link LogEventAlert} to table LOG_EVENT_ALERT - {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#logAlertsJdbcWriter}
+ */
+@Configuration
+@Slf4j
+public class InMemoryPairingStepConfiguration {
+
+    @Autowired
+    public StepBuilderFactory stepBuilderFactory;
+    @Autowired
+    @Qualifier("flagAlertsChunkCompletionPolicy")
+    private AdaptiveChunkCompletionPolicy flagAlertsChunkCompletionPolicy;
+    @Autowired
+    private StepMetricsListener stepMetricsListener;
+    @Autowired
+    private DurationSummaryListener durationSummaryListener;
+
+    /**
+     * Fault tolerant step configuration for pairing log entries, and persisting alerts into LOG_EVENT_ALERT
+     *
+     * @param logEventPairingReader       {@link #logEventPairingReader(ItemStreamReader, ValidatingItemProcessor, Long, long, String)}
+     * @param logAlertsValidator          {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#logAlertValidator(com.test.assignment.cs.flagalerts.processing.support.ValidationMode)}
+     * @param logAlertsJdbcWriter         {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#logAlertsJdbcWriter}
+     * @param invalidLogEntrySkipListener {@link InvalidLogEntrySkipListener}
+     * @param pairingStepRestartListener  {@link #pairingStepRestartListener(JdbcTemplate)}
+     * @param skipLimit                   Number of records with exceptions to be skipped before job failure
+     */
+    @Bean("pairLogEventsInMemoryStep")
+    public Step pairLogEventsInMemoryStep(LogEventPairingItemReader logEventPairingReader,
+                                          ValidatingItemProcessor<LogEventAlert> logAlertsValidator,
+                                          JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter,
+                                          InvalidLogEntrySkipListener invalidLogEntrySkipListener,
+                                          PairingStepRestartListener pairingStepRestartListener,
+                                          @Value("${flag-alerts.parser.invalid-entry.skip-limit:10}") int skipLimit) {
+
+        return AdaptiveChunkCompletionPolicy.register(DurationSummaryListener.register(StepMetricsListener.register(stepBuilderFactory.get("pairLogEventsInMemoryStep")
+                .listener(pairingStepRestartListener)
+                .<LogEventAlert, LogEventAlert>chunk(flagAlertsChunkCompletionPolicy)
+                .reader(logEventPairingReader)
+                .processor(logAlertsValidator)
+                .writer(logAlertsJdbcWriter)
+                .faultTolerant()
+                .skip(FlatFileParseException.class)
+                .skip(ValidationException.class)
+                .skipLimit(skipLimit)
+                .listener(invalidLogEntrySkipListener), stepMetricsListener), durationSummaryListener), flagAlertsChunkCompletionPolicy)
+                .build();
+    }
+
+    /**
+     * Deletes the alerts written by a failed execution of a pairing step, before it is restarted from the beginning of the log file
+     */
+    @Bean
+    public PairingStepRestartListener pairingStepRestartListener(JdbcTemplate jdbcTemplate) {
+        return new PairingStepRestartListener(jdbcTemplate);
+    }
+
+    /**
+     * Reader pairing the validated log entries of the log file reader into {@link LogEventAlert}
+     *
+     * @param logEventFileReader {@link com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration#logEventFileReader(String, Long, Long)}
+     * @param logEntryValidator  {@link com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration#logEntryValidator(com.test.assignment.cs.flagalerts.processing.support.ValidationMode)}
+     * @param alertThresholdRules thresholds of event duration for flagging event as alert {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#alertThresholdRules(String, long)}
+     * @param memoryBudgetBytes  memory budget of the pending entries, beyond which they are spilled to disk. Defaults to 256 MB
+     * @param spillDirectory     directory for the spilled pending entries. Defaults to the temp directory
+     * @param alertOutputMode    events returned, all by default or only the alerts
+     * @param pendingEventStoreGauges gauges of the pending entries
+     */
+    @Bean
+    @JobScope
+    public LogEventPairingItemReader logEventPairingReader(
+            @Qualifier("logEventFileReader") ItemStreamReader<LogEventEntry> logEventFileReader,
+            ValidatingItemProcessor<LogEventEntry> logEntryValidator,
+            AlertThresholdRules alertThresholdRules,
+            @Value("${flag-alerts.pairing.memory-budget-bytes:268435456}") long memoryBudgetBytes,
+            @Value("${flag-alerts.pairing.spill-directory:${java.io.tmpdir}}") String spillDirectory,
+            @Value("${flag-alerts.alerts.output:all}") AlertOutputMode alertOutputMode,
+            PendingEventStoreGauges pendingEventStoreGauges) {
+        log.info("Initializing in-memory pairing of log entries with {} alert threshold rules, memory budget {} bytes, output {}",
+                alertThresholdRules.getRuleCount(), memoryBudgetBytes, alertOutputMode);
+        return new LogEventPairingItemReader(logEventFileReader, logEntryValidator, alertThresholdRules,
+                memoryBudgetBytes, Paths.get(spillDirectory), alertOutputMode, pendingEventStoreGauges);
+    }
+}
@@ -0,0 +1,157 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertOutputMode;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.alerts.NonAlertingEventFilter;
+import com.test.assignment.cs.flagalerts.processing.metrics.PendingEventStoreGauges;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.validator.ValidationException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Streams {@link LogEventEntry} from the delegate reader, and pairs STARTED/FINISHED entries by id in memory.
+ * A {@link LogEventAlert} is returned as soon as the second entry of an event is read, so only the unmatched
+ * entries are held in memory, by {@link PendingEventStore}. Entries spilled to disk beyond the memory budget
+ * are paired once the log entries are exhausted.<br>
+ * The state of the store is saved to the step execution context, and recorded by {@link PendingEventStoreGauges}, at each commit.
+ * In output mode {@link AlertOutputMode#ALERTS_ONLY}, the events within the alert threshold are only counted, not returned.<br>
+ * Pending entries are not part of the saved state, so the reader does not resume: a restarted step reads the log file from
+ * the beginning, once {@link PairingStepRestartListener} has deleted the alerts committed by the failed execution.
+ */
+@RequiredArgsConstructor
+public class LogEventPairingItemReader implements ItemStreamReader<LogEventAlert> {
+
+    public static final String PENDING_ENTRY_COUNT_KEY = "pairing.pending-entry.count";
+    public static final String PENDING_STORE_CAPACITY_KEY = "pairing.pending-store.capacity";
+    public static final String PENDING_STORE_LOAD_FACTOR_KEY = "pairing.pending-store.load-factor";
+    public static final String PENDING_STORE_MEMORY_BYTES_KEY = "pairing.pending-store.memory-bytes";
+    public static final String PENDING_STORE_SPILL_COUNT_KEY = "pairing.pending-store.spill.count";
+    public static final String PENDING_STORE_SPILLED_ENTRY_COUNT_KEY = "pairing.pending-store.spilled-entry.count";
+    public static final String PENDING_STORE_REPARTITION_COUNT_KEY = "pairing.pending-store.repartition.count";
+
+    @NonNull
+    private final ItemStreamReader<LogEventEntry> logEventEntryReader;
+    @NonNull
+    private final ItemProcessor<LogEventEntry, LogEventEntry> logEntryValidator;
+    @NonNull
+    private final AlertThresholdRules alertThresholdRules;
+    private final long memoryBudgetBytes;
+    @NonNull
+    private final Path spillDirectory;
+    @NonNull
+    private final AlertOutputMode alertOutputMode;
+    @NonNull
+    private final PendingEventStoreGauges pendingEventStoreGauges;
+
+    private PendingEventStore pendingEventStore;
+    private long nonAlertingEventCount;
+    private long nonAlertingDurationSum;
+
+    /**
+     * Reads log entries until an event is completed by its second entry
+     *
+     * @return alert for the completed event, or null once the log entries are exhausted
+     * @throws ValidationException for an invalid entry, or a duplicate entry for an already pending event state
+     */
+    @Override
+    public LogEventAlert read() throws Exception {
+        LogEventEntry logEventEntry;
+        while ((logEventEntry = logEventEntryReader.read()) != null) {
+            LogEventEntry validLogEventEntry = logEntryValidator.process(logEventEntry);
+            if (validLogEventEntry == null) {
+                continue;
+            }
+            LogEventEntry pendingEntry = pendingEventStore.pair(validLogEventEntry);
+            LogEventAlert logEventAlert = pendingEntry == null ? null : createLogEventAlert(pendingEntry, validLogEventEntry, alertThresholdRules);
+            if (logEventAlert != null && !isFilteredOut(logEventAlert)) {
+                return logEventAlert;
+            }
+        }
+        PendingEventPair spilledPair;
+        while ((spilledPair = pendingEventStore.drainNextPair()) != null) {
+            LogEventAlert logEventAlert = createLogEventAlert(spilledPair.getPendingEntry(), spilledPair.getEntry(), alertThresholdRules);
+            if (!isFilteredOut(logEventAlert)) {
+                return logEventAlert;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the events within the alert threshold in output mode {@link AlertOutputMode#ALERTS_ONLY}, instead of returning them
+     */
+    private boolean isFilteredOut(LogEventAlert logEventAlert) {
+        if (alertOutputMode != AlertOutputMode.ALERTS_ONLY || !logEventAlert.isWithinThreshold()) {
+            return false;
+        }
+        nonAlertingEventCount++;
+        nonAlertingDurationSum += logEventAlert.getEventDuration();
+        return true;
+    }
+
+    /**
+     * Creates the alert for the entries of an event paired by {@link PendingEventStore#pair(LogEventEntry)}, in either order
+     */
+    public static LogEventAlert createLogEventAlert(LogEventEntry pendingEntry, LogEventEntry logEventEntry, AlertThresholdRules alertThresholdRules) {
+        return LogState.STARTED.equals(pendingEntry.getState()) ?
+                createLogEventAlertFor(pendingEntry, logEventEntry, alertThresholdRules) : createLogEventAlertFor(logEventEntry, pendingEntry, alertThresholdRules);
+    }
+
+    /**
+     * Creates the alert with duration between the entries, and event details and threshold from the FINISHED entry
+     */
+    private static LogEventAlert createLogEventAlertFor(LogEventEntry startedEntry, LogEventEntry finishedEntry, AlertThresholdRules alertThresholdRules) {
+        LogEventAlert logEventAlert = new LogEventAlert();
+        logEventAlert.setEventId(finishedEntry.getId());
+        logEventAlert.setEventDuration(finishedEntry.getTimestamp() - startedEntry.getTimestamp());
+        logEventAlert.setEventType(finishedEntry.getType());
+        logEventAlert.setEventHost(finishedEntry.getHost());
+        logEventAlert.setAlertThreshold(alertThresholdRules.thresholdFor(finishedEntry.getType(), finishedEntry.getHost()));
+        return logEventAlert;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        pendingEventStore = new PendingEventStore(memoryBudgetBytes, spillDirectory);
+        nonAlertingEventCount = 0;
+        nonAlertingDurationSum = 0;
+        logEventEntryReader.open(new ExecutionContext());
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(PENDING_ENTRY_COUNT_KEY, pendingEventStore.getPendingCount());
+        executionContext.putInt(PENDING_STORE_CAPACITY_KEY, pendingEventStore.getCapacity());
+        executionContext.putDouble(PENDING_STORE_LOAD_FACTOR_KEY, pendingEventStore.getLoadFactor());
+        executionContext.putLong(PENDING_STORE_MEMORY_BYTES_KEY, pendingEventStore.getEstimatedMemoryBytes());
+        executionContext.putInt(PENDING_STORE_SPILL_COUNT_KEY, pendingEventStore.getSpillCount());
+        executionContext.putLong(PENDING_STORE_SPILLED_ENTRY_COUNT_KEY, pendingEventStore.getSpilledEntryCount());
+        executionContext.putInt(PENDING_STORE_REPARTITION_COUNT_KEY, pendingEventStore.getRepartitionCount());
+        pendingEventStoreGauges.record(pendingEventStore);
+        if (alertOutputMode == AlertOutputMode.ALERTS_ONLY) {
+            executionContext.putLong(NonAlertingEventFilter.NON_ALERTING_EVENT_COUNT_KEY, nonAlertingEventCount);
+            executionContext.putLong(NonAlertingEventFilter.NON_ALERTING_DURATION_SUM_KEY, nonAlertingDurationSum);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            pendingEventStore.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to delete the spilled pending entries", e);
+        } finally {
+            logEventEntryReader.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.DurationSummaryListener;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Makes the pairing steps restartable, as their readers do not save the pending entries, and read the log file from the
+ * beginning on restart:<br>
+ * 1. The first execution of the step saves the highest ALERT_ID_PK of LOG_EVENT_ALERT_ENCODED, as a watermark in the step execution context,<br>
+ * 2. A restarted execution, restoring the watermark, deletes the alerts above it committed by the failed execution, and the
+ * duration summaries saved by it, and removes those of its execution context, before the alerts are written again.<br>
+ * The pairing step is the only writer of the alerts in the pairing modes, so the rows above the watermark are its own.
+ * Must be registered before {@link DurationSummaryListener}
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class PairingStepRestartListener extends StepExecutionListenerSupport {
+
+    public static final String ALERT_WATERMARK_KEY = "pairing.alert.watermark";
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        if (!executionContext.containsKey(ALERT_WATERMARK_KEY)) {
+            Long maxAlertId = jdbcTemplate.queryForObject("SELECT MAX(ALERT_ID_PK) FROM LOG_EVENT_ALERT_ENCODED", Long.class);
+            executionContext.putLong(ALERT_WATERMARK_KEY, maxAlertId == null ? -1 : maxAlertId);
+            return;
+        }
+        // the step listeners run before the streams are opened, so the summaries are not restored
+        DurationSummaryListener.removeSummaries(executionContext);
+        int alerts = jdbcTemplate.update("DELETE FROM LOG_EVENT_ALERT_ENCODED WHERE ALERT_ID_PK > ?", executionContext.getLong(ALERT_WATERMARK_KEY));
+        int summaries = jdbcTemplate.update("DELETE FROM LOG_EVENT_DURATION_SUMMARY WHERE JOB_INSTANCE_ID = ? AND STEP_NAME = ?",
+                stepExecution.getJobExecution().getJobInstance().getInstanceId(), stepExecution.getStepName());
+        log.warn("Restarting step {} from the beginning of the log file - {} alerts and {} duration summaries of the failed execution deleted",
+                stepExecution.getStepName(), alerts, summaries);
+    }
+}
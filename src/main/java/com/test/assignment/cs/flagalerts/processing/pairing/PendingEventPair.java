@@ -0,0 +1,14 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import lombok.Value;
+
+/**
+ * Entries of an event paired while draining the spilled entries of {@link PendingEventStore}
+ */
+@Value
+public class PendingEventPair {
+
+    LogEventEntry pendingEntry;
+    LogEventEntry entry;
+}
@@ -0,0 +1,576 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Store of the unmatched log entries, pairing STARTED/FINISHED entries by id without an object per pending entry:<br>
+ * 1. Open addressing hash table(linear probing) over primitive arrays, keyed by a 64-bit hash of the UTF-8 id bytes.
+ * The id bytes are kept in a byte arena to resolve hash collisions,<br>
+ * 2. Per pending entry, only the timestamp, state and the dictionary codes({@link StringDictionary}) of host and type are kept.<br>
+ * When the estimated memory exceeds the memory budget, all pending entries are spilled to {@link #SPILL_PARTITIONS} files
+ * partitioned by the id hash, and the table starts over empty. Entries of an event may then be split across the spill
+ * files and the table, so once the log entries are exhausted the remaining entries are spilled as well, and each spill
+ * partition is paired in memory on its own - {@link #drainNextPair()}. A spill partition still over the memory budget
+ * is spilled again while paired, partitioned by the next bits of the id hash, up to {@link #MAX_SPILL_LEVEL} levels
+ */
+@Slf4j
+public class PendingEventStore implements Closeable {
+
+    static final int SPILL_PARTITIONS = 64;
+    private static final int SPILL_PARTITION_BITS = Integer.numberOfTrailingZeros(SPILL_PARTITIONS);
+    // partitions of the deepest level use the top 24 bits of the hash, clear of the low bits of the table index
+    static final int MAX_SPILL_LEVEL = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    private static final long EMPTY = 0;
+    private static final byte STARTED = 0;
+    private static final byte FINISHED = 1;
+    // hash, id offset, id length, timestamp, state, host code, type code
+    private static final int SLOT_BYTES = 8 + 4 + 2 + 8 + 1 + 4 + 4;
+    private static final int SPILL_BUFFER_SIZE = 32 * 1024;
+
+    private final long memoryBudgetBytes;
+    private final Path spillDirectory;
+    private final int spillLevel;
+    private final StringDictionary hostDictionary;
+    private final StringDictionary typeDictionary;
+
+    private long[] hashes;
+    private int[] idOffsets;
+    private short[] idLengths;
+    private long[] timestamps;
+    private byte[] states;
+    private int[] hostCodes;
+    private int[] typeCodes;
+    private byte[] idArena;
+    private int idArenaSize;
+    private int idArenaGarbage;
+    private byte[] idBuffer = new byte[64];
+
+    @Getter
+    private int size;
+    @Getter
+    private int spillCount;
+    @Getter
+    private long spilledEntryCount;
+    /**
+     * Number of spill partitions over the memory budget, spilled again while drained
+     */
+    @Getter
+    private int repartitionCount;
+    private Path spillFilesDirectory;
+    private DataOutputStream[] spillOutputs;
+
+    private PendingEventStore drainStore;
+    private DataInputStream drainInput;
+    private int drainPartition = -1;
+    private long drainedUnmatchedCount;
+
+    /**
+     * @param memoryBudgetBytes budget for the estimated memory of the pending entries, beyond which they are spilled to
+     *                          disk. Spilling is disabled for a budget <= 0
+     * @param spillDirectory    directory for the spill files, created on the first spill
+     */
+    public PendingEventStore(long memoryBudgetBytes, Path spillDirectory) {
+        this(memoryBudgetBytes, spillDirectory, new StringDictionary(), new StringDictionary(), 0);
+    }
+
+    private PendingEventStore(long memoryBudgetBytes, Path spillDirectory, StringDictionary hostDictionary, StringDictionary typeDictionary,
+                              int spillLevel) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.spillDirectory = spillDirectory;
+        this.spillLevel = spillLevel;
+        this.hostDictionary = hostDictionary;
+        this.typeDictionary = typeDictionary;
+        allocate(INITIAL_CAPACITY);
+        idArena = new byte[INITIAL_CAPACITY * 16];
+    }
+
+    /**
+     * Pairs the entry with the pending entry of its event, or adds it as pending
+     *
+     * @return the pending entry of the other state for the id, removed from the store, or null when the entry is added
+     * as pending
+     * @throws ValidationException when an entry of the same state is already pending for the id
+     */
+    public LogEventEntry pair(LogEventEntry logEventEntry) {
+        int idLength = encodeId(logEventEntry.getId());
+        long hash = hash(idBuffer, idLength);
+        byte state = LogState.FINISHED.equals(logEventEntry.getState()) ? FINISHED : STARTED;
+
+        int mask = hashes.length - 1;
+        int slot = (int) hash & mask;
+        while (hashes[slot] != EMPTY) {
+            if (hashes[slot] == hash && idEquals(slot, idLength)) {
+                if (states[slot] == state) {
+                    throw new ValidationException(String.format("Duplicate %s entry for event id %s",
+                            logEventEntry.getState(), logEventEntry.getId()));
+                }
+                LogEventEntry pendingEntry = toLogEventEntry(logEventEntry.getId(), slot);
+                removeSlot(slot);
+                return pendingEntry;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        hashes[slot] = hash;
+        idOffsets[slot] = appendId(idLength);
+        idLengths[slot] = (short) idLength;
+        timestamps[slot] = logEventEntry.getTimestamp();
+        states[slot] = state;
+        hostCodes[slot] = hostDictionary.encode(logEventEntry.getHost());
+        typeCodes[slot] = typeDictionary.encode(logEventEntry.getType());
+        size++;
+        if (size > hashes.length * MAX_LOAD_FACTOR) {
+            rehash(hashes.length * 2);
+        }
+        if (memoryBudgetBytes > 0 && getEstimatedMemoryBytes() > memoryBudgetBytes) {
+            spill();
+        }
+        return null;
+    }
+
+    /**
+     * Pairs the spilled entries, one spill partition at a time. Must be called once all log entries are paired.
+     * Does nothing when nothing was spilled. The entries of a partition are paired within the memory budget as well,
+     * a partition exceeding it is spilled again, and paired from its own spill partitions
+     *
+     * @return the next pair of spilled entries, or null once all spill partitions are drained
+     * @throws ValidationException for a duplicate entry within a spill partition, the draining continues with the next call
+     */
+    public PendingEventPair drainNextPair() {
+        if (spillCount == 0) {
+            return null;
+        }
+        try {
+            if (drainPartition < 0) {
+                // spill the rest, so each partition holds all the unmatched entries of its ids
+                spill();
+                closeSpillOutputs();
+                drainStore = new PendingEventStore(spillLevel < MAX_SPILL_LEVEL ? memoryBudgetBytes : 0, spillFilesDirectory,
+                        hostDictionary, typeDictionary, spillLevel + 1);
+                drainPartition = 0;
+                drainInput = openSpillInput(drainPartition);
+            }
+            while (drainPartition < SPILL_PARTITIONS) {
+                if (drainInput == null) {
+                    // partition over the memory budget, paired from the spill files of the drain store
+                    PendingEventPair spilledPair = drainStore.drainNextPair();
+                    if (spilledPair != null) {
+                        return spilledPair;
+                    }
+                    nextDrainPartition();
+                    continue;
+                }
+                LogEventEntry spilledEntry = readSpilledEntry(drainInput);
+                if (spilledEntry == null) {
+                    drainInput.close();
+                    drainInput = null;
+                    Files.delete(spillFile(drainPartition));
+                    if (drainStore.getSpillCount() > 0) {
+                        repartitionCount++;
+                        log.debug("Spill partition {} of level {} exceeded the memory budget, re-partitioned {} entries",
+                                drainPartition, spillLevel, drainStore.getSpilledEntryCount());
+                    } else {
+                        nextDrainPartition();
+                    }
+                    continue;
+                }
+                LogEventEntry pendingEntry = drainStore.pair(spilledEntry);
+                if (pendingEntry != null) {
+                    return new PendingEventPair(pendingEntry, spilledEntry);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to drain spilled pending entries from " + spillFilesDirectory, e);
+        }
+    }
+
+    /**
+     * Moves on to the next spill partition, once the current one is paired
+     */
+    private void nextDrainPartition() throws IOException {
+        drainedUnmatchedCount += drainStore.getPendingCount();
+        repartitionCount += drainStore.getRepartitionCount();
+        drainStore.close();
+        drainPartition++;
+        drainInput = drainPartition < SPILL_PARTITIONS ? openSpillInput(drainPartition) : null;
+    }
+
+    /**
+     * @return number of unmatched entries, in memory and spilled. While draining, the unmatched entries of the
+     * partitions drained so far
+     */
+    public long getPendingCount() {
+        if (drainStore == null) {
+            return size + spilledEntryCount;
+        }
+        return drainedUnmatchedCount + drainStore.getPendingCount();
+    }
+
+    public int getCapacity() {
+        return hashes.length;
+    }
+
+    public double getLoadFactor() {
+        return (double) size / hashes.length;
+    }
+
+    /**
+     * @return estimated memory of the pending entries - their slots at the maximum load factor, and their id bytes.
+     * Excludes the dictionaries, and the free slots and arena bytes allocated ahead, so an empty store is estimated at 0
+     */
+    public long getEstimatedMemoryBytes() {
+        return (long) Math.ceil(size / MAX_LOAD_FACTOR) * SLOT_BYTES + idArenaSize - idArenaGarbage;
+    }
+
+    private void allocate(int capacity) {
+        hashes = new long[capacity];
+        idOffsets = new int[capacity];
+        idLengths = new short[capacity];
+        timestamps = new long[capacity];
+        states = new byte[capacity];
+        hostCodes = new int[capacity];
+        typeCodes = new int[capacity];
+    }
+
+    private void clear() {
+        if (hashes.length > INITIAL_CAPACITY) {
+            allocate(INITIAL_CAPACITY);
+            idArena = new byte[INITIAL_CAPACITY * 16];
+        } else {
+            Arrays.fill(hashes, EMPTY);
+        }
+        size = 0;
+        idArenaSize = 0;
+        idArenaGarbage = 0;
+    }
+
+    /**
+     * Encodes the id to UTF-8 in the id buffer, without allocating for ASCII ids
+     *
+     * @return length of the encoded id
+     */
+    private int encodeId(String id) {
+        int length = id.length();
+        if (idBuffer.length < length) {
+            idBuffer = new byte[Math.max(length, idBuffer.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c >= 0x80) {
+                byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+                idBuffer = idBytes.length > idBuffer.length ? idBytes : idBuffer;
+                System.arraycopy(idBytes, 0, idBuffer, 0, idBytes.length);
+                return checkIdLength(idBytes.length, id);
+            }
+            idBuffer[i] = (byte) c;
+        }
+        return checkIdLength(length, id);
+    }
+
+    private int checkIdLength(int idLength, String id) {
+        if (idLength > Short.MAX_VALUE) {
+            throw new ValidationException("Event id longer than " + Short.MAX_VALUE + " bytes: " + id.substring(0, 50) + "..");
+        }
+        return idLength;
+    }
+
+    /**
+     * FNV-1a over the id bytes, with the murmur3 finalizer to spread the bits for the table index and spill partition
+     */
+    static long hash(byte[] bytes, int length) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ bytes[i]) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private boolean idEquals(int slot, int idLength) {
+        if (idLengths[slot] != idLength) {
+            return false;
+        }
+        int idOffset = idOffsets[slot];
+        for (int i = 0; i < idLength; i++) {
+            if (idArena[idOffset + i] != idBuffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int appendId(int idLength) {
+        if (idArenaSize + idLength > idArena.length) {
+            if (idArenaGarbage > idArenaSize / 2) {
+                compactIdArena(idArena.length);
+            }
+            if (idArenaSize + idLength > idArena.length) {
+                compactIdArena((int) Math.min(Integer.MAX_VALUE - 8, Math.max(idArenaSize + idLength, (long) idArena.length * 2)));
+            }
+        }
+        System.arraycopy(idBuffer, 0, idArena, idArenaSize, idLength);
+        int idOffset = idArenaSize;
+        idArenaSize += idLength;
+        return idOffset;
+    }
+
+    /**
+     * Copies the ids of the pending entries to a new arena, dropping the ids of the removed entries
+     */
+    private void compactIdArena(int arenaLength) {
+        byte[] compactedArena = new byte[arenaLength];
+        int compactedSize = 0;
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != EMPTY) {
+                System.arraycopy(idArena, idOffsets[slot], compactedArena, compactedSize, idLengths[slot]);
+                idOffsets[slot] = compactedSize;
+                compactedSize += idLengths[slot];
+            }
+        }
+        idArena = compactedArena;
+        idArenaSize = compactedSize;
+        idArenaGarbage = 0;
+    }
+
+    /**
+     * Removes the slot with backward shift deletion, moving the following entries of the probe sequence into the gap
+     */
+    private void removeSlot(int slot) {
+        idArenaGarbage += idLengths[slot];
+        int mask = hashes.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (hashes[next] != EMPTY) {
+            int home = (int) hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                moveSlot(next, gap);
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        hashes[gap] = EMPTY;
+        size--;
+    }
+
+    private void moveSlot(int from, int to) {
+        hashes[to] = hashes[from];
+        idOffsets[to] = idOffsets[from];
+        idLengths[to] = idLengths[from];
+        timestamps[to] = timestamps[from];
+        states[to] = states[from];
+        hostCodes[to] = hostCodes[from];
+        typeCodes[to] = typeCodes[from];
+    }
+
+    /**
+     * Evicts the pending entries older than the timestamp, the orphans of a long running stream whose other entry is not
+     * expected anymore. Only the entries in memory are evicted
+     *
+     * @return number of entries evicted
+     */
+    public int evictOlderThan(long timestamp) {
+        int sizeBefore = size;
+        rehash(hashes.length, timestamp);
+        return sizeBefore - size;
+    }
+
+    /**
+     * Evicts the oldest pending entries, by timestamp, so the store stays within a memory budget without spilling
+     *
+     * @param fraction approximate fraction of the entries evicted, entries of the same timestamp are evicted together
+     * @return number of entries evicted
+     */
+    public int evictOldest(double fraction) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] pendingTimestamps = new long[size];
+        int pendingIndex = 0;
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != EMPTY) {
+                pendingTimestamps[pendingIndex++] = timestamps[slot];
+            }
+        }
+        Arrays.sort(pendingTimestamps);
+        int evictedIndex = (int) Math.min(size - 1, Math.max(0, Math.ceil(size * fraction) - 1));
+        return evictOlderThan(pendingTimestamps[evictedIndex] + 1);
+    }
+
+    private void rehash(int capacity) {
+        rehash(capacity, Long.MIN_VALUE);
+    }
+
+    /**
+     * Moves the entries to a new table of the capacity, dropping those older than the timestamp
+     */
+    private void rehash(int capacity, long minTimestamp) {
+        long[] oldHashes = hashes;
+        int[] oldIdOffsets = idOffsets;
+        short[] oldIdLengths = idLengths;
+        long[] oldTimestamps = timestamps;
+        byte[] oldStates = states;
+        int[] oldHostCodes = hostCodes;
+        int[] oldTypeCodes = typeCodes;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int oldSlot = 0; oldSlot < oldHashes.length; oldSlot++) {
+            if (oldHashes[oldSlot] == EMPTY) {
+                continue;
+            }
+            if (oldTimestamps[oldSlot] < minTimestamp) {
+                idArenaGarbage += oldIdLengths[oldSlot];
+                size--;
+                continue;
+            }
+            int slot = (int) oldHashes[oldSlot] & mask;
+            while (hashes[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = oldHashes[oldSlot];
+            idOffsets[slot] = oldIdOffsets[oldSlot];
+            idLengths[slot] = oldIdLengths[oldSlot];
+            timestamps[slot] = oldTimestamps[oldSlot];
+            states[slot] = oldStates[oldSlot];
+            hostCodes[slot] = oldHostCodes[oldSlot];
+            typeCodes[slot] = oldTypeCodes[oldSlot];
+        }
+    }
+
+    private LogEventEntry toLogEventEntry(String id, int slot) {
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setId(id);
+        logEventEntry.setState(states[slot] == FINISHED ? LogState.FINISHED : LogState.STARTED);
+        logEventEntry.setTimestamp(timestamps[slot]);
+        logEventEntry.setHost(hostDictionary.decode(hostCodes[slot]));
+        logEventEntry.setType(typeDictionary.decode(typeCodes[slot]));
+        return logEventEntry;
+    }
+
+    /**
+     * Appends all pending entries to the spill file of their partition, and empties the table
+     */
+    private void spill() {
+        try {
+            if (spillOutputs == null) {
+                spillFilesDirectory = Files.createTempDirectory(Files.createDirectories(spillDirectory), "pending-events");
+                spillOutputs = new DataOutputStream[SPILL_PARTITIONS];
+                for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+                    spillOutputs[partition] = new DataOutputStream(new BufferedOutputStream(
+                            Files.newOutputStream(spillFile(partition)), SPILL_BUFFER_SIZE));
+                }
+            }
+            log.debug("Spilling {} pending entries of {} estimated bytes to {}", size, getEstimatedMemoryBytes(), spillFilesDirectory);
+            for (int slot = 0; slot < hashes.length; slot++) {
+                if (hashes[slot] == EMPTY) {
+                    continue;
+                }
+                DataOutputStream spillOutput = spillOutputs[spillPartition(hashes[slot], spillLevel)];
+                spillOutput.writeShort(idLengths[slot]);
+                spillOutput.write(idArena, idOffsets[slot], idLengths[slot]);
+                spillOutput.writeByte(states[slot]);
+                spillOutput.writeLong(timestamps[slot]);
+                spillOutput.writeInt(hostCodes[slot]);
+                spillOutput.writeInt(typeCodes[slot]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill pending entries to " + spillDirectory, e);
+        }
+        spillCount++;
+        spilledEntryCount += size;
+        clear();
+    }
+
+    private static int spillPartition(long hash, int spillLevel) {
+        // top bits, next ones for each level, independent of the low bits used for the table index
+        return (int) (hash >>> (Long.SIZE - SPILL_PARTITION_BITS * (spillLevel + 1))) & (SPILL_PARTITIONS - 1);
+    }
+
+    private Path spillFile(int partition) {
+        return spillFilesDirectory.resolve("partition-" + partition + ".bin");
+    }
+
+    private DataInputStream openSpillInput(int partition) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile(partition)), SPILL_BUFFER_SIZE));
+    }
+
+    private LogEventEntry readSpilledEntry(DataInputStream spillInput) throws IOException {
+        int idLength;
+        try {
+            idLength = spillInput.readShort();
+        } catch (EOFException e) {
+            return null;
+        }
+        byte[] idBytes = new byte[idLength];
+        spillInput.readFully(idBytes);
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setId(new String(idBytes, StandardCharsets.UTF_8));
+        logEventEntry.setState(spillInput.readByte() == FINISHED ? LogState.FINISHED : LogState.STARTED);
+        logEventEntry.setTimestamp(spillInput.readLong());
+        logEventEntry.setHost(hostDictionary.decode(spillInput.readInt()));
+        logEventEntry.setType(typeDictionary.decode(spillInput.readInt()));
+        return logEventEntry;
+    }
+
+    private void closeSpillOutputs() throws IOException {
+        if (spillOutputs != null) {
+            for (DataOutputStream spillOutput : spillOutputs) {
+                spillOutput.close();
+            }
+            spillOutputs = null;
+        }
+    }
+
+    /**
+     * Releases the pending entries, and deletes the spill files
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            closeSpillOutputs();
+            if (drainInput != null) {
+                drainInput.close();
+                drainInput = null;
+            }
+            if (drainStore != null) {
+                drainStore.close();
+            }
+        } finally {
+            if (spillFilesDirectory != null) {
+                FileSystemUtils.deleteRecursively(spillFilesDirectory);
+                spillFilesDirectory = null;
+            }
+            drainStore = null;
+            drainPartition = -1;
+            drainedUnmatchedCount = 0;
+            spillCount = 0;
+            spilledEntryCount = 0;
+            repartitionCount = 0;
+            clear();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertOutputMode;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.alerts.NonAlertingEventFilter;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.validator.ValidationException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Reads all {@link LogEventEntry} from the delegate reader into the sorted runs of {@link SortedRunStore}, then returns
+ * a {@link LogEventAlert} per pair of STARTED/FINISHED entries of the merged runs. Unlike {@link LogEventPairingItemReader},
+ * memory stays bounded however far apart the entries of an event are, at the cost of writing and reading every entry once
+ * more(or once per intermediate merge).<br>
+ * In output mode {@link AlertOutputMode#ALERTS_ONLY}, the events within the alert threshold are only counted, not returned.<br>
+ * Runs are not part of the saved state, a restarted step reads the log file from the beginning, once
+ * {@link PairingStepRestartListener} has deleted the alerts committed by the failed execution.
+ */
+@RequiredArgsConstructor
+public class SortMergePairingItemReader implements ItemStreamReader<LogEventAlert> {
+
+    public static final String SORTED_ENTRY_COUNT_KEY = "pairing.sorted-entry.count";
+    public static final String SORTED_RUN_COUNT_KEY = "pairing.sorted-run.count";
+    public static final String MERGE_PASS_COUNT_KEY = "pairing.merge-pass.count";
+    public static final String UNMATCHED_ENTRY_COUNT_KEY = "pairing.unmatched-entry.count";
+
+    @NonNull
+    private final ItemStreamReader<LogEventEntry> logEventEntryReader;
+    @NonNull
+    private final ItemProcessor<LogEventEntry, LogEventEntry> logEntryValidator;
+    @NonNull
+    private final AlertThresholdRules alertThresholdRules;
+    private final long memoryBudgetBytes;
+    private final int maxMergeFanIn;
+    @NonNull
+    private final Path runDirectory;
+    @NonNull
+    private final AlertOutputMode alertOutputMode;
+
+    private SortedRunStore sortedRunStore;
+    private boolean entriesExhausted;
+    private long nonAlertingEventCount;
+    private long nonAlertingDurationSum;
+
+    /**
+     * On the first call, reads all log entries into the sorted runs. Then merges the runs until an event is paired
+     *
+     * @return alert for the next paired event, or null once the runs are merged
+     * @throws ValidationException for an invalid entry, or a duplicate entry of an event state
+     */
+    @Override
+    public LogEventAlert read() throws Exception {
+        if (!entriesExhausted) {
+            LogEventEntry logEventEntry;
+            while ((logEventEntry = logEventEntryReader.read()) != null) {
+                LogEventEntry validLogEventEntry = logEntryValidator.process(logEventEntry);
+                if (validLogEventEntry != null) {
+                    sortedRunStore.add(validLogEventEntry);
+                }
+            }
+            entriesExhausted = true;
+        }
+        PendingEventPair pair;
+        while ((pair = sortedRunStore.nextPair()) != null) {
+            LogEventAlert logEventAlert = LogEventPairingItemReader.createLogEventAlert(pair.getPendingEntry(), pair.getEntry(), alertThresholdRules);
+            if (!isFilteredOut(logEventAlert)) {
+                return logEventAlert;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the events within the alert threshold in output mode {@link AlertOutputMode#ALERTS_ONLY}, instead of returning them
+     */
+    private boolean isFilteredOut(LogEventAlert logEventAlert) {
+        if (alertOutputMode != AlertOutputMode.ALERTS_ONLY || !logEventAlert.isWithinThreshold()) {
+            return false;
+        }
+        nonAlertingEventCount++;
+        nonAlertingDurationSum += logEventAlert.getEventDuration();
+        return true;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        sortedRunStore = new SortedRunStore(memoryBudgetBytes, maxMergeFanIn, runDirectory);
+        entriesExhausted = false;
+        nonAlertingEventCount = 0;
+        nonAlertingDurationSum = 0;
+        logEventEntryReader.open(new ExecutionContext());
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(SORTED_ENTRY_COUNT_KEY, sortedRunStore.getEntryCount());
+        executionContext.putInt(SORTED_RUN_COUNT_KEY, sortedRunStore.getRunCount());
+        executionContext.putInt(MERGE_PASS_COUNT_KEY, sortedRunStore.getMergePassCount());
+        executionContext.putLong(UNMATCHED_ENTRY_COUNT_KEY, sortedRunStore.getUnmatchedCount());
+        if (alertOutputMode == AlertOutputMode.ALERTS_ONLY) {
+            executionContext.putLong(NonAlertingEventFilter.NON_ALERTING_EVENT_COUNT_KEY, nonAlertingEventCount);
+            executionContext.putLong(NonAlertingEventFilter.NON_ALERTING_DURATION_SUM_KEY, nonAlertingDurationSum);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            sortedRunStore.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to delete the sorted runs", e);
+        } finally {
+            logEventEntryReader.close();
+        }
+    }
+}
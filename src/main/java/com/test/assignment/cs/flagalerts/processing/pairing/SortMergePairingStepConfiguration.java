@@ -0,0 +1,105 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertOutputMode;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.alerts.DurationSummaryListener;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.parser.InvalidLogEntrySkipListener;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.metrics.StepMetricsListener;
+import com.test.assignment.cs.flagalerts.processing.support.AdaptiveChunkCompletionPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Batch Step Configuration for pairing log entries by an external sort-merge on disk, without the temporary tables: <br>
+ * 1. Reading the log entries from logfile into sorted runs, and merging the runs to pair them by id - {@link SortMergePairingItemReader},<br>
+ * 2. Inserting {@link LogEventAlert} to table LOG_EVENT_ALERT - {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#logAlertsJdbcWriter}
+ */
+@Configuration
+@Slf4j
+public class SortMergePairingStepConfiguration {
+
+    @Autowired
+    public StepBuilderFactory stepBuilderFactory;
+    @Autowired
+    @Qualifier("flagAlertsChunkCompletionPolicy")
+    private AdaptiveChunkCompletionPolicy flagAlertsChunkCompletionPolicy;
+    @Autowired
+    private StepMetricsListener stepMetricsListener;
+    @Autowired
+    private DurationSummaryListener durationSummaryListener;
+
+    /**
+     * Fault tolerant step configuration for pairing log entries by sort-merge, and persisting alerts into LOG_EVENT_ALERT
+     *
+     * @param sortMergePairingReader      {@link #sortMergePairingReader(ItemStreamReader, ValidatingItemProcessor, AlertThresholdRules, long, int, String, AlertOutputMode)}
+     * @param logAlertsValidator          {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#logAlertValidator(com.test.assignment.cs.flagalerts.processing.support.ValidationMode)}
+     * @param logAlertsJdbcWriter         {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#logAlertsJdbcWriter}
+     * @param invalidLogEntrySkipListener {@link InvalidLogEntrySkipListener}
+     * @param pairingStepRestartListener  {@link InMemoryPairingStepConfiguration#pairingStepRestartListener(org.springframework.jdbc.core.JdbcTemplate)}
+     * @param skipLimit                   Number of records with exceptions to be skipped before job failure
+     */
+    @Bean("pairLogEventsSortMergeStep")
+    public Step pairLogEventsSortMergeStep(SortMergePairingItemReader sortMergePairingReader,
+                                           ValidatingItemProcessor<LogEventAlert> logAlertsValidator,
+                                           JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter,
+                                           InvalidLogEntrySkipListener invalidLogEntrySkipListener,
+                                           PairingStepRestartListener pairingStepRestartListener,
+                                           @Value("${flag-alerts.parser.invalid-entry.skip-limit:10}") int skipLimit) {
+
+        return AdaptiveChunkCompletionPolicy.register(DurationSummaryListener.register(StepMetricsListener.register(stepBuilderFactory.get("pairLogEventsSortMergeStep")
+                .listener(pairingStepRestartListener)
+                .<LogEventAlert, LogEventAlert>chunk(flagAlertsChunkCompletionPolicy)
+                .reader(sortMergePairingReader)
+                .processor(logAlertsValidator)
+                .writer(logAlertsJdbcWriter)
+                .faultTolerant()
+                .skip(FlatFileParseException.class)
+                .skip(ValidationException.class)
+                .skipLimit(skipLimit)
+                .listener(invalidLogEntrySkipListener), stepMetricsListener), durationSummaryListener), flagAlertsChunkCompletionPolicy)
+                .build();
+    }
+
+    /**
+     * Reader pairing the validated log entries of the log file reader into {@link LogEventAlert}, by sort-merge of the entries on disk
+     *
+     * @param logEventFileReader  {@link com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration#logEventFileReader(String, Long, Long)}
+     * @param logEntryValidator   {@link com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration#logEntryValidator(com.test.assignment.cs.flagalerts.processing.support.ValidationMode)}
+     * @param alertThresholdRules thresholds of event duration for flagging event as alert {@link com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration#alertThresholdRules(String, long)}
+     * @param memoryBudgetBytes   memory budget of the entries sorted at once into a run. Defaults to 64 MB
+     * @param maxMergeFanIn       maximum number of runs merged at once, more runs are merged in intermediate passes. Defaults to 64
+     * @param runDirectory        directory for the sorted runs. Defaults to the temp directory
+     * @param alertOutputMode     events returned, all by default or only the alerts
+     */
+    @Bean
+    @JobScope
+    public SortMergePairingItemReader sortMergePairingReader(
+            @Qualifier("logEventFileReader") ItemStreamReader<LogEventEntry> logEventFileReader,
+            ValidatingItemProcessor<LogEventEntry> logEntryValidator,
+            AlertThresholdRules alertThresholdRules,
+            @Value("${flag-alerts.pairing.sort-merge.memory-budget-bytes:67108864}") long memoryBudgetBytes,
+            @Value("${flag-alerts.pairing.sort-merge.max-merge-fan-in:64}") int maxMergeFanIn,
+            @Value("${flag-alerts.pairing.spill-directory:${java.io.tmpdir}}") String runDirectory,
+            @Value("${flag-alerts.alerts.output:all}") AlertOutputMode alertOutputMode) {
+        log.info("Initializing sort-merge pairing of log entries with {} alert threshold rules, run memory budget {} bytes, merge fan-in {}, output {}",
+                alertThresholdRules.getRuleCount(), memoryBudgetBytes, maxMergeFanIn, alertOutputMode);
+        return new SortMergePairingItemReader(logEventFileReader, logEntryValidator, alertThresholdRules,
+                memoryBudgetBytes, maxMergeFanIn, Paths.get(runDirectory), alertOutputMode);
+    }
+}
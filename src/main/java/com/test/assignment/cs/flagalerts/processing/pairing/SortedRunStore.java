@@ -0,0 +1,527 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * External sort-merge of the log entries by id, pairing STARTED/FINISHED entries in bounded memory however far apart they are:<br>
+ * 1. Entries are added to a buffer of compact binary records(id hash, id bytes, state, timestamp, and the dictionary codes
+ * of host and type - {@link StringDictionary}). Once the buffer exceeds the memory budget, it is sorted by id hash, id and
+ * state, and written to a run file,<br>
+ * 2. Once all entries are added, runs beyond the maximum merge fan-in are merged into longer runs, and a last k-way merge
+ * of the runs returns the entries of each id next to each other, so the pairs are returned in one sequential pass -
+ * {@link #nextPair()}.<br>
+ * Memory is bounded by the buffer and one read buffer per merged run, independent of the number of entries
+ */
+@Slf4j
+public class SortedRunStore implements Closeable {
+
+    static final int MIN_BUFFER_BYTES = 64 * 1024;
+    private static final int INITIAL_RECORD_CAPACITY = 1024;
+    private static final byte STARTED = 0;
+    private static final byte FINISHED = 1;
+    // id length, state, timestamp, host code, type code
+    private static final int RECORD_FIXED_BYTES = 2 + 1 + 8 + 4 + 4;
+    // hash, offset and sort order per record
+    private static final int RECORD_INDEX_BYTES = 8 + 4 + 4;
+    private static final int RUN_BUFFER_SIZE = 32 * 1024;
+
+    private final long memoryBudgetBytes;
+    private final int maxMergeFanIn;
+    private final Path runDirectory;
+    private final StringDictionary hostDictionary = new StringDictionary();
+    private final StringDictionary typeDictionary = new StringDictionary();
+
+    private byte[] recordArena = new byte[INITIAL_RECORD_CAPACITY * 32];
+    private int recordArenaSize;
+    private long[] hashes = new long[INITIAL_RECORD_CAPACITY];
+    private int[] offsets = new int[INITIAL_RECORD_CAPACITY];
+    private int[] order = new int[INITIAL_RECORD_CAPACITY];
+    private int recordCount;
+
+    private Path runFilesDirectory;
+    private final Deque<Path> runFiles = new ArrayDeque<>();
+    private int nextRunNumber;
+    @Getter
+    private int runCount;
+    @Getter
+    private int mergePassCount;
+    @Getter
+    private long entryCount;
+    @Getter
+    private long unmatchedCount;
+
+    private PriorityQueue<RunReader> mergeQueue;
+    private final List<RunReader> mergedRuns = new ArrayList<>();
+    private final RunRecord pendingRecord = new RunRecord();
+    private boolean hasPendingRecord;
+    // the pending record was paired already, any further entry of its id is a duplicate
+    private boolean pendingRecordPaired;
+
+    /**
+     * @param memoryBudgetBytes budget of the record buffer, beyond which the buffered entries are written to a sorted run.
+     *                          At least {@link #MIN_BUFFER_BYTES}
+     * @param maxMergeFanIn     maximum number of runs merged at once, each with its own read buffer
+     * @param runDirectory      directory for the run files, created on the first run
+     */
+    public SortedRunStore(long memoryBudgetBytes, int maxMergeFanIn, Path runDirectory) {
+        if (maxMergeFanIn < 2) {
+            throw new IllegalArgumentException("Merge fan-in must be at least 2, found " + maxMergeFanIn);
+        }
+        this.memoryBudgetBytes = Math.max(memoryBudgetBytes, MIN_BUFFER_BYTES);
+        this.maxMergeFanIn = maxMergeFanIn;
+        this.runDirectory = runDirectory;
+    }
+
+    /**
+     * Adds the entry to the record buffer, writing the buffer to a sorted run when full. Must be called before the first {@link #nextPair()}
+     */
+    public void add(LogEventEntry logEventEntry) {
+        if (mergeQueue != null) {
+            throw new IllegalStateException("Entries can not be added once merging started");
+        }
+        byte[] idBytes = logEventEntry.getId().getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length > Short.MAX_VALUE) {
+            throw new ValidationException("Event id longer than " + Short.MAX_VALUE + " bytes: " + logEventEntry.getId().substring(0, 50) + "..");
+        }
+        int recordLength = RECORD_FIXED_BYTES + idBytes.length;
+        if (!ensureCapacity(recordLength)) {
+            writeRun();
+            ensureCapacity(recordLength);
+        }
+
+        offsets[recordCount] = recordArenaSize;
+        hashes[recordCount] = PendingEventStore.hash(idBytes, idBytes.length);
+        order[recordCount] = recordCount;
+        recordCount++;
+        putShort((short) idBytes.length);
+        System.arraycopy(idBytes, 0, recordArena, recordArenaSize, idBytes.length);
+        recordArenaSize += idBytes.length;
+        recordArena[recordArenaSize++] = LogState.FINISHED.equals(logEventEntry.getState()) ? FINISHED : STARTED;
+        putLong(logEventEntry.getTimestamp());
+        putInt(hostDictionary.encode(logEventEntry.getHost()));
+        putInt(typeDictionary.encode(logEventEntry.getType()));
+        entryCount++;
+    }
+
+    /**
+     * Merges the sorted runs, pairing the entries of each id. Unmatched entries are counted, and skipped
+     *
+     * @return the next pair of entries, STARTED entry first, or null once all runs are merged
+     * @throws ValidationException for a duplicate entry of an id, the merging continues with the next call
+     */
+    public PendingEventPair nextPair() {
+        try {
+            if (mergeQueue == null) {
+                startMerge();
+            }
+            RunReader runReader;
+            while ((runReader = mergeQueue.poll()) != null) {
+                RunRecord runRecord = runReader.current;
+                if (hasPendingRecord && pendingRecord.sameId(runRecord)) {
+                    if (pendingRecordPaired || pendingRecord.state == runRecord.state) {
+                        String id = runRecord.id();
+                        advance(runReader);
+                        throw new ValidationException(String.format("Duplicate %s entry for event id %s",
+                                runRecord.state == FINISHED ? LogState.FINISHED : LogState.STARTED, id));
+                    }
+                    PendingEventPair pair = new PendingEventPair(toLogEventEntry(pendingRecord), toLogEventEntry(runRecord));
+                    pendingRecordPaired = true;
+                    advance(runReader);
+                    return pair;
+                }
+                if (hasPendingRecord && !pendingRecordPaired) {
+                    unmatchedCount++;
+                }
+                pendingRecord.copyFrom(runRecord);
+                hasPendingRecord = true;
+                pendingRecordPaired = false;
+                advance(runReader);
+            }
+            if (hasPendingRecord && !pendingRecordPaired) {
+                unmatchedCount++;
+            }
+            hasPendingRecord = false;
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to merge sorted runs in " + runFilesDirectory, e);
+        }
+    }
+
+    /**
+     * @return estimated memory of the record buffer, excluding the dictionaries and the read buffers of the merge
+     */
+    public long getEstimatedMemoryBytes() {
+        return recordArena.length + (long) hashes.length * RECORD_INDEX_BYTES;
+    }
+
+    /**
+     * Grows the buffer for a record of the given length, within the memory budget
+     *
+     * @return false when the record does not fit the budget, so the buffer is to be written to a run first
+     */
+    private boolean ensureCapacity(int recordLength) {
+        int recordCapacity = recordCount == hashes.length ? hashes.length * 2 : hashes.length;
+        int arenaCapacity = recordArena.length;
+        while (recordArenaSize + recordLength > arenaCapacity) {
+            arenaCapacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) arenaCapacity * 2);
+        }
+        if (arenaCapacity + (long) recordCapacity * RECORD_INDEX_BYTES > memoryBudgetBytes && recordCount > 0) {
+            return false;
+        }
+        if (recordCapacity != hashes.length) {
+            hashes = Arrays.copyOf(hashes, recordCapacity);
+            offsets = Arrays.copyOf(offsets, recordCapacity);
+            order = Arrays.copyOf(order, recordCapacity);
+        }
+        if (arenaCapacity != recordArena.length) {
+            recordArena = Arrays.copyOf(recordArena, arenaCapacity);
+        }
+        return true;
+    }
+
+    private void putShort(short value) {
+        recordArena[recordArenaSize++] = (byte) (value >>> 8);
+        recordArena[recordArenaSize++] = (byte) value;
+    }
+
+    private void putInt(int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            recordArena[recordArenaSize++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void putLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            recordArena[recordArenaSize++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Sorts the buffered records, and writes them to a new run file in the format read by {@link RunReader}
+     */
+    private void writeRun() {
+        if (recordCount == 0) {
+            return;
+        }
+        sort(0, recordCount - 1);
+        try {
+            Path runFile = newRunFile();
+            try (DataOutputStream runOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile), RUN_BUFFER_SIZE))) {
+                for (int i = 0; i < recordCount; i++) {
+                    int record = order[i];
+                    runOutput.writeLong(hashes[record]);
+                    runOutput.write(recordArena, offsets[record], recordLength(offsets[record]));
+                }
+            }
+            runFiles.addLast(runFile);
+            runCount++;
+            log.debug("Sorted run {} written with {} entries of {} estimated bytes", runFile, recordCount, getEstimatedMemoryBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write sorted run to " + runDirectory, e);
+        }
+        recordCount = 0;
+        recordArenaSize = 0;
+    }
+
+    private int recordLength(int offset) {
+        return RECORD_FIXED_BYTES + (((recordArena[offset] & 0xff) << 8) | (recordArena[offset + 1] & 0xff));
+    }
+
+    /**
+     * Quicksort of the record order by id hash, id and state, with insertion sort for short ranges
+     */
+    private void sort(int low, int high) {
+        while (high - low > 16) {
+            int pivot = order[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(order[i], pivot) < 0) {
+                    i++;
+                }
+                while (compare(order[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swapped = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swapped;
+                }
+            }
+            // recurse into the shorter range, loop over the longer one
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            int record = order[i];
+            int j = i - 1;
+            while (j >= low && compare(order[j], record) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = record;
+        }
+    }
+
+    private int compare(int record, int otherRecord) {
+        int hashComparison = Long.compare(hashes[record], hashes[otherRecord]);
+        if (hashComparison != 0) {
+            return hashComparison;
+        }
+        int offset = offsets[record];
+        int otherOffset = offsets[otherRecord];
+        int idLength = recordLength(offset) - RECORD_FIXED_BYTES;
+        int otherIdLength = recordLength(otherOffset) - RECORD_FIXED_BYTES;
+        int idComparison = compareIds(recordArena, offset + 2, idLength, recordArena, otherOffset + 2, otherIdLength);
+        // the state byte follows the id
+        return idComparison != 0 ? idComparison : Byte.compare(recordArena[offset + 2 + idLength], recordArena[otherOffset + 2 + otherIdLength]);
+    }
+
+    /**
+     * Orders ids by length, then by bytes. Any total order works, as only the entries of the same id need to be adjacent
+     */
+    private static int compareIds(byte[] idBytes, int offset, int length, byte[] otherIdBytes, int otherOffset, int otherLength) {
+        if (length != otherLength) {
+            return Integer.compare(length, otherLength);
+        }
+        for (int i = 0; i < length; i++) {
+            int comparison = Byte.compare(idBytes[offset + i], otherIdBytes[otherOffset + i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the last run, merges the runs down to the maximum fan-in, and opens the runs for the last merge
+     */
+    private void startMerge() throws IOException {
+        writeRun();
+        recordArena = new byte[0];
+        hashes = new long[0];
+        offsets = new int[0];
+        order = new int[0];
+        while (runFiles.size() > maxMergeFanIn) {
+            mergeRuns();
+        }
+        mergeQueue = new PriorityQueue<>(Math.max(runFiles.size(), 1), RunReader::compareTo);
+        for (Path runFile : runFiles) {
+            RunReader runReader = new RunReader(runFile);
+            mergedRuns.add(runReader);
+            if (runReader.next()) {
+                mergeQueue.add(runReader);
+            }
+        }
+        log.debug("Merging {} sorted runs of {} entries, after {} intermediate merges", runFiles.size(), entryCount, mergePassCount);
+    }
+
+    /**
+     * Merges the oldest runs into a new run, without pairing
+     */
+    private void mergeRuns() throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(maxMergeFanIn, RunReader::compareTo);
+        List<RunReader> runReaders = new ArrayList<>();
+        Path mergedRunFile = newRunFile();
+        try (DataOutputStream runOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(mergedRunFile), RUN_BUFFER_SIZE))) {
+            for (int i = 0; i < maxMergeFanIn; i++) {
+                RunReader runReader = new RunReader(runFiles.removeFirst());
+                runReaders.add(runReader);
+                if (runReader.next()) {
+                    queue.add(runReader);
+                }
+            }
+            RunReader runReader;
+            while ((runReader = queue.poll()) != null) {
+                runReader.current.writeTo(runOutput);
+                if (runReader.next()) {
+                    queue.add(runReader);
+                }
+            }
+        } finally {
+            for (RunReader runReader : runReaders) {
+                runReader.closeAndDelete();
+            }
+        }
+        runFiles.addLast(mergedRunFile);
+        mergePassCount++;
+    }
+
+    private Path newRunFile() throws IOException {
+        if (runFilesDirectory == null) {
+            runFilesDirectory = Files.createTempDirectory(Files.createDirectories(runDirectory), "sorted-runs");
+        }
+        return runFilesDirectory.resolve("run-" + nextRunNumber++ + ".bin");
+    }
+
+    /**
+     * Moves the reader to its next record, back into the merge queue unless exhausted
+     */
+    private void advance(RunReader runReader) throws IOException {
+        if (runReader.next()) {
+            mergeQueue.add(runReader);
+        }
+    }
+
+    private LogEventEntry toLogEventEntry(RunRecord runRecord) {
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setId(runRecord.id());
+        logEventEntry.setState(runRecord.state == FINISHED ? LogState.FINISHED : LogState.STARTED);
+        logEventEntry.setTimestamp(runRecord.timestamp);
+        logEventEntry.setHost(hostDictionary.decode(runRecord.hostCode));
+        logEventEntry.setType(typeDictionary.decode(runRecord.typeCode));
+        return logEventEntry;
+    }
+
+    /**
+     * Deletes the run files
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (RunReader runReader : mergedRuns) {
+                runReader.input.close();
+            }
+        } finally {
+            if (runFilesDirectory != null) {
+                FileSystemUtils.deleteRecursively(runFilesDirectory);
+                runFilesDirectory = null;
+            }
+            mergedRuns.clear();
+            runFiles.clear();
+            mergeQueue = null;
+            hasPendingRecord = false;
+        }
+    }
+
+    /**
+     * Record of a run, with the id bytes in a reused buffer
+     */
+    private static class RunRecord {
+
+        private long hash;
+        private byte[] idBytes = new byte[64];
+        private int idLength;
+        private byte state;
+        private long timestamp;
+        private int hostCode;
+        private int typeCode;
+
+        /**
+         * @return false at the end of the run
+         */
+        boolean readFrom(DataInputStream input) throws IOException {
+            try {
+                hash = input.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            idLength = input.readShort();
+            if (idBytes.length < idLength) {
+                idBytes = new byte[Math.max(idLength, idBytes.length * 2)];
+            }
+            input.readFully(idBytes, 0, idLength);
+            state = input.readByte();
+            timestamp = input.readLong();
+            hostCode = input.readInt();
+            typeCode = input.readInt();
+            return true;
+        }
+
+        void writeTo(DataOutputStream output) throws IOException {
+            output.writeLong(hash);
+            output.writeShort(idLength);
+            output.write(idBytes, 0, idLength);
+            output.writeByte(state);
+            output.writeLong(timestamp);
+            output.writeInt(hostCode);
+            output.writeInt(typeCode);
+        }
+
+        void copyFrom(RunRecord other) {
+            hash = other.hash;
+            if (idBytes.length < other.idLength) {
+                idBytes = new byte[Math.max(other.idLength, idBytes.length * 2)];
+            }
+            System.arraycopy(other.idBytes, 0, idBytes, 0, other.idLength);
+            idLength = other.idLength;
+            state = other.state;
+            timestamp = other.timestamp;
+            hostCode = other.hostCode;
+            typeCode = other.typeCode;
+        }
+
+        boolean sameId(RunRecord other) {
+            return hash == other.hash && compareIds(idBytes, 0, idLength, other.idBytes, 0, other.idLength) == 0;
+        }
+
+        int compareTo(RunRecord other) {
+            int hashComparison = Long.compare(hash, other.hash);
+            if (hashComparison != 0) {
+                return hashComparison;
+            }
+            int idComparison = compareIds(idBytes, 0, idLength, other.idBytes, 0, other.idLength);
+            return idComparison != 0 ? idComparison : Byte.compare(state, other.state);
+        }
+
+        String id() {
+            return new String(idBytes, 0, idLength, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Sequential reader of a run file, positioned on its current record
+     */
+    private static class RunReader {
+
+        private final Path runFile;
+        private final DataInputStream input;
+        private final RunRecord current = new RunRecord();
+
+        RunReader(Path runFile) throws IOException {
+            this.runFile = runFile;
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile), RUN_BUFFER_SIZE));
+        }
+
+        boolean next() throws IOException {
+            return current.readFrom(input);
+        }
+
+        int compareTo(RunReader other) {
+            return current.compareTo(other.current);
+        }
+
+        void closeAndDelete() throws IOException {
+            input.close();
+            Files.delete(runFile);
+        }
+    }
+}
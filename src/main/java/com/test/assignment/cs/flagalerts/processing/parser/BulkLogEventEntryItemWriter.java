@@ -0,0 +1,105 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads a chunk of log entries into a temporary table with set based inserts, instead of a batch of single row inserts:<br>
+ * 1. HSQLDB - the columns of the chunk are bound as arrays, and inserted by a single INSERT ... SELECT FROM UNNEST(..),<br>
+ * 2. Other databases - multi row INSERT ... VALUES (..), (..) statements of up to {@link #MAX_ROWS_PER_STATEMENT} rows<br>
+ * Host and type are inserted as their {@link EventDictionary} ids. A failing chunk is scanned item by item by the fault tolerant step, same as with the batch writer
+ */
+@Slf4j
+public class BulkLogEventEntryItemWriter implements ItemWriter<LogEventEntry> {
+
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+    private static final int COLUMN_COUNT = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventDictionary eventDictionary;
+    private final String tableName;
+    private final boolean unnestArrays;
+    private final String unnestInsertSql;
+
+    public BulkLogEventEntryItemWriter(DataSource dataSource, EventDictionary eventDictionary, String tableName) {
+        this(dataSource, eventDictionary, tableName, isHsqlDatabase(dataSource, tableName));
+    }
+
+    /**
+     * @param unnestArrays whether the chunks are inserted from column arrays, supported by HSQLDB, or by multi row inserts
+     */
+    BulkLogEventEntryItemWriter(DataSource dataSource, EventDictionary eventDictionary, String tableName, boolean unnestArrays) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.eventDictionary = eventDictionary;
+        this.tableName = tableName;
+        this.unnestArrays = unnestArrays;
+        String arrayType = " ARRAY[" + MAX_ROWS_PER_STATEMENT + "])";
+        this.unnestInsertSql = String.format("INSERT INTO %s (%s) SELECT * FROM UNNEST(CAST(? AS VARCHAR(50)%s, " +
+                        "CAST(? AS VARCHAR(20)%s, CAST(? AS BIGINT%s, CAST(? AS INTEGER%s, CAST(? AS INTEGER%s)",
+                tableName, LogEventEntryPreparedStatementSetter.INSERT_COLUMNS, arrayType, arrayType, arrayType, arrayType, arrayType);
+        log.debug("Initializing bulk loader of {}, with {}", tableName, unnestArrays ? unnestInsertSql : "multi row inserts");
+    }
+
+    @Override
+    public void write(List<? extends LogEventEntry> logEventEntries) {
+        for (int from = 0; from < logEventEntries.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<? extends LogEventEntry> rows = logEventEntries.subList(from, Math.min(logEventEntries.size(), from + MAX_ROWS_PER_STATEMENT));
+            if (unnestArrays) {
+                jdbcTemplate.update(unnestInsertSql, ps -> setColumnArrays(rows, ps));
+            } else {
+                jdbcTemplate.update(multiRowInsertSql(rows.size()), ps -> {
+                    for (int i = 0; i < rows.size(); i++) {
+                        LogEventEntryPreparedStatementSetter.setValues(rows.get(i), eventDictionary, ps, i * COLUMN_COUNT);
+                    }
+                });
+            }
+        }
+    }
+
+    private void setColumnArrays(List<? extends LogEventEntry> rows, PreparedStatement ps) throws SQLException {
+        int rowCount = rows.size();
+        Object[] ids = new Object[rowCount];
+        Object[] states = new Object[rowCount];
+        Object[] timestamps = new Object[rowCount];
+        Object[] hosts = new Object[rowCount];
+        Object[] types = new Object[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            LogEventEntry logEventEntry = rows.get(i);
+            ids[i] = logEventEntry.getId();
+            states[i] = logEventEntry.getStateAsString();
+            timestamps[i] = logEventEntry.getTimestamp();
+            hosts[i] = eventDictionary.idOf(logEventEntry.getHost());
+            types[i] = eventDictionary.idOf(logEventEntry.getType());
+        }
+        Connection connection = ps.getConnection();
+        ps.setArray(1, connection.createArrayOf("VARCHAR", ids));
+        ps.setArray(2, connection.createArrayOf("VARCHAR", states));
+        ps.setArray(3, connection.createArrayOf("BIGINT", timestamps));
+        ps.setArray(4, connection.createArrayOf("INTEGER", hosts));
+        ps.setArray(5, connection.createArrayOf("INTEGER", types));
+    }
+
+    private static boolean isHsqlDatabase(DataSource dataSource, String tableName) {
+        try {
+            return DatabaseType.fromMetaData(dataSource) == DatabaseType.HSQL;
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Failed to determine the database type for bulk loading " + tableName, e);
+        }
+    }
+
+    private String multiRowInsertSql(int rowCount) {
+        return String.format("INSERT INTO %s (%s) VALUES %s", tableName, LogEventEntryPreparedStatementSetter.INSERT_COLUMNS,
+                String.join(", ", Collections.nCopies(rowCount, "(?, ?, ?, ?, ?)")));
+    }
+}
@@ -0,0 +1,109 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File resource limited to the byte range [startOffset, endOffset) of the file, for reading a partition of the log file
+ * @see LogFileByteRangePartitioner
+ */
+public class ByteRangeFileResource extends FileSystemResource {
+
+    private final long startOffset;
+    private final long endOffset;
+
+    public ByteRangeFileResource(String path, long startOffset, long endOffset) {
+        super(path);
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        FileChannel fileChannel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
+        fileChannel.position(startOffset);
+        return new BoundedInputStream(Channels.newInputStream(fileChannel), endOffset - startOffset);
+    }
+
+    @Override
+    public long contentLength() {
+        return endOffset - startOffset;
+    }
+
+    @Override
+    public String getDescription() {
+        return String.format("%s [%d-%d)", super.getDescription(), startOffset, endOffset);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ByteRangeFileResource && super.equals(other)
+                && ((ByteRangeFileResource) other).startOffset == startOffset
+                && ((ByteRangeFileResource) other).endOffset == endOffset;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + Long.hashCode(startOffset)) + Long.hashCode(endOffset);
+    }
+
+    /**
+     * Input stream returning end of stream once the remaining bytes of the range are read
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int bytesRead = super.read(b, off, (int) Math.min(len, remaining));
+            if (bytesRead > 0) {
+                remaining -= bytesRead;
+            }
+            return bytesRead;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
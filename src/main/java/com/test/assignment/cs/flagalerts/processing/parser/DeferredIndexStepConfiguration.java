@@ -0,0 +1,53 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+/**
+ * Batch Step Configuration for the deferred index mode "flag-alerts.parser.staging.deferred-index", staging the log entries
+ * into the temporary tables without their constraints: <br>
+ * 1. Dropping the constraints before parsing - {@link #dropStagingConstraintsStep(JdbcTemplate)},<br>
+ * 2. Deleting the duplicate entries and building the constraints back after parsing - {@link #buildStagingIndexesStep(JdbcTemplate, JobRepository, int, boolean)}
+ */
+@Configuration
+public class DeferredIndexStepConfiguration {
+
+    @Autowired
+    public StepBuilderFactory stepBuilderFactory;
+
+    /**
+     * Step dropping the unique EVENT_ID and foreign key constraints of the temporary tables
+     */
+    @Bean("dropStagingConstraintsStep")
+    public Step dropStagingConstraintsStep(JdbcTemplate jdbcTemplate) {
+        return stepBuilderFactory.get("dropStagingConstraintsStep")
+                .tasklet(DeferredIndexTasklet.dropConstraints(jdbcTemplate))
+                .build();
+    }
+
+    /**
+     * Step deleting the duplicate entries of the temporary tables, and building their constraints and EVENT_ID indexes
+     *
+     * @param jobRepository     repository of the parsing step executions, whose skips count against the skip limit
+     * @param skipLimit         Number of entries skipped by the parsing step and duplicate entries deleted before job failure
+     * @param quarantineEnabled quarantine the deleted duplicate entries instead of failing the job at the skip limit
+     */
+    @Bean("buildStagingIndexesStep")
+    public Step buildStagingIndexesStep(JdbcTemplate jdbcTemplate,
+                                        JobRepository jobRepository,
+                                        @Value("${flag-alerts.parser.invalid-entry.skip-limit:10}") int skipLimit,
+                                        @Value("${flag-alerts.parser.quarantine.enabled:false}") boolean quarantineEnabled) {
+        return stepBuilderFactory.get("buildStagingIndexesStep")
+                .tasklet(DeferredIndexTasklet.buildIndexes(jdbcTemplate, jobRepository,
+                        Arrays.asList("parseLogsEntriesStep", "parseLogsEntriesPartitionedStep"), skipLimit, quarantineEnabled))
+                .build();
+    }
+}
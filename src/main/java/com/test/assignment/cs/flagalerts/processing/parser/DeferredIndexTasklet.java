@@ -0,0 +1,149 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.processing.quarantine.QuarantineReason;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tasklets of the deferred index mode, staging the log entries into the temporary tables without constraints: <br>
+ * 1. {@link #dropConstraints(JdbcTemplate)} - drops the unique EVENT_ID and dictionary foreign key constraints before the parsing step,
+ * so the staged rows only append to the tables and their primary key,<br>
+ * 2. {@link #buildIndexes(JdbcTemplate, int, boolean)} - after the parsing step, counts the duplicate entries of an event state by a single scan of
+ * each table, then deletes them by a single statement, keeping the first staged, and adds the constraints back. Each EVENT_ID index is built once over
+ * the loaded table, and the join of the entries for alerts runs against it. The duplicates are counted against what is left of
+ * the skip limit after the skips of the parsing step, failing before any is deleted. With "flag-alerts.parser.quarantine.enabled", the deleted duplicates are
+ * copied to LOG_EVENT_QUARANTINE instead of counted against the skip limit
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class DeferredIndexTasklet implements Tasklet {
+
+    public static final String DUPLICATE_COUNT_KEY = "staging.duplicate.count";
+
+    private static final int MAX_LOGGED_DUPLICATES = 10;
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+    private final JobRepository jobRepository;
+    private final List<String> parseStepNames;
+    private final boolean buildIndexes;
+    private final int skipLimit;
+    private final boolean quarantineDuplicates;
+
+    public static DeferredIndexTasklet dropConstraints(JdbcTemplate jdbcTemplate) {
+        return new DeferredIndexTasklet(jdbcTemplate, null, Collections.emptyList(), false, 0, false);
+    }
+
+    /**
+     * @param jobRepository        repository of the parsing step executions of the job instance, whose skips are taken from the skip limit
+     * @param parseStepNames       names of the parsing steps(the partitioned step aggregating its partitions), whichever the job ran
+     * @param skipLimit            number of entries skipped by the parsing step and duplicate entries deleted before the step fails,
+     *                             same as the skip limit of the parsing step
+     * @param quarantineDuplicates copy the deleted duplicates to LOG_EVENT_QUARANTINE, without the skip limit
+     */
+    public static DeferredIndexTasklet buildIndexes(JdbcTemplate jdbcTemplate, JobRepository jobRepository, List<String> parseStepNames,
+                                                    int skipLimit, boolean quarantineDuplicates) {
+        return new DeferredIndexTasklet(jdbcTemplate, jobRepository, parseStepNames, true, skipLimit, quarantineDuplicates);
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        if (!buildIndexes) {
+            for (StagingTableConstraint constraint : StagingTableConstraint.values()) {
+                if (exists(constraint)) {
+                    jdbcTemplate.execute(constraint.getDropSql());
+                }
+            }
+            log.info("Dropped the constraints of the temporary tables for deferred index staging");
+            return RepeatStatus.FINISHED;
+        }
+
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        long startedDuplicateCount = countDuplicates("TMP_LOG_EVENT_STARTED");
+        long finishedDuplicateCount = countDuplicates("TMP_LOG_EVENT_FINISHED");
+        long duplicateCount = startedDuplicateCount + finishedDuplicateCount;
+        stepExecution.getExecutionContext().putLong(DUPLICATE_COUNT_KEY, duplicateCount);
+        if (!quarantineDuplicates && duplicateCount > 0) {
+            long parseSkipCount = getParseSkipCount(stepExecution.getJobExecution().getJobInstance());
+            if (parseSkipCount + duplicateCount > skipLimit) {
+                throw new SkipLimitExceededException(skipLimit, new ValidationException(duplicateCount +
+                        " duplicate entries staged in the temporary tables, after " + parseSkipCount + " entries skipped by the parsing step"));
+            }
+        }
+        if (startedDuplicateCount > 0) {
+            deleteDuplicates("TMP_LOG_EVENT_STARTED", LogState.STARTED, stepExecution.getStepName(), startedDuplicateCount);
+        }
+        if (finishedDuplicateCount > 0) {
+            deleteDuplicates("TMP_LOG_EVENT_FINISHED", LogState.FINISHED, stepExecution.getStepName(), finishedDuplicateCount);
+        }
+        long startTime = System.currentTimeMillis();
+        for (StagingTableConstraint constraint : StagingTableConstraint.values()) {
+            if (!exists(constraint)) {
+                jdbcTemplate.execute(constraint.getAddSql());
+            }
+        }
+        log.info("Built the constraints and EVENT_ID indexes of the temporary tables in {} ms, after deleting {} duplicate entries",
+                System.currentTimeMillis() - startTime, duplicateCount);
+        return RepeatStatus.FINISHED;
+    }
+
+    /**
+     * @return number of entries of the table staged after the first of their event id, counted by a single scan of the table
+     */
+    private long countDuplicates(String tableName) {
+        Long count = jdbcTemplate.queryForObject(String.format("SELECT COUNT(*) - COUNT(DISTINCT EVENT_ID) FROM %s", tableName), Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Deletes the entries of the same event id staged after the first, by a single set based statement, after copying them to
+     * LOG_EVENT_QUARANTINE with quarantineDuplicates
+     */
+    private void deleteDuplicates(String tableName, LogState state, String stepName, long duplicateCount) {
+        String duplicatesCondition = String.format("ENTRY_ID_PK NOT IN (SELECT MIN(ENTRY_ID_PK) FROM %s GROUP BY EVENT_ID)", tableName);
+        List<String> loggedEventIds = jdbcTemplate.queryForList(String.format(
+                "SELECT EVENT_ID FROM %s GROUP BY EVENT_ID HAVING COUNT(*) > 1 LIMIT %d", tableName, MAX_LOGGED_DUPLICATES), String.class);
+        log.warn("Deleting {} duplicate entries of {}, event ids {}{}", duplicateCount, tableName, loggedEventIds,
+                duplicateCount > loggedEventIds.size() ? "..." : "");
+        if (quarantineDuplicates) {
+            jdbcTemplate.update(String.format("INSERT INTO LOG_EVENT_QUARANTINE (STEP_NAME, REASON, EVENT_ID, DETAIL) " +
+                            "SELECT ?, ?, EVENT_ID, 'Duplicate %s entry for event id ' || EVENT_ID FROM %s WHERE %s",
+                    state, tableName, duplicatesCondition), stepName, QuarantineReason.DUPLICATE.name());
+        }
+        jdbcTemplate.update(String.format("DELETE FROM %s WHERE %s", tableName, duplicatesCondition));
+    }
+
+    /**
+     * @return skips of the last execution of the parsing step, which may have completed in an earlier execution of a restarted job
+     */
+    private long getParseSkipCount(JobInstance jobInstance) {
+        long parseSkipCount = 0;
+        for (String parseStepName : parseStepNames) {
+            StepExecution parseStepExecution = jobRepository.getLastStepExecution(jobInstance, parseStepName);
+            if (parseStepExecution != null) {
+                parseSkipCount += parseStepExecution.getSkipCount();
+            }
+        }
+        return parseSkipCount;
+    }
+
+    private boolean exists(StagingTableConstraint constraint) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE CONSTRAINT_NAME = ?",
+                Integer.class, constraint.getConstraintName());
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Gzip compressed file resource, decompressed while streamed to the reader, e.g. a rotated log file "*.log.1.gz"
+ */
+public class GzipFileResource extends FileSystemResource {
+
+    private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+    public GzipFileResource(String path) {
+        super(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new GZIPInputStream(Files.newInputStream(getFile().toPath()), INFLATER_BUFFER_SIZE);
+    }
+
+    @Override
+    public String getDescription() {
+        return "gzip " + super.getDescription();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GzipFileResource && super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -5,11 +5,11 @@ import org.springframework.batch.core.listener.SkipListenerSupport;
 import org.springframework.stereotype.Component;
 
 /**
- * Logs entries that were skipped during read(failed to be parsed), or processing( failed validation)
+ * Logs entries that were skipped during read(failed to be parsed, or paired), or processing( failed validation)
  */
 @Component
 @Slf4j
-public class InvalidLogEntrySkipListener extends SkipListenerSupport<LogEventEntry, LogEventEntry> {
+public class InvalidLogEntrySkipListener extends SkipListenerSupport<Object, Object> {
 
     @Override
     public void onSkipInRead(Throwable t) {
@@ -18,7 +18,7 @@ public class InvalidLogEntrySkipListener extends SkipListenerSupport<LogEventEnt
     }
 
     @Override
-    public void onSkipInProcess(LogEventEntry item, Throwable t) {
+    public void onSkipInProcess(Object item, Throwable t) {
         log.warn("Skipped row as validation failed while processing - {}", t.getMessage());
         log.debug("Skipped row stacktrace", t);
     }
@@ -1,7 +1,9 @@
 package com.test.assignment.cs.flagalerts.processing.parser;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import javax.sql.DataSource;
 import javax.validation.constraints.Min;
@@ -24,11 +26,17 @@ public class LogEventEntry {
     private Long timestamp;
     private String type;
     private String host;
+    /**
+     * Line of the entry in the log file(or its byte range partition) parsed, 0 when not parsed from a log file
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private int lineNumber;
 
     /**
      * Returns the state value as string. Used
      * in the writer for mapping value in insert statement
-     * {@link ParseLogEntryStepConfiguration#finishedLogEventEntryWriter(DataSource)}
+     * {@link ParseLogEntryStepConfiguration#finishedLogEventEntryWriter(DataSource, EventDictionary)}
      */
     @JsonIgnore
     public String getStateAsString() {
@@ -0,0 +1,169 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.test.assignment.cs.flagalerts.processing.quarantine.QuarantineReason;
+import com.test.assignment.cs.flagalerts.processing.quarantine.QuarantinedLogEventEntry;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parser for the fixed log event schema (id, state, type, host, timestamp), mapping a json line to {@link LogEventEntry}
+ * with the Jackson streaming {@link JsonParser}, instead of data binding by reflection.<br>
+ * Lines can be parsed from a String, or directly from a byte slice of a buffer without decoding to a String.
+ * Scalar values are coerced like data binding does(e.g. numeric host, or string timestamp), while unknown fields,
+ * unknown states and non scalar values are rejected. Malformed lines fail with {@link FlatFileParseException}, or are
+ * returned as {@link QuarantinedLogEventEntry} by a quarantining parser.<br>
+ * The repeated type and host values are interned, as they take few distinct values.
+ * Thread safe, so a single parser can be shared by partitions
+ */
+public class LogEventEntryParser implements LineMapper<LogEventEntry> {
+
+    private static final int MAX_INTERNED_VALUES = 10_000;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ConcurrentMap<String, String> internedValues = new ConcurrentHashMap<>();
+    private final boolean quarantineParseFailures;
+
+    public LogEventEntryParser() {
+        this(false);
+    }
+
+    /**
+     * @param quarantineParseFailures return malformed lines as {@link QuarantinedLogEventEntry} with reason
+     *                                {@link QuarantineReason#UNPARSEABLE}, instead of failing with {@link FlatFileParseException}
+     */
+    public LogEventEntryParser(boolean quarantineParseFailures) {
+        this.quarantineParseFailures = quarantineParseFailures;
+    }
+
+    @Override
+    public LogEventEntry mapLine(String line, int lineNumber) {
+        try (JsonParser jsonParser = jsonFactory.createParser(line)) {
+            return parseLogEventEntry(jsonParser, lineNumber);
+        } catch (IOException | RuntimeException e) {
+            return parseFailure(e, line, lineNumber);
+        }
+    }
+
+    /**
+     * Parses the UTF-8 json line in the byte slice [offset, offset + length) of the buffer
+     */
+    public LogEventEntry parse(byte[] buffer, int offset, int length, int lineNumber) {
+        try (JsonParser jsonParser = jsonFactory.createParser(buffer, offset, length)) {
+            return parseLogEventEntry(jsonParser, lineNumber);
+        } catch (IOException | RuntimeException e) {
+            return parseFailure(e, new String(buffer, offset, length, StandardCharsets.UTF_8), lineNumber);
+        }
+    }
+
+    private LogEventEntry parseLogEventEntry(JsonParser jsonParser, int lineNumber) throws IOException {
+        if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseFailure("Expected a json object for log event entry");
+        }
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setLineNumber(lineNumber);
+        String fieldName;
+        while ((fieldName = jsonParser.nextFieldName()) != null) {
+            JsonToken valueToken = jsonParser.nextToken();
+            switch (fieldName) {
+                case "id":
+                    logEventEntry.setId(readText(jsonParser, valueToken, fieldName));
+                    break;
+                case "state":
+                    logEventEntry.setState(readState(jsonParser, valueToken));
+                    break;
+                case "type":
+                    logEventEntry.setType(intern(readText(jsonParser, valueToken, fieldName)));
+                    break;
+                case "host":
+                    logEventEntry.setHost(intern(readText(jsonParser, valueToken, fieldName)));
+                    break;
+                case "timestamp":
+                    logEventEntry.setTimestamp(readLong(jsonParser, valueToken, fieldName));
+                    break;
+                default:
+                    throw new JsonParseFailure("Unrecognized field \"" + fieldName + "\" for log event entry");
+            }
+        }
+        if (jsonParser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseFailure("Unexpected token " + jsonParser.currentToken() + " in log event entry");
+        }
+        return logEventEntry;
+    }
+
+    private String readText(JsonParser jsonParser, JsonToken valueToken, String fieldName) throws IOException {
+        if (valueToken == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!valueToken.isScalarValue()) {
+            throw new JsonParseFailure("Expected a scalar value for field \"" + fieldName + "\", found " + valueToken);
+        }
+        return jsonParser.getText();
+    }
+
+    private LogState readState(JsonParser jsonParser, JsonToken valueToken) throws IOException {
+        if (valueToken == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        String state = valueToken == JsonToken.VALUE_STRING ? jsonParser.getText() : null;
+        if (LogState.STARTED.getState().equals(state)) {
+            return LogState.STARTED;
+        } else if (LogState.FINISHED.getState().equals(state)) {
+            return LogState.FINISHED;
+        }
+        throw new JsonParseFailure("Unknown state " + jsonParser.getText() + " for log event entry");
+    }
+
+    private Long readLong(JsonParser jsonParser, JsonToken valueToken, String fieldName) throws IOException {
+        switch (valueToken) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return jsonParser.getLongValue();
+            case VALUE_STRING:
+                String text = jsonParser.getText().trim();
+                return text.isEmpty() ? null : Long.valueOf(text);
+            default:
+                throw new JsonParseFailure("Expected a numeric value for field \"" + fieldName + "\", found " + valueToken);
+        }
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String internedValue = internedValues.get(value);
+        if (internedValue == null && internedValues.size() < MAX_INTERNED_VALUES) {
+            internedValue = internedValues.putIfAbsent(value, value);
+        }
+        return internedValue == null ? value : internedValue;
+    }
+
+    private LogEventEntry parseFailure(Exception e, String input, int lineNumber) {
+        String message = e instanceof JsonProcessingException ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+        if (quarantineParseFailures) {
+            return new QuarantinedLogEventEntry(QuarantineReason.UNPARSEABLE, message, input, lineNumber);
+        }
+        throw new FlatFileParseException("Parsing error at line: " + lineNumber + " - " + message, e, input, lineNumber);
+    }
+
+    /**
+     * Schema violation of an otherwise well formed json line
+     */
+    private static class JsonParseFailure extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        JsonParseFailure(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.database.ItemPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Sets the parameters of the log entry insert statement directly from the {@link LogEventEntry} getters, in order of
+ * {@link #INSERT_COLUMNS}. Replaces the reflection based {@link org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider}
+ * and named parameter parsing. Host and type are set as their {@link EventDictionary} ids
+ */
+@RequiredArgsConstructor
+public class LogEventEntryPreparedStatementSetter implements ItemPreparedStatementSetter<LogEventEntry> {
+
+    public static final String INSERT_COLUMNS = "EVENT_ID, EVENT_STATE, EVENT_TIMESTAMP, EVENT_HOST_ID, EVENT_TYPE_ID";
+
+    @NonNull
+    private final EventDictionary eventDictionary;
+
+    @Override
+    public void setValues(LogEventEntry logEventEntry, PreparedStatement ps) throws SQLException {
+        setValues(logEventEntry, eventDictionary, ps, 0);
+    }
+
+    /**
+     * Sets the log entry values, starting after the given parameter index. Used for multi row inserts
+     */
+    static void setValues(LogEventEntry logEventEntry, EventDictionary eventDictionary, PreparedStatement ps, int parameterOffset) throws SQLException {
+        ps.setString(parameterOffset + 1, logEventEntry.getId());
+        ps.setString(parameterOffset + 2, logEventEntry.getStateAsString());
+        ps.setLong(parameterOffset + 3, logEventEntry.getTimestamp());
+        setNullableInt(ps, parameterOffset + 4, eventDictionary.idOf(logEventEntry.getHost()));
+        setNullableInt(ps, parameterOffset + 5, eventDictionary.idOf(logEventEntry.getType()));
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int parameterIndex, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.INTEGER);
+        } else {
+            ps.setInt(parameterIndex, value);
+        }
+    }
+}
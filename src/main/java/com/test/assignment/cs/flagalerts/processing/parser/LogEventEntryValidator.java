@@ -0,0 +1,43 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.processing.support.ConstraintChecks;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.item.validator.Validator;
+
+/**
+ * Fast path validator of the constraints declared on {@link LogEventEntry} - non blank id, non null state, and timestamp of at least 1,
+ * without the reflection and allocation of JSR-303 validation for valid entries. Must be kept in line with the annotations of {@link LogEventEntry}
+ */
+public class LogEventEntryValidator implements Validator<LogEventEntry> {
+
+    private static final long MIN_TIMESTAMP = 1;
+
+    @Override
+    public void validate(LogEventEntry logEventEntry) throws ValidationException {
+        String violation = findViolation(logEventEntry);
+        if (violation != null) {
+            throw ConstraintChecks.validationFailure(logEventEntry, violation);
+        }
+    }
+
+    /**
+     * Checks the constraints without failing, for the entries quarantined instead of skipped
+     *
+     * @return the first constraint violated by the entry, as described by {@link ConstraintChecks#violation(String, String)}, or null if valid
+     */
+    public String findViolation(LogEventEntry logEventEntry) {
+        if (ConstraintChecks.isBlank(logEventEntry.getId())) {
+            return ConstraintChecks.violation("id", "must not be blank");
+        }
+        if (logEventEntry.getState() == null) {
+            return ConstraintChecks.violation("state", "must not be null");
+        }
+        if (logEventEntry.getTimestamp() == null) {
+            return ConstraintChecks.violation("timestamp", "must not be null");
+        }
+        if (logEventEntry.getTimestamp() < MIN_TIMESTAMP) {
+            return ConstraintChecks.violation("timestamp", "must be greater than or equal to " + MIN_TIMESTAMP);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits the log file, or a line aligned byte range of it, into byte ranges of similar size, aligned to the start of a line,
+ * for parsing the ranges in parallel.
+ * Each partition execution context holds the file {@link #PARTITION_FILE_KEY}, and the range [{@link #PARTITION_START_OFFSET_KEY}, {@link #PARTITION_END_OFFSET_KEY})
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class LogFileByteRangePartitioner implements Partitioner {
+
+    public static final String PARTITION_FILE_KEY = "log-events.file";
+    public static final String PARTITION_START_OFFSET_KEY = "log-events.start-offset";
+    public static final String PARTITION_END_OFFSET_KEY = "log-events.end-offset";
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    @NonNull
+    private final String inputLogEventsFile;
+    private final long rangeStartOffset;
+    /**
+     * end of the byte range(exclusive), or a negative value for the end of file
+     */
+    private final long rangeEndOffset;
+
+    public LogFileByteRangePartitioner(String inputLogEventsFile) {
+        this(inputLogEventsFile, 0, -1);
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Path logEventsPath = Paths.get(inputLogEventsFile);
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        try (FileChannel fileChannel = FileChannel.open(logEventsPath, StandardOpenOption.READ)) {
+            long rangeEnd = rangeEndOffset < 0 ? fileChannel.size() : Math.min(rangeEndOffset, fileChannel.size());
+            long rangeSize = rangeEnd - rangeStartOffset;
+            long startOffset = rangeStartOffset;
+            for (int partitionIndex = 1; partitionIndex <= gridSize && startOffset < rangeEnd; partitionIndex++) {
+                long endOffset = partitionIndex == gridSize ? rangeEnd :
+                        Math.min(rangeEnd, Math.max(startOffset, nextLineStart(fileChannel, rangeStartOffset + rangeSize * partitionIndex / gridSize)));
+                if (endOffset > startOffset) {
+                    partitions.put("partition" + partitions.size(), createPartitionContext(startOffset, endOffset));
+                    startOffset = endOffset;
+                }
+            }
+            if (partitions.isEmpty()) {
+                partitions.put("partition0", createPartitionContext(rangeStartOffset, Math.max(rangeStartOffset, rangeEnd)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to partition log file " + inputLogEventsFile, e);
+        }
+        log.info("Partitioned log file {} into {} byte ranges", inputLogEventsFile, partitions.size());
+        return partitions;
+    }
+
+    private ExecutionContext createPartitionContext(long startOffset, long endOffset) {
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putString(PARTITION_FILE_KEY, inputLogEventsFile);
+        executionContext.putLong(PARTITION_START_OFFSET_KEY, startOffset);
+        executionContext.putLong(PARTITION_END_OFFSET_KEY, endOffset);
+        return executionContext;
+    }
+
+    /**
+     * @return offset of the first line starting at, or after the given offset. File size if there is none
+     */
+    private long nextLineStart(FileChannel fileChannel, long offset) throws IOException {
+        if (offset == rangeStartOffset) {
+            return offset;
+        }
+        ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = offset - 1;
+        while (position < fileChannel.size()) {
+            scanBuffer.clear();
+            int bytesRead = fileChannel.read(scanBuffer, position);
+            if (bytesRead <= 0) {
+                break;
+            }
+            for (int i = 0; i < bytesRead; i++) {
+                if (scanBuffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += bytesRead;
+        }
+        return fileChannel.size();
+    }
+}
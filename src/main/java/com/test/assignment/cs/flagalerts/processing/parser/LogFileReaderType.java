@@ -0,0 +1,15 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+/**
+ * Reader implementation for the log file, configurable via property "flag-alerts.parser.reader"
+ */
+public enum LogFileReaderType {
+    /**
+     * {@link org.springframework.batch.item.file.FlatFileItemReader}, decoding each line to a String
+     */
+    FLAT_FILE,
+    /**
+     * {@link MappedLogEventFileItemReader}, parsing lines from the log file mapped to memory
+     */
+    MAPPED
+}
@@ -0,0 +1,75 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Resolves the log files of the job parameter "log-events.file", a single file, a directory of log files, or a glob
+ * pattern(e.g. "/var/log/app/events.log*"). Files named "*.gz" are gzip compressed, e.g. rotated log files
+ */
+@UtilityClass
+public class LogFiles {
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+    private static final String GZIP_EXTENSION = ".gz";
+
+    /**
+     * @param logEventsPath log file, directory or glob pattern
+     * @return the file itself(existing or not), the regular files of the directory, or the regular files matching the
+     * glob pattern, sorted by path
+     */
+    public List<Path> resolve(String logEventsPath) {
+        if (!isPattern(logEventsPath)) {
+            Path path = Paths.get(logEventsPath);
+            return Files.isDirectory(path) ? listRegularFiles(path, 1, null) : Collections.singletonList(path);
+        }
+        Path baseDirectory = Paths.get(logEventsPath.substring(0, patternBaseEnd(logEventsPath)));
+        PathMatcher pathMatcher = FileSystems.getDefault().getPathMatcher("glob:" + logEventsPath);
+        return listRegularFiles(baseDirectory, Integer.MAX_VALUE, pathMatcher);
+    }
+
+    public boolean isPattern(String logEventsPath) {
+        return logEventsPath.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0);
+    }
+
+    public boolean isGzip(Path logFile) {
+        return logFile.getFileName().toString().endsWith(GZIP_EXTENSION);
+    }
+
+    /**
+     * End of the directory part of the pattern, preceding the first path segment with glob characters
+     */
+    private int patternBaseEnd(String pattern) {
+        int firstGlobCharacter = 0;
+        while (GLOB_CHARACTERS.indexOf(pattern.charAt(firstGlobCharacter)) < 0) {
+            firstGlobCharacter++;
+        }
+        int separator = Math.max(pattern.lastIndexOf('/', firstGlobCharacter), pattern.lastIndexOf(FileSystems.getDefault().getSeparator(), firstGlobCharacter));
+        return separator < 0 ? 0 : separator + 1;
+    }
+
+    private List<Path> listRegularFiles(Path directory, int maxDepth, PathMatcher pathMatcher) {
+        Path walkedDirectory = directory.toString().isEmpty() ? Paths.get(".") : directory;
+        try (Stream<Path> paths = Files.walk(walkedDirectory, maxDepth)) {
+            return paths
+                    .map(path -> directory.toString().isEmpty() ? walkedDirectory.relativize(path) : path)
+                    .filter(path -> pathMatcher == null || pathMatcher.matches(path))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list log files of " + directory, e);
+        }
+    }
+}
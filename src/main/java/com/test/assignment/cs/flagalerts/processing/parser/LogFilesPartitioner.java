@@ -0,0 +1,61 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partitions the log files resolved by {@link LogFiles#resolve(String)} for parsing in parallel: <br>
+ * 1. A single plain log file is split into "gridSize" byte ranges by {@link LogFileByteRangePartitioner},<br>
+ * 2. Of multiple log files, each gzip file is a partition of its own, as it can only be decompressed as a stream,
+ * while each plain file is split into byte ranges so that there are about "gridSize" partitions in total.<br>
+ * Each partition execution context holds the same keys as {@link LogFileByteRangePartitioner}, the range of a gzip file being
+ * the whole file [0, -1). The parsing progress of each file is saved in the execution context of its partitions for restart
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class LogFilesPartitioner implements Partitioner {
+
+    private final String inputLogEventsFile;
+    /**
+     * byte range of a single plain log file, start offset or null for the whole file
+     */
+    private final Long startOffset;
+    private final Long endOffset;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<Path> logFiles = LogFiles.resolve(inputLogEventsFile);
+        if (logFiles.isEmpty()) {
+            throw new IllegalStateException("No log files found for " + inputLogEventsFile);
+        }
+        if (logFiles.size() == 1 && !LogFiles.isGzip(logFiles.get(0))) {
+            return startOffset == null ? new LogFileByteRangePartitioner(logFiles.get(0).toString()).partition(gridSize)
+                    : new LogFileByteRangePartitioner(logFiles.get(0).toString(), startOffset, endOffset).partition(gridSize);
+        }
+
+        int rangesPerPlainFile = Math.max(1, (gridSize + logFiles.size() - 1) / logFiles.size());
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (Path logFile : logFiles) {
+            if (LogFiles.isGzip(logFile)) {
+                ExecutionContext executionContext = new ExecutionContext();
+                executionContext.putString(LogFileByteRangePartitioner.PARTITION_FILE_KEY, logFile.toString());
+                executionContext.putLong(LogFileByteRangePartitioner.PARTITION_START_OFFSET_KEY, 0);
+                executionContext.putLong(LogFileByteRangePartitioner.PARTITION_END_OFFSET_KEY, -1);
+                partitions.put("partition" + partitions.size(), executionContext);
+                continue;
+            }
+            for (ExecutionContext executionContext : new LogFileByteRangePartitioner(logFile.toString()).partition(rangesPerPlainFile).values()) {
+                partitions.put("partition" + partitions.size(), executionContext);
+            }
+        }
+        log.info("Partitioned {} log files of {} into {} partitions", logFiles.size(), inputLogEventsFile, partitions.size());
+        return partitions;
+    }
+}
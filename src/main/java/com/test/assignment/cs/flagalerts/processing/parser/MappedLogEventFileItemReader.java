@@ -0,0 +1,179 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Log file reader over windows of the file mapped to memory with {@link FileChannel#map}. Line boundaries are found
+ * directly in the mapped bytes, and each line is handed to {@link LogEventEntryParser} as a byte slice, without decoding
+ * to a String.<br>
+ * Reads the byte range [startOffset, endOffset) of the file, and saves the byte offset of the next line in the
+ * {@link ExecutionContext} for restart. Like {@link org.springframework.batch.item.file.FlatFileItemReader}, lines
+ * starting with '#' are skipped as comments
+ */
+@Slf4j
+public class MappedLogEventFileItemReader extends ItemStreamSupport implements ItemStreamReader<LogEventEntry> {
+
+    public static final String OFFSET_KEY = "offset";
+    public static final String LINE_NUMBER_KEY = "line.number";
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final Path logEventsPath;
+    private final long startOffset;
+    private final long requestedEndOffset;
+    private final LogEventEntryParser logEventEntryParser;
+    private final int windowSize;
+
+    private FileChannel fileChannel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long endOffset;
+    private long offset;
+    private int lineNumber;
+    private byte[] lineBuffer = new byte[1024];
+
+    /**
+     * @param endOffset end of the byte range(exclusive), or a negative value to read till the end of file
+     */
+    public MappedLogEventFileItemReader(Path logEventsPath, long startOffset, long endOffset,
+                                        LogEventEntryParser logEventEntryParser, int windowSize) {
+        this.logEventsPath = logEventsPath;
+        this.startOffset = startOffset;
+        this.requestedEndOffset = endOffset;
+        this.logEventEntryParser = logEventEntryParser;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public LogEventEntry read() throws IOException {
+        while (offset < endOffset) {
+            long lineStart = offset;
+            long lineEnd = findLineEnd(lineStart);
+            offset = Math.min(lineEnd + 1, endOffset);
+            lineNumber++;
+
+            int lineLength = copyLine(lineStart, lineEnd);
+            if (lineLength > 0 && lineBuffer[0] == '#') {
+                continue;
+            }
+            return logEventEntryParser.parse(lineBuffer, 0, lineLength, lineNumber);
+        }
+        return null;
+    }
+
+    /**
+     * @return offset of the line feed ending the line, or the end offset for the last line
+     * @throws FlatFileParseException for a line longer than the window, with the offset moved past the line
+     */
+    private long findLineEnd(long lineStart) throws IOException {
+        if (window == null || lineStart >= windowStart + window.limit()) {
+            mapWindow(lineStart);
+        }
+        while (true) {
+            int windowLimit = window.limit();
+            for (int i = (int) (lineStart - windowStart); i < windowLimit; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i;
+                }
+            }
+            if (windowStart + windowLimit >= endOffset) {
+                return endOffset;
+            }
+            if (windowStart == lineStart) {
+                // moves past the line, so the next read continues with the following line once the exception is skipped
+                offset = Math.min(skipLine(windowStart + windowLimit) + 1, endOffset);
+                lineNumber++;
+                throw new FlatFileParseException("Line longer than mapped window of " + windowSize + " bytes at offset " + lineStart,
+                        "", lineNumber);
+            }
+            // line crosses the end of window, map the next window from the line start
+            mapWindow(lineStart);
+        }
+    }
+
+    /**
+     * Scans the windows following the position for the end of a line longer than a window
+     *
+     * @return offset of the line feed ending the line, or the end offset for the last line
+     */
+    private long skipLine(long position) throws IOException {
+        while (position < endOffset) {
+            mapWindow(position);
+            int windowLimit = window.limit();
+            for (int i = 0; i < windowLimit; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i;
+                }
+            }
+            position = windowStart + windowLimit;
+        }
+        return endOffset;
+    }
+
+    private void mapWindow(long position) throws IOException {
+        windowStart = position;
+        window = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, endOffset - position));
+    }
+
+    /**
+     * Copies the line bytes from the window to the line buffer, without the line feed and carriage return
+     *
+     * @return length of the line
+     */
+    private int copyLine(long lineStart, long lineEnd) {
+        int lineLength = (int) (lineEnd - lineStart);
+        if (lineLength > 0 && window.get((int) (lineEnd - windowStart) - 1) == '\r') {
+            lineLength--;
+        }
+        if (lineLength > lineBuffer.length) {
+            lineBuffer = new byte[Math.max(lineLength, lineBuffer.length * 2)];
+        }
+        window.position((int) (lineStart - windowStart));
+        window.get(lineBuffer, 0, lineLength);
+        return lineLength;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            fileChannel = FileChannel.open(logEventsPath, StandardOpenOption.READ);
+            endOffset = requestedEndOffset < 0 ? fileChannel.size() : Math.min(requestedEndOffset, fileChannel.size());
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open log file " + logEventsPath, e);
+        }
+        offset = executionContext.getLong(getExecutionContextKey(OFFSET_KEY), startOffset);
+        lineNumber = executionContext.getInt(getExecutionContextKey(LINE_NUMBER_KEY), 0);
+        window = null;
+        log.debug("Opened mapped log file {} at offset {} till {}", logEventsPath, offset, endOffset);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(getExecutionContextKey(OFFSET_KEY), offset);
+        executionContext.putInt(getExecutionContextKey(LINE_NUMBER_KEY), lineNumber);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        window = null;
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Failed to close log file " + logEventsPath, e);
+            } finally {
+                fileChannel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+/**
+ * Execution of the log file parsing step, configurable via property "flag-alerts.parser.execution"
+ */
+public enum ParseExecutionMode {
+    /**
+     * Chunk oriented step, reading, validating and writing each chunk in series on the step thread
+     */
+    CHUNK,
+    /**
+     * {@link PipelinedParseTasklet}, reading, parsing/ validating and writing concurrently
+     */
+    PIPELINED
+}
@@ -1,20 +1,47 @@
 package com.test.assignment.cs.flagalerts.processing.parser;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.assignment.cs.flagalerts.processing.checkpoint.EventCheckpointItemWriter;
+import com.test.assignment.cs.flagalerts.processing.incremental.IncrementalRangeTasklet;
+import com.test.assignment.cs.flagalerts.processing.metrics.StepMetricsListener;
+import com.test.assignment.cs.flagalerts.processing.prefilter.PrefilteringLogEventEntryWriter;
+import com.test.assignment.cs.flagalerts.processing.quarantine.QuarantiningLogEventEntryProcessor;
+import com.test.assignment.cs.flagalerts.processing.quarantine.QuarantiningLogEventEntryWriter;
+import com.test.assignment.cs.flagalerts.processing.remote.PartitionRequestTransport;
+import com.test.assignment.cs.flagalerts.processing.remote.RemotePartitionConfiguration;
+import com.test.assignment.cs.flagalerts.processing.support.AdaptiveChunkCompletionPolicy;
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import com.test.assignment.cs.flagalerts.processing.support.PartitionedSkipLimitListener;
+import com.test.assignment.cs.flagalerts.processing.support.ValidationMode;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.PartitionStepBuilder;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.MultiResourceItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.builder.MultiResourceItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
 import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
+import org.springframework.batch.item.support.CompositeItemWriter;
 import org.springframework.batch.item.support.builder.ClassifierCompositeItemWriterBuilder;
+import org.springframework.batch.item.support.builder.CompositeItemWriterBuilder;
 import org.springframework.batch.item.validator.BeanValidatingItemProcessor;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
 import org.springframework.batch.item.validator.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -22,79 +49,446 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
+import javax.validation.Validation;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Batch Step Configuration for: <br>
- * 1. Reading the log entries from logfile - {@link #logEventFileReader(String)},<br>
- * 2. Persisting them by state to temporary tables TMP_LOG_EVENT_FINISHED, TMP_LOG_EVENT_STARTED - {@link #logEventJdbcWriter(JdbcBatchItemWriter, JdbcBatchItemWriter)}
+ * 1. Reading the log entries from logfile - {@link #logEventFileReader(String, Long, Long)},<br>
+ * 2. Persisting them by state to temporary tables TMP_LOG_EVENT_FINISHED, TMP_LOG_EVENT_STARTED - {@link #logEventJdbcWriter(ItemWriter, ItemWriter)},
+ * and with "flag-alerts.checkpoint.enabled" to the event checkpoint file - {@link #eventCheckpointWriter(String, int)}.
+ * With "flag-alerts.prefilter.enabled", the orphan entries are dropped before the temporary tables - {@link PrefilteringLogEventEntryWriter}.
+ * With "flag-alerts.parser.quarantine.enabled", the unparseable, invalid and duplicate entries are routed to LOG_EVENT_QUARANTINE
+ * instead of skipped - {@link #quarantiningLogEventWriter(ClassifierCompositeItemWriter, PrefilteringLogEventEntryWriter, JdbcTemplate, PrometheusMeterRegistry, String)}<br>
+ * The log file can be parsed in parallel by byte ranges - {@link #parseLogsEntriesPartitionedStep(Step, LogFilesPartitioner, TaskExecutor, int, int, RemotePartitionConfiguration, PartitionRequestTransport)},
+ * or by a pipeline of reader, worker and writer threads - {@link PipelinedParseTasklet}
  */
 @Configuration
 @Slf4j
 public class ParseLogEntryStepConfiguration {
 
     public static final String PARAM_LOG_EVENT_FILE_READER = "log-events.file";
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    public static final String PARAM_CHECKPOINT_FILE = "checkpoint.file";
     @Autowired
     public StepBuilderFactory stepBuilderFactory;
+    @Autowired
+    @Qualifier("parseLogsChunkCompletionPolicy")
+    private AdaptiveChunkCompletionPolicy parseLogsChunkCompletionPolicy;
+    @Autowired
+    private StepMetricsListener stepMetricsListener;
+    @Value("${flag-alerts.parser.reader:flat-file}")
+    private LogFileReaderType logFileReaderType;
+    @Value("${flag-alerts.parser.mapped-reader.window-size-bytes:" + MappedLogEventFileItemReader.DEFAULT_WINDOW_SIZE + "}")
+    private int mappedReaderWindowSize;
+    @Value("${flag-alerts.parser.staging.loader:jdbc-batch}")
+    private StagingTableLoaderType stagingTableLoaderType;
+    @Value("${flag-alerts.parser.execution:chunk}")
+    private ParseExecutionMode parseExecutionMode;
+    @Value("${flag-alerts.checkpoint.enabled:false}")
+    private boolean checkpointEnabled;
+    @Value("${flag-alerts.prefilter.enabled:false}")
+    private boolean prefilterEnabled;
+    @Value("${flag-alerts.parser.quarantine.enabled:false}")
+    private boolean quarantineEnabled;
+    @Value("${flag-alerts.parser.staging.deferred-index:false}")
+    private boolean deferredIndex;
+    private final LogEventEntryParser quarantiningLogEventEntryParser = new LogEventEntryParser(true);
 
     /**
-     * Fault tolerant step configuration for parsing log entries, and persisting to temporary table
+     * Fault tolerant step configuration for parsing log entries, and persisting to temporary table.
+     * With "flag-alerts.parser.execution" pipelined, a tasklet step reading, parsing and writing concurrently - {@link #pipelinedParseTasklet(ValidatingItemProcessor, ClassifierCompositeItemWriter, InvalidLogEntrySkipListener, int, int, int, int, boolean)}.
+     * With "flag-alerts.checkpoint.enabled", the entries are also written to the event checkpoint file - {@link #eventCheckpointWriter(String, int)}
      *
-     * @param logEventJdbcWriter          {@link #logEventJdbcWriter(JdbcBatchItemWriter, JdbcBatchItemWriter)}
-     * @param logEntryValidator           {@link #logEntryValidator()}
+     * @param logEventJdbcWriter          {@link #logEventJdbcWriter(ItemWriter, ItemWriter)}
+     * @param prefilteringLogEventWriter  writer of the entries not dropped as orphans to logEventJdbcWriter, used with "flag-alerts.prefilter.enabled"
+     * @param quarantiningLogEventWriter  {@link #quarantiningLogEventWriter(ClassifierCompositeItemWriter, PrefilteringLogEventEntryWriter, JdbcTemplate, PrometheusMeterRegistry, String)}, used with "flag-alerts.parser.quarantine.enabled"
+     * @param logEntryValidator           {@link #logEntryValidator(ValidationMode)}
      * @param invalidLogEntrySkipListener {@link InvalidLogEntrySkipListener}
      * @param skipLimit                   Number of records with exceptions to be skipped before job failure
      */
     @Bean("parseLogsEntriesStep")
     public Step parseLogsEntriesStep(ClassifierCompositeItemWriter<LogEventEntry> logEventJdbcWriter,
-                                     BeanValidatingItemProcessor<LogEventEntry> logEntryValidator,
+                                     PrefilteringLogEventEntryWriter prefilteringLogEventWriter,
+                                     QuarantiningLogEventEntryWriter quarantiningLogEventWriter,
+                                     ValidatingItemProcessor<LogEventEntry> logEntryValidator,
+                                     QuarantiningLogEventEntryProcessor quarantiningLogEntryValidator,
                                      InvalidLogEntrySkipListener invalidLogEntrySkipListener,
                                      @Value("${flag-alerts.parser.invalid-entry.skip-limit:10}") int skipLimit) {
 
-        return stepBuilderFactory.get("parseLogsEntriesStep")
-                .<LogEventEntry, LogEventEntry>chunk(10)
-                .reader(logEventFileReader(null))
+        if (parseExecutionMode == ParseExecutionMode.PIPELINED) {
+            log.info("Initializing pipelined parseLogsEntriesStep");
+            PipelinedParseTasklet pipelinedParseTasklet = pipelinedParseTasklet(null, null, null, 0, 0, 0, 0, false);
+            return stepBuilderFactory.get("parseLogsEntriesStep")
+                    .tasklet(pipelinedParseTasklet)
+                    .stream(pipelinedParseTasklet)
+                    .listener((StepExecutionListener) stepMetricsListener)
+                    .build();
+        }
+        if (quarantineEnabled) {
+            return createParseLogsEntriesStep("parseLogsEntriesStep", logEventFileReader(null, null, null),
+                    quarantiningLogEventWriter, prefilteringLogEventWriter, quarantiningLogEntryValidator, invalidLogEntrySkipListener, null, skipLimit);
+        }
+        return createParseLogsEntriesStep("parseLogsEntriesStep", logEventFileReader(null, null, null),
+                createLogEventWriter(logEventJdbcWriter, prefilteringLogEventWriter), prefilteringLogEventWriter, logEntryValidator,
+                invalidLogEntrySkipListener, null, skipLimit);
+    }
+
+    /**
+     * Worker step for parsing a byte range partition of the log file, with its own reader and restart state
+     *
+     * @param partitionedSkipLimitListener {@link #partitionedSkipLimitListener(int)}, the skip policy shared by the partitions
+     * @see #parseLogsEntriesStep(ClassifierCompositeItemWriter, PrefilteringLogEventEntryWriter, QuarantiningLogEventEntryWriter, ValidatingItemProcessor, QuarantiningLogEventEntryProcessor, InvalidLogEntrySkipListener, int)
+     */
+    @Bean("parseLogsEntriesWorkerStep")
+    public Step parseLogsEntriesWorkerStep(ClassifierCompositeItemWriter<LogEventEntry> logEventJdbcWriter,
+                                           PrefilteringLogEventEntryWriter prefilteringLogEventWriter,
+                                           QuarantiningLogEventEntryWriter quarantiningLogEventWriter,
+                                           ValidatingItemProcessor<LogEventEntry> logEntryValidator,
+                                           QuarantiningLogEventEntryProcessor quarantiningLogEntryValidator,
+                                           InvalidLogEntrySkipListener invalidLogEntrySkipListener,
+                                           PartitionedSkipLimitListener partitionedSkipLimitListener,
+                                           @Value("${flag-alerts.parser.invalid-entry.skip-limit:10}") int skipLimit) {
+
+        if (quarantineEnabled) {
+            return createParseLogsEntriesStep("parseLogsEntriesWorkerStep", logEventFileRangeReader(null, null, null),
+                    quarantiningLogEventWriter, prefilteringLogEventWriter, quarantiningLogEntryValidator, invalidLogEntrySkipListener,
+                    partitionedSkipLimitListener, skipLimit);
+        }
+        return createParseLogsEntriesStep("parseLogsEntriesWorkerStep", logEventFileRangeReader(null, null, null),
+                createLogEventWriter(logEventJdbcWriter, prefilteringLogEventWriter), prefilteringLogEventWriter, logEntryValidator,
+                invalidLogEntrySkipListener, partitionedSkipLimitListener, skipLimit);
+    }
+
+    /**
+     * Skip limit of the partitioned parsing step across its partitions, as the skip policy of the worker step and a listener
+     * of the partitioned step
+     *
+     * @param skipLimit Number of records with exceptions to be skipped across partitions before job failure
+     */
+    @Bean
+    public PartitionedSkipLimitListener partitionedSkipLimitListener(@Value("${flag-alerts.parser.invalid-entry.skip-limit:10}") int skipLimit) {
+        return new PartitionedSkipLimitListener(skipLimit, getSkippableExceptions());
+    }
+
+    /**
+     * Exceptions skipped by the parsing steps. With "flag-alerts.parser.quarantine.enabled", also the duplicate key of an
+     * insert racing with the insert of the same id by a concurrent partition
+     */
+    private List<Class<? extends Throwable>> getSkippableExceptions() {
+        List<Class<? extends Throwable>> skippableExceptions = new ArrayList<>(Arrays.asList(FlatFileParseException.class, ValidationException.class));
+        if (quarantineEnabled) {
+            skippableExceptions.add(DuplicateKeyException.class);
+        }
+        return skippableExceptions;
+    }
+
+    /**
+     * Partitioned step parsing the byte ranges of the log file, or the log files, in parallel, with the skip limit applied across partitions.
+     * With "flag-alerts.partition.remote.enabled", the partitions are run by the remote workers instead of the task executor
+     *
+     * @param parseLogsEntriesWorkerStep {@link #parseLogsEntriesWorkerStep(ClassifierCompositeItemWriter, PrefilteringLogEventEntryWriter, QuarantiningLogEventEntryWriter, ValidatingItemProcessor, QuarantiningLogEventEntryProcessor, InvalidLogEntrySkipListener, PartitionedSkipLimitListener, int)}
+     * @param logFilePartitioner         {@link #logFilesPartitioner(String, Long, Long)}
+     * @param gridSize                   Number of byte ranges the log file is split into, or about the number of partitions of multiple log files
+     * @param partitionedSkipLimitListener {@link #partitionedSkipLimitListener(int)}
+     * @param remotePartitionConfiguration {@link RemotePartitionConfiguration#createPartitionHandler(PartitionRequestTransport, String, int)}
+     * @param partitionRequestTransport  {@link RemotePartitionConfiguration#partitionRequestTransport(String, long)}
+     */
+    @Bean("parseLogsEntriesPartitionedStep")
+    public Step parseLogsEntriesPartitionedStep(@Qualifier("parseLogsEntriesWorkerStep") Step parseLogsEntriesWorkerStep,
+                                                LogFilesPartitioner logFilePartitioner,
+                                                @Qualifier("flagAlertsTaskExecutor") TaskExecutor flagAlertsTaskExecutor,
+                                                @Value("${flag-alerts.parser.partition.grid-size:1}") int gridSize,
+                                                PartitionedSkipLimitListener partitionedSkipLimitListener,
+                                                RemotePartitionConfiguration remotePartitionConfiguration,
+                                                PartitionRequestTransport partitionRequestTransport) {
+
+        PartitionStepBuilder stepBuilder = stepBuilderFactory.get("parseLogsEntriesPartitionedStep")
+                .partitioner("parseLogsEntriesWorkerStep", logFilePartitioner)
+                .step(parseLogsEntriesWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(flagAlertsTaskExecutor);
+        if (remotePartitionConfiguration.isRemoteEnabled()) {
+            stepBuilder.partitionHandler(remotePartitionConfiguration.createPartitionHandler(partitionRequestTransport, "parseLogsEntriesWorkerStep", gridSize));
+        }
+        return stepBuilder
+                .listener(partitionedSkipLimitListener)
+                .build();
+    }
+
+    /**
+     * Writer of the parsed entries to the temporary tables, dropping the orphan entries with "flag-alerts.prefilter.enabled",
+     * and also writing them to the event checkpoint file with "flag-alerts.checkpoint.enabled"
+     */
+    private ItemWriter<LogEventEntry> createLogEventWriter(ClassifierCompositeItemWriter<LogEventEntry> logEventJdbcWriter,
+                                                           PrefilteringLogEventEntryWriter prefilteringLogEventWriter) {
+        ItemWriter<LogEventEntry> logEventWriter = prefilterEnabled ? prefilteringLogEventWriter : logEventJdbcWriter;
+        if (checkpointEnabled) {
+            logEventWriter = new CompositeItemWriterBuilder<LogEventEntry>()
+                    .delegates(Arrays.asList(logEventWriter, eventCheckpointWriter(null, 0)))
+                    .build();
+        }
+        return logEventWriter;
+    }
+
+    /**
+     * With "flag-alerts.parser.quarantine.enabled", skips only happen when the quarantine check of a duplicate races with
+     * the insert of the same id by a concurrent partition. With "flag-alerts.prefilter.enabled", the prefiltering writer,
+     * wrapped by the writer of the step, is registered to count its orphans once each chunk is committed.
+     * The skip limit across partitions of a worker step is applied by its shared skip policy, null for the other steps
+     */
+    private Step createParseLogsEntriesStep(String stepName,
+                                            ItemReader<LogEventEntry> logEventReader,
+                                            ItemWriter<LogEventEntry> logEventWriter,
+                                            PrefilteringLogEventEntryWriter prefilteringLogEventWriter,
+                                            ItemProcessor<LogEventEntry, LogEventEntry> logEntryValidator,
+                                            InvalidLogEntrySkipListener invalidLogEntrySkipListener,
+                                            SkipPolicy partitionedSkipPolicy,
+                                            int skipLimit) {
+        FaultTolerantStepBuilder<LogEventEntry, LogEventEntry> stepBuilder = stepBuilderFactory.get(stepName)
+                .<LogEventEntry, LogEventEntry>chunk(parseLogsChunkCompletionPolicy)
+                .reader(logEventReader)
                 .processor(logEntryValidator)
-                .writer(logEventJdbcWriter)
-                .faultTolerant()
-                .skip(FlatFileParseException.class)
-                .skip(ValidationException.class)
+                .writer(logEventWriter)
+                .faultTolerant();
+        getSkippableExceptions().forEach(stepBuilder::skip);
+        if (partitionedSkipPolicy != null) {
+            // composed before the skip limit of the step, so the limit across partitions is checked first
+            stepBuilder.skipPolicy(partitionedSkipPolicy);
+        }
+        if (prefilterEnabled) {
+            stepBuilder.listener((ChunkListener) prefilteringLogEventWriter);
+        }
+        return AdaptiveChunkCompletionPolicy.register(StepMetricsListener.register(stepBuilder
                 .skipLimit(skipLimit)
-                .listener(invalidLogEntrySkipListener)
+                .listener(invalidLogEntrySkipListener), stepMetricsListener), parseLogsChunkCompletionPolicy)
                 .build();
     }
 
     /**
-     * Log file reader, mapping parsed json records to {@link LogEventEntry}
+     * Pipelined parsing of the log file, with the workers parsing/ validating batches of lines read by a reader thread,
+     * while the step thread writes the parsed batches in order - {@link PipelinedParseTasklet}
+     *
+     * @param batchSize          number of lines per batch, parsed by a worker and written in a transaction. Defaults to the parser chunk size
+     * @param ringBufferCapacity number of batches read ahead of the written batch, beyond which the reader thread waits
+     * @param workers            parallelism of the {@link java.util.concurrent.ForkJoinPool} of workers, used unless virtual threads are available
+     * @param virtualThreads     run the workers on virtual threads when running on JDK 21 or later
+     */
+    @Bean
+    @StepScope
+    public PipelinedParseTasklet pipelinedParseTasklet(
+            ValidatingItemProcessor<LogEventEntry> logEntryValidator,
+            ClassifierCompositeItemWriter<LogEventEntry> logEventJdbcWriter,
+            InvalidLogEntrySkipListener invalidLogEntrySkipListener,
+            @Value("${flag-alerts.parser.invalid-entry.skip-limit:10}") int skipLimit,
+            @Value("${flag-alerts.parser.chunk-size:1000}") int batchSize,
+            @Value("${flag-alerts.parser.pipeline.ring-buffer-capacity:64}") int ringBufferCapacity,
+            @Value("${flag-alerts.parser.pipeline.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int workers,
+            @Value("${flag-alerts.parser.pipeline.virtual-threads:true}") boolean virtualThreads) {
+        return new PipelinedParseTasklet(logEventLineReader(null, null, null), logEventEntryParser(), logEntryValidator,
+                logEventJdbcWriter, invalidLogEntrySkipListener, skipLimit, batchSize, ringBufferCapacity, workers, virtualThreads);
+    }
+
+    /**
+     * Log file reader of the raw lines for {@link PipelinedParseTasklet}, which parses the lines in its workers
+     *
+     * @see #logEventFileReader(String, Long, Long)
+     */
+    @Bean
+    @JobScope
+    public ItemStreamReader<String> logEventLineReader(
+            @Value("#{jobParameters['log-events.file']}") String inputLogEventsFile,
+            @Value("#{jobExecutionContext['" + IncrementalRangeTasklet.START_OFFSET_KEY + "']}") Long startOffset,
+            @Value("#{jobExecutionContext['" + IncrementalRangeTasklet.END_OFFSET_KEY + "']}") Long endOffset) {
+        if(StringUtils.isEmpty(inputLogEventsFile)) {
+            inputLogEventsFile = "logfile.txt";
+        }
+        List<Path> logFiles = LogFiles.resolve(inputLogEventsFile);
+        log.info("Initializing logEventLineReader for {} log files of {}", logFiles.size(), inputLogEventsFile);
+        if (logFiles.size() != 1 || LogFiles.isGzip(logFiles.get(0))) {
+            return createMultiFileReader("logEventLineReader", logFiles, new PassThroughLineMapper());
+        }
+        return createFlatFileReader("logEventLineReader", inputLogEventsFile,
+                startOffset == null ? 0 : startOffset, startOffset == null ? -1 : endOffset, new PassThroughLineMapper());
+    }
+
+    /**
+     * Log file reader, mapping parsed json records to {@link LogEventEntry}.
+     * {@link FlatFileItemReader}, or {@link MappedLogEventFileItemReader} as configured by property "flag-alerts.parser.reader".
+     * Multiple log files(directory or glob pattern), or gzip files, are read one after the other by a {@link MultiResourceItemReader}
+     *
+     * @param inputLogEventsFile input log events file, directory or glob pattern, see {@link LogFiles}. Configurable via Job Parameter "log-events.file"
+     * @param startOffset        start of the byte range appended since the last run in incremental mode, see {@link IncrementalRangeTasklet}. Null reads the whole file
+     * @param endOffset          end of the byte range appended since the last run in incremental mode
+     */
+    @Bean
+    @JobScope
+    public ItemStreamReader<LogEventEntry> logEventFileReader(
+            @Value("#{jobParameters['log-events.file']}") String inputLogEventsFile,
+            @Value("#{jobExecutionContext['" + IncrementalRangeTasklet.START_OFFSET_KEY + "']}") Long startOffset,
+            @Value("#{jobExecutionContext['" + IncrementalRangeTasklet.END_OFFSET_KEY + "']}") Long endOffset) {
+        return createLogFilesReader("logEventFileReader", inputLogEventsFile, startOffset, endOffset);
+    }
+
+    /**
+     * Log file reader of the first pass building the event id filters with "flag-alerts.prefilter.enabled",
+     * see {@link com.test.assignment.cs.flagalerts.processing.prefilter.BuildEventIdFiltersTasklet}
+     *
+     * @see #logEventFileReader(String, Long, Long)
+     */
+    @Bean
+    @JobScope
+    public ItemStreamReader<LogEventEntry> prefilterLogEventFileReader(@Value("#{jobParameters['log-events.file']}") String inputLogEventsFile) {
+        return createLogFilesReader("prefilterLogEventFileReader", inputLogEventsFile, null, null);
+    }
+
+    private ItemStreamReader<LogEventEntry> createLogFilesReader(String name, String inputLogEventsFile, Long startOffset, Long endOffset) {
+        if(StringUtils.isEmpty(inputLogEventsFile)) {
+            inputLogEventsFile = "logfile.txt";
+        }
+        List<Path> logFiles = LogFiles.resolve(inputLogEventsFile);
+        if (logFiles.size() != 1 || LogFiles.isGzip(logFiles.get(0))) {
+            log.info("Initializing {} for {} log files of {}", name, logFiles.size(), inputLogEventsFile);
+            return createMultiFileReader(name, logFiles, logEventLineMapper());
+        }
+        if (startOffset == null) {
+            log.info("Initializing {} {} for file {}", logFileReaderType, name, inputLogEventsFile);
+            return createLogEventFileReader(name, inputLogEventsFile, 0, -1);
+        }
+        log.info("Initializing {} {} for file {} [{}-{})", logFileReaderType, name, inputLogEventsFile, startOffset, endOffset);
+        return createLogEventFileReader(name, inputLogEventsFile, startOffset, endOffset);
+    }
+
+    /**
+     * Partitions the log file, or the byte range appended since the last run in incremental mode, into byte ranges aligned to lines.
+     * Multiple log files are partitioned by file, see {@link LogFilesPartitioner}
      *
-     * @param inputLogEventsFile input log events file. Configurable via Job Parameter "log-events.file"
+     * @param inputLogEventsFile input log events file, directory or glob pattern. Configurable via Job Parameter "log-events.file"
+     * @see #logEventFileReader(String, Long, Long)
      */
     @Bean
     @JobScope
-    public FlatFileItemReader<LogEventEntry> logEventFileReader(@Value("#{jobParameters['log-events.file']}") String inputLogEventsFile) {
+    public LogFilesPartitioner logFilesPartitioner(
+            @Value("#{jobParameters['log-events.file']}") String inputLogEventsFile,
+            @Value("#{jobExecutionContext['" + IncrementalRangeTasklet.START_OFFSET_KEY + "']}") Long startOffset,
+            @Value("#{jobExecutionContext['" + IncrementalRangeTasklet.END_OFFSET_KEY + "']}") Long endOffset) {
         if(StringUtils.isEmpty(inputLogEventsFile)) {
             inputLogEventsFile = "logfile.txt";
         }
-        log.info("Initializing logEventFileReader for file {}", inputLogEventsFile);
-        return new FlatFileItemReaderBuilder<LogEventEntry>()
-                .name("logEventFileReader")
-                .resource(new FileSystemResource(inputLogEventsFile))
-                .lineMapper((line, lineNumber) -> objectMapper.readValue(line, LogEventEntry.class))
+        return new LogFilesPartitioner(inputLogEventsFile, startOffset, endOffset);
+    }
+
+    /**
+     * Log file reader for a byte range partition of a log file, or a whole gzip file
+     *
+     * @see LogFilesPartitioner
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<LogEventEntry> logEventFileRangeReader(
+            @Value("#{stepExecutionContext['" + LogFileByteRangePartitioner.PARTITION_FILE_KEY + "']}") String inputLogEventsFile,
+            @Value("#{stepExecutionContext['" + LogFileByteRangePartitioner.PARTITION_START_OFFSET_KEY + "']}") Long startOffset,
+            @Value("#{stepExecutionContext['" + LogFileByteRangePartitioner.PARTITION_END_OFFSET_KEY + "']}") Long endOffset) {
+        log.debug("Initializing logEventFileRangeReader for file {} [{}-{})", inputLogEventsFile, startOffset, endOffset);
+        return createLogEventFileReader("logEventFileRangeReader", inputLogEventsFile, startOffset, endOffset);
+    }
+
+    /**
+     * Creates the configured reader type for the byte range [startOffset, endOffset) of the log file.
+     * Gzip files are read whole by {@link FlatFileItemReader}, decompressed while read
+     *
+     * @param endOffset end of the byte range(exclusive), or a negative value to read the whole file
+     */
+    private ItemStreamReader<LogEventEntry> createLogEventFileReader(String name, String inputLogEventsFile, long startOffset, long endOffset) {
+        if (logFileReaderType == LogFileReaderType.MAPPED && !LogFiles.isGzip(Paths.get(inputLogEventsFile))) {
+            MappedLogEventFileItemReader mappedLogEventFileReader = new MappedLogEventFileItemReader(
+                    Paths.get(inputLogEventsFile), startOffset, endOffset, logEventLineMapper(), mappedReaderWindowSize);
+            mappedLogEventFileReader.setName(name);
+            return mappedLogEventFileReader;
+        }
+        return createFlatFileReader(name, inputLogEventsFile, startOffset, endOffset, logEventLineMapper());
+    }
+
+    /**
+     * {@link FlatFileItemReader} of the byte range [startOffset, endOffset) of the log file, or of a whole gzip file
+     */
+    private <T> FlatFileItemReader<T> createFlatFileReader(String name, String inputLogEventsFile, long startOffset, long endOffset,
+                                                           LineMapper<T> lineMapper) {
+        Resource logEventsResource;
+        if (LogFiles.isGzip(Paths.get(inputLogEventsFile))) {
+            logEventsResource = new GzipFileResource(inputLogEventsFile);
+        } else {
+            logEventsResource = endOffset < 0 ? new FileSystemResource(inputLogEventsFile) :
+                    new ByteRangeFileResource(inputLogEventsFile, startOffset, endOffset);
+        }
+        return new FlatFileItemReaderBuilder<T>()
+                .name(name)
+                .resource(logEventsResource)
+                .lineMapper(lineMapper)
                 .build();
     }
 
+    /**
+     * {@link MultiResourceItemReader} of the log files one after the other, saving the current file and line for restart
+     */
+    private <T> MultiResourceItemReader<T> createMultiFileReader(String name, List<Path> logFiles, LineMapper<T> lineMapper) {
+        return new MultiResourceItemReaderBuilder<T>()
+                .name(name)
+                .resources(logFiles.stream().map(this::createLogFileResource).toArray(Resource[]::new))
+                .delegate(new FlatFileItemReaderBuilder<T>()
+                        .name(name)
+                        .lineMapper(lineMapper)
+                        .build())
+                .setStrict(true)
+                .build();
+    }
+
+    private Resource createLogFileResource(Path logFile) {
+        return LogFiles.isGzip(logFile) ? new GzipFileResource(logFile.toString()) : new FileSystemResource(logFile);
+    }
+
+    /**
+     * Streaming json parser, mapping log file lines to {@link LogEventEntry}
+     */
+    @Bean
+    public LogEventEntryParser logEventEntryParser() {
+        return new LogEventEntryParser();
+    }
+
+    /**
+     * Parser of the log file readers, returning the malformed lines as quarantined entries with "flag-alerts.parser.quarantine.enabled"
+     */
+    private LogEventEntryParser logEventLineMapper() {
+        return quarantineEnabled ? quarantiningLogEventEntryParser : logEventEntryParser();
+    }
+
+    /**
+     * Dictionary of the event host and type values, stored by id in the temporary tables and LOG_EVENT_ALERT_ENCODED
+     */
+    @Bean
+    public EventDictionary eventDictionary(DataSource dataSource) {
+        return new EventDictionary(dataSource);
+    }
+
     /**
      * Based on state, persists the log event entry to TMP_LOG_EVENT_FINISHED, TMP_LOG_EVENT_STARTED
      *
-     * @param startedLogEventEntryWriter  {@link #startedLogEventEntryWriter(DataSource)}
-     * @param finishedLogEventEntryWriter {@link #finishedLogEventEntryWriter(DataSource)}
+     * @param startedLogEventEntryWriter  {@link #startedLogEventEntryWriter(DataSource, EventDictionary)}
+     * @param finishedLogEventEntryWriter {@link #finishedLogEventEntryWriter(DataSource, EventDictionary)}
      */
     @Bean
     public ClassifierCompositeItemWriter<LogEventEntry> logEventJdbcWriter(
-            @Qualifier("startedLogEventEntryWriter") JdbcBatchItemWriter<LogEventEntry> startedLogEventEntryWriter,
-            @Qualifier("finishedLogEventEntryWriter") JdbcBatchItemWriter<LogEventEntry> finishedLogEventEntryWriter) {
+            @Qualifier("startedLogEventEntryWriter") ItemWriter<LogEventEntry> startedLogEventEntryWriter,
+            @Qualifier("finishedLogEventEntryWriter") ItemWriter<LogEventEntry> finishedLogEventEntryWriter) {
 
         return new ClassifierCompositeItemWriterBuilder<LogEventEntry>()
                 .classifier(logEventEntry -> LogState.FINISHED.equals(logEventEntry.getState()) ? finishedLogEventEntryWriter : startedLogEventEntryWriter)
@@ -102,44 +496,100 @@ public class ParseLogEntryStepConfiguration {
     }
 
     /**
-     * Jdbc writer for STARTED state log entry to TMP_LOG_EVENT_STARTED
+     * Writer for STARTED state log entry to TMP_LOG_EVENT_STARTED
      */
     @Bean("startedLogEventEntryWriter")
-    public JdbcBatchItemWriter<LogEventEntry> startedLogEventEntryWriter(DataSource dataSource) {
-        return createLogEventEntryJdbcWriter(dataSource, LogState.STARTED.getState());
+    public ItemWriter<LogEventEntry> startedLogEventEntryWriter(DataSource dataSource, EventDictionary eventDictionary) {
+        return createLogEventEntryWriter(dataSource, eventDictionary, LogState.STARTED.getState());
     }
 
     /**
-     * Jdbc writer for FINISHED State log entry to TMP_LOG_EVENT_FINISHED
+     * Writer for FINISHED State log entry to TMP_LOG_EVENT_FINISHED
      */
     @Bean("finishedLogEventEntryWriter")
-    public JdbcBatchItemWriter<LogEventEntry> finishedLogEventEntryWriter(DataSource dataSource) {
-        return createLogEventEntryJdbcWriter(dataSource, LogState.FINISHED.getState());
+    public ItemWriter<LogEventEntry> finishedLogEventEntryWriter(DataSource dataSource, EventDictionary eventDictionary) {
+        return createLogEventEntryWriter(dataSource, eventDictionary, LogState.FINISHED.getState());
     }
 
     /**
-     * Creates a JdbcBatchItemWriter for inserting log entries to TMP_LOG_EVENT_[STATE]
+     * Creates the configured loader type for inserting log entries to TMP_LOG_EVENT_[STATE]
      */
-    private JdbcBatchItemWriter<LogEventEntry> createLogEventEntryJdbcWriter(DataSource dataSource, final String state) {
+    private ItemWriter<LogEventEntry> createLogEventEntryWriter(DataSource dataSource, EventDictionary eventDictionary, final String state) {
+        final String tableName = "TMP_LOG_EVENT_" + state;
+        if (stagingTableLoaderType == StagingTableLoaderType.BULK) {
+            return new BulkLogEventEntryItemWriter(dataSource, eventDictionary, tableName);
+        }
 
-        final String insertLogEntrySql =
-                String.format("INSERT INTO TMP_LOG_EVENT_%s (EVENT_ID, EVENT_STATE, EVENT_TIMESTAMP, EVENT_HOST, EVENT_TYPE) " +
-                        "VALUES (:id, :stateAsString, :timestamp, :host, :type)", state);
+        final String insertLogEntrySql = String.format("INSERT INTO %s (%s) VALUES (?, ?, ?, ?, ?)",
+                tableName, LogEventEntryPreparedStatementSetter.INSERT_COLUMNS);
         log.debug("Initializing Log Event JDBC writer with SQL - {}", insertLogEntrySql);
 
         return new JdbcBatchItemWriterBuilder<LogEventEntry>()
-                .itemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>())
+                .itemPreparedStatementSetter(new LogEventEntryPreparedStatementSetter(eventDictionary))
                 .sql(insertLogEntrySql)
                 .dataSource(dataSource)
                 .build();
     }
 
     /**
-     * JSR Bean Validator for {@link LogEventEntry}
+     * Writer of the parsed entries to the event checkpoint file, read back through memory mapping by the re-flag job
+     * {@link com.test.assignment.cs.flagalerts.processing.checkpoint.ReflagJobConfiguration}, instead of parsing the log file again
+     *
+     * @param checkpointFile event checkpoint file, truncated at the start of the job. Configurable via Job Parameter "checkpoint.file"
+     * @param blockSize      maximum number of entries per block of columns, blocks are also closed at each commit
+     */
+    @Bean
+    @StepScope
+    public EventCheckpointItemWriter eventCheckpointWriter(@Value("#{jobParameters['" + PARAM_CHECKPOINT_FILE + "']}") String checkpointFile,
+                                                           @Value("${flag-alerts.checkpoint.block-size:4096}") int blockSize) {
+        log.info("Initializing event checkpoint writer for file {}, {} entries per block", checkpointFile, blockSize);
+        EventCheckpointItemWriter eventCheckpointWriter = new EventCheckpointItemWriter(Paths.get(checkpointFile), blockSize);
+        eventCheckpointWriter.setName("eventCheckpointWriter");
+        return eventCheckpointWriter;
+    }
+
+    /**
+     * Validator for {@link LogEventEntry}, failing invalid entries with {@link ValidationException}
+     *
+     * @param validationMode {@link LogEventEntryValidator} by default, or the JSR Bean Validator. Configurable via property "flag-alerts.validation.mode"
+     */
+    @Bean
+    public ValidatingItemProcessor<LogEventEntry> logEntryValidator(@Value("${flag-alerts.validation.mode:fast}") ValidationMode validationMode) {
+        if (validationMode == ValidationMode.JSR) {
+            return new BeanValidatingItemProcessor<>();
+        }
+        return new ValidatingItemProcessor<>(new LogEventEntryValidator());
+    }
+
+    /**
+     * Validator for {@link LogEventEntry} with "flag-alerts.parser.quarantine.enabled", returning invalid entries as quarantined instead of failing them
+     *
+     * @param validationMode {@link LogEventEntryValidator} by default, or the JSR Bean Validator. Configurable via property "flag-alerts.validation.mode"
+     */
+    @Bean
+    public QuarantiningLogEventEntryProcessor quarantiningLogEntryValidator(@Value("${flag-alerts.validation.mode:fast}") ValidationMode validationMode) {
+        return new QuarantiningLogEventEntryProcessor(validationMode == ValidationMode.JSR ?
+                Validation.buildDefaultValidatorFactory().getValidator() : null);
+    }
+
+    /**
+     * Writer of the parsing step(or partition) with "flag-alerts.parser.quarantine.enabled", routing the unparseable, invalid and duplicate
+     * entries to LOG_EVENT_QUARANTINE, and the others to the writer of the temporary tables. With "flag-alerts.parser.staging.deferred-index",
+     * only the duplicates within a chunk are found, the others are deleted after staging
+     *
+     * @param stepName name of the step, or partition, recorded with the quarantined entries
      */
     @Bean
-    public BeanValidatingItemProcessor<LogEventEntry> logEntryValidator() {
-        return new BeanValidatingItemProcessor<>();
+    @StepScope
+    public QuarantiningLogEventEntryWriter quarantiningLogEventWriter(ClassifierCompositeItemWriter<LogEventEntry> logEventJdbcWriter,
+                                                                      PrefilteringLogEventEntryWriter prefilteringLogEventWriter,
+                                                                      JdbcTemplate jdbcTemplate,
+                                                                      PrometheusMeterRegistry prometheusMeterRegistry,
+                                                                      @Value("#{stepExecution.stepName}") String stepName) {
+        QuarantiningLogEventEntryWriter quarantiningLogEventWriter = new QuarantiningLogEventEntryWriter(
+                createLogEventWriter(logEventJdbcWriter, prefilteringLogEventWriter), jdbcTemplate, prometheusMeterRegistry, stepName, !deferredIndex);
+        quarantiningLogEventWriter.setName("quarantiningLogEventWriter");
+        return quarantiningLogEventWriter;
     }
 
 }
@@ -0,0 +1,286 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.scope.ScopedObject;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Pipelined alternative to the chunk oriented parsing step, overlapping the reading, parsing/ validation and writing of the log file: <br>
+ * 1. A reader thread reads the raw lines in batches of "batchSize", and queues a parsing task per batch into a ring buffer
+ * of "ringBufferCapacity" batches, blocking while it is full,<br>
+ * 2. Workers parse and validate the batches in parallel - virtual threads when running on JDK 21 or later, otherwise a {@link ForkJoinPool}
+ * of "workers" threads,<br>
+ * 3. Each call of {@link #execute(StepContribution, ChunkContext)} takes the batch at the head of the ring buffer, and writes
+ * its valid entries in the step transaction.<br>
+ * Batches are written in the order they were read, so the number of lines written is the restart position saved to the step execution context.
+ * Lines failing parsing or validation are skipped up to the skip limit, like the fault tolerant chunk step.<br>
+ * Not a default, nor a given speedup: the overlap only pays off with spare cores while parsing is the bottleneck rather than
+ * the writes, and on a single core it adds the hand-off between the threads. Compare with the chunk step on the target machine
+ * with the JMH benchmark ParseLogEntryStepBenchmark
+ */
+@Slf4j
+public class PipelinedParseTasklet implements Tasklet, ItemStream {
+
+    static final String LINES_WRITTEN_KEY = "pipelined-parse.lines.written";
+    private static final Future<ParsedBatch> END_OF_INPUT = CompletableFuture.completedFuture(null);
+
+    private final ItemStreamReader<String> lineReader;
+    private final LineMapper<LogEventEntry> logEventEntryParser;
+    private final ItemProcessor<LogEventEntry, LogEventEntry> logEntryValidator;
+    private final ItemWriter<LogEventEntry> logEventWriter;
+    private final SkipListener<Object, Object> skipListener;
+    private final int skipLimit;
+    private final int batchSize;
+    private final int ringBufferCapacity;
+    private final int workers;
+    private final boolean virtualThreads;
+
+    private ItemStreamReader<String> openedLineReader;
+    private BlockingQueue<Future<ParsedBatch>> ringBuffer;
+    private ExecutorService workerExecutor;
+    private Thread readerThread;
+    private volatile boolean stopped;
+    private long linesWritten;
+
+    /**
+     * @param virtualThreads use virtual threads for the workers when available(JDK 21 or later), instead of a {@link ForkJoinPool}
+     */
+    public PipelinedParseTasklet(ItemStreamReader<String> lineReader, LineMapper<LogEventEntry> logEventEntryParser,
+                                 ItemProcessor<LogEventEntry, LogEventEntry> logEntryValidator, ItemWriter<LogEventEntry> logEventWriter,
+                                 SkipListener<Object, Object> skipListener, int skipLimit,
+                                 int batchSize, int ringBufferCapacity, int workers, boolean virtualThreads) {
+        this.lineReader = lineReader;
+        this.logEventEntryParser = logEventEntryParser;
+        this.logEntryValidator = logEntryValidator;
+        this.logEventWriter = logEventWriter;
+        this.skipListener = skipListener;
+        this.skipLimit = skipLimit;
+        this.batchSize = batchSize;
+        this.ringBufferCapacity = ringBufferCapacity;
+        this.workers = workers;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void open(ExecutionContext executionContext) {
+        linesWritten = executionContext.getLong(LINES_WRITTEN_KEY, 0);
+        // the job scope is not active on the reader thread, so a scoped reader is resolved on the step thread
+        openedLineReader = lineReader instanceof ScopedObject ? (ItemStreamReader<String>) ((ScopedObject) lineReader).getTargetObject() : lineReader;
+        // the reader reads ahead of the written lines, so its own state is not saved, and the written lines are skipped on restart
+        openedLineReader.open(new ExecutionContext());
+        ringBuffer = new ArrayBlockingQueue<>(ringBufferCapacity);
+        workerExecutor = createWorkerExecutor();
+        stopped = false;
+        readerThread = new Thread(this::readLines, "flag-alerts-pipeline-reader");
+        readerThread.start();
+        log.info("Started parsing pipeline with batch size {}, ring buffer capacity {} and {} workers, from line {}",
+                batchSize, ringBufferCapacity, workerExecutor instanceof ForkJoinPool ? String.valueOf(workers) : "virtual thread", linesWritten);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(LINES_WRITTEN_KEY, linesWritten);
+    }
+
+    @Override
+    public void close() {
+        stopped = true;
+        try {
+            if (readerThread != null) {
+                readerThread.interrupt();
+                readerThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (ringBuffer != null) {
+                ringBuffer.forEach(parsedBatch -> parsedBatch.cancel(true));
+                ringBuffer.clear();
+            }
+            if (workerExecutor != null) {
+                workerExecutor.shutdownNow();
+            }
+            if (openedLineReader != null) {
+                openedLineReader.close();
+            }
+            openedLineReader = null;
+            readerThread = null;
+        }
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        ParsedBatch parsedBatch = takeParsedBatch();
+        if (parsedBatch == null) {
+            return RepeatStatus.FINISHED;
+        }
+
+        // like the chunk step, lines skipped in read are not counted as read
+        for (int i = parsedBatch.readFailures.size(); i < parsedBatch.lineCount; i++) {
+            contribution.incrementReadCount();
+        }
+        for (FlatFileParseException readFailure : parsedBatch.readFailures) {
+            contribution.incrementReadSkipCount();
+            skipListener.onSkipInRead(readFailure);
+        }
+        for (int i = 0; i < parsedBatch.processFailures.size(); i++) {
+            contribution.incrementProcessSkipCount();
+            skipListener.onSkipInProcess(parsedBatch.invalidEntries.get(i), parsedBatch.processFailures.get(i));
+        }
+        int skipCount = chunkContext.getStepContext().getStepExecution().getSkipCount() + contribution.getSkipCount();
+        if (skipCount > skipLimit) {
+            Exception lastFailure = parsedBatch.processFailures.isEmpty() ? parsedBatch.readFailures.get(parsedBatch.readFailures.size() - 1)
+                    : parsedBatch.processFailures.get(parsedBatch.processFailures.size() - 1);
+            throw new SkipLimitExceededException(skipLimit, lastFailure);
+        }
+        contribution.incrementFilterCount(parsedBatch.filterCount);
+
+        if (!parsedBatch.entries.isEmpty()) {
+            logEventWriter.write(parsedBatch.entries);
+            contribution.incrementWriteCount(parsedBatch.entries.size());
+        }
+        linesWritten += parsedBatch.lineCount;
+        return RepeatStatus.CONTINUABLE;
+    }
+
+    /**
+     * @return the parsed batch at the head of the ring buffer, or null at the end of the log file
+     */
+    private ParsedBatch takeParsedBatch() throws Exception {
+        try {
+            return ringBuffer.take().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reader thread, queueing a parsing task per batch of lines, till the end of the log file
+     */
+    private void readLines() {
+        try {
+            for (long skippedLines = 0; skippedLines < linesWritten && openedLineReader.read() != null; skippedLines++) {
+                // skip the lines written by the previous execution
+            }
+            long lineNumber = linesWritten;
+            while (!stopped) {
+                List<String> lines = new ArrayList<>(batchSize);
+                String line;
+                while (lines.size() < batchSize && (line = openedLineReader.read()) != null) {
+                    lines.add(line);
+                }
+                if (lines.isEmpty()) {
+                    ringBuffer.put(END_OF_INPUT);
+                    return;
+                }
+                long firstLineNumber = lineNumber + 1;
+                ringBuffer.put(CompletableFuture.supplyAsync(() -> parse(lines, firstLineNumber), workerExecutor));
+                lineNumber += lines.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            CompletableFuture<ParsedBatch> readFailure = new CompletableFuture<>();
+            readFailure.completeExceptionally(e);
+            try {
+                ringBuffer.put(readFailure);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Worker task, parsing and validating a batch of lines
+     */
+    private ParsedBatch parse(List<String> lines, long firstLineNumber) {
+        ParsedBatch parsedBatch = new ParsedBatch(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            LogEventEntry logEventEntry;
+            try {
+                logEventEntry = logEventEntryParser.mapLine(lines.get(i), (int) (firstLineNumber + i));
+            } catch (FlatFileParseException e) {
+                parsedBatch.readFailures.add(e);
+                continue;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            try {
+                LogEventEntry validLogEventEntry = logEntryValidator.process(logEventEntry);
+                if (validLogEventEntry == null) {
+                    parsedBatch.filterCount++;
+                } else {
+                    parsedBatch.entries.add(validLogEventEntry);
+                }
+            } catch (ValidationException e) {
+                parsedBatch.invalidEntries.add(logEventEntry);
+                parsedBatch.processFailures.add(e);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }
+        return parsedBatch;
+    }
+
+    /**
+     * Virtual thread per task executor when running on JDK 21 or later(looked up reflectively, as the build targets JDK 8),
+     * otherwise a {@link ForkJoinPool} of "workers" threads. The parallelism is bounded by the ring buffer capacity either way
+     */
+    private ExecutorService createWorkerExecutor() {
+        if (virtualThreads) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (NoSuchMethodException e) {
+                log.debug("Virtual threads are not available on Java {}, using a ForkJoinPool", System.getProperty("java.version"));
+            } catch (ReflectiveOperationException e) {
+                throw new ItemStreamException("Failed to create the virtual thread executor", e);
+            }
+        }
+        return new ForkJoinPool(workers);
+    }
+
+    private static class ParsedBatch {
+        private final int lineCount;
+        private final List<LogEventEntry> entries;
+        private final List<FlatFileParseException> readFailures = new ArrayList<>();
+        private final List<LogEventEntry> invalidEntries = new ArrayList<>();
+        private final List<ValidationException> processFailures = new ArrayList<>();
+        private int filterCount;
+
+        ParsedBatch(int lineCount) {
+            this.lineCount = lineCount;
+            this.entries = new ArrayList<>(lineCount);
+        }
+    }
+}
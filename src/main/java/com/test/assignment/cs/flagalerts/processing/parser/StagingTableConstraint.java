@@ -0,0 +1,31 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Named constraints of the temporary tables TMP_LOG_EVENT_STARTED, TMP_LOG_EVENT_FINISHED, as created by schema-all.sql.
+ * Dropped before the parsing step and added back after it in the deferred index mode, see {@link DeferredIndexStepConfiguration}
+ */
+@AllArgsConstructor
+@Getter
+public enum StagingTableConstraint {
+    STARTED_EVENT_ID("TMP_LOG_EVENT_STARTED", "UK_TMP_LOG_EVENT_STARTED_EVENT_ID", "UNIQUE (EVENT_ID)"),
+    STARTED_HOST("TMP_LOG_EVENT_STARTED", "FK_TMP_LOG_EVENT_STARTED_HOST", "FOREIGN KEY (EVENT_HOST_ID) REFERENCES EVENT_DICTIONARY(DICTIONARY_ID)"),
+    STARTED_TYPE("TMP_LOG_EVENT_STARTED", "FK_TMP_LOG_EVENT_STARTED_TYPE", "FOREIGN KEY (EVENT_TYPE_ID) REFERENCES EVENT_DICTIONARY(DICTIONARY_ID)"),
+    FINISHED_EVENT_ID("TMP_LOG_EVENT_FINISHED", "UK_TMP_LOG_EVENT_FINISHED_EVENT_ID", "UNIQUE (EVENT_ID)"),
+    FINISHED_HOST("TMP_LOG_EVENT_FINISHED", "FK_TMP_LOG_EVENT_FINISHED_HOST", "FOREIGN KEY (EVENT_HOST_ID) REFERENCES EVENT_DICTIONARY(DICTIONARY_ID)"),
+    FINISHED_TYPE("TMP_LOG_EVENT_FINISHED", "FK_TMP_LOG_EVENT_FINISHED_TYPE", "FOREIGN KEY (EVENT_TYPE_ID) REFERENCES EVENT_DICTIONARY(DICTIONARY_ID)");
+
+    private final String tableName;
+    private final String constraintName;
+    private final String definition;
+
+    public String getAddSql() {
+        return String.format("ALTER TABLE %s ADD CONSTRAINT %s %s", tableName, constraintName, definition);
+    }
+
+    public String getDropSql() {
+        return String.format("ALTER TABLE %s DROP CONSTRAINT %s", tableName, constraintName);
+    }
+}
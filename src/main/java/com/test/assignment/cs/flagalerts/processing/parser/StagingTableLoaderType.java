@@ -0,0 +1,16 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+/**
+ * Loader of the parsed log entries into the temporary tables, configurable via property "flag-alerts.parser.staging.loader"
+ */
+public enum StagingTableLoaderType {
+    /**
+     * {@link org.springframework.batch.item.database.JdbcBatchItemWriter}, a batch of single row inserts per chunk,
+     * with parameters set by {@link LogEventEntryPreparedStatementSetter}
+     */
+    JDBC_BATCH,
+    /**
+     * {@link BulkLogEventEntryItemWriter}, loading the chunk with a single set based insert
+     */
+    BULK
+}
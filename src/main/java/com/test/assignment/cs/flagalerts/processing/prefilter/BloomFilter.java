@@ -0,0 +1,114 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+/**
+ * Bloom filter of event ids, a bit array set at k positions per id, derived by double hashing of a 64 bit hash of
+ * the id chars. An id put is always found, an id not put is found with the false positive rate of the filter.<br>
+ * Sized for the expected insertions and false positive rate, within a memory limit beyond which the rate is higher.
+ * Not thread safe while built, read only afterwards
+ */
+public class BloomFilter {
+
+    /**
+     * Positions are reduced from 32 bits of the hash, so at most 2^32 bits
+     */
+    static final long MAX_BIT_COUNT = 1L << 32;
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+    private long insertCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.words = new long[(int) ((bitCount + 63) >>> 6)];
+        this.bitCount = (long) words.length << 6;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * @param expectedInsertions number of ids expected to be put
+     * @param falsePositiveRate  false positive rate at the expected insertions
+     * @param maxBytes           memory limit of the bit array, at which the false positive rate is higher
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1 - " + falsePositiveRate);
+        }
+        long insertions = Math.max(1, expectedInsertions);
+        long optimalBitCount = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long bitCount = Math.max(64, Math.min(optimalBitCount, Math.min(Math.max(maxBytes, 8), MAX_BIT_COUNT / 8) * 8));
+        int hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / insertions * LN2)));
+        return new BloomFilter(bitCount, hashCount);
+    }
+
+    public void put(String id) {
+        long hash = hash(id);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long position = index(hash1 + i * hash2);
+            words[(int) (position >>> 6)] |= 1L << position;
+        }
+        insertCount++;
+    }
+
+    public boolean mightContain(String id) {
+        long hash = hash(id);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long position = index(hash1 + i * hash2);
+            if ((words[(int) (position >>> 6)] & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reduces 32 bits of the hash to a bit position, by multiplication instead of the modulo of the bit count
+     */
+    private long index(int combinedHash) {
+        return ((combinedHash & 0xFFFFFFFFL) * bitCount) >>> 32;
+    }
+
+    /**
+     * FNV-1a over the chars of the id, with the MurmurHash3 finalizer for the mixing of the higher bits
+     */
+    static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * @return false positive rate for the ids put so far, (1 - e^(-k * n / m))^k
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertCount / bitCount), hashCount);
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getInsertCount() {
+        return insertCount;
+    }
+
+    public long getMemoryBytes() {
+        return (long) words.length * 8;
+    }
+}
@@ -0,0 +1,99 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogFiles;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * First pass over the log file, putting the event id of each entry into the Bloom filter of its state, registered for the
+ * parsing step by the job execution id - {@link EventIdPrefilterRegistry}. Malformed entries, and entries without id or state,
+ * are left to the parsing step to skip.<br>
+ * The filters are sized for the configured number of entries, or an estimate from the log file sizes, and saves their
+ * metrics to the step execution context
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class BuildEventIdFiltersTasklet implements Tasklet {
+
+    public static final String ENTRY_COUNT_KEY = "prefilter.entry.count";
+    public static final String MEMORY_BYTES_KEY = "prefilter.memory.bytes";
+    public static final String FALSE_POSITIVE_RATE_KEY = "prefilter.false-positive.rate";
+    /**
+     * Average bytes of a log entry, for estimating the number of entries from the log file sizes
+     */
+    static final long ESTIMATED_ENTRY_BYTES = 50;
+    /**
+     * Estimated compression ratio of the gzip log files
+     */
+    static final long ESTIMATED_GZIP_RATIO = 8;
+
+    @NonNull
+    private final ItemStreamReader<LogEventEntry> logEventFileReader;
+    @NonNull
+    private final List<Path> logFiles;
+    @NonNull
+    private final EventIdPrefilterRegistry eventIdPrefilterRegistry;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final long maxMemoryBytes;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        long entries = expectedEntries > 0 ? expectedEntries : estimateEntries();
+        EventIdPrefilter eventIdPrefilter = new EventIdPrefilter(entries, falsePositiveRate, maxMemoryBytes);
+        long entryCount = 0;
+        logEventFileReader.open(new ExecutionContext());
+        try {
+            while (true) {
+                LogEventEntry logEventEntry;
+                try {
+                    logEventEntry = logEventFileReader.read();
+                } catch (FlatFileParseException e) {
+                    continue;
+                }
+                if (logEventEntry == null) {
+                    break;
+                }
+                if (logEventEntry.getId() != null && logEventEntry.getState() != null) {
+                    eventIdPrefilter.put(logEventEntry);
+                    entryCount++;
+                }
+            }
+        } finally {
+            logEventFileReader.close();
+        }
+
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        eventIdPrefilterRegistry.register(stepExecution.getJobExecutionId(), eventIdPrefilter);
+        ExecutionContext stepContext = stepExecution.getExecutionContext();
+        stepContext.putLong(ENTRY_COUNT_KEY, entryCount);
+        stepContext.putLong(MEMORY_BYTES_KEY, eventIdPrefilter.getMemoryBytes());
+        stepContext.putDouble(FALSE_POSITIVE_RATE_KEY, eventIdPrefilter.getExpectedFalsePositiveRate());
+        log.info("Built event id filters of {} entries(expected {}) in {} bytes, expected false positive rate {}",
+                entryCount, entries, eventIdPrefilter.getMemoryBytes(), eventIdPrefilter.getExpectedFalsePositiveRate());
+        return RepeatStatus.FINISHED;
+    }
+
+    private long estimateEntries() throws IOException {
+        long estimatedBytes = 0;
+        for (Path logFile : logFiles) {
+            estimatedBytes += Files.size(logFile) * (LogFiles.isGzip(logFile) ? ESTIMATED_GZIP_RATIO : 1);
+        }
+        return estimatedBytes / ESTIMATED_ENTRY_BYTES;
+    }
+}
@@ -0,0 +1,48 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import lombok.Getter;
+
+/**
+ * Bloom filters of the STARTED and FINISHED event ids of the log file, built by the first pass {@link BuildEventIdFiltersTasklet}.
+ * An entry is probably paired when the id is probably among those of the other state, and surely orphan otherwise
+ */
+@Getter
+public class EventIdPrefilter {
+
+    private final BloomFilter startedIds;
+    private final BloomFilter finishedIds;
+
+    /**
+     * @param expectedEntries   number of entries expected in the log file, half of them expected per state
+     * @param falsePositiveRate false positive rate of each filter
+     * @param maxMemoryBytes    memory limit of both filters
+     */
+    public EventIdPrefilter(long expectedEntries, double falsePositiveRate, long maxMemoryBytes) {
+        this.startedIds = BloomFilter.create(expectedEntries / 2, falsePositiveRate, maxMemoryBytes / 2);
+        this.finishedIds = BloomFilter.create(expectedEntries / 2, falsePositiveRate, maxMemoryBytes / 2);
+    }
+
+    public void put(LogEventEntry logEventEntry) {
+        (LogState.FINISHED.equals(logEventEntry.getState()) ? finishedIds : startedIds).put(logEventEntry.getId());
+    }
+
+    /**
+     * @return false if no entry of the other state has the id, true if one probably has
+     */
+    public boolean mightBePaired(LogEventEntry logEventEntry) {
+        return (LogState.FINISHED.equals(logEventEntry.getState()) ? startedIds : finishedIds).mightContain(logEventEntry.getId());
+    }
+
+    public long getMemoryBytes() {
+        return startedIds.getMemoryBytes() + finishedIds.getMemoryBytes();
+    }
+
+    /**
+     * @return false positive rate of an orphan entry probed against the filter of the other state, the higher of the two
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.max(startedIds.getExpectedFalsePositiveRate(), finishedIds.getExpectedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,54 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prefilters of the running jobs by job execution id, so the parsing step(and its partitions, on threads without the job
+ * scope) use the filters built by the first pass. Removed at the end of the job, as they are only held in memory.<br>
+ * Gauges the memory and expected false positive rate of the last prefilter built
+ */
+public class EventIdPrefilterRegistry extends JobExecutionListenerSupport {
+
+    public static final String METRIC_PREFIX = "flag.alerts.prefilter.";
+
+    private final Map<Long, EventIdPrefilter> prefilters = new ConcurrentHashMap<>();
+    private volatile long lastMemoryBytes;
+    private volatile double lastFalsePositiveRate;
+
+    public EventIdPrefilterRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder(METRIC_PREFIX + "memory.bytes", this, registry -> registry.lastMemoryBytes)
+                .description("Memory of the Bloom filters of the event ids")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "false.positive.rate", this, registry -> registry.lastFalsePositiveRate)
+                .description("Expected false positive rate of the Bloom filters for the event ids put")
+                .register(meterRegistry);
+    }
+
+    public void register(long jobExecutionId, EventIdPrefilter eventIdPrefilter) {
+        prefilters.put(jobExecutionId, eventIdPrefilter);
+        lastMemoryBytes = eventIdPrefilter.getMemoryBytes();
+        lastFalsePositiveRate = eventIdPrefilter.getExpectedFalsePositiveRate();
+    }
+
+    /**
+     * @throws IllegalStateException when the first pass did not build the prefilter of the job execution
+     */
+    public EventIdPrefilter get(long jobExecutionId) {
+        EventIdPrefilter eventIdPrefilter = prefilters.get(jobExecutionId);
+        if (eventIdPrefilter == null) {
+            throw new IllegalStateException("No event id prefilter built for job execution " + jobExecutionId);
+        }
+        return eventIdPrefilter;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        prefilters.remove(jobExecution.getId());
+    }
+}
@@ -0,0 +1,117 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogFiles;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.batch.item.json.JacksonJsonObjectMarshaller;
+import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Paths;
+
+/**
+ * Batch Step Configuration for the prefilter "flag-alerts.prefilter.enabled", dropping the orphan entries before staging: <br>
+ * 1. First pass over the log file, building the Bloom filters of the STARTED and FINISHED event ids - {@link #buildEventIdFiltersStep(BuildEventIdFiltersTasklet)},<br>
+ * 2. Parsing step writing only the entries whose id is probably among those of the other state to the temporary tables - {@link #prefilteringLogEventWriter(ClassifierCompositeItemWriter, EventIdPrefilterRegistry, PrometheusMeterRegistry, StepExecution, String)}<br>
+ * The filters are only held in memory, so the first pass is run again on restart
+ */
+@Configuration
+@Slf4j
+public class PrefilterStepConfiguration {
+
+    @Autowired
+    public StepBuilderFactory stepBuilderFactory;
+
+    /**
+     * Prefilters of the running jobs, and listener removing them at the end of the job
+     */
+    @Bean
+    public EventIdPrefilterRegistry eventIdPrefilterRegistry(PrometheusMeterRegistry prometheusMeterRegistry) {
+        return new EventIdPrefilterRegistry(prometheusMeterRegistry);
+    }
+
+    /**
+     * Step building the event id filters, started again on restart as the filters are not persisted
+     *
+     * @param buildEventIdFiltersTasklet {@link #buildEventIdFiltersTasklet(ItemStreamReader, EventIdPrefilterRegistry, String, long, double, long)}
+     */
+    @Bean("buildEventIdFiltersStep")
+    public Step buildEventIdFiltersStep(BuildEventIdFiltersTasklet buildEventIdFiltersTasklet) {
+        return stepBuilderFactory.get("buildEventIdFiltersStep")
+                .tasklet(buildEventIdFiltersTasklet)
+                .allowStartIfComplete(true)
+                .build();
+    }
+
+    /**
+     * @param prefilterLogEventFileReader log file reader of the first pass, apart from the reader of the parsing step
+     * @param inputLogEventsFile          input log events file, directory or glob pattern. Configurable via Job Parameter "log-events.file"
+     * @param expectedEntries             number of entries the filters are sized for. Estimated from the log file sizes when 0
+     * @param falsePositiveRate           rate of orphan entries staged as probably paired, at the expected entries
+     * @param maxMemoryBytes              memory limit of the filters, beyond which the false positive rate is higher
+     */
+    @Bean
+    @StepScope
+    public BuildEventIdFiltersTasklet buildEventIdFiltersTasklet(
+            @Qualifier("prefilterLogEventFileReader") ItemStreamReader<LogEventEntry> prefilterLogEventFileReader,
+            EventIdPrefilterRegistry eventIdPrefilterRegistry,
+            @Value("#{jobParameters['log-events.file']}") String inputLogEventsFile,
+            @Value("${flag-alerts.prefilter.expected-entries:0}") long expectedEntries,
+            @Value("${flag-alerts.prefilter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${flag-alerts.prefilter.max-memory-bytes:134217728}") long maxMemoryBytes) {
+        if (StringUtils.isEmpty(inputLogEventsFile)) {
+            inputLogEventsFile = "logfile.txt";
+        }
+        return new BuildEventIdFiltersTasklet(prefilterLogEventFileReader, LogFiles.resolve(inputLogEventsFile),
+                eventIdPrefilterRegistry, expectedEntries, falsePositiveRate, maxMemoryBytes);
+    }
+
+    /**
+     * Writer of the parsing step dropping the orphan entries, with the filters built by the first pass of the job execution
+     *
+     * @param logEventJdbcWriter writer of the entries to the temporary tables
+     * @param orphanDirectory    directory of the orphan entries files, as json lines per parsing step(or partition). Empty only counts them
+     */
+    @Bean
+    @StepScope
+    public PrefilteringLogEventEntryWriter prefilteringLogEventWriter(
+            ClassifierCompositeItemWriter<LogEventEntry> logEventJdbcWriter,
+            EventIdPrefilterRegistry eventIdPrefilterRegistry,
+            PrometheusMeterRegistry prometheusMeterRegistry,
+            @Value("#{stepExecution}") StepExecution stepExecution,
+            @Value("${flag-alerts.prefilter.orphan-directory:}") String orphanDirectory) {
+        FlatFileItemWriter<LogEventEntry> orphanWriter = null;
+        if (!orphanDirectory.isEmpty()) {
+            String orphanFile = String.format("orphans-%d-%s.txt", stepExecution.getJobExecution().getJobId(),
+                    stepExecution.getStepName().replaceAll("[^A-Za-z0-9]", "-"));
+            log.info("Writing the orphan entries of {} to {}", stepExecution.getStepName(), Paths.get(orphanDirectory, orphanFile));
+            JacksonJsonObjectMarshaller<LogEventEntry> jsonMarshaller = new JacksonJsonObjectMarshaller<>(
+                    new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL));
+            orphanWriter = new FlatFileItemWriterBuilder<LogEventEntry>()
+                    .name("orphanEntriesWriter")
+                    .resource(new FileSystemResource(Paths.get(orphanDirectory, orphanFile)))
+                    .lineAggregator(jsonMarshaller::marshal)
+                    .build();
+        }
+        PrefilteringLogEventEntryWriter prefilteringLogEventWriter = new PrefilteringLogEventEntryWriter(logEventJdbcWriter,
+                eventIdPrefilterRegistry.get(stepExecution.getJobExecutionId()), orphanWriter, prometheusMeterRegistry);
+        prefilteringLogEventWriter.setName("prefilteringLogEventWriter");
+        return prefilteringLogEventWriter;
+    }
+}
@@ -0,0 +1,127 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import com.test.assignment.cs.flagalerts.processing.support.ChunkScopedCounts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the entries probably paired by the event id filters to the delegate writer of the temporary tables, and drops the
+ * surely orphan entries, whose id no entry of the other state has - {@link EventIdPrefilter}. The orphans are counted by state
+ * in the step execution context and the metric "flag.alerts.prefilter.orphans" - {@link ChunkScopedCounts}, and written to the
+ * orphan writer if any. Must be registered as a {@link ChunkListener} of the step
+ */
+@Slf4j
+public class PrefilteringLogEventEntryWriter extends ItemStreamSupport implements ItemStreamWriter<LogEventEntry>, ChunkListener {
+
+    public static final String ORPHAN_STARTED_COUNT_KEY = "orphan-started.count";
+    public static final String ORPHAN_FINISHED_COUNT_KEY = "orphan-finished.count";
+
+    private final ItemWriter<LogEventEntry> logEventWriter;
+    private final EventIdPrefilter eventIdPrefilter;
+    private final FlatFileItemWriter<LogEventEntry> orphanWriter;
+    private final ChunkScopedCounts<LogState> orphanCounts;
+
+    /**
+     * @param orphanWriter writer of the orphan entries, or null to only count them
+     */
+    public PrefilteringLogEventEntryWriter(ItemWriter<LogEventEntry> logEventWriter, EventIdPrefilter eventIdPrefilter,
+                                           FlatFileItemWriter<LogEventEntry> orphanWriter, MeterRegistry meterRegistry) {
+        this.logEventWriter = logEventWriter;
+        this.eventIdPrefilter = eventIdPrefilter;
+        this.orphanWriter = orphanWriter;
+        Map<LogState, Counter> orphanCounters = new EnumMap<>(LogState.class);
+        for (LogState state : LogState.values()) {
+            orphanCounters.put(state, createOrphanCounter(meterRegistry, state));
+        }
+        this.orphanCounts = new ChunkScopedCounts<>(orphanCounters, state -> getExecutionContextKey(
+                LogState.FINISHED.equals(state) ? ORPHAN_FINISHED_COUNT_KEY : ORPHAN_STARTED_COUNT_KEY));
+    }
+
+    private static Counter createOrphanCounter(MeterRegistry meterRegistry, LogState state) {
+        return Counter.builder(EventIdPrefilterRegistry.METRIC_PREFIX + "orphans")
+                .description("Entries dropped before staging, as no entry of the other state has their id")
+                .tag("state", state.getState())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void write(List<? extends LogEventEntry> items) throws Exception {
+        List<LogEventEntry> pairedEntries = new ArrayList<>(items.size());
+        List<LogEventEntry> orphanEntries = new ArrayList<>();
+        long orphanFinishedWritten = 0;
+        for (LogEventEntry logEventEntry : items) {
+            if (eventIdPrefilter.mightBePaired(logEventEntry)) {
+                pairedEntries.add(logEventEntry);
+            } else {
+                orphanEntries.add(logEventEntry);
+                if (LogState.FINISHED.equals(logEventEntry.getState())) {
+                    orphanFinishedWritten++;
+                }
+            }
+        }
+        if (!pairedEntries.isEmpty()) {
+            logEventWriter.write(pairedEntries);
+        }
+        if (orphanWriter != null && !orphanEntries.isEmpty()) {
+            orphanWriter.write(orphanEntries);
+        }
+        // counted once written, as a failed write of the chunk is retried item by item
+        orphanCounts.add(LogState.FINISHED, orphanFinishedWritten);
+        orphanCounts.add(LogState.STARTED, orphanEntries.size() - orphanFinishedWritten);
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        // orphans are counted by write
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        orphanCounts.commit();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        orphanCounts.rollback();
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        orphanCounts.open(executionContext);
+        if (orphanWriter != null) {
+            orphanWriter.open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        orphanCounts.update(executionContext);
+        if (orphanWriter != null) {
+            orphanWriter.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        log.info("Dropped {} STARTED and {} FINISHED orphan entries before staging", orphanCounts.get(LogState.STARTED), orphanCounts.get(LogState.FINISHED));
+        if (orphanWriter != null) {
+            orphanWriter.close();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.test.assignment.cs.flagalerts.processing.quarantine;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Reason of a log entry quarantined to LOG_EVENT_QUARANTINE, instead of skipped
+ */
+@AllArgsConstructor
+@Getter
+public enum QuarantineReason {
+    /**
+     * Malformed json line, or not in the log event schema
+     */
+    UNPARSEABLE("unparseable"),
+    /**
+     * Parsed entry violating the constraints of {@link com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry}
+     */
+    INVALID("invalid"),
+    /**
+     * Entry of an event state already staged
+     */
+    DUPLICATE("duplicate");
+
+    private final String key;
+}
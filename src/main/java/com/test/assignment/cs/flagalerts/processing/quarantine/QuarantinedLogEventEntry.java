@@ -0,0 +1,44 @@
+package com.test.assignment.cs.flagalerts.processing.quarantine;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Log entry routed to the quarantine by the parsing step, with the reason and the raw line when it could not be parsed
+ */
+@Getter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class QuarantinedLogEventEntry extends LogEventEntry {
+
+    private final QuarantineReason reason;
+    private final String detail;
+    private final String line;
+
+    /**
+     * Line which could not be parsed to a log entry
+     */
+    public QuarantinedLogEventEntry(QuarantineReason reason, String detail, String line, int lineNumber) {
+        this.reason = reason;
+        this.detail = detail;
+        this.line = line;
+        setLineNumber(lineNumber);
+    }
+
+    /**
+     * Parsed log entry, invalid or duplicate
+     */
+    public QuarantinedLogEventEntry(LogEventEntry logEventEntry, QuarantineReason reason, String detail) {
+        this.reason = reason;
+        this.detail = detail;
+        this.line = null;
+        setId(logEventEntry.getId());
+        setState(logEventEntry.getState());
+        setTimestamp(logEventEntry.getTimestamp());
+        setType(logEventEntry.getType());
+        setHost(logEventEntry.getHost());
+        setLineNumber(logEventEntry.getLineNumber());
+    }
+}
@@ -0,0 +1,48 @@
+package com.test.assignment.cs.flagalerts.processing.quarantine;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryValidator;
+import com.test.assignment.cs.flagalerts.processing.support.ConstraintChecks;
+import org.springframework.batch.item.ItemProcessor;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Set;
+
+/**
+ * Validates the log entries like the validating processor of the parsing step, but returns the invalid entries as
+ * {@link QuarantinedLogEventEntry} with reason {@link QuarantineReason#INVALID}, instead of failing them with a
+ * {@link org.springframework.batch.item.validator.ValidationException} which rolls back the chunk.
+ * Entries quarantined by the parser are passed through
+ */
+public class QuarantiningLogEventEntryProcessor implements ItemProcessor<LogEventEntry, LogEventEntry> {
+
+    private final LogEventEntryValidator logEventEntryValidator;
+    private final Validator jsrValidator;
+
+    /**
+     * @param jsrValidator JSR-303 validator of the entries, or null for the fast path {@link LogEventEntryValidator}
+     */
+    public QuarantiningLogEventEntryProcessor(Validator jsrValidator) {
+        this.logEventEntryValidator = new LogEventEntryValidator();
+        this.jsrValidator = jsrValidator;
+    }
+
+    @Override
+    public LogEventEntry process(LogEventEntry logEventEntry) {
+        if (logEventEntry instanceof QuarantinedLogEventEntry) {
+            return logEventEntry;
+        }
+        String violation = jsrValidator == null ? logEventEntryValidator.findViolation(logEventEntry) : findJsrViolation(logEventEntry);
+        return violation == null ? logEventEntry : new QuarantinedLogEventEntry(logEventEntry, QuarantineReason.INVALID, violation);
+    }
+
+    private String findJsrViolation(LogEventEntry logEventEntry) {
+        Set<ConstraintViolation<LogEventEntry>> violations = jsrValidator.validate(logEventEntry);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<LogEventEntry> violation = violations.iterator().next();
+        return ConstraintChecks.violation(violation.getPropertyPath().toString(), violation.getMessage());
+    }
+}
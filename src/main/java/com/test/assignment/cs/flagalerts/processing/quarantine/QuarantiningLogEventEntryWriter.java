@@ -0,0 +1,201 @@
+package com.test.assignment.cs.flagalerts.processing.quarantine;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import com.test.assignment.cs.flagalerts.processing.support.ChunkScopedCounts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the valid log entries of a chunk to the delegate writer of the temporary tables, and routes the others to the
+ * dead letter table LOG_EVENT_QUARANTINE in the same transaction, with their line number and reason: <br>
+ * 1. Entries quarantined by the parser or the validating processor - {@link QuarantinedLogEventEntry},<br>
+ * 2. Duplicate entries of an event state, within the chunk, or already staged. The staged duplicates are quarantined by a
+ * single batch of inserts selecting the staged entry of their id, whose update counts tell the duplicates from the new entries<br>
+ * so neither a skip nor a rollback and scan of the chunk is needed. Counts the quarantined entries by reason in the step
+ * execution context and the metric "flag.alerts.quarantine.entries" - {@link ChunkScopedCounts}. Registered as a
+ * {@link ChunkListener} by the step, being its writer
+ */
+@Slf4j
+public class QuarantiningLogEventEntryWriter extends ItemStreamSupport implements ItemStreamWriter<LogEventEntry>, ChunkListener {
+
+    public static final String INSERT_QUARANTINE_SQL = "INSERT INTO LOG_EVENT_QUARANTINE (STEP_NAME, LINE_NUMBER, REASON, EVENT_ID, DETAIL, LINE) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    public static final int[] INSERT_QUARANTINE_TYPES = {Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+    /**
+     * Quarantines an entry as a duplicate when the temporary table of its state has its id, updating no row otherwise
+     */
+    static final String INSERT_STAGED_DUPLICATE_SQL = "INSERT INTO LOG_EVENT_QUARANTINE (STEP_NAME, LINE_NUMBER, REASON, EVENT_ID, DETAIL) " +
+            selectStagedDuplicateSql("TMP_LOG_EVENT_STARTED") + " UNION ALL " + selectStagedDuplicateSql("TMP_LOG_EVENT_FINISHED");
+    private static final int MAX_EVENT_ID_LENGTH = 200;
+    private static final int MAX_DETAIL_LENGTH = 500;
+    private static final int MAX_LINE_LENGTH = 2000;
+
+    private final ItemWriter<LogEventEntry> logEventWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final String stepName;
+    private final boolean findStagedDuplicates;
+    private final ChunkScopedCounts<QuarantineReason> quarantineCounts;
+
+    /**
+     * @param logEventWriter       writer of the valid entries to the temporary tables
+     * @param stepName             parsing step(or partition) of the entries, as their line numbers are relative to its file or byte range
+     * @param findStagedDuplicates find the duplicates of the entries already staged, false when the duplicates are deleted after staging
+     */
+    public QuarantiningLogEventEntryWriter(ItemWriter<LogEventEntry> logEventWriter, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                           String stepName, boolean findStagedDuplicates) {
+        this.logEventWriter = logEventWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.stepName = stepName;
+        this.findStagedDuplicates = findStagedDuplicates;
+        Map<QuarantineReason, Counter> quarantineCounters = new EnumMap<>(QuarantineReason.class);
+        for (QuarantineReason reason : QuarantineReason.values()) {
+            quarantineCounters.put(reason, Counter.builder("flag.alerts.quarantine.entries")
+                    .description("Log entries routed to the quarantine table instead of staged")
+                    .tag("reason", reason.getKey())
+                    .register(meterRegistry));
+        }
+        this.quarantineCounts = new ChunkScopedCounts<>(quarantineCounters, reason -> getExecutionContextKey(reason.getKey() + ".count"));
+    }
+
+    private static String selectStagedDuplicateSql(String tableName) {
+        return String.format("SELECT CAST(? AS VARCHAR(100)), CAST(? AS INTEGER), '%s', EVENT_ID, CAST(? AS VARCHAR(%d)) FROM %s " +
+                "WHERE EVENT_ID = ? AND EVENT_STATE = ?", QuarantineReason.DUPLICATE.name(), MAX_DETAIL_LENGTH, tableName);
+    }
+
+    @Override
+    public void write(List<? extends LogEventEntry> items) throws Exception {
+        List<LogEventEntry> validEntries = new ArrayList<>(items.size());
+        List<QuarantinedLogEventEntry> quarantinedEntries = new ArrayList<>();
+        Set<String> startedIds = new HashSet<>();
+        Set<String> finishedIds = new HashSet<>();
+        for (LogEventEntry logEventEntry : items) {
+            if (logEventEntry instanceof QuarantinedLogEventEntry) {
+                quarantinedEntries.add((QuarantinedLogEventEntry) logEventEntry);
+            } else if (!(LogState.FINISHED.equals(logEventEntry.getState()) ? finishedIds : startedIds).add(logEventEntry.getId())) {
+                quarantinedEntries.add(duplicate(logEventEntry));
+            } else {
+                validEntries.add(logEventEntry);
+            }
+        }
+        if (findStagedDuplicates && !validEntries.isEmpty()) {
+            validEntries = quarantineStagedDuplicates(validEntries);
+        }
+
+        if (!validEntries.isEmpty()) {
+            logEventWriter.write(validEntries);
+        }
+        if (!quarantinedEntries.isEmpty()) {
+            quarantine(quarantinedEntries);
+        }
+    }
+
+    private static QuarantinedLogEventEntry duplicate(LogEventEntry logEventEntry) {
+        return new QuarantinedLogEventEntry(logEventEntry, QuarantineReason.DUPLICATE, duplicateDetail(logEventEntry));
+    }
+
+    private static String duplicateDetail(LogEventEntry logEventEntry) {
+        return StringUtils.truncate(String.format("Duplicate %s entry for event id %s", logEventEntry.getState(), logEventEntry.getId()),
+                MAX_DETAIL_LENGTH);
+    }
+
+    /**
+     * Quarantines the entries whose id is already staged for their state, by the batch of {@link #INSERT_STAGED_DUPLICATE_SQL}
+     *
+     * @return the entries not staged yet
+     */
+    private List<LogEventEntry> quarantineStagedDuplicates(List<LogEventEntry> logEventEntries) {
+        List<Object[]> rows = new ArrayList<>(logEventEntries.size());
+        for (LogEventEntry logEventEntry : logEventEntries) {
+            String detail = duplicateDetail(logEventEntry);
+            // same arguments for the select of each temporary table, only the one of the entry state can match
+            rows.add(new Object[]{stepName, logEventEntry.getLineNumber(), detail, logEventEntry.getId(), logEventEntry.getStateAsString(),
+                    stepName, logEventEntry.getLineNumber(), detail, logEventEntry.getId(), logEventEntry.getStateAsString()});
+        }
+        int[] updateCounts = jdbcTemplate.batchUpdate(INSERT_STAGED_DUPLICATE_SQL, rows);
+        List<LogEventEntry> unstagedEntries = new ArrayList<>(logEventEntries.size());
+        for (int i = 0; i < logEventEntries.size(); i++) {
+            if (updateCounts[i] > 0) {
+                log.debug("Quarantined entry at line {} of {} - {}", logEventEntries.get(i).getLineNumber(), stepName, rows.get(i)[2]);
+                quarantineCounts.add(QuarantineReason.DUPLICATE, 1);
+            } else {
+                unstagedEntries.add(logEventEntries.get(i));
+            }
+        }
+        return unstagedEntries;
+    }
+
+    private void quarantine(List<QuarantinedLogEventEntry> quarantinedEntries) {
+        List<Object[]> rows = new ArrayList<>(quarantinedEntries.size());
+        for (QuarantinedLogEventEntry quarantinedEntry : quarantinedEntries) {
+            rows.add(new Object[]{stepName, quarantinedEntry.getLineNumber(), quarantinedEntry.getReason().name(),
+                    StringUtils.truncate(quarantinedEntry.getId(), MAX_EVENT_ID_LENGTH),
+                    StringUtils.truncate(quarantinedEntry.getDetail(), MAX_DETAIL_LENGTH),
+                    StringUtils.truncate(quarantinedEntry.getLine(), MAX_LINE_LENGTH)});
+            log.debug("Quarantined entry at line {} of {} - {}", quarantinedEntry.getLineNumber(), stepName, quarantinedEntry.getDetail());
+        }
+        jdbcTemplate.batchUpdate(INSERT_QUARANTINE_SQL, rows, INSERT_QUARANTINE_TYPES);
+        for (QuarantinedLogEventEntry quarantinedEntry : quarantinedEntries) {
+            quarantineCounts.add(quarantinedEntry.getReason(), 1);
+        }
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        // see afterChunk and afterChunkError
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        quarantineCounts.commit();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        quarantineCounts.rollback();
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        quarantineCounts.open(executionContext);
+        if (logEventWriter instanceof ItemStream) {
+            ((ItemStream) logEventWriter).open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        quarantineCounts.update(executionContext);
+        if (logEventWriter instanceof ItemStream) {
+            ((ItemStream) logEventWriter).update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        log.info("Quarantined {} unparseable, {} invalid and {} duplicate entries of {}", quarantineCounts.get(QuarantineReason.UNPARSEABLE),
+                quarantineCounts.get(QuarantineReason.INVALID), quarantineCounts.get(QuarantineReason.DUPLICATE), stepName);
+        if (logEventWriter instanceof ItemStream) {
+            ((ItemStream) logEventWriter).close();
+        }
+    }
+}
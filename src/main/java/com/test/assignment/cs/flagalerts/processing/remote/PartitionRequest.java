@@ -0,0 +1,15 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import lombok.Value;
+
+/**
+ * Request of the manager to run a partition on a worker: the partition step execution, saved by the manager in the shared
+ * job repository, and the name of the worker step bean executing it
+ */
+@Value
+public class PartitionRequest {
+
+    long jobExecutionId;
+    long stepExecutionId;
+    String workerStepName;
+}
@@ -0,0 +1,40 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Transport of the {@link PartitionRequest} from the manager to the workers. Each request is received by a single worker,
+ * which holds a lease on it renewed while its partition runs, so the request of a worker that died is sent again.
+ * The results are not carried back, the manager polls the partition step executions updated by the workers in the job repository
+ */
+public interface PartitionRequestTransport {
+
+    void send(PartitionRequest partitionRequest) throws IOException;
+
+    /**
+     * @param workerId  id of the receiving worker
+     * @param timeoutMs maximum wait for a request
+     * @return the next request, claimed by this worker, or null if none was sent within the timeout
+     */
+    PartitionRequest receive(String workerId, long timeoutMs) throws IOException, InterruptedException;
+
+    /**
+     * Renews the lease of a received request, while its partition runs
+     *
+     * @throws java.nio.file.NoSuchFileException or another IOException if the lease was lost, e.g. the request was sent again
+     */
+    void renew(String workerId, PartitionRequest partitionRequest) throws IOException;
+
+    /**
+     * Sends again the requests of the job execution received by workers that have not renewed their lease for leaseMs
+     *
+     * @return the requests sent again
+     */
+    List<PartitionRequest> resendExpired(long jobExecutionId, long leaseMs) throws IOException;
+
+    /**
+     * Acknowledges a received request once its partition has run
+     */
+    void complete(String workerId, PartitionRequest partitionRequest) throws IOException;
+}
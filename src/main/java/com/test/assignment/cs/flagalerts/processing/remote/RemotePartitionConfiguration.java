@@ -0,0 +1,87 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+/**
+ * Configuration of remote partitioning "flag-alerts.partition.remote.enabled", running the partitions of the parsing and
+ * flagging steps in worker JVMs instead of the threads of the manager: <br>
+ * 1. The manager sends the partitions through the {@link PartitionRequestTransport} - {@link #createPartitionHandler(PartitionRequestTransport, String, int)},<br>
+ * 2. The workers, started with profile "partition-worker", run them against the shared job repository and tables - {@link #remotePartitionWorker}<br>
+ * The transport is {@link SharedDirectoryPartitionTransport} over "flag-alerts.partition.remote.directory"
+ */
+@Configuration
+@Slf4j
+public class RemotePartitionConfiguration {
+
+    @Autowired
+    private JobExplorer jobExplorer;
+    @Value("${flag-alerts.partition.remote.enabled:false}")
+    private boolean remoteEnabled;
+    @Value("${flag-alerts.partition.remote.poll-interval-ms:500}")
+    private long pollIntervalMs;
+    @Value("${flag-alerts.partition.remote.timeout-ms:3600000}")
+    private long timeoutMs;
+    @Value("${flag-alerts.partition.remote.lease-ms:30000}")
+    private long leaseMs;
+
+    /**
+     * @param directory      directory shared by the manager and the workers
+     * @param pollIntervalMs interval of listing the directory for requests
+     */
+    @Bean
+    public PartitionRequestTransport partitionRequestTransport(@Value("${flag-alerts.partition.remote.directory:${java.io.tmpdir}/flag-alerts-partitions}") String directory,
+                                                               @Value("${flag-alerts.partition.remote.poll-interval-ms:500}") long pollIntervalMs) {
+        return new SharedDirectoryPartitionTransport(Paths.get(directory), pollIntervalMs);
+    }
+
+    /**
+     * @return true when the partitioned steps run their partitions on the remote workers
+     */
+    public boolean isRemoteEnabled() {
+        return remoteEnabled;
+    }
+
+    /**
+     * Partition handler of a partitioned step with "flag-alerts.partition.remote.enabled", waiting at most
+     * "flag-alerts.partition.remote.timeout-ms"(1 hour by default, 0 indefinitely) for the workers to finish the partitions, and
+     * sending again the partitions of the workers not renewing their lease within "flag-alerts.partition.remote.lease-ms"
+     *
+     * @param partitionRequestTransport {@link #partitionRequestTransport(String, long)}
+     * @param workerStepName            name of the worker step bean
+     * @param gridSize                  grid size of the partitioned step
+     */
+    public PartitionHandler createPartitionHandler(PartitionRequestTransport partitionRequestTransport, String workerStepName, int gridSize) {
+        return new RemotePartitionHandler(partitionRequestTransport, jobExplorer, workerStepName, gridSize, pollIntervalMs, timeoutMs, leaseMs);
+    }
+
+    /**
+     * Worker running the partitions sent by the manager, started with profile "partition-worker"
+     *
+     * @param workerId id of the worker, unique across the worker JVMs. Defaults to the name of the JVM(pid@host)
+     * @param threads  number of partitions run in parallel by this worker. Defaults to the available processors
+     */
+    @Bean
+    @ConditionalOnProperty(name = "flag-alerts.partition.remote.worker.enabled", havingValue = "true")
+    public RemotePartitionWorker remotePartitionWorker(PartitionRequestTransport partitionRequestTransport,
+                                                       JobRepository jobRepository,
+                                                       BeanFactory beanFactory,
+                                                       AlertThresholdRules alertThresholdRules,
+                                                       @Value("${flag-alerts.partition.remote.worker.id:}") String workerId,
+                                                       @Value("${flag-alerts.partition.remote.worker.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads) {
+        return new RemotePartitionWorker(partitionRequestTransport, jobExplorer, jobRepository, beanFactory, alertThresholdRules,
+                workerId.isEmpty() ? ManagementFactory.getRuntimeMXBean().getName() : workerId, threads, pollIntervalMs, leaseMs);
+    }
+}
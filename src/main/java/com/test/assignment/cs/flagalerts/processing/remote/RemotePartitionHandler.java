@@ -0,0 +1,83 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Manager side of remote partitioning. The partition step executions, saved in the shared job repository by the step execution
+ * splitter, are sent as {@link PartitionRequest} to the workers through the {@link PartitionRequestTransport}, and the job
+ * repository is polled until all of them have finished, like the repository polling mode of Spring Batch Integration.
+ * Each poll sends again the requests whose worker has not renewed its lease, e.g. a worker JVM that died
+ */
+@Slf4j
+public class RemotePartitionHandler extends AbstractPartitionHandler {
+
+    private final PartitionRequestTransport partitionRequestTransport;
+    private final JobExplorer jobExplorer;
+    private final String workerStepName;
+    private final long pollIntervalMs;
+    private final long timeoutMs;
+    private final long leaseMs;
+
+    /**
+     * @param workerStepName name of the worker step bean, run by the workers for each partition
+     * @param gridSize       grid size hint of the partitioner
+     * @param pollIntervalMs interval of polling the job repository for the partitions finished
+     * @param timeoutMs      maximum wait for all the partitions to finish, failing the step beyond it. 0 waits indefinitely
+     * @param leaseMs        lease of a request received by a worker, beyond which it is sent again if not renewed
+     */
+    public RemotePartitionHandler(PartitionRequestTransport partitionRequestTransport, JobExplorer jobExplorer,
+                                  String workerStepName, int gridSize, long pollIntervalMs, long timeoutMs, long leaseMs) {
+        this.partitionRequestTransport = partitionRequestTransport;
+        this.jobExplorer = jobExplorer;
+        this.workerStepName = workerStepName;
+        this.pollIntervalMs = pollIntervalMs;
+        this.timeoutMs = timeoutMs;
+        this.leaseMs = leaseMs;
+        setGridSize(gridSize);
+    }
+
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution, Set<StepExecution> partitionStepExecutions) throws Exception {
+        for (StepExecution partitionStepExecution : partitionStepExecutions) {
+            partitionRequestTransport.send(new PartitionRequest(partitionStepExecution.getJobExecutionId(), partitionStepExecution.getId(), workerStepName));
+        }
+        log.info("Sent {} partitions of step {} to the remote workers", partitionStepExecutions.size(), managerStepExecution.getStepName());
+
+        long startTime = System.currentTimeMillis();
+        Set<StepExecution> finishedStepExecutions = new HashSet<>();
+        Collection<StepExecution> pendingStepExecutions = new ArrayList<>(partitionStepExecutions);
+        while (true) {
+            List<StepExecution> runningStepExecutions = new ArrayList<>(pendingStepExecutions.size());
+            for (StepExecution pendingStepExecution : pendingStepExecutions) {
+                StepExecution stepExecution = jobExplorer.getStepExecution(pendingStepExecution.getJobExecutionId(), pendingStepExecution.getId());
+                if (stepExecution.getStatus().isRunning()) {
+                    runningStepExecutions.add(stepExecution);
+                } else {
+                    finishedStepExecutions.add(stepExecution);
+                }
+            }
+            if (runningStepExecutions.isEmpty()) {
+                return finishedStepExecutions;
+            }
+            if (timeoutMs > 0 && System.currentTimeMillis() - startTime > timeoutMs) {
+                throw new TimeoutException(String.format("%d of %d partitions of step %s not finished by the remote workers within %d ms",
+                        runningStepExecutions.size(), partitionStepExecutions.size(), managerStepExecution.getStepName(), timeoutMs));
+            }
+            for (PartitionRequest resentRequest : partitionRequestTransport.resendExpired(managerStepExecution.getJobExecutionId(), leaseMs)) {
+                log.warn("Sent partition request {} again, its worker did not renew the lease within {} ms", resentRequest, leaseMs);
+            }
+            pendingStepExecutions = runningStepExecutions;
+            Thread.sleep(pollIntervalMs);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Worker side of remote partitioning, a long running service of a worker JVM: <br>
+ * 1. Each worker thread receives the next {@link PartitionRequest} from the {@link PartitionRequestTransport},<br>
+ * 2. Loads its partition step execution from the shared job repository, with the job parameters and partition context,<br>
+ * 3. Executes it with the worker step bean of the request, which updates the step execution in the job repository,
+ * where the manager {@link RemotePartitionHandler} finds it finished.<br>
+ * The leases of the requests running are renewed three times per lease by a heartbeat thread. A request sent again after the
+ * lease of a worker that died is run from the last chunk committed by that worker, as saved in its step execution.
+ * Requests of a job execution no longer running, or of a partition already run, are discarded
+ */
+@Slf4j
+public class RemotePartitionWorker implements SmartLifecycle {
+
+    /**
+     * Minimum lease, in heartbeat periods and in poll intervals
+     */
+    static final int MIN_LEASE_PERIODS = 3;
+
+    private final PartitionRequestTransport partitionRequestTransport;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final BeanFactory beanFactory;
+    private final AlertThresholdRules alertThresholdRules;
+    private final String workerId;
+    private final int threads;
+    private final long pollIntervalMs;
+    private final long leaseMs;
+
+    private final AtomicLong partitionCount = new AtomicLong();
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private final Set<PartitionRequest> runningRequests = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService heartbeatExecutor;
+    private volatile boolean running;
+
+    /**
+     * @param beanFactory    factory of the worker step beans named by the requests
+     * @param workerId       id of the worker, unique across the worker JVMs
+     * @param threads        number of partitions run in parallel by this worker
+     * @param pollIntervalMs maximum wait for a request before checking for shutdown
+     * @param leaseMs        lease of the requests running, beyond which the manager sends them again if not renewed. At least
+     *                       3 ms and 3 poll intervals, as it is renewed every third of the lease, and a lease shorter than
+     *                       the polls would let another worker claim a partition still running
+     * @throws IllegalArgumentException for a lease too short
+     */
+    public RemotePartitionWorker(PartitionRequestTransport partitionRequestTransport, JobExplorer jobExplorer, JobRepository jobRepository,
+                                 BeanFactory beanFactory, AlertThresholdRules alertThresholdRules, String workerId, int threads,
+                                 long pollIntervalMs, long leaseMs) {
+        if (leaseMs < MIN_LEASE_PERIODS || leaseMs < MIN_LEASE_PERIODS * pollIntervalMs) {
+            throw new IllegalArgumentException(String.format("Lease of the partition requests must be at least %d ms and %d poll intervals(%d ms)" +
+                    " - %d ms, see flag-alerts.partition.remote.lease-ms", MIN_LEASE_PERIODS, MIN_LEASE_PERIODS, pollIntervalMs, leaseMs));
+        }
+        this.partitionRequestTransport = partitionRequestTransport;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.beanFactory = beanFactory;
+        this.alertThresholdRules = alertThresholdRules;
+        this.workerId = workerId;
+        this.threads = threads;
+        this.pollIntervalMs = pollIntervalMs;
+        this.leaseMs = leaseMs;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread heartbeatThread = new Thread(runnable, "flag-alerts-worker-" + workerId + "-heartbeat");
+            heartbeatThread.setDaemon(true);
+            return heartbeatThread;
+        });
+        heartbeatExecutor.scheduleAtFixedRate(this::renewLeases, leaseMs / 3, leaseMs / 3, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < threads; i++) {
+            Thread workerThread = new Thread(this::receive, "flag-alerts-worker-" + workerId + "-" + i);
+            workerThread.start();
+            workerThreads.add(workerThread);
+        }
+        log.info("Started remote partition worker {} with {} threads", workerId, threads);
+    }
+
+    /**
+     * Runs the partitions received, until stopped
+     */
+    private void receive() {
+        while (running) {
+            try {
+                PartitionRequest partitionRequest = partitionRequestTransport.receive(workerId, pollIntervalMs);
+                if (partitionRequest != null) {
+                    runningRequests.add(partitionRequest);
+                    try {
+                        execute(partitionRequest);
+                    } finally {
+                        runningRequests.remove(partitionRequest);
+                        partitionRequestTransport.complete(workerId, partitionRequest);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Remote partition worker {} failed to receive a partition request", workerId, e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * Renews the leases of the requests running, a lost lease is logged as the partition may be run by another worker
+     */
+    private void renewLeases() {
+        for (PartitionRequest partitionRequest : runningRequests) {
+            try {
+                partitionRequestTransport.renew(workerId, partitionRequest);
+            } catch (IOException e) {
+                log.warn("Worker {} failed to renew the lease of partition request {}, it may be sent again to another worker",
+                        workerId, partitionRequest, e);
+            }
+        }
+    }
+
+    private void execute(PartitionRequest partitionRequest) {
+        StepExecution stepExecution = jobExplorer.getStepExecution(partitionRequest.getJobExecutionId(), partitionRequest.getStepExecutionId());
+        // STARTED when sent again after the lease of a worker that died while running it
+        if (stepExecution == null || !(stepExecution.getStatus() == BatchStatus.STARTING || stepExecution.getStatus() == BatchStatus.STARTED)
+                || !stepExecution.getJobExecution().isRunning()) {
+            log.warn("Discarding partition request {}, its step execution was already run or its job is no longer running", partitionRequest);
+            return;
+        }
+        log.info("Worker {} running partition {} of job execution {}", workerId, stepExecution.getStepName(), stepExecution.getJobExecutionId());
+        try {
+            alertThresholdRules.refresh();
+            Step step = beanFactory.getBean(partitionRequest.getWorkerStepName(), Step.class);
+            step.execute(stepExecution);
+        } catch (Exception e) {
+            log.error("Worker {} failed to run partition {}", workerId, stepExecution.getStepName(), e);
+            stepExecution.addFailureException(e);
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(e));
+            jobRepository.update(stepExecution);
+        }
+        partitionCount.incrementAndGet();
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops receiving requests, after the partitions running have finished
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            for (Thread workerThread : workerThreads) {
+                workerThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workerThreads.clear();
+        heartbeatExecutor.shutdownNow();
+        log.info("Stopped remote partition worker {} after {} partitions", workerId, partitionCount.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return number of partitions run by this worker
+     */
+    public long getPartitionCount() {
+        return partitionCount.get();
+    }
+}
@@ -0,0 +1,152 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Local {@link PartitionRequestTransport} over a directory shared by the manager and the workers, on one machine or a shared file system: <br>
+ * 1. The manager writes each request to a temporary file, renamed to "jobExecutionId-stepExecutionId.request" so it is never read partially,<br>
+ * 2. A worker claims a request by renaming it to "jobExecutionId-stepExecutionId.workerId.claimed", the rename succeeding for a single worker,
+ * and deletes the claimed file once the partition has run,<br>
+ * 3. The lease of the claim is the last modified time of the claimed file, touched by the worker while the partition runs. The manager
+ * renames a claimed file not touched within the lease back to a request file, so the partition of a worker that died is received again.<br>
+ * The lease relies on the clocks of the manager and the workers being in sync, within a fraction of the lease
+ */
+@Slf4j
+public class SharedDirectoryPartitionTransport implements PartitionRequestTransport {
+
+    static final String REQUEST_SUFFIX = ".request";
+    static final String CLAIMED_SUFFIX = ".claimed";
+
+    private final Path directory;
+    private final long pollIntervalMs;
+
+    /**
+     * @param pollIntervalMs interval of listing the directory while waiting for a request
+     */
+    public SharedDirectoryPartitionTransport(Path directory, long pollIntervalMs) {
+        this.directory = directory;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @Override
+    public void send(PartitionRequest partitionRequest) throws IOException {
+        Files.createDirectories(directory);
+        String requestName = partitionRequest.getJobExecutionId() + "-" + partitionRequest.getStepExecutionId();
+        Path tempFile = Files.write(directory.resolve(requestName + ".tmp"), partitionRequest.getWorkerStepName().getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile, directory.resolve(requestName + REQUEST_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Sent partition request {} to {}", partitionRequest, directory);
+    }
+
+    @Override
+    public PartitionRequest receive(String workerId, long timeoutMs) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            for (Path requestFile : listRequests()) {
+                PartitionRequest partitionRequest = claim(requestFile, workerId);
+                if (partitionRequest != null) {
+                    return partitionRequest;
+                }
+            }
+            long remainingMs = deadline - System.currentTimeMillis();
+            if (remainingMs <= 0) {
+                return null;
+            }
+            Thread.sleep(Math.min(pollIntervalMs, remainingMs));
+        }
+    }
+
+    /**
+     * @return the request files, in the order of their step execution ids
+     */
+    private List<Path> listRequests() throws IOException {
+        List<Path> requestFiles = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return requestFiles;
+        }
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, "*" + REQUEST_SUFFIX)) {
+            directoryStream.forEach(requestFiles::add);
+        }
+        requestFiles.sort(Comparator.comparingLong(requestFile -> parseIds(requestFile, REQUEST_SUFFIX)[1]));
+        return requestFiles;
+    }
+
+    /**
+     * @return the claimed request, or null if another worker claimed it first
+     */
+    private PartitionRequest claim(Path requestFile, String workerId) throws IOException {
+        long[] ids = parseIds(requestFile, REQUEST_SUFFIX);
+        Path claimedFile = claimedFile(ids[0], ids[1], workerId);
+        try {
+            Files.move(requestFile, claimedFile, StandardCopyOption.ATOMIC_MOVE);
+            // the lease starts with the claim, not when the request was sent
+            Files.setLastModifiedTime(claimedFile, FileTime.fromMillis(System.currentTimeMillis()));
+            return new PartitionRequest(ids[0], ids[1], new String(Files.readAllBytes(claimedFile), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void renew(String workerId, PartitionRequest partitionRequest) throws IOException {
+        Files.setLastModifiedTime(claimedFile(partitionRequest.getJobExecutionId(), partitionRequest.getStepExecutionId(), workerId),
+                FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    @Override
+    public List<PartitionRequest> resendExpired(long jobExecutionId, long leaseMs) throws IOException {
+        List<PartitionRequest> resentRequests = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return resentRequests;
+        }
+        List<Path> claimedFiles = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, jobExecutionId + "-*" + CLAIMED_SUFFIX)) {
+            directoryStream.forEach(claimedFiles::add);
+        }
+        long expiryTime = System.currentTimeMillis() - leaseMs;
+        for (Path claimedFile : claimedFiles) {
+            long[] ids = parseIds(claimedFile, CLAIMED_SUFFIX);
+            try {
+                if (Files.getLastModifiedTime(claimedFile).toMillis() >= expiryTime) {
+                    continue;
+                }
+                String workerStepName = new String(Files.readAllBytes(claimedFile), StandardCharsets.UTF_8);
+                Files.move(claimedFile, directory.resolve(ids[0] + "-" + ids[1] + REQUEST_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+                resentRequests.add(new PartitionRequest(ids[0], ids[1], workerStepName));
+            } catch (NoSuchFileException e) {
+                // completed meanwhile
+            }
+        }
+        return resentRequests;
+    }
+
+    @Override
+    public void complete(String workerId, PartitionRequest partitionRequest) throws IOException {
+        Files.deleteIfExists(claimedFile(partitionRequest.getJobExecutionId(), partitionRequest.getStepExecutionId(), workerId));
+    }
+
+    private Path claimedFile(long jobExecutionId, long stepExecutionId, String workerId) {
+        return directory.resolve(jobExecutionId + "-" + stepExecutionId + "." + workerId.replaceAll("[^A-Za-z0-9_-]", "_") + CLAIMED_SUFFIX);
+    }
+
+    /**
+     * @return the job and step execution ids of a request or claimed file
+     */
+    private static long[] parseIds(Path requestFile, String suffix) {
+        String requestName = requestFile.getFileName().toString();
+        String[] ids = requestName.substring(0, requestName.length() - suffix.length()).split("\\.")[0].split("-");
+        return new long[]{Long.parseLong(ids[0]), Long.parseLong(ids[1])};
+    }
+}
@@ -0,0 +1,221 @@
+package com.test.assignment.cs.flagalerts.processing.streaming;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the alerts queued by the streaming mode in micro-batches, each written in a transaction once
+ * "maxBatchSize" alerts are queued, or "maxFlushLatencyMs" after the oldest alert of the batch was queued.<br>
+ * The queue is bounded by "queueCapacity", so when the database falls behind, {@link #offer(LogEventAlert, long)} blocks
+ * the tailing thread(backpressure) instead of buffering alerts without limit. A failed batch is retried after
+ * "retryBackoffMs" until written, or till the writer is stopped.
+ * Alerts already in LOG_EVENT_ALERT(e.g. re-read after a restart) are skipped, by writing the batch one by one. An unexpected
+ * failure stops the writer, and the following offers fail so the streaming mode stops as well
+ */
+@Slf4j
+public class AlertMicroBatchWriter implements Runnable {
+
+    private final BlockingQueue<QueuedAlert> queue;
+    private final ItemWriter<LogEventAlert> logAlertsWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long maxFlushLatencyNanos;
+    private final long retryBackoffMs;
+
+    private final Counter alertsWritten;
+    private final Counter alertsFlagged;
+    private final Counter duplicateAlerts;
+    private final Counter backpressureWaits;
+    private final Timer flushTimer;
+    private final Timer alertLatencyTimer;
+
+    private volatile boolean running = true;
+    private volatile boolean failed;
+
+    public AlertMicroBatchWriter(ItemWriter<LogEventAlert> logAlertsWriter, PlatformTransactionManager transactionManager,
+                                 int queueCapacity, int maxBatchSize, long maxFlushLatencyMs, long retryBackoffMs,
+                                 MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.logAlertsWriter = logAlertsWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.maxFlushLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxFlushLatencyMs);
+        this.retryBackoffMs = retryBackoffMs;
+
+        this.alertsWritten = Counter.builder("flag.alerts.streaming.alerts.written")
+                .description("Alerts written to LOG_EVENT_ALERT by the streaming mode")
+                .register(meterRegistry);
+        this.alertsFlagged = Counter.builder("flag.alerts.streaming.alerts.flagged")
+                .description("Alerts written with event duration beyond the threshold")
+                .register(meterRegistry);
+        this.duplicateAlerts = Counter.builder("flag.alerts.streaming.alerts.duplicate")
+                .description("Alerts skipped as already present in LOG_EVENT_ALERT")
+                .register(meterRegistry);
+        this.backpressureWaits = Counter.builder("flag.alerts.streaming.backpressure.waits")
+                .description("Offers of the tailing thread timed out on the full alert queue")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("flag.alerts.streaming.flush")
+                .description("Time to write a micro-batch of alerts")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.alertLatencyTimer = Timer.builder("flag.alerts.streaming.alert.latency")
+                .description("Time from queueing the oldest alert of a micro-batch to its commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("flag.alerts.streaming.queue.size", queue, BlockingQueue::size)
+                .description("Alerts queued for writing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the alert, waiting up to the timeout for space in the queue
+     *
+     * @return false if the queue stayed full till the timeout
+     * @throws IllegalStateException if the writer stopped on a failure
+     */
+    public boolean offer(LogEventAlert logEventAlert, long timeoutMs) throws InterruptedException {
+        if (failed) {
+            throw new IllegalStateException("Alert writer stopped on failure, alert for event " + logEventAlert.getEventId() + " not queued");
+        }
+        if (queue.offer(new QueuedAlert(logEventAlert, System.nanoTime()), timeoutMs, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        backpressureWaits.increment();
+        return false;
+    }
+
+    /**
+     * Stops the writer once the queued alerts are written
+     */
+    public void stop() {
+        running = false;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void run() {
+        List<QueuedAlert> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                QueuedAlert oldestAlert = queue.poll(maxFlushLatencyNanos, TimeUnit.NANOSECONDS);
+                if (oldestAlert == null) {
+                    continue;
+                }
+                batch.add(oldestAlert);
+                long flushDeadline = oldestAlert.queuedNanos + maxFlushLatencyNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    QueuedAlert queuedAlert = queue.poll(flushDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (queuedAlert == null) {
+                        break;
+                    }
+                    batch.add(queuedAlert);
+                }
+                writeWithRetry(batch);
+                alertLatencyTimer.record(System.nanoTime() - oldestAlert.queuedNanos, TimeUnit.NANOSECONDS);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Alert writer interrupted, {} alerts not written", batch.size() + queue.size());
+        } catch (RuntimeException e) {
+            failed = true;
+            running = false;
+            log.error("Alert writer stopped on failure, {} alerts not written", batch.size() + queue.size(), e);
+            queue.clear();
+        }
+    }
+
+    private void writeWithRetry(List<QueuedAlert> batch) throws InterruptedException {
+        List<LogEventAlert> logEventAlerts = new ArrayList<>(batch.size());
+        for (QueuedAlert queuedAlert : batch) {
+            logEventAlerts.add(queuedAlert.logEventAlert);
+        }
+        boolean oneByOne = false;
+        while (true) {
+            try {
+                if (oneByOne) {
+                    writeOneByOne(logEventAlerts);
+                } else {
+                    flushTimer.record(() -> write(logEventAlerts));
+                }
+                return;
+            } catch (DuplicateKeyException e) {
+                log.debug("Micro-batch of {} alerts has alerts already written, writing them one by one", logEventAlerts.size());
+                oneByOne = true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Failed to write micro-batch of {} alerts while stopping, {} queued alerts not written",
+                            logEventAlerts.size(), queue.size(), e);
+                    queue.clear();
+                    return;
+                }
+                log.error("Failed to write micro-batch of {} alerts, retrying in {} ms", logEventAlerts.size(), retryBackoffMs, e);
+                Thread.sleep(retryBackoffMs);
+            }
+        }
+    }
+
+    /**
+     * Writes the alerts one by one, skipping the duplicates. Written alerts are removed from the list, so a retry after
+     * another failure writes the remaining ones
+     */
+    private void writeOneByOne(List<LogEventAlert> logEventAlerts) {
+        Iterator<LogEventAlert> logEventAlertIterator = logEventAlerts.iterator();
+        while (logEventAlertIterator.hasNext()) {
+            LogEventAlert logEventAlert = logEventAlertIterator.next();
+            try {
+                write(Collections.singletonList(logEventAlert));
+            } catch (DuplicateKeyException duplicate) {
+                duplicateAlerts.increment();
+                log.warn("Skipping alert for event {}, already present in LOG_EVENT_ALERT", logEventAlert.getEventId());
+            }
+            logEventAlertIterator.remove();
+        }
+    }
+
+    private void write(List<LogEventAlert> logEventAlerts) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                logAlertsWriter.write(logEventAlerts);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to write alerts", e);
+            }
+        });
+        alertsWritten.increment(logEventAlerts.size());
+        alertsFlagged.increment(logEventAlerts.stream().filter(LogEventAlert::getAlert).count());
+    }
+
+    private static class QueuedAlert {
+        private final LogEventAlert logEventAlert;
+        private final long queuedNanos;
+
+        QueuedAlert(LogEventAlert logEventAlert, long queuedNanos) {
+            this.logEventAlert = logEventAlert;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+}
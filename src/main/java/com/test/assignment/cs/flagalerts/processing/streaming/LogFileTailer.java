@@ -0,0 +1,230 @@
+package com.test.assignment.cs.flagalerts.processing.streaming;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryParser;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tails the log file, or the regular files of a log directory, parsing the complete lines appended since the last call of
+ * {@link #tail(LogEventEntryHandler)}. A partially written line is parsed once its line feed is written.
+ * A file truncated or replaced(rotated) under the same name is tailed from its start. <br>
+ * Files present at the first call are tailed from their end unless "fromBeginning", files created afterwards from their start.
+ * In a log directory, a tailed file renamed(e.g. rotated from app.log to app.log.1) is found by its file key, and tailed
+ * from its offset under the new name, so its lines are not read again. Compressed files are not tailed, nor files named
+ * as rotated(numeric or date suffix) unless renamed from a tailed file.
+ * Not thread safe, called by the watching thread of {@link StreamingFlagAlertsService}
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class LogFileTailer {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern COMPRESSED_FILE = Pattern.compile(".*\\.(gz|zip|bz2|xz|zst)$");
+    // logrotate suffixes, e.g. app.log.1 or app.log-20210401
+    private static final Pattern ROTATED_FILE = Pattern.compile(".*(\\.\\d+|-\\d{8,10})$");
+
+    /**
+     * Handler of the entries parsed from the appended lines
+     */
+    @FunctionalInterface
+    public interface LogEventEntryHandler {
+        void handle(LogEventEntry logEventEntry) throws InterruptedException;
+    }
+
+    @NonNull
+    private final Path watchedPath;
+    private final boolean fromBeginning;
+    @NonNull
+    private final LogEventEntryParser logEventEntryParser;
+
+    private final Map<Path, TailedFile> tailedFiles = new HashMap<>();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private boolean initialized;
+    private long invalidLineCount;
+
+    /**
+     * Directory to be watched for changes of the tailed files
+     */
+    public Path getWatchedDirectory() {
+        return Files.isDirectory(watchedPath) ? watchedPath : watchedPath.toAbsolutePath().getParent();
+    }
+
+    public long getInvalidLineCount() {
+        return invalidLineCount;
+    }
+
+    /**
+     * Parses the lines appended to the tailed files since the last call, passing the entries to the handler in file order
+     *
+     * @return number of lines parsed
+     */
+    public long tail(LogEventEntryHandler logEventEntryHandler) throws IOException, InterruptedException {
+        Map<Path, BasicFileAttributes> currentFiles = listFiles();
+        // files no longer under their tailed name, by file key, in case they were renamed
+        Map<Object, TailedFile> movedFiles = new HashMap<>();
+        for (Iterator<Map.Entry<Path, TailedFile>> iterator = tailedFiles.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Path, TailedFile> tailedFile = iterator.next();
+            BasicFileAttributes attributes = currentFiles.get(tailedFile.getKey());
+            if (attributes == null || !Objects.equals(tailedFile.getValue().fileKey, attributes.fileKey())) {
+                if (tailedFile.getValue().fileKey != null) {
+                    movedFiles.put(tailedFile.getValue().fileKey, tailedFile.getValue());
+                }
+                iterator.remove();
+            }
+        }
+
+        long lineCount = 0;
+        for (Map.Entry<Path, BasicFileAttributes> currentFile : currentFiles.entrySet()) {
+            BasicFileAttributes attributes = currentFile.getValue();
+            TailedFile tailedFile = tailedFiles.get(currentFile.getKey());
+            if (tailedFile == null) {
+                tailedFile = attributes.fileKey() == null ? null : movedFiles.remove(attributes.fileKey());
+                if (tailedFile != null) {
+                    log.info("Log file {} was renamed, tailing from line {}", currentFile.getKey(), tailedFile.lineNumber);
+                } else if (isRotated(currentFile.getKey())) {
+                    continue;
+                } else {
+                    tailedFile = new TailedFile(attributes.fileKey(), initialized || fromBeginning ? 0 : attributes.size());
+                    tailedFile.skipFirstLine = tailedFile.offset > 0 && !endsWithLineFeed(currentFile.getKey(), tailedFile.offset);
+                }
+                tailedFiles.put(currentFile.getKey(), tailedFile);
+            } else if (attributes.size() < tailedFile.offset) {
+                log.info("Log file {} was truncated, tailing from its start", currentFile.getKey());
+                tailedFile = new TailedFile(attributes.fileKey(), 0);
+                tailedFiles.put(currentFile.getKey(), tailedFile);
+            }
+            if (attributes.size() > tailedFile.offset) {
+                lineCount += tailFile(currentFile.getKey(), tailedFile, logEventEntryHandler);
+            }
+        }
+        initialized = true;
+        return lineCount;
+    }
+
+    private long tailFile(Path logFile, TailedFile tailedFile, LogEventEntryHandler logEventEntryHandler) throws IOException, InterruptedException {
+        long lineCount = 0;
+        try (FileChannel fileChannel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            while (true) {
+                buffer.clear();
+                int bytesRead = fileChannel.read(buffer, tailedFile.offset);
+                if (bytesRead <= 0) {
+                    return lineCount;
+                }
+                byte[] bytes = buffer.array();
+                int lineStart = 0;
+                for (int i = 0; i < bytesRead; i++) {
+                    if (bytes[i] == '\n') {
+                        int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                        tailedFile.lineNumber++;
+                        if (tailedFile.skipFirstLine) {
+                            tailedFile.skipFirstLine = false;
+                        } else if (lineEnd > lineStart) {
+                            parseLine(bytes, lineStart, lineEnd - lineStart, tailedFile.lineNumber, logEventEntryHandler);
+                            lineCount++;
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+                tailedFile.offset += lineStart;
+                if (lineStart == 0) {
+                    if (bytesRead < buffer.capacity()) {
+                        return lineCount;
+                    }
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                }
+            }
+        }
+    }
+
+    private void parseLine(byte[] bytes, int offset, int length, int lineNumber, LogEventEntryHandler logEventEntryHandler) throws InterruptedException {
+        LogEventEntry logEventEntry;
+        try {
+            logEventEntry = logEventEntryParser.parse(bytes, offset, length, lineNumber);
+        } catch (FlatFileParseException e) {
+            invalidLineCount++;
+            log.warn("Skipping invalid log entry at line {} - {}", lineNumber, e.getInput());
+            return;
+        }
+        logEventEntryHandler.handle(logEventEntry);
+    }
+
+    /**
+     * @return true if the byte preceding the offset is a line feed, so the offset is the start of a line
+     */
+    private boolean endsWithLineFeed(Path logFile, long offset) throws IOException {
+        ByteBuffer lastByte = ByteBuffer.allocate(1);
+        try (FileChannel fileChannel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            return fileChannel.read(lastByte, offset - 1) == 1 && lastByte.get(0) == '\n';
+        }
+    }
+
+    private Map<Path, BasicFileAttributes> listFiles() throws IOException {
+        if (!Files.isDirectory(watchedPath)) {
+            Map<Path, BasicFileAttributes> files = new HashMap<>();
+            BasicFileAttributes attributes = readAttributes(watchedPath);
+            if (attributes != null) {
+                files.put(watchedPath, attributes);
+            }
+            return files;
+        }
+        try (Stream<Path> files = Files.list(watchedPath)) {
+            Map<Path, BasicFileAttributes> regularFiles = new HashMap<>();
+            for (Path file : files.collect(Collectors.toList())) {
+                if (COMPRESSED_FILE.matcher(file.getFileName().toString()).matches()) {
+                    continue;
+                }
+                BasicFileAttributes attributes = readAttributes(file);
+                if (attributes != null && attributes.isRegularFile()) {
+                    regularFiles.put(file, attributes);
+                }
+            }
+            return regularFiles;
+        }
+    }
+
+    /**
+     * @return true for a file of a log directory named as rotated, tailed only when renamed from a tailed file
+     */
+    private boolean isRotated(Path file) {
+        return !file.equals(watchedPath) && ROTATED_FILE.matcher(file.getFileName().toString()).matches();
+    }
+
+    private BasicFileAttributes readAttributes(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static class TailedFile {
+        private final Object fileKey;
+        private long offset;
+        private int lineNumber;
+        private boolean skipFirstLine;
+
+        TailedFile(Object fileKey, long offset) {
+            this.fileKey = fileKey;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.test.assignment.cs.flagalerts.processing.streaming;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertOutputMode;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.alerts.FlagAlertStepConfiguration;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryParser;
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+
+/**
+ * Configuration of the streaming mode "flag-alerts.streaming.enabled", a long running alternative to the batch job,
+ * flagging the events with sub-second latency as the log file is appended to - {@link StreamingFlagAlertsService}
+ */
+@Configuration
+@ConditionalOnProperty(name = "flag-alerts.streaming.enabled", havingValue = "true")
+@Slf4j
+public class StreamingConfiguration {
+
+    /**
+     * @param streamingPath        log file, or directory of log files to be tailed
+     * @param fromBeginning        read the existing content of the log files at startup, instead of only the lines appended afterwards
+     * @param alertThresholdRules  thresholds of event duration for flagging event as alert {@link FlagAlertStepConfiguration#alertThresholdRules(String, long)}
+     * @param pollIntervalMs       interval of tailing the log files without change notifications, and of checking for shutdown
+     * @param alertOutputMode      events persisted, all by default or only the alerts
+     * @param memoryBudgetBytes    budget for the estimated memory of the unmatched entries, beyond which the oldest are evicted
+     * @param orphanMaxAgeMs       age of an unmatched entry, behind the latest entry, beyond which it is evicted
+     * @param logEntryValidator    {@link com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration#logEntryValidator(com.test.assignment.cs.flagalerts.processing.support.ValidationMode)}
+     * @param logAlertValidator    {@link FlagAlertStepConfiguration#logAlertValidator(com.test.assignment.cs.flagalerts.processing.support.ValidationMode)}
+     * @param alertMicroBatchWriter {@link #alertMicroBatchWriter(DataSource, EventDictionary, PlatformTransactionManager, PrometheusMeterRegistry, int, int, long, long)}
+     */
+    @Bean
+    public StreamingFlagAlertsService streamingFlagAlertsService(
+            @Value("${flag-alerts.streaming.path:logfile.txt}") String streamingPath,
+            @Value("${flag-alerts.streaming.from-beginning:false}") boolean fromBeginning,
+            AlertThresholdRules alertThresholdRules,
+            @Value("${flag-alerts.streaming.poll-interval-ms:250}") long pollIntervalMs,
+            @Value("${flag-alerts.alerts.output:all}") AlertOutputMode alertOutputMode,
+            @Value("${flag-alerts.streaming.memory-budget-bytes:268435456}") long memoryBudgetBytes,
+            @Value("${flag-alerts.streaming.orphan-max-age-ms:3600000}") long orphanMaxAgeMs,
+            ValidatingItemProcessor<LogEventEntry> logEntryValidator,
+            ValidatingItemProcessor<LogEventAlert> logAlertValidator,
+            LogEventEntryParser logEventEntryParser,
+            AlertMicroBatchWriter alertMicroBatchWriter,
+            PrometheusMeterRegistry prometheusMeterRegistry) {
+        log.info("Initializing streaming flag alerts for {}, with {} alert threshold rules", streamingPath, alertThresholdRules.getRuleCount());
+        LogFileTailer logFileTailer = new LogFileTailer(Paths.get(streamingPath), fromBeginning, logEventEntryParser);
+        return new StreamingFlagAlertsService(logFileTailer, logEntryValidator, logAlertValidator, alertMicroBatchWriter,
+                alertThresholdRules, pollIntervalMs, alertOutputMode, memoryBudgetBytes, orphanMaxAgeMs, prometheusMeterRegistry);
+    }
+
+    /**
+     * Writer of the alerts to LOG_EVENT_ALERT in micro-batches
+     *
+     * @param queueCapacity     number of alerts queued for writing, beyond which the tailing waits for the writer
+     * @param maxBatchSize      maximum number of alerts written per transaction
+     * @param maxFlushLatencyMs maximum time an alert is queued before its micro-batch is written
+     * @param retryBackoffMs    wait before retrying a failed micro-batch
+     */
+    @Bean
+    public AlertMicroBatchWriter alertMicroBatchWriter(DataSource dataSource, EventDictionary eventDictionary, PlatformTransactionManager transactionManager,
+                                                       PrometheusMeterRegistry prometheusMeterRegistry,
+                                                       @Value("${flag-alerts.streaming.queue-capacity:10000}") int queueCapacity,
+                                                       @Value("${flag-alerts.streaming.max-batch-size:500}") int maxBatchSize,
+                                                       @Value("${flag-alerts.streaming.max-flush-latency-ms:200}") long maxFlushLatencyMs,
+                                                       @Value("${flag-alerts.streaming.retry-backoff-ms:1000}") long retryBackoffMs) throws Exception {
+        JdbcBatchItemWriter<LogEventAlert> logAlertsJdbcWriter = FlagAlertStepConfiguration.createLogAlertsJdbcWriter(dataSource, eventDictionary);
+        logAlertsJdbcWriter.afterPropertiesSet();
+        return new AlertMicroBatchWriter(logAlertsJdbcWriter, transactionManager, queueCapacity, maxBatchSize,
+                maxFlushLatencyMs, retryBackoffMs, prometheusMeterRegistry);
+    }
+}
@@ -0,0 +1,243 @@
+package com.test.assignment.cs.flagalerts.processing.streaming;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertOutputMode;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.pairing.LogEventPairingItemReader;
+import com.test.assignment.cs.flagalerts.processing.pairing.PendingEventStore;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long running streaming mode, flagging the events as their FINISHED/STARTED lines are appended to the log file: <br>
+ * 1. The log file(or directory) is watched with a {@link WatchService}, and tailed by {@link LogFileTailer} on each change,
+ * or every "pollIntervalMs" for file systems without change notifications,<br>
+ * 2. The validated entries are paired by id in memory by {@link PendingEventStore}, and flagged by the {@link AlertThresholdRules}
+ * reloaded before each tail when modified. A stream is never drained, so the store does not spill to disk: the unmatched
+ * entries older than "orphanMaxAgeMs" behind the latest entry are evicted, and the oldest quarter of them once over the
+ * memory budget,<br>
+ * 3. The alerts are written to LOG_EVENT_ALERT in micro-batches by {@link AlertMicroBatchWriter}, or only counted when within
+ * the threshold in output mode {@link AlertOutputMode#ALERTS_ONLY}.<br>
+ * Unmatched entries are held in memory only, so events started before a restart are not flagged
+ */
+@Slf4j
+public class StreamingFlagAlertsService implements SmartLifecycle {
+
+    private final LogFileTailer logFileTailer;
+    private final ItemProcessor<LogEventEntry, LogEventEntry> logEntryValidator;
+    private final ItemProcessor<LogEventAlert, LogEventAlert> logAlertValidator;
+    private final AlertMicroBatchWriter alertMicroBatchWriter;
+    private final AlertThresholdRules alertThresholdRules;
+    private final long pollIntervalMs;
+    private final AlertOutputMode alertOutputMode;
+    private final PendingEventStore pendingEventStore;
+    private final long memoryBudgetBytes;
+    private final long orphanMaxAgeMs;
+    private final Counter nonAlertingEventCounter;
+    private final Counter agedOutEntryCounter;
+    private final Counter overBudgetEntryCounter;
+
+    private volatile boolean running;
+    private WatchService watchService;
+    private Thread tailerThread;
+    private Thread writerThread;
+    private long invalidEntryCount;
+    private long latestTimestamp;
+    private long nextAgeEvictionTimestamp;
+    // recorded after each tail, read by the gauges
+    private volatile long pendingCount;
+    private volatile long pendingMemoryBytes;
+
+    /**
+     * @param memoryBudgetBytes budget for the estimated memory of the unmatched entries, beyond which the oldest are evicted.
+     *                          Unbounded for a budget <= 0
+     * @param orphanMaxAgeMs    age of an unmatched entry, behind the latest entry tailed, beyond which it is evicted.
+     *                          Never evicted by age for an age <= 0
+     */
+    public StreamingFlagAlertsService(LogFileTailer logFileTailer,
+                                      ItemProcessor<LogEventEntry, LogEventEntry> logEntryValidator,
+                                      ItemProcessor<LogEventAlert, LogEventAlert> logAlertValidator,
+                                      AlertMicroBatchWriter alertMicroBatchWriter,
+                                      AlertThresholdRules alertThresholdRules, long pollIntervalMs, AlertOutputMode alertOutputMode,
+                                      long memoryBudgetBytes, long orphanMaxAgeMs, MeterRegistry meterRegistry) {
+        this.logFileTailer = logFileTailer;
+        this.logEntryValidator = logEntryValidator;
+        this.logAlertValidator = logAlertValidator;
+        this.alertMicroBatchWriter = alertMicroBatchWriter;
+        this.alertThresholdRules = alertThresholdRules;
+        this.pollIntervalMs = pollIntervalMs;
+        this.alertOutputMode = alertOutputMode;
+        // the spilled entries are only paired once drained at the end of the input, which a stream never reaches
+        this.pendingEventStore = new PendingEventStore(0, logFileTailer.getWatchedDirectory());
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.orphanMaxAgeMs = orphanMaxAgeMs;
+        Gauge.builder("flag.alerts.streaming.pending.entries", this, service -> service.pendingCount)
+                .description("Unmatched entries held in memory")
+                .register(meterRegistry);
+        Gauge.builder("flag.alerts.streaming.pending.memory", this, service -> service.pendingMemoryBytes)
+                .description("Estimated memory of the unmatched entries")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.nonAlertingEventCounter = Counter.builder("flag.alerts.streaming.non-alerting.events")
+                .description("Events within the alert threshold, not persisted in output mode alerts-only")
+                .register(meterRegistry);
+        this.agedOutEntryCounter = evictedEntryCounter(meterRegistry, "age");
+        this.overBudgetEntryCounter = evictedEntryCounter(meterRegistry, "memory");
+    }
+
+    private static Counter evictedEntryCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("flag.alerts.streaming.evicted.entries")
+                .description("Unmatched entries evicted, by the age or the memory budget")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            logFileTailer.getWatchedDirectory().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to watch " + logFileTailer.getWatchedDirectory(), e);
+        }
+        running = true;
+        writerThread = new Thread(alertMicroBatchWriter, "flag-alerts-streaming-writer");
+        writerThread.start();
+        tailerThread = new Thread(this::watch, "flag-alerts-streaming-tailer");
+        tailerThread.start();
+        log.info("Started streaming flag alerts for {}", logFileTailer.getWatchedDirectory());
+    }
+
+    /**
+     * Tails the log files on each change notification, until stopped
+     */
+    private void watch() {
+        try {
+            while (running) {
+                alertThresholdRules.refresh();
+                logFileTailer.tail(this::pair);
+                evictAgedOutEntries();
+                pendingCount = pendingEventStore.getPendingCount();
+                pendingMemoryBytes = pendingEventStore.getEstimatedMemoryBytes();
+                WatchKey watchKey = watchService.poll(pollIntervalMs, TimeUnit.MILLISECONDS);
+                if (watchKey != null) {
+                    watchKey.pollEvents();
+                    watchKey.reset();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Watch service closed, stopping tailing");
+        } catch (IOException | RuntimeException e) {
+            // also thrown by the alert writer once stopped on failure. Not running anymore, so not stopped by the context
+            running = false;
+            log.error("Streaming flag alerts stopped on failure to tail the log files, or to write the alerts", e);
+            closeWatchService();
+        } finally {
+            alertMicroBatchWriter.stop();
+        }
+    }
+
+    private void pair(LogEventEntry logEventEntry) throws InterruptedException {
+        try {
+            LogEventEntry validLogEventEntry = logEntryValidator.process(logEventEntry);
+            if (validLogEventEntry == null) {
+                return;
+            }
+            latestTimestamp = Math.max(latestTimestamp, validLogEventEntry.getTimestamp());
+            LogEventEntry pendingEntry = pendingEventStore.pair(validLogEventEntry);
+            if (pendingEntry == null) {
+                evictOverBudgetEntries();
+                return;
+            }
+            LogEventAlert logEventAlert = logAlertValidator.process(
+                    LogEventPairingItemReader.createLogEventAlert(pendingEntry, validLogEventEntry, alertThresholdRules));
+            if (logEventAlert != null && alertOutputMode == AlertOutputMode.ALERTS_ONLY && logEventAlert.isWithinThreshold()) {
+                nonAlertingEventCounter.increment();
+                return;
+            }
+            while (logEventAlert != null && running && !alertMicroBatchWriter.offer(logEventAlert, pollIntervalMs)) {
+                log.debug("Alert queue is full, waiting for the alert writer");
+            }
+        } catch (ValidationException e) {
+            invalidEntryCount++;
+            log.warn("Skipping invalid log entry {} - {}", logEventEntry, e.getMessage());
+        } catch (InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to validate log entry " + logEventEntry, e);
+        }
+    }
+
+    /**
+     * Evicts the unmatched entries older than the max age behind the latest entry, each time the latest entry moved by a
+     * tenth of the max age, so the table is not scanned on every tail
+     */
+    private void evictAgedOutEntries() {
+        if (orphanMaxAgeMs <= 0 || latestTimestamp <= nextAgeEvictionTimestamp) {
+            return;
+        }
+        int evictedCount = pendingEventStore.evictOlderThan(latestTimestamp - orphanMaxAgeMs);
+        if (evictedCount > 0) {
+            agedOutEntryCounter.increment(evictedCount);
+            log.info("Evicted {} unmatched entries older than {} ms", evictedCount, orphanMaxAgeMs);
+        }
+        nextAgeEvictionTimestamp = latestTimestamp + Math.max(1, orphanMaxAgeMs / 10);
+    }
+
+    private void evictOverBudgetEntries() {
+        if (memoryBudgetBytes <= 0 || pendingEventStore.getEstimatedMemoryBytes() <= memoryBudgetBytes) {
+            return;
+        }
+        int evictedCount = pendingEventStore.evictOldest(0.25);
+        overBudgetEntryCounter.increment(evictedCount);
+        log.warn("Evicted the {} oldest unmatched entries, over the memory budget of {} bytes", evictedCount, memoryBudgetBytes);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            closeWatchService();
+            tailerThread.join();
+            alertMicroBatchWriter.stop();
+            writerThread.join();
+            log.info("Stopped streaming flag alerts - {} entries left unmatched, {} invalid lines and {} invalid entries skipped",
+                    pendingEventStore.getPendingCount(), logFileTailer.getInvalidLineCount(), invalidEntryCount);
+            pendingEventStore.close();
+        } catch (IOException e) {
+            log.warn("Failed to release the pending entries", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeWatchService() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Failed to release the watch service", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,136 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Chunk completion policy with a chunk size adapted at runtime, based on the measured commit latency and throughput
+ * of the chunks. The commit latency of a chunk is timed from its first write to the end of its commit, the reading and
+ * processing of its items are not included:<br>
+ * 1. Chunk size is halved when a chunk commit takes longer than the target commit latency,<br>
+ * 2. Chunk size is doubled when a chunk commit takes less than half the target latency, as long as the throughput
+ * (items written/sec) does not drop. On a drop, the previous size is restored and used as the upper bound<br>
+ * The chosen chunk size is recorded in the step execution context with key {@link #CHUNK_SIZE_KEY}.
+ * Must be step scoped, as the measurements are kept per step execution. With adaptive disabled, the chunk size stays fixed
+ */
+@Slf4j
+public class AdaptiveChunkCompletionPolicy extends SimpleCompletionPolicy implements ChunkListener, ItemWriteListener<Object> {
+
+    public static final String CHUNK_SIZE_KEY = "chunk.size";
+    private static final double THROUGHPUT_DROP_TOLERANCE = 0.9;
+
+    private final boolean adaptive;
+    private final int minChunkSize;
+    private int maxChunkSize;
+    private final long targetCommitNanos;
+    private final LongSupplier nanoClock;
+
+    private long writeStartNanos = -1;
+    private long chunkWriteCount;
+    private long chunkStartReadCount;
+    private int previousChunkSize;
+    private double previousThroughput;
+    @Getter
+    private int adjustmentCount;
+
+    public AdaptiveChunkCompletionPolicy(int chunkSize, boolean adaptive, int minChunkSize, int maxChunkSize, long targetCommitMillis) {
+        this(chunkSize, adaptive, minChunkSize, maxChunkSize, targetCommitMillis, System::nanoTime);
+    }
+
+    AdaptiveChunkCompletionPolicy(int chunkSize, boolean adaptive, int minChunkSize, int maxChunkSize, long targetCommitMillis,
+                                  LongSupplier nanoClock) {
+        super(chunkSize);
+        this.adaptive = adaptive;
+        this.minChunkSize = Math.max(1, minChunkSize);
+        this.maxChunkSize = Math.max(this.minChunkSize, maxChunkSize);
+        this.targetCommitNanos = targetCommitMillis * 1_000_000;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Registers the policy for its chunk and write callbacks on the step builder, in addition to its use as the
+     * completion policy of the chunks
+     *
+     * @return the step builder
+     */
+    public static <I, O> SimpleStepBuilder<I, O> register(SimpleStepBuilder<I, O> stepBuilder,
+                                                          AdaptiveChunkCompletionPolicy chunkCompletionPolicy) {
+        stepBuilder.listener((ChunkListener) chunkCompletionPolicy);
+        stepBuilder.listener((ItemWriteListener<Object>) chunkCompletionPolicy);
+        return stepBuilder;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        writeStartNanos = -1;
+        chunkWriteCount = 0;
+        chunkStartReadCount = context.getStepContext().getStepExecution().getReadCount();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long chunkItems = stepExecution.getReadCount() - chunkStartReadCount;
+        // the last chunk of the step is usually incomplete, and a chunk with all items filtered out is not written
+        if (adaptive && chunkItems >= getChunkSize() && writeStartNanos >= 0 && chunkWriteCount > 0) {
+            long commitNanos = Math.max(1, nanoClock.getAsLong() - writeStartNanos);
+            adaptChunkSize(commitNanos, chunkWriteCount * 1e9 / commitNanos, stepExecution.getStepName());
+        }
+        stepExecution.getExecutionContext().putInt(CHUNK_SIZE_KEY, getChunkSize());
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        // chunk is retried or skipped item by item, the timing is not representative
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+        // the writer may be called again for the same chunk, e.g. on retry, the commit latency includes all of its calls
+        if (writeStartNanos < 0) {
+            writeStartNanos = nanoClock.getAsLong();
+        }
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+        chunkWriteCount += items.size();
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+        // the chunk is rolled back, see afterChunkError
+    }
+
+    private void adaptChunkSize(long commitNanos, double throughput, String stepName) {
+        int chunkSize = getChunkSize();
+        int newChunkSize = chunkSize;
+        if (previousChunkSize > 0 && previousChunkSize < chunkSize && throughput < previousThroughput * THROUGHPUT_DROP_TOLERANCE) {
+            // growing the chunk reduced the throughput, restore the previous size, and stop growing beyond it
+            maxChunkSize = previousChunkSize;
+            newChunkSize = previousChunkSize;
+        } else if (commitNanos > targetCommitNanos) {
+            newChunkSize = Math.max(minChunkSize, chunkSize / 2);
+        } else if (commitNanos < targetCommitNanos / 2) {
+            newChunkSize = (int) Math.min(maxChunkSize, chunkSize * 2L);
+        }
+
+        previousChunkSize = chunkSize;
+        previousThroughput = throughput;
+        if (newChunkSize != chunkSize) {
+            adjustmentCount++;
+            log.debug("Chunk size of step {} changed {} -> {}, with commit latency {} ms and throughput {} items/sec",
+                    stepName, chunkSize, newChunkSize, commitNanos / 1_000_000, (long) throughput);
+            setChunkSize(newChunkSize);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chunk completion policies of the steps, with chunk sizes configurable by properties "flag-alerts.parser.chunk-size",
+ * "flag-alerts.alerts.chunk-size", and adapted at runtime when "flag-alerts.chunk.adaptive.enabled" is true
+ * @see AdaptiveChunkCompletionPolicy
+ */
+@Configuration
+@Slf4j
+public class ChunkCompletionPolicyConfiguration {
+
+    @Value("${flag-alerts.chunk.adaptive.enabled:false}")
+    private boolean adaptive;
+    @Value("${flag-alerts.chunk.adaptive.min-size:100}")
+    private int minChunkSize;
+    @Value("${flag-alerts.chunk.adaptive.max-size:10000}")
+    private int maxChunkSize;
+    @Value("${flag-alerts.chunk.adaptive.target-commit-ms:500}")
+    private long targetCommitMillis;
+
+    /**
+     * Completion policy for the chunks of log entries parsed from the log file
+     *
+     * @param chunkSize number of log entries per chunk, or the initial number when adaptive
+     */
+    @Bean
+    @StepScope
+    public AdaptiveChunkCompletionPolicy parseLogsChunkCompletionPolicy(@Value("${flag-alerts.parser.chunk-size:1000}") int chunkSize) {
+        return new AdaptiveChunkCompletionPolicy(chunkSize, adaptive, minChunkSize, maxChunkSize, targetCommitMillis);
+    }
+
+    /**
+     * Completion policy for the chunks of flagged alerts
+     *
+     * @param chunkSize number of alerts per chunk, or the initial number when adaptive
+     */
+    @Bean
+    @StepScope
+    public AdaptiveChunkCompletionPolicy flagAlertsChunkCompletionPolicy(@Value("${flag-alerts.alerts.chunk-size:1000}") int chunkSize) {
+        return new AdaptiveChunkCompletionPolicy(chunkSize, adaptive, minChunkSize, maxChunkSize, targetCommitMillis);
+    }
+}
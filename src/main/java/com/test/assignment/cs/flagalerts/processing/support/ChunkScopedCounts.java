@@ -0,0 +1,76 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Counts by key of what a writer writes within the chunks of a step, kept in the step execution context and a metric per key:<br>
+ * 1. The counts of the current chunk are added once written - {@link #add(Object, long)},<br>
+ * 2. Saved along with the committed counts by {@link #update(ExecutionContext)}, called within the transaction of the chunk,<br>
+ * 3. Added to the committed counts and the metrics once the chunk is committed - {@link #commit()}, or discarded with a
+ * rolled back chunk - {@link #rollback()}, so a chunk retried item by item is not counted twice.<br>
+ * The writer calls these from its own stream and {@link org.springframework.batch.core.ChunkListener} callbacks
+ */
+public class ChunkScopedCounts<K> {
+
+    private final Map<K, Counter> counters;
+    private final Function<K, String> executionContextKey;
+    private final Map<K, Long> counts = new HashMap<>();
+    private final Map<K, Long> chunkCounts = new HashMap<>();
+
+    /**
+     * @param counters            metric of each key counted
+     * @param executionContextKey key of the count in the step execution context, for each key counted
+     */
+    public ChunkScopedCounts(Map<K, Counter> counters, Function<K, String> executionContextKey) {
+        this.counters = counters;
+        this.executionContextKey = executionContextKey;
+    }
+
+    public void add(K key, long count) {
+        chunkCounts.merge(key, count, Long::sum);
+    }
+
+    /**
+     * @return count of the committed chunks
+     */
+    public long get(K key) {
+        return counts.getOrDefault(key, 0L);
+    }
+
+    /**
+     * Restores the counts committed by a failed execution of the step
+     */
+    public void open(ExecutionContext executionContext) {
+        counts.clear();
+        chunkCounts.clear();
+        for (K key : counters.keySet()) {
+            counts.put(key, executionContext.getLong(executionContextKey.apply(key), 0));
+        }
+    }
+
+    /**
+     * Saves the counts including those of the current chunk, as the execution context is saved within its transaction
+     */
+    public void update(ExecutionContext executionContext) {
+        for (K key : counters.keySet()) {
+            executionContext.putLong(executionContextKey.apply(key), get(key) + chunkCounts.getOrDefault(key, 0L));
+        }
+    }
+
+    public void commit() {
+        for (Map.Entry<K, Long> chunkCount : chunkCounts.entrySet()) {
+            counts.merge(chunkCount.getKey(), chunkCount.getValue(), Long::sum);
+            counters.get(chunkCount.getKey()).increment(chunkCount.getValue());
+        }
+        chunkCounts.clear();
+    }
+
+    public void rollback() {
+        chunkCounts.clear();
+    }
+}
@@ -0,0 +1,47 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.batch.item.validator.ValidationException;
+
+/**
+ * Checks shared by the fast path validators, with the semantics of the JSR-303 constraints they replace
+ */
+@UtilityClass
+public class ConstraintChecks {
+
+    /**
+     * Same as {@link javax.validation.constraints.NotBlank} - null, or only whitespace characters as removed by {@link String#trim()}
+     */
+    public boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Validation failure of a field, in the {@link ValidationException} contract of the JSR-303 validating processor
+     */
+    public ValidationException validationFailure(Object item, String field, String message) {
+        return validationFailure(item, violation(field, message));
+    }
+
+    /**
+     * Validation failure of the item for the violation of {@link #violation(String, String)}
+     */
+    public ValidationException validationFailure(Object item, String violation) {
+        return new ValidationException("Validation failed for " + item + ": " + violation);
+    }
+
+    /**
+     * Violation of a field, as described in the validation failures
+     */
+    public String violation(String field, String message) {
+        return "field '" + field + "' " + message;
+    }
+}
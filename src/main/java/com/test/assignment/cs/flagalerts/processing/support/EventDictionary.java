@@ -0,0 +1,114 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dictionary encoding of the event host and type values to the int ids of table EVENT_DICTIONARY, stored in place of the
+ * strings by the temporary tables and LOG_EVENT_ALERT_ENCODED(view LOG_EVENT_ALERT decodes them back).<br>
+ * 1. Known values are encoded and decoded from memory, ids are small and dense so decoding is an array lookup,<br>
+ * 2. A new value is inserted in its own transaction, so its id stays valid when the chunk encoding it rolls back.
+ * Values added by another process, or by a previous run of a file database, are loaded on first use.<br>
+ * Null is stored as SQL NULL. Thread safe, so a single dictionary is shared by all steps and partitions
+ */
+@Slf4j
+public class EventDictionary {
+
+    private static final String SELECT_ID_SQL = "SELECT DICTIONARY_ID FROM EVENT_DICTIONARY WHERE DICTIONARY_VALUE = ?";
+    private static final String SELECT_VALUE_SQL = "SELECT DICTIONARY_VALUE FROM EVENT_DICTIONARY WHERE DICTIONARY_ID = ?";
+    private static final String INSERT_VALUE_SQL = "INSERT INTO EVENT_DICTIONARY (DICTIONARY_VALUE) VALUES (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+
+    public EventDictionary(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.newTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return id of the value, added to the dictionary when new. Null for null
+     */
+    public Integer idOf(String value) {
+        if (value == null) {
+            return null;
+        }
+        Integer id = ids.get(value);
+        return id != null ? id : addValue(value);
+    }
+
+    /**
+     * @return value of the id, loaded from the dictionary table when not known yet. Null for null
+     */
+    public String valueOf(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String[] currentValues = values;
+        String value = id < currentValues.length ? currentValues[id] : null;
+        return value != null ? value : loadValue(id);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized Integer addValue(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = newTransactionTemplate.execute(status -> selectOrInsertId(value));
+            cache(id, value);
+            log.debug("Event dictionary value [{}] encoded as {}", value, id);
+        }
+        return id;
+    }
+
+    private Integer selectOrInsertId(String value) {
+        List<Integer> existingIds = jdbcTemplate.queryForList(SELECT_ID_SQL, Integer.class, value);
+        if (existingIds.isEmpty()) {
+            try {
+                jdbcTemplate.update(INSERT_VALUE_SQL, value);
+            } catch (DuplicateKeyException e) {
+                log.debug("Event dictionary value [{}] added concurrently", value);
+            }
+            existingIds = jdbcTemplate.queryForList(SELECT_ID_SQL, Integer.class, value);
+        }
+        return existingIds.get(0);
+    }
+
+    private synchronized String loadValue(int id) {
+        String[] currentValues = values;
+        if (id < currentValues.length && currentValues[id] != null) {
+            return currentValues[id];
+        }
+        List<String> loadedValues = jdbcTemplate.queryForList(SELECT_VALUE_SQL, String.class, id);
+        if (loadedValues.isEmpty()) {
+            throw new IllegalStateException("No event dictionary value for id " + id);
+        }
+        cache(id, loadedValues.get(0));
+        return loadedValues.get(0);
+    }
+
+    /**
+     * Publishes the id, copying the decoding array on write so that lookups never lock
+     */
+    private void cache(int id, String value) {
+        String[] newValues = Arrays.copyOf(values, Math.max(values.length, Integer.highestOneBit(id) << 1));
+        newValues[id] = value;
+        values = newValues;
+        ids.put(value, id);
+    }
+}
@@ -0,0 +1,78 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.classify.BinaryExceptionClassifier;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the skip limit to the total skip count of all the partitions of a partitioned step:<br>
+ * 1. As the skip policy shared by the partitions of the worker step, keeping the latest skip count of each running partition,
+ * and failing the partition whose skip takes the total over the limit, before its chunk is committed,<br>
+ * 2. As a listener of the manager step, checking the skip count aggregated in the manager step execution once the partitions
+ * have finished, which also covers the partitions of remote workers, counted by the skip policy of their own JVM.<br>
+ * The skip policy leaves the classification of the skippable exceptions, and the skip limit of each partition, to the skip
+ * policy of the step builder
+ */
+@Slf4j
+public class PartitionedSkipLimitListener extends StepExecutionListenerSupport implements SkipPolicy {
+
+    private final int skipLimit;
+    private final BinaryExceptionClassifier skippableExceptionClassifier;
+    // latest skip count of each partition, by job execution and partition step execution
+    private final Map<Long, Map<Long, Integer>> partitionSkipCounts = new ConcurrentHashMap<>();
+
+    /**
+     * @param skippableExceptions exceptions skipped by the worker step, the other exceptions are not counted
+     */
+    public PartitionedSkipLimitListener(int skipLimit, Collection<Class<? extends Throwable>> skippableExceptions) {
+        this.skipLimit = skipLimit;
+        this.skippableExceptionClassifier = new BinaryExceptionClassifier(skippableExceptions, true);
+    }
+
+    /**
+     * @param skipCount skip count of the partition, including the skips of the current chunk, or -1 when the step only
+     *                  classifies the exception
+     * @return false, the skip is decided by the skip policy of the step builder
+     * @throws SkipLimitExceededException when skipping takes the total skip count of the partitions over the limit
+     */
+    @Override
+    public boolean shouldSkip(Throwable t, int skipCount) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (skipCount < 0 || stepContext == null || !skippableExceptionClassifier.classify(t)) {
+            return false;
+        }
+        StepExecution stepExecution = stepContext.getStepExecution();
+        Map<Long, Integer> skipCounts = partitionSkipCounts.computeIfAbsent(stepExecution.getJobExecutionId(), id -> new ConcurrentHashMap<>());
+        skipCounts.put(stepExecution.getId(), skipCount + 1);
+        int totalSkipCount = skipCounts.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalSkipCount > skipLimit) {
+            log.error("Skip limit {} exceeded with {} skipped entries across partitions, failing partition {}",
+                    skipLimit, totalSkipCount, stepExecution.getStepName());
+            throw new SkipLimitExceededException(skipLimit, t);
+        }
+        return false;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        partitionSkipCounts.remove(stepExecution.getJobExecutionId());
+        if (stepExecution.getSkipCount() > skipLimit) {
+            log.error("Skip limit {} exceeded with {} skipped entries across partitions of step {}",
+                    skipLimit, stepExecution.getSkipCount(), stepExecution.getStepName());
+            stepExecution.setStatus(BatchStatus.FAILED);
+            return ExitStatus.FAILED.addExitDescription("Skip limit " + skipLimit + " exceeded across partitions");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+/**
+ * Validation of the parsed log entries and of the paired alerts, configurable via property "flag-alerts.validation.mode"
+ */
+public enum ValidationMode {
+    /**
+     * Hand written validators checking the constraints declared on the beans, without reflection or allocation for valid items
+     */
+    FAST,
+    /**
+     * {@link org.springframework.batch.item.validator.BeanValidatingItemProcessor}, evaluating the JSR-303 constraints by reflection
+     */
+    JSR
+}
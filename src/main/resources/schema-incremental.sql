@@ -0,0 +1,82 @@
+-- Schema for the incremental mode(profile "incremental"). Unlike schema-all.sql the tables are kept across runs, since the
+-- unmatched entries in the temporary tables are carried over to be paired by the next run
+
+-- Dictionary of the event host and type values, stored by id in the tables below
+CREATE TABLE IF NOT EXISTS EVENT_DICTIONARY  (
+    DICTIONARY_ID INTEGER IDENTITY NOT NULL PRIMARY KEY,
+    DICTIONARY_VALUE VARCHAR(80) NOT NULL UNIQUE
+);
+
+-- OUTPUT table for Log event alerts, read through view LOG_EVENT_ALERT
+CREATE TABLE IF NOT EXISTS LOG_EVENT_ALERT_ENCODED  (
+    ALERT_ID_PK BIGINT IDENTITY NOT NULL PRIMARY KEY,
+    EVENT_ID VARCHAR(50) UNIQUE,
+    EVENT_DURATION BIGINT NOT NULL,
+    EVENT_HOST_ID INTEGER NULL REFERENCES EVENT_DICTIONARY(DICTIONARY_ID),
+    EVENT_TYPE_ID INTEGER NULL REFERENCES EVENT_DICTIONARY(DICTIONARY_ID),
+    ALERT VARCHAR(20) NOT NULL
+);
+
+-- Assuming low hit rate of "true" value alerts, create an index for faster querying
+CREATE INDEX IF NOT EXISTS IDX_LOG_EVENT_ALERT ON LOG_EVENT_ALERT_ENCODED(ALERT);
+
+-- Log event alerts with the host and type values decoded, in the shape of the former LOG_EVENT_ALERT table
+CREATE VIEW IF NOT EXISTS LOG_EVENT_ALERT AS
+    SELECT a.ALERT_ID_PK, a.EVENT_ID, a.EVENT_DURATION, h.DICTIONARY_VALUE AS EVENT_HOST, t.DICTIONARY_VALUE AS EVENT_TYPE, a.ALERT
+    FROM LOG_EVENT_ALERT_ENCODED a
+    LEFT JOIN EVENT_DICTIONARY h ON h.DICTIONARY_ID = a.EVENT_HOST_ID
+    LEFT JOIN EVENT_DICTIONARY t ON t.DICTIONARY_ID = a.EVENT_TYPE_ID;
+
+-- Temporary storage tables for Event Entries by State
+CREATE TABLE IF NOT EXISTS TMP_LOG_EVENT_STARTED  (
+    ENTRY_ID_PK BIGINT IDENTITY NOT NULL PRIMARY KEY,
+    EVENT_ID VARCHAR(50) UNIQUE,
+    EVENT_STATE VARCHAR(20) NOT NULL,
+    EVENT_TIMESTAMP BIGINT NOT NULL,
+    EVENT_HOST_ID INTEGER NULL REFERENCES EVENT_DICTIONARY(DICTIONARY_ID),
+    EVENT_TYPE_ID INTEGER NULL REFERENCES EVENT_DICTIONARY(DICTIONARY_ID)
+);
+
+CREATE TABLE IF NOT EXISTS TMP_LOG_EVENT_FINISHED  (
+    ENTRY_ID_PK BIGINT IDENTITY NOT NULL PRIMARY KEY,
+    EVENT_ID VARCHAR(50) UNIQUE,
+    EVENT_STATE VARCHAR(20) NOT NULL,
+    EVENT_TIMESTAMP BIGINT NOT NULL,
+    EVENT_HOST_ID INTEGER NULL REFERENCES EVENT_DICTIONARY(DICTIONARY_ID),
+    EVENT_TYPE_ID INTEGER NULL REFERENCES EVENT_DICTIONARY(DICTIONARY_ID)
+);
+
+-- Ids of the events paired by a run, deleted from the temporary tables once flagged
+CREATE TABLE IF NOT EXISTS TMP_LOG_EVENT_PAIRED  (
+    EVENT_ID VARCHAR(50) NOT NULL PRIMARY KEY
+);
+
+-- Dead letter table of the log entries quarantined by the parsing step with "flag-alerts.parser.quarantine.enabled", instead of
+-- skipped. The line numbers are relative to the log file, or byte range, parsed by the step
+CREATE TABLE IF NOT EXISTS LOG_EVENT_QUARANTINE  (
+    QUARANTINE_ID_PK BIGINT IDENTITY NOT NULL PRIMARY KEY,
+    STEP_NAME VARCHAR(100) NOT NULL,
+    LINE_NUMBER INTEGER NULL,
+    REASON VARCHAR(20) NOT NULL,
+    EVENT_ID VARCHAR(200) NULL,
+    DETAIL VARCHAR(500) NULL,
+    LINE VARCHAR(2000) NULL
+);
+
+-- Summaries of the durations of the alerts written by each flagging step execution(or partition), by event type and host.
+-- DURATION_HISTOGRAM is a serialized DurationHistogram, merged across the partitions and restarts of a job instance when read
+CREATE TABLE IF NOT EXISTS LOG_EVENT_DURATION_SUMMARY  (
+    SUMMARY_ID_PK BIGINT IDENTITY NOT NULL PRIMARY KEY,
+    JOB_INSTANCE_ID BIGINT NOT NULL,
+    JOB_EXECUTION_ID BIGINT NOT NULL,
+    STEP_EXECUTION_ID BIGINT NOT NULL,
+    STEP_NAME VARCHAR(100) NOT NULL,
+    EVENT_TYPE VARCHAR(80) NULL,
+    EVENT_HOST VARCHAR(80) NULL,
+    EVENT_COUNT BIGINT NOT NULL,
+    ALERT_COUNT BIGINT NOT NULL,
+    MAX_DURATION BIGINT NOT NULL,
+    DURATION_HISTOGRAM VARBINARY(65536) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS IDX_LOG_EVENT_DURATION_SUMMARY_JOB ON LOG_EVENT_DURATION_SUMMARY(JOB_INSTANCE_ID);
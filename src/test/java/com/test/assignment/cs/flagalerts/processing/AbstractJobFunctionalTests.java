@@ -0,0 +1,162 @@
+package com.test.assignment.cs.flagalerts.processing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration;
+import com.test.assignment.cs.flagalerts.utils.RandomizedLogFileGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Support of the Functional/ Integration tests for the flag alerts job, in each of its modes configured by the
+ * {@link org.springframework.boot.test.context.SpringBootTest} properties of the test class. The staging and alert tables
+ * are truncated before each test
+ */
+@ActiveProfiles("test")
+@SpringBatchTest
+@Slf4j
+public abstract class AbstractJobFunctionalTests {
+
+    public static final String SQL_SELECT_FROM_LOG_EVENT_ALERT = "SELECT EVENT_ID,EVENT_DURATION,EVENT_HOST,EVENT_TYPE,ALERT from LOG_EVENT_ALERT";
+    public static final String SQL_COUNT_EVENT = "SELECT COUNT(EVENT_ID) from %s";
+    public static final String ASSIGNMENT_EXAMPLE_LOG_FILE = "./src/test/resources/logfile-assignment-example.txt";
+    public static final String ASSIGNMENT_EXAMPLE_EXPECTED_ALERTS_FILE = "./src/test/resources/logfile-assignment-example-expected.json";
+
+    @Autowired
+    protected JobLauncherTestUtils jobLauncherTestUtils;
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void truncateLogAlertTable() {
+        log.debug("truncating LOG_EVENT_ALERT, TMP_LOG_EVENT_FINISHED, TMP_LOG_EVENT_STARTED");
+        jdbcTemplate.execute("truncate table LOG_EVENT_ALERT_ENCODED");
+        jdbcTemplate.execute("truncate table TMP_LOG_EVENT_FINISHED");
+        jdbcTemplate.execute("truncate table TMP_LOG_EVENT_STARTED");
+    }
+
+    /**
+     * Runs the job for the data shared as example in assignment, and compares the alerts with the expected ones.
+     * Not returning the {@link JobExecution}, which would be taken for a job scope factory method by {@link SpringBatchTest}
+     */
+    protected void assertAssignmentExampleAlerts() throws Exception {
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(ASSIGNMENT_EXAMPLE_LOG_FILE));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT);
+        String actualLogAlertsJson = objectMapper.writeValueAsString(actualLogAlerts);
+        String expectedLogAlertsJson = new String(Files.readAllBytes(Paths.get(ASSIGNMENT_EXAMPLE_EXPECTED_ALERTS_FILE)), StandardCharsets.UTF_8);
+        JSONAssert.assertEquals(expectedLogAlertsJson, actualLogAlertsJson, JSONCompareMode.NON_EXTENSIBLE);
+    }
+
+    /**
+     * Runs the job for a duplicate STARTED entry and an invalid entry, within the skip limit(2) of the test, which are skipped
+     * with the job marked as complete
+     */
+    protected void assertSkippedDuplicateCompleted() throws Exception {
+        Path tempLogFile = writeLogFile(String.format("{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495210}%n" +
+                "{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495211}%n" +
+                "{testInvalid}%n" +
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"timestamp\": 1491377495216}"));
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT);
+        Assert.assertEquals("One Alert was expected", 1, actualLogAlerts.size());
+        Assert.assertEquals(6L, ((Number) actualLogAlerts.get(0).get("EVENT_DURATION")).longValue());
+    }
+
+    /**
+     * Runs the job for one entry missing the required id and two invalid JSON entries, beyond the skip limit(2) of the test
+     */
+    protected void assertSkipLimitExceededFailed() throws Exception {
+        assertFailed(writeLogFile(String.format("{\"state\":\"FINISHED\", \"timestamp\": 1491377495218}%n{testInvalid}%n{testInvalid2}")));
+    }
+
+    protected void assertFailed(Path logFile) throws Exception {
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(logFile.toString()));
+        Assert.assertEquals("FAILED", jobExecution.getExitStatus().getExitCode());
+    }
+
+    /**
+     * Corrects the log file of a failed job execution, and restarts the job, which is expected to complete with the events of
+     * the corrected file in the table
+     */
+    protected void assertRestartCompleted(Path logFile, String correctedLogEntries, String tableName, long expectedEventCount) throws Exception {
+        Files.write(logFile, correctedLogEntries.getBytes(StandardCharsets.UTF_8));
+        JobExecution restartedJobExecution = jobLauncherTestUtils.launchJob(getJobParameters(logFile.toString()));
+        Assert.assertEquals("COMPLETED", restartedJobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(expectedEventCount, countEvents(tableName));
+    }
+
+    /**
+     * @return STARTED and FINISHED entries of each event, one after the other
+     */
+    protected String createLogEntries(int eventCount) {
+        StringBuilder logEntries = new StringBuilder();
+        for (int i = 0; i < eventCount; i++) {
+            logEntries.append(String.format("{\"id\":\"id%d\", \"state\":\"STARTED\", \"timestamp\": 1491377495210}%n", i));
+            logEntries.append(String.format("{\"id\":\"id%d\", \"state\":\"FINISHED\", \"timestamp\": 1491377495216}%n", i));
+        }
+        return logEntries.toString();
+    }
+
+    /**
+     * @return a temporary randomized valid log file of approx the size
+     */
+    protected Path generateLogFile(long fileSizeBytes) throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        RandomizedLogFileGenerator.generateLogFile(tempLogFile.toString(), fileSizeBytes);
+        return tempLogFile;
+    }
+
+    /**
+     * @return a temporary log file of the entries
+     */
+    protected Path writeLogFile(String logEntries) throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        Files.write(tempLogFile, logEntries.getBytes(StandardCharsets.UTF_8));
+        return tempLogFile;
+    }
+
+    protected long countEvents(String tableName) {
+        return jdbcTemplate.queryForObject(String.format(SQL_COUNT_EVENT, tableName), Long.class);
+    }
+
+    /**
+     * Not returning the {@link StepExecution}, which would be taken for a step scope factory method by {@link SpringBatchTest}
+     */
+    protected Optional<StepExecution> findStepExecution(JobExecution jobExecution, String stepName) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().equals(stepName))
+                .findFirst();
+    }
+
+    protected JobParameters getJobParameters(String logEventsFile) {
+        JobParametersBuilder parametersBuilder = new JobParametersBuilder();
+        parametersBuilder.addString(ParseLogEntryStepConfiguration.PARAM_LOG_EVENT_FILE_READER, logEventsFile);
+        return parametersBuilder.toJobParameters();
+    }
+}
@@ -1,23 +1,10 @@
 package com.test.assignment.cs.flagalerts.processing;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration;
-import com.test.assignment.cs.flagalerts.utils.RandomizedLogFileGenerator;
-import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.skyscreamer.jsonassert.JSONAssert;
-import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.springframework.batch.core.JobExecution;
-import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.test.JobLauncherTestUtils;
-import org.springframework.batch.test.context.SpringBatchTest;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.test.context.ActiveProfiles;
 
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -29,42 +16,36 @@ import java.util.Map;
 /**
  * Functional/ Integration tests for the flag alerts job
  */
-@ActiveProfiles("test")
-@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2"})
-@SpringBatchTest
-@Slf4j
-public class FlagAlertsJobFunctionalTests {
-
-    public static final String SQL_SELECT_FROM_LOG_EVENT_ALERT = "SELECT EVENT_ID,EVENT_DURATION,EVENT_HOST,EVENT_TYPE,ALERT from LOG_EVENT_ALERT";
-    public static final String SQL_COUNT_EVENT = "SELECT COUNT(EVENT_ID) from %s";
-
-    @Autowired
-    private JobLauncherTestUtils jobLauncherTestUtils;
-    @Autowired
-    private JdbcTemplate jdbcTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    @BeforeEach
-    public void truncateLogAlertTable() {
-        log.debug("truncating LOG_EVENT_ALERT, TMP_LOG_EVENT_FINISHED, TMP_LOG_EVENT_STARTED");
-        jdbcTemplate.execute("truncate table LOG_EVENT_ALERT");
-        jdbcTemplate.execute("truncate table TMP_LOG_EVENT_FINISHED");
-        jdbcTemplate.execute("truncate table TMP_LOG_EVENT_STARTED");
-    }
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2",
+        "flag-alerts.metrics.export-file=" + FlagAlertsJobFunctionalTests.METRICS_EXPORT_FILE})
+public class FlagAlertsJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    public static final String METRICS_EXPORT_FILE = "target/flag-alerts-metrics-test.prom";
 
     /**
      * Tests the job execution for data shared as example in assignment
      */
     @Test
     public void testJobExecution_valid_assignmentExample() throws Exception {
-        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters("./src/test/resources/logfile-assignment-example.txt"));
+        assertAssignmentExampleAlerts();
+    }
+
+    /**
+     * Tests the step metrics are exported to the metrics file at the end of the job
+     */
+    @Test
+    public void testJobExecution_metricsExported() throws Exception {
+        Files.deleteIfExists(Paths.get(METRICS_EXPORT_FILE));
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder(getJobParameters(ASSIGNMENT_EXAMPLE_LOG_FILE))
+                .addLong("run.id", System.currentTimeMillis())
+                .toJobParameters());
         Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
 
-        // JSON Assert with ignore order will match the alert entry values in table against expected values
-        List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT);
-        String actualLogAlertsJson = objectMapper.writeValueAsString(actualLogAlerts);
-        String expectedLogAlertsJson = new String(Files.readAllBytes(Paths.get("./src/test/resources/logfile-assignment-example-expected.json")), StandardCharsets.UTF_8);
-        JSONAssert.assertEquals(expectedLogAlertsJson, actualLogAlertsJson, JSONCompareMode.NON_EXTENSIBLE);
+        String exportedMetrics = new String(Files.readAllBytes(Paths.get(METRICS_EXPORT_FILE)), StandardCharsets.UTF_8);
+        Assert.assertTrue(exportedMetrics.contains("flag_alerts_items_read_total{step=\"parseLogsEntriesStep\""));
+        Assert.assertTrue(exportedMetrics.contains("flag_alerts_chunk_write_seconds_bucket{step=\"flagEventsForAlertsStep\""));
+        Assert.assertTrue(exportedMetrics.contains("flag_alerts_alerts_flagged_total{step=\"flagEventsForAlertsStep\""));
+        Assert.assertTrue(exportedMetrics.contains("flag_alerts_items_skipped_total{"));
     }
 
     /**
@@ -77,9 +58,7 @@ public class FlagAlertsJobFunctionalTests {
     }
 
     private void testJobExecution_valid_generatedFile(long fileSizeBytes) throws Exception {
-        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
-        tempLogFile.toFile().deleteOnExit();
-        RandomizedLogFileGenerator.generateLogFile(tempLogFile.toString(), fileSizeBytes);
+        Path tempLogFile = generateLogFile(fileSizeBytes);
 
         JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
         Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
@@ -126,10 +105,4 @@ public class FlagAlertsJobFunctionalTests {
         List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT);
         Assert.assertEquals("No Alerts were expected", 0, actualLogAlerts.size());
     }
-
-    private JobParameters getJobParameters(String logEventsFile) {
-        JobParametersBuilder parametersBuilder = new JobParametersBuilder();
-        parametersBuilder.addString(ParseLogEntryStepConfiguration.PARAM_LOG_EVENT_FILE_READER, logEventsFile);
-        return parametersBuilder.toJobParameters();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package com.test.assignment.cs.flagalerts.processing;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogFileByteRangePartitioner;
+import com.test.assignment.cs.flagalerts.processing.support.AdaptiveChunkCompletionPolicy;
+import com.test.assignment.cs.flagalerts.utils.RandomizedLogFileGenerator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Functional/ Integration tests for the flag alerts job, with the log file mapped to memory and parsed by partitions of byte ranges,
+ * bulk loaded to the temporary tables, and the events flagged by partitions of FINISHED entry ranges, with adaptive chunk sizes.<br>
+ * The partitions run on 4 threads over an MVCC datasource, as the default one, so their chunk transactions interleave
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "spring.datasource.url=jdbc:hsqldb:mem:partitioned-job;hsqldb.tx=mvcc",
+        "flag-alerts.partition.max-threads=4", "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.parser.partition.grid-size=4",
+        "flag-alerts.alerts.partition.grid-size=3", "flag-alerts.parser.reader=mapped",
+        "flag-alerts.chunk.adaptive.enabled=true", "flag-alerts.parser.staging.loader=bulk"})
+public class PartitionedJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    /**
+     * Tests the job execution for data shared as example in assignment
+     */
+    @Test
+    public void testJobExecution_valid_assignmentExample() throws Exception {
+        assertAssignmentExampleAlerts();
+    }
+
+    /**
+     * Generates a randomized valid log file( approx 100KB), every entry is parsed, and flagged by exactly one of the partitions
+     */
+    @Test
+    public void testJobExecution_valid_generatedFile() throws Exception {
+        Path tempLogFile = generateLogFile((long) 100 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals("Worker step executions != grid size", 4,
+                jobExecution.getStepExecutions().stream().filter(stepExecution -> stepExecution.getStepName().startsWith("parseLogsEntriesWorkerStep")).count());
+        Assert.assertEquals("Flagging worker step executions != grid size", 3,
+                jobExecution.getStepExecutions().stream().filter(stepExecution -> stepExecution.getStepName().startsWith("flagEventsForAlertsWorkerStep")).count());
+        Assert.assertTrue("Chunk size was expected to be recorded for each worker step", jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().contains("WorkerStep"))
+                .allMatch(stepExecution -> stepExecution.getExecutionContext().containsKey(AdaptiveChunkCompletionPolicy.CHUNK_SIZE_KEY)));
+
+        long logEntryCount = Files.lines(tempLogFile).count();
+        long logAlertRowCount = countEvents("LOG_EVENT_ALERT");
+        long logFinishedEntryCount = countEvents("TMP_LOG_EVENT_FINISHED");
+        long logStartedEntryCount = countEvents("TMP_LOG_EVENT_STARTED");
+
+        Assert.assertEquals("Parsed entries != log file lines", logEntryCount, logFinishedEntryCount + logStartedEntryCount);
+        Assert.assertEquals("Log Alerts != Finished count", logFinishedEntryCount, logAlertRowCount);
+
+        Gauge parseThroughputGauge = prometheusMeterRegistry.find("flag.alerts.step.throughput").tag("step", "parseLogsEntriesWorkerStep").gauge();
+        Assert.assertNotNull("Throughput of the partitions was expected to be aggregated by worker step", parseThroughputGauge);
+        Assert.assertTrue(parseThroughputGauge.value() > 0);
+        Assert.assertTrue("Throughput was not expected to be tagged by partition", prometheusMeterRegistry.find("flag.alerts.step.throughput")
+                .gauges().stream().noneMatch(gauge -> gauge.getId().getTag("step").contains(":partition")));
+    }
+
+    /**
+     * Rotated plain and gzip log files of a directory are parsed in parallel, one or more partitions per file,
+     * and the events are paired across the files
+     */
+    @Test
+    public void testJobExecution_valid_rotatedLogFilesDirectory() throws Exception {
+        final Path logDirectory = Files.createTempDirectory("logs");
+        long logEntryCount = RandomizedLogFileGenerator.generateRotatedLogFiles(logDirectory, "events.log", 4, (long) 50 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(logDirectory.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals("Each log file was expected to be parsed by its own partition", 4,
+                jobExecution.getStepExecutions().stream().filter(stepExecution -> stepExecution.getStepName().startsWith("parseLogsEntriesWorkerStep"))
+                        .map(stepExecution -> stepExecution.getExecutionContext().getString(LogFileByteRangePartitioner.PARTITION_FILE_KEY))
+                        .distinct().count());
+
+        long logAlertRowCount = countEvents("LOG_EVENT_ALERT");
+        long logFinishedEntryCount = countEvents("TMP_LOG_EVENT_FINISHED");
+        long logStartedEntryCount = countEvents("TMP_LOG_EVENT_STARTED");
+        Assert.assertEquals("Parsed entries != log file lines", logEntryCount, logFinishedEntryCount + logStartedEntryCount);
+        Assert.assertEquals("Log Alerts != Finished count", logFinishedEntryCount, logAlertRowCount);
+    }
+
+    /**
+     * Tests for fault tolerance beyond the configured skip limit(2) for tests, with invalid entries in different partitions.
+     * The partition skipping the entry over the limit fails before committing it, so the skips committed across the
+     * partitions stay within the limit
+     */
+    @Test
+    public void testJobExecution_skipLimitAcrossPartitions_fail() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        StringBuilder logEntries = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            logEntries.append(i % 100 == 50 ? "{testInvalid}" : String.format("{\"id\":\"id%d\", \"state\":\"STARTED\", \"timestamp\": 1491377495218}", i))
+                    .append(System.lineSeparator());
+        }
+        Files.write(tempLogFile, logEntries.toString().getBytes(StandardCharsets.UTF_8));
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("FAILED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertTrue("Each partition was expected to be within the skip limit", jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("parseLogsEntriesWorkerStep"))
+                .allMatch(stepExecution -> stepExecution.getSkipCount() <= 2));
+        Assert.assertTrue("Skips committed across partitions were expected to be within the skip limit", jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("parseLogsEntriesWorkerStep"))
+                .mapToInt(StepExecution::getSkipCount).sum() <= 2);
+        Assert.assertTrue("A partition was expected to fail on the skip over the limit", jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("parseLogsEntriesWorkerStep"))
+                .anyMatch(stepExecution -> stepExecution.getStatus() == BatchStatus.FAILED));
+    }
+
+    /**
+     * Byte ranges cover the log file without gaps, and start at the beginning of a line
+     */
+    @Test
+    public void testLogFileByteRangePartitioner_lineAligned() throws Exception {
+        Path tempLogFile = generateLogFile((long) 10 * 1024);
+        byte[] logFileBytes = Files.readAllBytes(tempLogFile);
+
+        Map<String, ExecutionContext> partitions = new LogFileByteRangePartitioner(tempLogFile.toString()).partition(7);
+        long expectedStartOffset = 0;
+        for (ExecutionContext partition : partitions.values()) {
+            long startOffset = partition.getLong(LogFileByteRangePartitioner.PARTITION_START_OFFSET_KEY);
+            Assert.assertEquals(expectedStartOffset, startOffset);
+            Assert.assertTrue(startOffset == 0 || logFileBytes[(int) startOffset - 1] == '\n');
+            expectedStartOffset = partition.getLong(LogFileByteRangePartitioner.PARTITION_END_OFFSET_KEY);
+        }
+        Assert.assertEquals(logFileBytes.length, expectedStartOffset);
+    }
+}
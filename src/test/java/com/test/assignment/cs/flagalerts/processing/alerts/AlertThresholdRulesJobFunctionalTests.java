@@ -0,0 +1,41 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Functional/ Integration tests for the flag alerts job with thresholds by event type(src/test/resources/alert-threshold-rules-test.csv),
+ * in output mode alerts-only. The events within the threshold of their type are filtered out after reading, and counted
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.alerts.output=alerts_only",
+        "flag-alerts.alerts.threshold-rules.file=./src/test/resources/alert-threshold-rules-test.csv"})
+public class AlertThresholdRulesJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    /**
+     * scsmbstgra(APPLICATION_LOG, 5 ms) is within its 6 ms threshold, scsmbstgrb(3 ms) is beyond the 2 ms threshold of the other types,
+     * and scsmbstgrc(0 ms) is within it
+     */
+    @Test
+    public void testJobExecution_valid_assignmentExample() throws Exception {
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(ASSIGNMENT_EXAMPLE_LOG_FILE));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList("SELECT EVENT_ID,EVENT_DURATION,ALERT from LOG_EVENT_ALERT");
+        Assert.assertEquals(1, actualLogAlerts.size());
+        Assert.assertEquals("scsmbstgrb", actualLogAlerts.get(0).get("EVENT_ID"));
+        Assert.assertEquals("true", actualLogAlerts.get(0).get("ALERT"));
+
+        StepExecution flagStepExecution = findStepExecution(jobExecution, "flagEventsForAlertsStep").orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(3, flagStepExecution.getReadCount());
+        Assert.assertEquals(2, flagStepExecution.getFilterCount());
+        Assert.assertEquals(2, flagStepExecution.getExecutionContext().getLong(NonAlertingEventFilter.NON_ALERTING_EVENT_COUNT_KEY));
+        Assert.assertEquals(5, flagStepExecution.getExecutionContext().getLong(NonAlertingEventFilter.NON_ALERTING_DURATION_SUM_KEY));
+    }
+}
@@ -0,0 +1,101 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+/**
+ * Precedence of the compiled alert threshold rules, the most specific type first and the most specific host within it,
+ * and reloading of the rules file
+ */
+public class AlertThresholdRulesTests {
+
+    @Test
+    public void testThresholdFor_noRules_defaultThreshold() {
+        AlertThresholdRules alertThresholdRules = new AlertThresholdRules(null, 4L);
+        Assert.assertEquals(4, alertThresholdRules.thresholdFor("APPLICATION_LOG", "12345"));
+        Assert.assertEquals(4, alertThresholdRules.thresholdFor(null, null));
+        Assert.assertEquals(4, alertThresholdRules.getMinThreshold());
+    }
+
+    @Test
+    public void testThresholdFor_mostSpecificTypeThenHost() throws IOException {
+        AlertThresholdRules alertThresholdRules = new AlertThresholdRules(writeRules(
+                "# type,host,threshold-ms",
+                "APPLICATION_LOG,*,10",
+                "APPLICATION_LOG,db-01,20",
+                "APPLICATION_LOG,db-*,15",
+                "APP*,*,30",
+                "APP*,web-*,31",
+                "APPLICATION*,cache-*,40",
+                "*,db-01,2",
+                "*,batch-*,3",
+                "",
+                "SYSTEM_LOG,web-01,50"), 4L);
+
+        Assert.assertEquals(9, alertThresholdRules.getRuleCount());
+        Assert.assertEquals(2, alertThresholdRules.getMinThreshold());
+        // exact type, by exact host, longest host prefix, or any host
+        Assert.assertEquals(20, alertThresholdRules.thresholdFor("APPLICATION_LOG", "db-01"));
+        Assert.assertEquals(15, alertThresholdRules.thresholdFor("APPLICATION_LOG", "db-02"));
+        Assert.assertEquals(10, alertThresholdRules.thresholdFor("APPLICATION_LOG", "batch-01"));
+        Assert.assertEquals(10, alertThresholdRules.thresholdFor("APPLICATION_LOG", null));
+        // hosts not covered by the exact type fall through to its type prefixes
+        Assert.assertEquals(10, alertThresholdRules.thresholdFor("APPLICATION_LOG", "cache-01"));
+        Assert.assertEquals(40, alertThresholdRules.thresholdFor("APPLICATION_AUDIT", "cache-01"));
+        Assert.assertEquals(31, alertThresholdRules.thresholdFor("APPLICATION_AUDIT", "web-01"));
+        Assert.assertEquals(30, alertThresholdRules.thresholdFor("APPLICATION_AUDIT", "db-01"));
+        Assert.assertEquals(30, alertThresholdRules.thresholdFor("APP", null));
+        // exact type without an any host rule falls through to the any type rules, then the default
+        Assert.assertEquals(50, alertThresholdRules.thresholdFor("SYSTEM_LOG", "web-01"));
+        Assert.assertEquals(2, alertThresholdRules.thresholdFor("SYSTEM_LOG", "db-01"));
+        Assert.assertEquals(3, alertThresholdRules.thresholdFor("SYSTEM_LOG", "batch-07"));
+        Assert.assertEquals(4, alertThresholdRules.thresholdFor("SYSTEM_LOG", "web-02"));
+        Assert.assertEquals(2, alertThresholdRules.thresholdFor(null, "db-01"));
+        Assert.assertEquals(4, alertThresholdRules.thresholdFor(null, null));
+    }
+
+    @Test
+    public void testReloadIfModified() throws IOException {
+        Path rulesFile = writeRules("APPLICATION_LOG,*,10");
+        AlertThresholdRules alertThresholdRules = new AlertThresholdRules(rulesFile, 4L);
+        Assert.assertFalse(alertThresholdRules.reloadIfModified());
+
+        Files.write(rulesFile, Arrays.asList("APPLICATION_LOG,*,1", "SYSTEM_LOG,*,8"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(rulesFile, FileTime.fromMillis(Files.getLastModifiedTime(rulesFile).toMillis() + 1000));
+        Assert.assertTrue(alertThresholdRules.reloadIfModified());
+        Assert.assertEquals(1, alertThresholdRules.thresholdFor("APPLICATION_LOG", null));
+        Assert.assertEquals(8, alertThresholdRules.thresholdFor("SYSTEM_LOG", null));
+        Assert.assertEquals(1, alertThresholdRules.getMinThreshold());
+
+        // invalid rules are rejected on refresh, keeping the previous rules
+        Files.write(rulesFile, Arrays.asList("APPLICATION_LOG,*,-1"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(rulesFile, FileTime.fromMillis(Files.getLastModifiedTime(rulesFile).toMillis() + 2000));
+        alertThresholdRules.refresh();
+        Assert.assertEquals(1, alertThresholdRules.thresholdFor("APPLICATION_LOG", null));
+    }
+
+    @Test
+    public void testInvalidRule_fail() throws IOException {
+        Path rulesFile = writeRules("APPLICATION_LOG,*,10", "APPLICATION_LOG,10");
+        try {
+            new AlertThresholdRules(rulesFile, 4L);
+            Assert.fail("Invalid rule was expected to fail loading the rules");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+        }
+    }
+
+    private Path writeRules(String... rules) throws IOException {
+        Path rulesFile = Files.createTempFile("alert-threshold-rules", ".csv");
+        rulesFile.toFile().deleteOnExit();
+        Files.write(rulesFile, Arrays.asList(rules), StandardCharsets.UTF_8);
+        return rulesFile;
+    }
+}
@@ -0,0 +1,112 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import com.test.assignment.cs.flagalerts.processing.metrics.PendingEventStoreGauges;
+import com.test.assignment.cs.flagalerts.processing.pairing.LogEventPairingItemReader;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryParser;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Functional/ Integration tests for the flag alerts job in output mode alerts-only, with the events flagged by partitions
+ * of FINISHED entry ranges. Only the alerts are persisted, and the events within the threshold are counted per partition
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.alerts.output=alerts_only", "flag-alerts.alerts.partition.grid-size=2"})
+public class AlertsOnlyJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    @Autowired
+    private LogEventEntryParser logEventEntryParser;
+    @Autowired
+    private ValidatingItemProcessor<LogEventEntry> logEntryValidator;
+    @Autowired
+    private PendingEventStoreGauges pendingEventStoreGauges;
+
+    /**
+     * Only scsmbstgra(5 ms) of the assignment example is beyond the threshold, scsmbstgrb(3 ms) and scsmbstgrc(0 ms) are only counted
+     */
+    @Test
+    public void testJobExecution_valid_assignmentExample() throws Exception {
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(ASSIGNMENT_EXAMPLE_LOG_FILE));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList("SELECT EVENT_ID,EVENT_DURATION,ALERT from LOG_EVENT_ALERT");
+        Assert.assertEquals(1, actualLogAlerts.size());
+        Assert.assertEquals("scsmbstgra", actualLogAlerts.get(0).get("EVENT_ID"));
+        Assert.assertEquals("true", actualLogAlerts.get(0).get("ALERT"));
+        Assert.assertEquals(2, sumExecutionContexts(jobExecution, NonAlertingEventFilter.NON_ALERTING_EVENT_COUNT_KEY));
+        Assert.assertEquals(3, sumExecutionContexts(jobExecution, NonAlertingEventFilter.NON_ALERTING_DURATION_SUM_KEY));
+    }
+
+    /**
+     * Generates a randomized valid log file( approx 100KB), every FINISHED entry is either persisted as an alert, or counted
+     */
+    @Test
+    public void testJobExecution_valid_generatedFile() throws Exception {
+        Path tempLogFile = generateLogFile((long) 100 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        long logAlertRowCount = countEvents("LOG_EVENT_ALERT");
+        long logFinishedEntryCount = countEvents("TMP_LOG_EVENT_FINISHED");
+        Long nonAlertRowCount = jdbcTemplate.queryForObject("SELECT COUNT(EVENT_ID) from LOG_EVENT_ALERT where ALERT = 'false'", Long.class);
+        Assert.assertEquals("Only alerts were expected to be persisted", Long.valueOf(0), nonAlertRowCount);
+        Assert.assertEquals("Log Alerts + counted events != Finished count", logFinishedEntryCount,
+                logAlertRowCount + sumExecutionContexts(jobExecution, NonAlertingEventFilter.NON_ALERTING_EVENT_COUNT_KEY));
+    }
+
+    /**
+     * The in-memory pairing reader returns only the alerts, and saves the count of the events within the threshold
+     */
+    @Test
+    public void testLogEventPairingItemReader_alertsOnly() throws Exception {
+        LogEventPairingItemReader logEventPairingItemReader = new LogEventPairingItemReader(
+                new FlatFileItemReaderBuilder<LogEventEntry>()
+                        .name("assignmentExampleReader")
+                        .resource(new FileSystemResource("./src/test/resources/logfile-assignment-example.txt"))
+                        .lineMapper(logEventEntryParser)
+                        .build(),
+                logEntryValidator, new AlertThresholdRules(null, 4L), 1024 * 1024, Files.createTempDirectory("spill"), AlertOutputMode.ALERTS_ONLY,
+                pendingEventStoreGauges);
+        ExecutionContext executionContext = new ExecutionContext();
+        List<LogEventAlert> logEventAlerts = new ArrayList<>();
+        logEventPairingItemReader.open(executionContext);
+        try {
+            LogEventAlert logEventAlert;
+            while ((logEventAlert = logEventPairingItemReader.read()) != null) {
+                logEventAlerts.add(logEventAlert);
+            }
+            logEventPairingItemReader.update(executionContext);
+        } finally {
+            logEventPairingItemReader.close();
+        }
+
+        Assert.assertEquals(1, logEventAlerts.size());
+        Assert.assertEquals("scsmbstgra", logEventAlerts.get(0).getEventId());
+        Assert.assertEquals(2, executionContext.getLong(NonAlertingEventFilter.NON_ALERTING_EVENT_COUNT_KEY));
+        Assert.assertEquals(3, executionContext.getLong(NonAlertingEventFilter.NON_ALERTING_DURATION_SUM_KEY));
+    }
+
+    private long sumExecutionContexts(JobExecution jobExecution, String key) {
+        return jobExecution.getStepExecutions().stream()
+                .map(StepExecution::getExecutionContext)
+                .filter(executionContext -> executionContext.containsKey(key))
+                .mapToLong(executionContext -> executionContext.getLong(key))
+                .sum();
+    }
+}
@@ -0,0 +1,68 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests of the {@link DurationHistogram}, for percentiles within its relative error, and merged partitions equal to a single histogram
+ */
+public class DurationHistogramTests {
+
+    @Test
+    public void testGetValueAtQuantile_withinRelativeError() {
+        Random random = new Random(42);
+        long[] durations = new long[100_000];
+        DurationHistogram durationHistogram = new DurationHistogram();
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = (long) Math.exp(random.nextDouble() * 16);
+            durationHistogram.recordValue(durations[i]);
+        }
+        Arrays.sort(durations);
+        for (double quantile : new double[]{0.01, 0.5, 0.9, 0.99, 0.999}) {
+            long exactDuration = durations[(int) Math.ceil(quantile * durations.length) - 1];
+            long duration = durationHistogram.getValueAtQuantile(quantile);
+            Assert.assertTrue("p" + quantile * 100 + " " + duration + " not within 1.6% of " + exactDuration,
+                    duration >= exactDuration && duration <= exactDuration * 1.016 + 1);
+        }
+        Assert.assertEquals(durations[0], durationHistogram.getMin());
+        Assert.assertEquals(durations[durations.length - 1], durationHistogram.getMax());
+        Assert.assertEquals(durations[durations.length - 1], durationHistogram.getValueAtQuantile(1));
+        Assert.assertEquals(durations.length, durationHistogram.getTotalCount());
+    }
+
+    @Test
+    public void testMerge_partitions_equalToSingleHistogram() {
+        Random random = new Random(7);
+        DurationHistogram durationHistogram = new DurationHistogram();
+        DurationHistogram mergedHistogram = new DurationHistogram();
+        DurationHistogram[] partitionHistograms = {new DurationHistogram(), new DurationHistogram(), new DurationHistogram()};
+        for (int i = 0; i < 30_000; i++) {
+            // partitions of different ranges of durations, so the bucket arrays differ in length
+            long duration = (long) random.nextInt(100) << (i % 3 * 10);
+            durationHistogram.recordValue(duration);
+            partitionHistograms[i % 3].recordValue(duration);
+        }
+        for (DurationHistogram partitionHistogram : partitionHistograms) {
+            mergedHistogram.merge(DurationHistogram.fromBytes(partitionHistogram.toBytes()));
+        }
+        Assert.assertArrayEquals(durationHistogram.toBytes(), mergedHistogram.toBytes());
+        Assert.assertEquals(durationHistogram.getValueAtQuantile(0.99), mergedHistogram.getValueAtQuantile(0.99));
+        Assert.assertEquals(durationHistogram.getSum(), mergedHistogram.getSum());
+    }
+
+    @Test
+    public void testBucketIndex_boundaries() {
+        Assert.assertEquals(127, DurationHistogram.bucketIndex(127));
+        Assert.assertEquals(128, DurationHistogram.bucketIndex(128));
+        Assert.assertEquals(129, DurationHistogram.highestValueOf(DurationHistogram.bucketIndex(128)));
+        Assert.assertEquals(255, DurationHistogram.highestValueOf(DurationHistogram.bucketIndex(254)));
+        Assert.assertEquals(Long.MAX_VALUE, DurationHistogram.highestValueOf(DurationHistogram.bucketIndex(Long.MAX_VALUE)));
+        DurationHistogram durationHistogram = new DurationHistogram();
+        Assert.assertEquals(0, durationHistogram.getValueAtQuantile(0.5));
+        durationHistogram.recordValue(Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, durationHistogram.getValueAtQuantile(0.5));
+    }
+}
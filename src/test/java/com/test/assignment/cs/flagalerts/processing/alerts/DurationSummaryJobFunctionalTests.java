@@ -0,0 +1,67 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Functional/ Integration tests for the duration summaries of the flag alerts job, with the events flagged by partitions of
+ * FINISHED entry ranges. The summaries of the partitions merged by type and host match the alerts written
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.alerts.partition.grid-size=3"})
+public class DurationSummaryJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    @Autowired
+    private DurationSummaryRepository durationSummaryRepository;
+
+    /**
+     * Generates a randomized valid log file( approx 50KB), the count, alerts, p50, p99 and max of each type and host merged
+     * across the partitions are those of the alerts written(durations below 128 ms are counted exactly)
+     */
+    @Test
+    public void testJobExecution_generatedFile_summariesMatchAlerts() throws Exception {
+        Path tempLogFile = generateLogFile((long) 50 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals("Each flagging partition was expected to save its summaries", 3, (long) jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT STEP_EXECUTION_ID) FROM LOG_EVENT_DURATION_SUMMARY WHERE JOB_EXECUTION_ID = ?", Long.class, jobExecution.getId()));
+
+        Map<List<String>, List<Long>> durationsByTypeAndHost = new HashMap<>();
+        Map<List<String>, Long> alertCountsByTypeAndHost = new HashMap<>();
+        jdbcTemplate.query("SELECT EVENT_TYPE, EVENT_HOST, EVENT_DURATION, ALERT FROM LOG_EVENT_ALERT ORDER BY EVENT_DURATION", resultSet -> {
+            List<String> typeAndHost = Arrays.asList(resultSet.getString("EVENT_TYPE"), resultSet.getString("EVENT_HOST"));
+            durationsByTypeAndHost.computeIfAbsent(typeAndHost, key -> new ArrayList<>()).add(resultSet.getLong("EVENT_DURATION"));
+            alertCountsByTypeAndHost.merge(typeAndHost, Boolean.parseBoolean(resultSet.getString("ALERT")) ? 1L : 0L, Long::sum);
+        });
+
+        List<DurationSummary> durationSummaries = durationSummaryRepository.findByJobInstance(jobExecution.getJobInstance().getInstanceId());
+        Assert.assertEquals("Summaries != types and hosts of the alerts written", durationsByTypeAndHost.size(), durationSummaries.size());
+        long eventCount = 0;
+        for (DurationSummary durationSummary : durationSummaries) {
+            List<String> typeAndHost = Arrays.asList(durationSummary.getEventType(), durationSummary.getEventHost());
+            List<Long> durations = durationsByTypeAndHost.get(typeAndHost);
+            DurationHistogram durationHistogram = durationSummary.getDurationHistogram();
+            Assert.assertEquals(durations.size(), durationSummary.getEventCount());
+            Assert.assertEquals((long) alertCountsByTypeAndHost.get(typeAndHost), durationSummary.getAlertCount());
+            Assert.assertEquals(durations.get((int) Math.ceil(0.5 * durations.size()) - 1), (Long) durationHistogram.getValueAtQuantile(0.5));
+            Assert.assertEquals(durations.get((int) Math.ceil(0.99 * durations.size()) - 1), (Long) durationHistogram.getValueAtQuantile(0.99));
+            Assert.assertEquals(durations.get(durations.size() - 1), (Long) durationHistogram.getMax());
+            eventCount += durationSummary.getEventCount();
+        }
+        Assert.assertEquals("Summaries != alerts written", (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM LOG_EVENT_ALERT", Long.class), eventCount);
+        Assert.assertTrue("Events without type and host were expected to be summarized", durationSummaries.stream()
+                .anyMatch(durationSummary -> Objects.isNull(durationSummary.getEventType()) && Objects.isNull(durationSummary.getEventHost())));
+    }
+}
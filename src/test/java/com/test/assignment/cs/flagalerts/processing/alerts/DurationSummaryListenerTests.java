@@ -0,0 +1,156 @@
+package com.test.assignment.cs.flagalerts.processing.alerts;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link DurationSummaryListener}, saving the summaries of the committed chunks in the step execution context
+ * for a restarted step execution
+ */
+public class DurationSummaryListenerTests {
+
+    private EmbeddedDatabase database;
+    private DurationSummaryRepository durationSummaryRepository;
+
+    @BeforeEach
+    public void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .generateUniqueName(true)
+                .addScript("schema-all.sql")
+                .build();
+        durationSummaryRepository = new DurationSummaryRepository(new JdbcTemplate(database));
+    }
+
+    @AfterEach
+    public void shutdownDatabase() {
+        database.shutdown();
+    }
+
+    /**
+     * The summaries saved in the execution context by the chunk transaction of an execution that died before the end of
+     * the step are restored by the restarted execution, and saved once with its own chunks. Rolled back chunks are not counted
+     */
+    @Test
+    public void testUpdate_executionDiedAfterCommit_summariesRestored() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        DurationSummaryListener diedListener = new DurationSummaryListener(durationSummaryRepository, true);
+        diedListener.beforeStep(stepExecution);
+        diedListener.open(executionContext);
+        writeChunk(diedListener, executionContext, true, createLogEventAlert(2, "APPLICATION_LOG", null), createLogEventAlert(10, null, null));
+        writeChunk(diedListener, executionContext, false, createLogEventAlert(3, "APPLICATION_LOG", null));
+
+        DurationSummaryListener restartedListener = new DurationSummaryListener(durationSummaryRepository, true);
+        restartedListener.beforeStep(stepExecution);
+        restartedListener.open(executionContext);
+        writeChunk(restartedListener, executionContext, true, createLogEventAlert(3, "APPLICATION_LOG", null));
+        restartedListener.afterStep(stepExecution);
+        restartedListener.close();
+
+        List<DurationSummary> durationSummaries = durationSummaryRepository.findByJobInstance(stepExecution.getJobExecution().getJobInstance().getInstanceId());
+        Assert.assertEquals(2, durationSummaries.size());
+        Assert.assertNull(durationSummaries.get(0).getEventType());
+        Assert.assertEquals(1, durationSummaries.get(0).getEventCount());
+        Assert.assertEquals(1, durationSummaries.get(0).getAlertCount());
+        Assert.assertEquals("APPLICATION_LOG", durationSummaries.get(1).getEventType());
+        Assert.assertEquals(2, durationSummaries.get(1).getEventCount());
+        Assert.assertEquals(3, durationSummaries.get(1).getDurationHistogram().getMax());
+        Assert.assertEquals(0, durationSummaries.get(1).getAlertCount());
+    }
+
+    /**
+     * Only the summaries of the types and hosts written by a chunk are saved again, and those of a rolled back chunk,
+     * possibly saved by its update, are saved again with the next chunk
+     */
+    @Test
+    public void testUpdate_changedSummariesOnly() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        ExecutionContext executionContext = new ExecutionContext();
+        DurationSummaryListener durationSummaryListener = new DurationSummaryListener(durationSummaryRepository, true);
+        durationSummaryListener.beforeStep(stepExecution);
+        durationSummaryListener.open(executionContext);
+        writeChunk(durationSummaryListener, executionContext, true, createLogEventAlert(2, "APPLICATION_LOG", null), createLogEventAlert(10, null, "host"));
+        Map<String, Object> savedSummaries = getSummaries(executionContext);
+        Assert.assertEquals(2, savedSummaries.size());
+
+        writeChunk(durationSummaryListener, executionContext, true, createLogEventAlert(3, "APPLICATION_LOG", null));
+        Assert.assertEquals(1, savedSummaries.entrySet().stream()
+                .filter(savedSummary -> savedSummary.getValue() == executionContext.get(savedSummary.getKey())).count());
+
+        durationSummaryListener.beforeChunk(null);
+        durationSummaryListener.afterWrite(Arrays.asList(createLogEventAlert(5, null, "host"), createLogEventAlert(6, "OTHER", null)));
+        durationSummaryListener.update(executionContext);
+        durationSummaryListener.afterChunkError(null);
+        Assert.assertEquals(3, getSummaries(executionContext).size());
+        writeChunk(durationSummaryListener, executionContext, true, createLogEventAlert(4, "APPLICATION_LOG", null));
+        Map<String, Object> committedSummaries = getSummaries(executionContext);
+        Assert.assertEquals(2, committedSummaries.size());
+        Assert.assertEquals(1, savedSummaries.entrySet().stream()
+                .filter(savedSummary -> savedSummary.getValue().equals(committedSummaries.get(savedSummary.getKey()))).count());
+
+        DurationSummaryListener restartedListener = new DurationSummaryListener(durationSummaryRepository, true);
+        restartedListener.beforeStep(stepExecution);
+        restartedListener.open(executionContext);
+        writeChunk(restartedListener, executionContext, true, createLogEventAlert(7, "OTHER", null));
+        Assert.assertEquals(3, getSummaries(executionContext).size());
+        restartedListener.afterStep(stepExecution);
+        List<DurationSummary> durationSummaries = durationSummaryRepository.findByJobInstance(stepExecution.getJobExecution().getJobInstance().getInstanceId());
+        Assert.assertEquals(3, durationSummaries.size());
+        Assert.assertEquals(5, durationSummaries.stream().mapToLong(DurationSummary::getEventCount).sum());
+    }
+
+    /**
+     * Writes a chunk, saving the execution context within its transaction, then commits or rolls it back
+     */
+    private void writeChunk(DurationSummaryListener durationSummaryListener, ExecutionContext executionContext, boolean commit,
+                            LogEventAlert... logEventAlerts) {
+        ExecutionContext committedContext = new ExecutionContext(executionContext);
+        durationSummaryListener.beforeChunk(null);
+        durationSummaryListener.afterWrite(Arrays.asList(logEventAlerts));
+        durationSummaryListener.update(executionContext);
+        if (commit) {
+            durationSummaryListener.afterChunk(null);
+        } else {
+            DurationSummaryListener.removeSummaries(executionContext);
+            for (Map.Entry<String, Object> entry : committedContext.entrySet()) {
+                executionContext.put(entry.getKey(), entry.getValue());
+            }
+            durationSummaryListener.afterChunkError(null);
+        }
+    }
+
+    private Map<String, Object> getSummaries(ExecutionContext executionContext) {
+        Map<String, Object> summaries = new HashMap<>();
+        for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+            if (entry.getKey().startsWith(DurationSummaryListener.SUMMARIES_KEY)) {
+                summaries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return summaries;
+    }
+
+    private LogEventAlert createLogEventAlert(long duration, String type, String host) {
+        LogEventAlert logEventAlert = new LogEventAlert();
+        logEventAlert.setEventId("id" + duration);
+        logEventAlert.setEventDuration(duration);
+        logEventAlert.setEventType(type);
+        logEventAlert.setEventHost(host);
+        logEventAlert.setAlertThreshold(4L);
+        return logEventAlert;
+    }
+}
@@ -0,0 +1,179 @@
+package com.test.assignment.cs.flagalerts.processing.checkpoint;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the event checkpoint file, written by {@link EventCheckpointItemWriter} and read by {@link MappedEventCheckpointItemReader}
+ */
+public class EventCheckpointTests {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    /**
+     * Entries are read back as written, across blocks and mapped windows smaller than a block, and from the saved
+     * position of a restarted reader within a block
+     */
+    @Test
+    public void testRead_blocksAndWindows_restart() throws Exception {
+        Path checkpointFile = Files.createTempFile("events", ".checkpoint");
+        checkpointFile.toFile().deleteOnExit();
+        List<LogEventEntry> logEventEntries = createLogEventEntries();
+
+        EventCheckpointItemWriter eventCheckpointWriter = createWriter(checkpointFile);
+        eventCheckpointWriter.open(new ExecutionContext());
+        for (int i = 0; i < ENTRY_COUNT; i += 100) {
+            eventCheckpointWriter.write(logEventEntries.subList(i, i + 100));
+            eventCheckpointWriter.update(new ExecutionContext());
+        }
+        eventCheckpointWriter.close();
+
+        Assert.assertEquals(logEventEntries, readAll(createReader(checkpointFile, 256), new ExecutionContext()));
+
+        MappedEventCheckpointItemReader eventCheckpointReader = createReader(checkpointFile, 1024);
+        ExecutionContext executionContext = new ExecutionContext();
+        eventCheckpointReader.open(executionContext);
+        for (int i = 0; i < 130; i++) {
+            eventCheckpointReader.read();
+        }
+        eventCheckpointReader.update(executionContext);
+        eventCheckpointReader.close();
+        Assert.assertEquals(logEventEntries.subList(130, ENTRY_COUNT), readAll(createReader(checkpointFile, 1024), executionContext));
+    }
+
+    /**
+     * Blocks of a rolled back transaction are dropped with their dictionary values, and a restarted writer appends after
+     * the committed position
+     */
+    @Test
+    public void testWrite_rollbackAndRestart() throws Exception {
+        Path checkpointFile = Files.createTempFile("events", ".checkpoint");
+        checkpointFile.toFile().deleteOnExit();
+        List<LogEventEntry> logEventEntries = createLogEventEntries();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+
+        EventCheckpointItemWriter eventCheckpointWriter = createWriter(checkpointFile);
+        ExecutionContext executionContext = new ExecutionContext();
+        eventCheckpointWriter.open(executionContext);
+        transactionTemplate.execute(status -> {
+            write(eventCheckpointWriter, logEventEntries.subList(0, 500), executionContext);
+            return null;
+        });
+        ExecutionContext committedExecutionContext = new ExecutionContext(executionContext);
+        transactionTemplate.execute(status -> {
+            write(eventCheckpointWriter, Arrays.asList(createLogEventEntry("rolled-back", LogState.STARTED, 1, "rolled-back-host", null)), executionContext);
+            status.setRollbackOnly();
+            return null;
+        });
+        transactionTemplate.execute(status -> {
+            write(eventCheckpointWriter, logEventEntries.subList(500, 700), executionContext);
+            return null;
+        });
+        // a block written after the saved position, as when the step fails before saving its execution context
+        transactionTemplate.execute(status -> {
+            write(eventCheckpointWriter, logEventEntries.subList(700, 800), new ExecutionContext());
+            return null;
+        });
+        eventCheckpointWriter.close();
+
+        EventCheckpointItemWriter restartedEventCheckpointWriter = createWriter(checkpointFile);
+        restartedEventCheckpointWriter.open(executionContext);
+        transactionTemplate.execute(status -> {
+            write(restartedEventCheckpointWriter, logEventEntries.subList(700, ENTRY_COUNT), executionContext);
+            return null;
+        });
+        restartedEventCheckpointWriter.close();
+
+        Assert.assertEquals(logEventEntries, readAll(createReader(checkpointFile, MappedEventCheckpointItemReader.DEFAULT_WINDOW_SIZE), new ExecutionContext()));
+        Assert.assertEquals(500L, committedExecutionContext.getLong("eventCheckpointWriter." + EventCheckpointItemWriter.ENTRY_COUNT_KEY));
+        Assert.assertEquals((long) ENTRY_COUNT, executionContext.getLong("eventCheckpointWriter." + EventCheckpointItemWriter.ENTRY_COUNT_KEY));
+    }
+
+    /**
+     * A block modified after it was written fails its checksum
+     */
+    @Test
+    public void testRead_corruptedBlock_fails() throws Exception {
+        Path checkpointFile = Files.createTempFile("events", ".checkpoint");
+        checkpointFile.toFile().deleteOnExit();
+        EventCheckpointItemWriter eventCheckpointWriter = createWriter(checkpointFile);
+        eventCheckpointWriter.open(new ExecutionContext());
+        eventCheckpointWriter.write(createLogEventEntries());
+        eventCheckpointWriter.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(checkpointFile.toFile(), "rw")) {
+            file.seek(file.length() / 2);
+            int value = file.read();
+            file.seek(file.length() / 2);
+            file.write(value ^ 0xFF);
+        }
+
+        ItemStreamException exception = Assert.assertThrows(ItemStreamException.class,
+                () -> readAll(createReader(checkpointFile, MappedEventCheckpointItemReader.DEFAULT_WINDOW_SIZE), new ExecutionContext()));
+        Assert.assertTrue(exception.getMessage().startsWith("Checksum mismatch"));
+    }
+
+    private void write(EventCheckpointItemWriter eventCheckpointWriter, List<LogEventEntry> logEventEntries, ExecutionContext executionContext) {
+        try {
+            eventCheckpointWriter.write(logEventEntries);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        eventCheckpointWriter.update(executionContext);
+    }
+
+    private EventCheckpointItemWriter createWriter(Path checkpointFile) {
+        EventCheckpointItemWriter eventCheckpointWriter = new EventCheckpointItemWriter(checkpointFile, 64);
+        eventCheckpointWriter.setName("eventCheckpointWriter");
+        return eventCheckpointWriter;
+    }
+
+    private MappedEventCheckpointItemReader createReader(Path checkpointFile, int windowSize) {
+        MappedEventCheckpointItemReader eventCheckpointReader = new MappedEventCheckpointItemReader(checkpointFile, windowSize);
+        eventCheckpointReader.setName("eventCheckpointReader");
+        return eventCheckpointReader;
+    }
+
+    private List<LogEventEntry> readAll(MappedEventCheckpointItemReader eventCheckpointReader, ExecutionContext executionContext) throws Exception {
+        List<LogEventEntry> logEventEntries = new ArrayList<>();
+        eventCheckpointReader.open(executionContext);
+        LogEventEntry logEventEntry;
+        while ((logEventEntry = eventCheckpointReader.read()) != null) {
+            logEventEntries.add(logEventEntry);
+        }
+        eventCheckpointReader.close();
+        return logEventEntries;
+    }
+
+    private List<LogEventEntry> createLogEventEntries() {
+        List<LogEventEntry> logEventEntries = new ArrayList<>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            logEventEntries.add(createLogEventEntry("event-é-" + (i / 2), i % 2 == 0 ? LogState.STARTED : LogState.FINISHED,
+                    1491377495212L + i, i % 3 == 0 ? null : "host-" + (i % 17), i % 5 == 0 ? "APPLICATION_LOG" : null));
+        }
+        return logEventEntries;
+    }
+
+    private LogEventEntry createLogEventEntry(String id, LogState state, long timestamp, String host, String type) {
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setId(id);
+        logEventEntry.setState(state);
+        logEventEntry.setTimestamp(timestamp);
+        logEventEntry.setHost(host);
+        logEventEntry.setType(type);
+        return logEventEntry;
+    }
+}
@@ -0,0 +1,109 @@
+package com.test.assignment.cs.flagalerts.processing.checkpoint;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import com.test.assignment.cs.flagalerts.processing.parser.ParseLogEntryStepConfiguration;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Functional/ Integration tests for the event checkpoint written by the flag alerts job, and re-flagged by the re-flag job
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.checkpoint.enabled=true",
+        "flag-alerts.checkpoint.block-size=100"})
+public class ReflagJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    @Autowired
+    @Qualifier("parseLogEventsForAlertsJob")
+    private Job parseLogEventsForAlertsJob;
+    @Autowired
+    @Qualifier("reflagLogEventsJob")
+    private Job reflagLogEventsJob;
+
+    /**
+     * Events of the assignment example re-flagged with a threshold of 2 ms, replacing the alerts of the default threshold 4 ms
+     */
+    @Test
+    public void testJobExecution_assignmentExample_reflaggedWithThreshold() throws Exception {
+        Path checkpointFile = Files.createTempFile("events", ".checkpoint");
+        checkpointFile.toFile().deleteOnExit();
+        jobLauncherTestUtils.setJob(parseLogEventsForAlertsJob);
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addString(ParseLogEntryStepConfiguration.PARAM_LOG_EVENT_FILE_READER, ASSIGNMENT_EXAMPLE_LOG_FILE)
+                .addString(ParseLogEntryStepConfiguration.PARAM_CHECKPOINT_FILE, checkpointFile.toString())
+                .toJobParameters());
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(alertsOf("scsmbstgra", true, "scsmbstgrb", false, "scsmbstgrc", false), selectAlerts());
+
+        jobLauncherTestUtils.setJob(reflagLogEventsJob);
+        jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addString(ParseLogEntryStepConfiguration.PARAM_CHECKPOINT_FILE, checkpointFile.toString())
+                .addLong(ReflagJobConfiguration.PARAM_THRESHOLD, 2L)
+                .toJobParameters());
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(alertsOf("scsmbstgra", true, "scsmbstgrb", true, "scsmbstgrc", false), selectAlerts());
+        Assert.assertEquals(Long.valueOf(3), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM LOG_EVENT_ALERT WHERE EVENT_HOST IS NULL OR EVENT_HOST = '12345'", Long.class));
+    }
+
+    /**
+     * Events of a generated log file re-flagged with the same threshold from the checkpoint, match the alerts flagged from the log file
+     */
+    @Test
+    public void testJobExecution_generatedFile_reflaggedAlertsMatch() throws Exception {
+        Path tempLogFile = generateLogFile((long) 50 * 1024);
+        Path checkpointFile = Files.createTempFile("events", ".checkpoint");
+        checkpointFile.toFile().deleteOnExit();
+
+        jobLauncherTestUtils.setJob(parseLogEventsForAlertsJob);
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addString(ParseLogEntryStepConfiguration.PARAM_LOG_EVENT_FILE_READER, tempLogFile.toString())
+                .addString(ParseLogEntryStepConfiguration.PARAM_CHECKPOINT_FILE, checkpointFile.toString())
+                .toJobParameters());
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        String alerts = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT + " ORDER BY EVENT_ID").toString();
+
+        jobLauncherTestUtils.setJob(reflagLogEventsJob);
+        jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addString(ParseLogEntryStepConfiguration.PARAM_CHECKPOINT_FILE, checkpointFile.toString())
+                .toJobParameters());
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(alerts, jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT + " ORDER BY EVENT_ID").toString());
+    }
+
+    /**
+     * The flag alerts job requires the checkpoint file parameter, when the checkpoint is enabled
+     */
+    @Test
+    public void testJobExecution_missingCheckpointFile_invalid() {
+        jobLauncherTestUtils.setJob(parseLogEventsForAlertsJob);
+        Assert.assertThrows(JobParametersInvalidException.class, () -> jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addString(ParseLogEntryStepConfiguration.PARAM_LOG_EVENT_FILE_READER, ASSIGNMENT_EXAMPLE_LOG_FILE)
+                .toJobParameters()));
+    }
+
+    private Map<String, Boolean> selectAlerts() {
+        return jdbcTemplate.queryForList("SELECT EVENT_ID, ALERT FROM LOG_EVENT_ALERT").stream()
+                .collect(Collectors.toMap(row -> (String) row.get("EVENT_ID"), row -> Boolean.valueOf(String.valueOf(row.get("ALERT")))));
+    }
+
+    private Map<String, Boolean> alertsOf(String eventIdA, boolean alertA, String eventIdB, boolean alertB, String eventIdC, boolean alertC) {
+        Map<String, Boolean> alerts = new HashMap<>();
+        alerts.put(eventIdA, alertA);
+        alerts.put(eventIdB, alertB);
+        alerts.put(eventIdC, alertC);
+        return alerts;
+    }
+}
@@ -0,0 +1,132 @@
+package com.test.assignment.cs.flagalerts.processing.incremental;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Functional/ Integration tests for the incremental mode, parsing only the bytes appended to the log file since the last run,
+ * with the log file parsed by partitions of byte ranges and committed entry by entry
+ */
+@ActiveProfiles("incremental")
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2",
+        "flag-alerts.parser.partition.grid-size=2", "flag-alerts.parser.chunk-size=1"})
+public class IncrementalJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    public static final String SQL_SELECT_ALERT_EVENT_IDS = "SELECT EVENT_ID from LOG_EVENT_ALERT order by EVENT_ID";
+    public static final String SQL_SELECT_EVENT_IDS = "SELECT EVENT_ID from %s order by EVENT_ID";
+
+    private static final AtomicLong RUN_ID = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Each run parses the lines appended since the last run. Unmatched STARTED entries, and a partially written last line
+     * are paired by the next run
+     */
+    @Test
+    public void testJobExecution_appendedTail_parsedByNextRun() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        append(tempLogFile, logEntry("a", "STARTED", 1) + logEntry("a", "FINISHED", 10) + logEntry("b", "STARTED", 1)
+                + "{\"id\":\"c\", \"state\":");
+
+        JobExecution firstExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile));
+        Assert.assertEquals("COMPLETED", firstExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(3, parsedEntryCount(firstExecution));
+        Assert.assertEquals("a", String.join(",", jdbcTemplate.queryForList(SQL_SELECT_ALERT_EVENT_IDS, String.class)));
+        Assert.assertEquals("b", String.join(",", jdbcTemplate.queryForList(String.format(SQL_SELECT_EVENT_IDS, "TMP_LOG_EVENT_STARTED"), String.class)));
+        Assert.assertEquals(1, firstExecution.getExecutionContext().getLong(PairedEntriesCleanupTasklet.CARRIED_OVER_STARTED_COUNT_KEY));
+
+        append(tempLogFile, "\"STARTED\", \"timestamp\": 5}\n" + logEntry("b", "FINISHED", 3) + logEntry("c", "FINISHED", 7));
+        JobExecution secondExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile));
+        Assert.assertEquals("COMPLETED", secondExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(firstExecution.getExecutionContext().getLong(IncrementalRangeTasklet.END_OFFSET_KEY),
+                secondExecution.getExecutionContext().getLong(IncrementalRangeTasklet.START_OFFSET_KEY));
+        Assert.assertEquals(Files.size(tempLogFile), secondExecution.getExecutionContext().getLong(IncrementalRangeTasklet.END_OFFSET_KEY));
+        Assert.assertEquals(3, parsedEntryCount(secondExecution));
+        Assert.assertEquals("a,b,c", String.join(",", jdbcTemplate.queryForList(SQL_SELECT_ALERT_EVENT_IDS, String.class)));
+        Assert.assertEquals(0, secondExecution.getExecutionContext().getLong(PairedEntriesCleanupTasklet.CARRIED_OVER_STARTED_COUNT_KEY));
+        Assert.assertEquals(0, secondExecution.getExecutionContext().getLong(PairedEntriesCleanupTasklet.CARRIED_OVER_FINISHED_COUNT_KEY));
+
+        JobExecution emptyExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile));
+        Assert.assertEquals("COMPLETED", emptyExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(0, parsedEntryCount(emptyExecution));
+    }
+
+    /**
+     * A rewritten log file is parsed from the start, discarding the entries carried over from the previous file
+     */
+    @Test
+    public void testJobExecution_rewrittenFile_parsedFromStart() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        append(tempLogFile, logEntry("a", "STARTED", 1) + logEntry("a", "FINISHED", 10) + logEntry("b", "STARTED", 1));
+        Assert.assertEquals("COMPLETED", jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile)).getExitStatus().getExitCode());
+
+        Files.write(tempLogFile, (logEntry("x", "STARTED", 1) + logEntry("b", "FINISHED", 2)).getBytes(StandardCharsets.UTF_8));
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(0, jobExecution.getExecutionContext().getLong(IncrementalRangeTasklet.START_OFFSET_KEY));
+        Assert.assertEquals("a", String.join(",", jdbcTemplate.queryForList(SQL_SELECT_ALERT_EVENT_IDS, String.class)));
+        Assert.assertEquals("x", String.join(",", jdbcTemplate.queryForList(String.format(SQL_SELECT_EVENT_IDS, "TMP_LOG_EVENT_STARTED"), String.class)));
+        Assert.assertEquals("b", String.join(",", jdbcTemplate.queryForList(String.format(SQL_SELECT_EVENT_IDS, "TMP_LOG_EVENT_FINISHED"), String.class)));
+    }
+
+    /**
+     * Entries committed by a failed run are rolled back by the next run, which parses the same range again
+     */
+    @Test
+    public void testJobExecution_failedRun_rolledBackByNextRun() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        String firstRunEntries = logEntry("a", "STARTED", 1) + logEntry("a", "FINISHED", 10) + logEntry("b", "STARTED", 1);
+        append(tempLogFile, firstRunEntries);
+        Assert.assertEquals("COMPLETED", jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile)).getExitStatus().getExitCode());
+
+        String appendedEntries = logEntry("b", "FINISHED", 2) + logEntry("c", "STARTED", 1) + logEntry("c", "FINISHED", 3);
+        append(tempLogFile, appendedEntries + "{testInvalid}\n{testInvalid}\n{testInvalid}\n");
+        JobExecution failedExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile));
+        Assert.assertEquals("FAILED", failedExecution.getExitStatus().getExitCode());
+        Assert.assertTrue("Entries were expected to be committed before the failure",
+                jdbcTemplate.queryForObject("SELECT COUNT(*) from TMP_LOG_EVENT_FINISHED", Long.class) > 0);
+
+        Files.write(tempLogFile, (firstRunEntries + appendedEntries).getBytes(StandardCharsets.UTF_8));
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(3, parsedEntryCount(jobExecution));
+        Assert.assertEquals("a,b,c", String.join(",", jdbcTemplate.queryForList(SQL_SELECT_ALERT_EVENT_IDS, String.class)));
+        Assert.assertEquals(0, jobExecution.getExecutionContext().getLong(PairedEntriesCleanupTasklet.CARRIED_OVER_STARTED_COUNT_KEY));
+    }
+
+    private long parsedEntryCount(JobExecution jobExecution) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("parseLogsEntriesWorkerStep"))
+                .mapToLong(StepExecution::getWriteCount)
+                .sum();
+    }
+
+    private String logEntry(String id, String state, long timestamp) {
+        return String.format("{\"id\":\"%s\", \"state\":\"%s\", \"timestamp\": %d}%n", id, state, timestamp);
+    }
+
+    private void append(Path logFile, String logEntries) throws Exception {
+        Files.write(logFile, logEntries.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    private JobParameters getJobParameters(Path logEventsFile) {
+        return new JobParametersBuilder(getJobParameters(logEventsFile.toString()))
+                .addLong("run.id", RUN_ID.incrementAndGet())
+                .toJobParameters();
+    }
+}
@@ -0,0 +1,42 @@
+package com.test.assignment.cs.flagalerts.processing.metrics;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.Arrays;
+
+/**
+ * Tests of {@link StepMetricsListener}, counting the flagged alerts of the committed chunks only
+ */
+public class StepMetricsListenerTests {
+
+    @Test
+    public void testAfterWrite_rolledBackChunk_alertsNotCounted() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StepMetricsListener stepMetricsListener = new StepMetricsListener(meterRegistry, new StepThroughputGauges(meterRegistry));
+        stepMetricsListener.beforeStep(MetaDataInstanceFactory.createStepExecution());
+
+        stepMetricsListener.beforeChunk(null);
+        stepMetricsListener.beforeWrite(null);
+        stepMetricsListener.afterWrite(Arrays.asList(createLogEventAlert(10), createLogEventAlert(2)));
+        stepMetricsListener.afterChunkError(null);
+        Assert.assertEquals(0, meterRegistry.get("flag.alerts.alerts.flagged").counter().count(), 0);
+
+        stepMetricsListener.beforeChunk(null);
+        stepMetricsListener.beforeWrite(null);
+        stepMetricsListener.afterWrite(Arrays.asList(createLogEventAlert(10), createLogEventAlert(2)));
+        stepMetricsListener.afterChunk(null);
+        Assert.assertEquals(1, meterRegistry.get("flag.alerts.alerts.flagged").counter().count(), 0);
+    }
+
+    private LogEventAlert createLogEventAlert(long duration) {
+        LogEventAlert logEventAlert = new LogEventAlert();
+        logEventAlert.setEventId("id" + duration);
+        logEventAlert.setEventDuration(duration);
+        logEventAlert.setAlertThreshold(4L);
+        return logEventAlert;
+    }
+}
@@ -0,0 +1,86 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import com.test.assignment.cs.flagalerts.utils.RandomizedLogFileGenerator;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Functional/ Integration tests for the flag alerts job, with log entries paired in memory, and validated by the JSR-303 validators
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.pairing.mode=in-memory",
+        "flag-alerts.validation.mode=jsr"})
+public class InMemoryPairingJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    /**
+     * Tests the job execution for data shared as example in assignment
+     */
+    @Test
+    public void testJobExecution_valid_assignmentExample() throws Exception {
+        assertAssignmentExampleAlerts();
+    }
+
+    /**
+     * Generates a randomized valid log file( approx 10KB), all events are flagged without staging the entries
+     */
+    @Test
+    public void testJobExecution_valid_generatedFile_small() throws Exception {
+        Path tempLogFile = generateLogFile((long) 10 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        Assert.assertEquals("Log Alerts != Event count", Files.lines(tempLogFile).count() / 2, countEvents("LOG_EVENT_ALERT"));
+        Assert.assertEquals("No entries were expected to be staged", 0L, countEvents("TMP_LOG_EVENT_STARTED"));
+    }
+
+    /**
+     * Rotated plain and gzip log files matching a glob pattern are read in one run, pairing events across the files
+     */
+    @Test
+    public void testJobExecution_valid_rotatedLogFilesGlob() throws Exception {
+        final Path logDirectory = Files.createTempDirectory("logs");
+        long logEntryCount = RandomizedLogFileGenerator.generateRotatedLogFiles(logDirectory, "events.log", 3, (long) 10 * 1024);
+        Files.write(logDirectory.resolve("other.txt"), "{testInvalid}".getBytes(StandardCharsets.UTF_8));
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(logDirectory.resolve("events.log*").toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(0, jobExecution.getStepExecutions().iterator().next().getSkipCount());
+        Assert.assertEquals("Log Alerts != Event count", logEntryCount / 2, countEvents("LOG_EVENT_ALERT"));
+    }
+
+    /**
+     * Tests for fault tolerance. Duplicate entry, and invalid record will be skipped, and job marked as complete
+     */
+    @Test
+    public void testJobExecution_skip_duplicate_complete() throws Exception {
+        assertSkippedDuplicateCompleted();
+    }
+
+    /**
+     * Tests for fault tolerance beyond the configured skip limit(2) for tests.
+     */
+    @Test
+    public void testJobExecution_skipLimit_fail() throws Exception {
+        assertSkipLimitExceededFailed();
+    }
+
+    /**
+     * Fails beyond the skip limit(2) after committing the alerts of the leading events, and on restart with the log file corrected,
+     * reads the log file from the beginning with the committed alerts deleted, instead of failing on their duplicate EVENT_ID
+     */
+    @Test
+    public void testJobExecution_skipLimit_fail_restart() throws Exception {
+        Path tempLogFile = writeLogFile(createLogEntries(50) + String.format("{testInvalid}%n{testInvalid}%n{testInvalid}%n"));
+        assertFailed(tempLogFile);
+        Assert.assertEquals("Alerts of the leading events were expected to be committed", 50L, countEvents("LOG_EVENT_ALERT"));
+
+        assertRestartCompleted(tempLogFile, createLogEntries(55), "LOG_EVENT_ALERT", 55L);
+    }
+}
@@ -0,0 +1,153 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.validator.ValidationException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link PendingEventStore}, pairing entries in memory and across spill files
+ */
+public class PendingEventStoreTests {
+
+    private static final int EVENT_COUNT = 20_000;
+
+    /**
+     * Entries paired within the memory budget, with duplicates rejected and unmatched entries left pending
+     */
+    @Test
+    public void testPair_inMemory() throws Exception {
+        try (PendingEventStore pendingEventStore = new PendingEventStore(0, Files.createTempDirectory("spill"))) {
+            Assert.assertNull(pendingEventStore.pair(createLogEventEntry("a", LogState.STARTED, 1, "host", null)));
+            Assert.assertNull(pendingEventStore.pair(createLogEventEntry("b", LogState.FINISHED, 5, null, "APPLICATION_LOG")));
+            try {
+                pendingEventStore.pair(createLogEventEntry("a", LogState.STARTED, 2, null, null));
+                Assert.fail("Expected duplicate entry to be rejected");
+            } catch (ValidationException e) {
+                Assert.assertTrue(e.getMessage().contains("a"));
+            }
+
+            LogEventEntry pendingEntry = pendingEventStore.pair(createLogEventEntry("b", LogState.STARTED, 2, null, null));
+            Assert.assertEquals(createLogEventEntry("b", LogState.FINISHED, 5, null, "APPLICATION_LOG"), pendingEntry);
+            Assert.assertEquals(1, pendingEventStore.getPendingCount());
+            Assert.assertNull(pendingEventStore.drainNextPair());
+            Assert.assertEquals(0, pendingEventStore.getSpillCount());
+        }
+    }
+
+    /**
+     * Entries evicted by age, or the oldest ones, are no longer pending and the others are still paired
+     */
+    @Test
+    public void testEvict_oldEntries() throws Exception {
+        try (PendingEventStore pendingEventStore = new PendingEventStore(0, Files.createTempDirectory("spill"))) {
+            for (int i = 0; i < 100; i++) {
+                Assert.assertNull(pendingEventStore.pair(createLogEventEntry("event-" + i, LogState.STARTED, i, null, null)));
+            }
+            Assert.assertEquals(10, pendingEventStore.evictOlderThan(10));
+            Assert.assertEquals(0, pendingEventStore.evictOlderThan(10));
+            Assert.assertEquals(45, pendingEventStore.evictOldest(0.5));
+            Assert.assertEquals(45, pendingEventStore.getPendingCount());
+
+            Assert.assertNull(pendingEventStore.pair(createLogEventEntry("event-50", LogState.FINISHED, 50, null, null)));
+            Assert.assertNotNull(pendingEventStore.pair(createLogEventEntry("event-55", LogState.FINISHED, 55, null, null)));
+            Assert.assertEquals(45, pendingEventStore.getPendingCount());
+        }
+    }
+
+    /**
+     * Memory estimate counts the pending entries only, so a small budget holds entries until it is exceeded
+     */
+    @Test
+    public void testPair_smallMemoryBudget_estimatedByEntries() throws Exception {
+        try (PendingEventStore pendingEventStore = new PendingEventStore(4 * 1024, Files.createTempDirectory("spill"))) {
+            Assert.assertEquals(0, pendingEventStore.getEstimatedMemoryBytes());
+            for (int i = 0; i < 10; i++) {
+                Assert.assertNull(pendingEventStore.pair(createLogEventEntry("event-" + i, LogState.STARTED, i, null, null)));
+            }
+            Assert.assertEquals(0, pendingEventStore.getSpillCount());
+            Assert.assertEquals(10, pendingEventStore.getPendingCount());
+            Assert.assertTrue(pendingEventStore.getEstimatedMemoryBytes() > 0);
+
+            for (int i = 0; i < 10; i++) {
+                Assert.assertNotNull(pendingEventStore.pair(createLogEventEntry("event-" + i, LogState.FINISHED, i, null, null)));
+            }
+            Assert.assertEquals(0, pendingEventStore.getPendingCount());
+        }
+    }
+
+    /**
+     * Entries spilled beyond the memory budget are paired once drained, same as the entries paired in memory
+     */
+    @Test
+    public void testPair_spilledBeyondMemoryBudget() throws Exception {
+        assertPairedAcrossSpills(128 * 1024, false);
+    }
+
+    /**
+     * Spill partitions over the memory budget are re-partitioned while drained, and paired same as the others
+     */
+    @Test
+    public void testPair_spillPartitionsBeyondMemoryBudget_repartitioned() throws Exception {
+        assertPairedAcrossSpills(8 * 1024, true);
+    }
+
+    private void assertPairedAcrossSpills(long memoryBudgetBytes, boolean repartitioned) throws Exception {
+        List<LogEventEntry> logEventEntries = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            logEventEntries.add(createLogEventEntry("event-" + i, LogState.STARTED, i, "host-" + (i % 7), i % 2 == 0 ? "APPLICATION_LOG" : null));
+            logEventEntries.add(createLogEventEntry("event-" + i, LogState.FINISHED, i + (i % 10), "host-" + (i % 7), null));
+        }
+        logEventEntries.add(createLogEventEntry("unmatched", LogState.STARTED, 1, null, null));
+        Collections.shuffle(logEventEntries, new Random(42));
+
+        Path spillDirectory = Files.createTempDirectory("spill");
+        Map<String, Long> eventDurations = new HashMap<>();
+        try (PendingEventStore pendingEventStore = new PendingEventStore(memoryBudgetBytes, spillDirectory)) {
+            for (LogEventEntry logEventEntry : logEventEntries) {
+                LogEventEntry pendingEntry = pendingEventStore.pair(logEventEntry);
+                if (pendingEntry != null) {
+                    Assert.assertEquals(logEventEntry.getId(), pendingEntry.getId());
+                    eventDurations.put(logEventEntry.getId(), Math.abs(logEventEntry.getTimestamp() - pendingEntry.getTimestamp()));
+                }
+            }
+            Assert.assertTrue("Entries were expected to be spilled", pendingEventStore.getSpillCount() > 0);
+            Assert.assertTrue(pendingEventStore.getEstimatedMemoryBytes() <= memoryBudgetBytes);
+
+            PendingEventPair spilledPair;
+            while ((spilledPair = pendingEventStore.drainNextPair()) != null) {
+                Assert.assertNotEquals(spilledPair.getPendingEntry().getState(), spilledPair.getEntry().getState());
+                Assert.assertNull("Event paired more than once", eventDurations.put(spilledPair.getEntry().getId(),
+                        Math.abs(spilledPair.getEntry().getTimestamp() - spilledPair.getPendingEntry().getTimestamp())));
+            }
+            Assert.assertEquals(1, pendingEventStore.getPendingCount());
+            Assert.assertEquals(repartitioned, pendingEventStore.getRepartitionCount() > 0);
+        }
+
+        Assert.assertEquals(EVENT_COUNT, eventDurations.size());
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Assert.assertEquals(Long.valueOf(i % 10), eventDurations.get("event-" + i));
+        }
+        Assert.assertFalse("Spill files were expected to be deleted", Files.list(spillDirectory).findAny().isPresent());
+    }
+
+    private LogEventEntry createLogEventEntry(String id, LogState state, long timestamp, String host, String type) {
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setId(id);
+        logEventEntry.setState(state);
+        logEventEntry.setTimestamp(timestamp);
+        logEventEntry.setHost(host);
+        logEventEntry.setType(type);
+        return logEventEntry;
+    }
+}
@@ -0,0 +1,78 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Functional/ Integration tests for the flag alerts job, with log entries paired by sort-merge of runs small enough
+ * for the generated files to be written to many runs and merged in intermediate passes
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.pairing.mode=sort-merge",
+        "flag-alerts.pairing.sort-merge.memory-budget-bytes=0", "flag-alerts.pairing.sort-merge.max-merge-fan-in=2"})
+public class SortMergePairingJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    /**
+     * Tests the job execution for data shared as example in assignment
+     */
+    @Test
+    public void testJobExecution_valid_assignmentExample() throws Exception {
+        assertAssignmentExampleAlerts();
+    }
+
+    /**
+     * Generates a randomized valid log file( approx 500KB), sorted into many runs, all events are flagged without staging the entries
+     */
+    @Test
+    public void testJobExecution_valid_generatedFile_mergedRuns() throws Exception {
+        Path tempLogFile = generateLogFile((long) 500 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        Assert.assertEquals("Log Alerts != Event count", Files.lines(tempLogFile).count() / 2, countEvents("LOG_EVENT_ALERT"));
+        Assert.assertEquals("No entries were expected to be staged", 0L, countEvents("TMP_LOG_EVENT_STARTED"));
+        ExecutionContext stepExecutionContext = jobExecution.getStepExecutions().iterator().next().getExecutionContext();
+        Assert.assertTrue(stepExecutionContext.getInt(SortMergePairingItemReader.SORTED_RUN_COUNT_KEY) > 2);
+        Assert.assertTrue(stepExecutionContext.getInt(SortMergePairingItemReader.MERGE_PASS_COUNT_KEY) > 0);
+        Assert.assertEquals(0, stepExecutionContext.getLong(SortMergePairingItemReader.UNMATCHED_ENTRY_COUNT_KEY));
+    }
+
+    /**
+     * Tests for fault tolerance. Duplicate entry, and invalid record will be skipped, and job marked as complete
+     */
+    @Test
+    public void testJobExecution_skip_duplicate_complete() throws Exception {
+        assertSkippedDuplicateCompleted();
+    }
+
+    /**
+     * Tests for fault tolerance beyond the configured skip limit(2) for tests.
+     */
+    @Test
+    public void testJobExecution_skipLimit_fail() throws Exception {
+        assertSkipLimitExceededFailed();
+    }
+
+    /**
+     * Tests the restart of a job failed beyond the skip limit(2) while merging, with alerts committed already: the
+     * restarted pairing step reads the log file from the beginning, and replaces the alerts of the failed execution
+     */
+    @Test
+    public void testJobExecution_skipLimit_fail_restart() throws Exception {
+        Path tempLogFile = writeLogFile(createLogEntries(200) + String.format("{\"id\":\"id10\", \"state\":\"STARTED\", \"timestamp\": 1491377495211}%n" +
+                "{\"id\":\"id20\", \"state\":\"STARTED\", \"timestamp\": 1491377495211}%n" +
+                "{\"id\":\"id30\", \"state\":\"STARTED\", \"timestamp\": 1491377495211}%n"));
+        assertFailed(tempLogFile);
+        long committedAlerts = countEvents("LOG_EVENT_ALERT");
+        Assert.assertTrue("Alerts of the events merged before the failure were expected to be committed", committedAlerts > 0 && committedAlerts < 200);
+
+        assertRestartCompleted(tempLogFile, createLogEntries(205), "LOG_EVENT_ALERT", 205L);
+    }
+}
@@ -0,0 +1,136 @@
+package com.test.assignment.cs.flagalerts.processing.pairing;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.validator.ValidationException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link SortedRunStore}, pairing entries by a merge of the sorted runs
+ */
+public class SortedRunStoreTests {
+
+    private static final int EVENT_COUNT = 20_000;
+
+    /**
+     * Entries of a single run are paired STARTED entry first, with duplicates rejected and unmatched entries counted
+     */
+    @Test
+    public void testNextPair_singleRun() throws Exception {
+        try (SortedRunStore sortedRunStore = new SortedRunStore(0, 2, Files.createTempDirectory("runs"))) {
+            sortedRunStore.add(createLogEventEntry("a", LogState.STARTED, 1, "host", null));
+            sortedRunStore.add(createLogEventEntry("b", LogState.FINISHED, 5, null, "APPLICATION_LOG"));
+            sortedRunStore.add(createLogEventEntry("a", LogState.STARTED, 2, null, null));
+            sortedRunStore.add(createLogEventEntry("b", LogState.STARTED, 2, null, null));
+            sortedRunStore.add(createLogEventEntry("c", LogState.FINISHED, 3, null, null));
+
+            List<PendingEventPair> pairs = new ArrayList<>();
+            int duplicateCount = 0;
+            while (true) {
+                try {
+                    PendingEventPair pair = sortedRunStore.nextPair();
+                    if (pair == null) {
+                        break;
+                    }
+                    pairs.add(pair);
+                } catch (ValidationException e) {
+                    Assert.assertTrue(e.getMessage().contains("a"));
+                    duplicateCount++;
+                }
+            }
+
+            Assert.assertEquals(1, duplicateCount);
+            Assert.assertEquals(1, pairs.size());
+            Assert.assertEquals(createLogEventEntry("b", LogState.STARTED, 2, null, null), pairs.get(0).getPendingEntry());
+            Assert.assertEquals(createLogEventEntry("b", LogState.FINISHED, 5, null, "APPLICATION_LOG"), pairs.get(0).getEntry());
+            Assert.assertEquals(2, sortedRunStore.getUnmatchedCount());
+            Assert.assertEquals(1, sortedRunStore.getRunCount());
+            Assert.assertEquals(0, sortedRunStore.getMergePassCount());
+        }
+    }
+
+    /**
+     * A further entry of an id already paired is rejected as a duplicate, not counted as unmatched
+     */
+    @Test
+    public void testNextPair_duplicateAfterPair() throws Exception {
+        try (SortedRunStore sortedRunStore = new SortedRunStore(0, 2, Files.createTempDirectory("runs"))) {
+            sortedRunStore.add(createLogEventEntry("a", LogState.STARTED, 1, null, null));
+            sortedRunStore.add(createLogEventEntry("a", LogState.FINISHED, 3, null, null));
+            sortedRunStore.add(createLogEventEntry("a", LogState.FINISHED, 4, null, null));
+
+            Assert.assertEquals("a", sortedRunStore.nextPair().getEntry().getId());
+            try {
+                sortedRunStore.nextPair();
+                Assert.fail("Duplicate FINISHED entry was expected to be rejected");
+            } catch (ValidationException e) {
+                Assert.assertTrue(e.getMessage().contains("Duplicate FINISHED"));
+            }
+            Assert.assertNull(sortedRunStore.nextPair());
+            Assert.assertEquals(0, sortedRunStore.getUnmatchedCount());
+        }
+    }
+
+    /**
+     * Entries sorted into many runs beyond the memory budget, and merged in intermediate passes beyond the fan-in, are
+     * all paired once
+     */
+    @Test
+    public void testNextPair_mergedRunsBeyondFanIn() throws Exception {
+        List<LogEventEntry> logEventEntries = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            logEventEntries.add(createLogEventEntry("event-" + i, LogState.STARTED, i, "host-" + (i % 7), i % 2 == 0 ? "APPLICATION_LOG" : null));
+            logEventEntries.add(createLogEventEntry("event-" + i, LogState.FINISHED, i + (i % 10), "host-" + (i % 7), null));
+        }
+        logEventEntries.add(createLogEventEntry("unmatched", LogState.STARTED, 1, null, null));
+        Collections.shuffle(logEventEntries, new Random(42));
+
+        Path runDirectory = Files.createTempDirectory("runs");
+        Map<String, Long> eventDurations = new HashMap<>();
+        try (SortedRunStore sortedRunStore = new SortedRunStore(SortedRunStore.MIN_BUFFER_BYTES, 4, runDirectory)) {
+            for (LogEventEntry logEventEntry : logEventEntries) {
+                sortedRunStore.add(logEventEntry);
+            }
+            Assert.assertTrue(sortedRunStore.getEstimatedMemoryBytes() <= SortedRunStore.MIN_BUFFER_BYTES);
+
+            PendingEventPair pair;
+            while ((pair = sortedRunStore.nextPair()) != null) {
+                Assert.assertEquals(LogState.STARTED, pair.getPendingEntry().getState());
+                Assert.assertEquals(LogState.FINISHED, pair.getEntry().getState());
+                Assert.assertEquals(pair.getPendingEntry().getId(), pair.getEntry().getId());
+                Assert.assertNull("Event paired more than once", eventDurations.put(pair.getEntry().getId(),
+                        pair.getEntry().getTimestamp() - pair.getPendingEntry().getTimestamp()));
+            }
+            Assert.assertTrue("Entries were expected in more runs than the fan-in", sortedRunStore.getRunCount() > 4);
+            Assert.assertTrue("Runs were expected to be merged in intermediate passes", sortedRunStore.getMergePassCount() > 0);
+            Assert.assertEquals(EVENT_COUNT * 2 + 1, sortedRunStore.getEntryCount());
+            Assert.assertEquals(1, sortedRunStore.getUnmatchedCount());
+        }
+
+        Assert.assertEquals(EVENT_COUNT, eventDurations.size());
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Assert.assertEquals(Long.valueOf(i % 10), eventDurations.get("event-" + i));
+        }
+        Assert.assertFalse("Run files were expected to be deleted", Files.list(runDirectory).findAny().isPresent());
+    }
+
+    private LogEventEntry createLogEventEntry(String id, LogState state, long timestamp, String host, String type) {
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setId(id);
+        logEventEntry.setState(state);
+        logEventEntry.setTimestamp(timestamp);
+        logEventEntry.setHost(host);
+        logEventEntry.setType(type);
+        return logEventEntry;
+    }
+}
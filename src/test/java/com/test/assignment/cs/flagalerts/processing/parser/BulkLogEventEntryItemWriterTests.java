@@ -0,0 +1,104 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link BulkLogEventEntryItemWriter}, loading the chunks by both of its statement shapes
+ */
+public class BulkLogEventEntryItemWriterTests {
+
+    private static final String SQL_SELECT_STARTED = "SELECT EVENT_ID, EVENT_STATE, EVENT_TIMESTAMP, EVENT_HOST_ID, EVENT_TYPE_ID " +
+            "FROM TMP_LOG_EVENT_STARTED ORDER BY ENTRY_ID_PK";
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private EventDictionary eventDictionary;
+
+    @BeforeEach
+    public void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .generateUniqueName(true)
+                .addScript("schema-all.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        eventDictionary = new EventDictionary(database);
+    }
+
+    @AfterEach
+    public void shutdownDatabase() {
+        database.shutdown();
+    }
+
+    /**
+     * HSQLDB is detected from the data source, and the chunk is inserted from column arrays
+     */
+    @Test
+    public void testWrite_unnestArrays() throws Exception {
+        BulkLogEventEntryItemWriter bulkWriter = new BulkLogEventEntryItemWriter(database, eventDictionary, "TMP_LOG_EVENT_STARTED");
+        assertChunkWritten(bulkWriter, 3);
+    }
+
+    /**
+     * Chunk larger than a statement is inserted from the column arrays of several statements
+     */
+    @Test
+    public void testWrite_unnestArrays_chunkSplit() throws Exception {
+        BulkLogEventEntryItemWriter bulkWriter = new BulkLogEventEntryItemWriter(database, eventDictionary, "TMP_LOG_EVENT_STARTED", true);
+        assertChunkWritten(bulkWriter, BulkLogEventEntryItemWriter.MAX_ROWS_PER_STATEMENT + 3);
+    }
+
+    /**
+     * Chunk is inserted by multi row INSERT ... VALUES statements, split at the maximum rows per statement
+     */
+    @Test
+    public void testWrite_multiRowValues_chunkSplit() throws Exception {
+        BulkLogEventEntryItemWriter bulkWriter = new BulkLogEventEntryItemWriter(database, eventDictionary, "TMP_LOG_EVENT_STARTED", false);
+        assertChunkWritten(bulkWriter, 3);
+        jdbcTemplate.execute("truncate table TMP_LOG_EVENT_STARTED");
+        assertChunkWritten(bulkWriter, BulkLogEventEntryItemWriter.MAX_ROWS_PER_STATEMENT + 3);
+    }
+
+    /**
+     * Writes a chunk of entries, every other one without host and type, and compares the rows with the entries
+     */
+    private void assertChunkWritten(BulkLogEventEntryItemWriter bulkWriter, int entryCount) throws Exception {
+        List<LogEventEntry> logEventEntries = new ArrayList<>();
+        for (int i = 0; i < entryCount; i++) {
+            LogEventEntry logEventEntry = new LogEventEntry();
+            logEventEntry.setId("event" + i);
+            logEventEntry.setState(LogState.STARTED);
+            logEventEntry.setTimestamp(1491377495212L + i);
+            if (i % 2 == 0) {
+                logEventEntry.setHost("host" + (i % 3));
+                logEventEntry.setType("APPLICATION_LOG");
+            }
+            logEventEntries.add(logEventEntry);
+        }
+        bulkWriter.write(logEventEntries);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SQL_SELECT_STARTED);
+        Assert.assertEquals(entryCount, rows.size());
+        for (int i = 0; i < entryCount; i++) {
+            LogEventEntry logEventEntry = logEventEntries.get(i);
+            Map<String, Object> row = rows.get(i);
+            Assert.assertEquals(logEventEntry.getId(), row.get("EVENT_ID"));
+            Assert.assertEquals("STARTED", row.get("EVENT_STATE"));
+            Assert.assertEquals(logEventEntry.getTimestamp(), row.get("EVENT_TIMESTAMP"));
+            Assert.assertEquals(logEventEntry.getHost(), eventDictionary.valueOf((Integer) row.get("EVENT_HOST_ID")));
+            Assert.assertEquals(logEventEntry.getType(), eventDictionary.valueOf((Integer) row.get("EVENT_TYPE_ID")));
+        }
+    }
+}
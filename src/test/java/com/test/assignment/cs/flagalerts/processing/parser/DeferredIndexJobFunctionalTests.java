@@ -0,0 +1,100 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Functional/ Integration tests for the flag alerts job, with the entries bulk loaded into the temporary tables without
+ * constraints, and the duplicates deleted and the constraints built after parsing
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.parser.staging.loader=bulk",
+        "flag-alerts.parser.staging.deferred-index=true"})
+public class DeferredIndexJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    /**
+     * Tests the job execution for data shared as example in assignment
+     */
+    @Test
+    public void testJobExecution_valid_assignmentExample() throws Exception {
+        assertAssignmentExampleAlerts();
+    }
+
+    /**
+     * Generates a randomized valid log file( approx 100KB), all events are flagged and the constraints are built back
+     */
+    @Test
+    public void testJobExecution_valid_generatedFile_constraintsBuilt() throws Exception {
+        Path tempLogFile = generateLogFile((long) 100 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        long logAlertRowCount = countEvents("LOG_EVENT_ALERT");
+        long logFinishedEntryCount = countEvents("TMP_LOG_EVENT_FINISHED");
+        Assert.assertEquals("Log Alerts != Finished count", logFinishedEntryCount, logAlertRowCount);
+        for (StagingTableConstraint constraint : StagingTableConstraint.values()) {
+            Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE CONSTRAINT_NAME = ?",
+                    Integer.class, constraint.getConstraintName());
+            Assert.assertEquals("Constraint not built back - " + constraint.getConstraintName(), 1, count.intValue());
+        }
+    }
+
+    /**
+     * Tests for fault tolerance. Duplicate entry is deleted after parsing keeping the first, invalid record skipped, and job marked as complete
+     */
+    @Test
+    public void testJobExecution_duplicateDeleted_complete() throws Exception {
+        Path tempLogFile = writeLogFile(String.format("{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495210}%n" +
+                "{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495211}%n" +
+                "{testInvalid}%n" +
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"timestamp\": 1491377495216}"));
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT);
+        Assert.assertEquals("One Alert was expected", 1, actualLogAlerts.size());
+        Assert.assertEquals(6L, ((Number) actualLogAlerts.get(0).get("EVENT_DURATION")).longValue());
+        StepExecution buildIndexesStepExecution = findStepExecution(jobExecution, "buildStagingIndexesStep").orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(1, buildIndexesStepExecution.getExecutionContext().getLong(DeferredIndexTasklet.DUPLICATE_COUNT_KEY));
+    }
+
+    /**
+     * Tests duplicate entries beyond the configured skip limit(2) for tests fail the job
+     */
+    @Test
+    public void testJobExecution_duplicatesBeyondSkipLimit_fail() throws Exception {
+        Path tempLogFile = writeLogFile(String.format("{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495210}%n" +
+                "{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495211}%n" +
+                "{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495212}%n" +
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"timestamp\": 1491377495216}%n" +
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"timestamp\": 1491377495217}"));
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("FAILED", jobExecution.getExitStatus().getExitCode());
+    }
+
+    /**
+     * Tests the duplicate entries deleted are counted against what the parsing step left of the skip limit(2) for tests
+     */
+    @Test
+    public void testJobExecution_duplicateAfterParseSkips_fail() throws Exception {
+        Path tempLogFile = writeLogFile(String.format("{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495210}%n" +
+                "{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495211}%n" +
+                "{testInvalid}%n" +
+                "{testInvalid2}%n" +
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"timestamp\": 1491377495216}"));
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("FAILED", jobExecution.getExitStatus().getExitCode());
+        StepExecution parseStepExecution = findStepExecution(jobExecution, "parseLogsEntriesStep").orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(2, parseStepExecution.getSkipCount());
+        StepExecution buildIndexesStepExecution = findStepExecution(jobExecution, "buildStagingIndexesStep").orElseThrow(IllegalStateException::new);
+        Assert.assertEquals("FAILED", buildIndexesStepExecution.getExitStatus().getExitCode());
+    }
+}
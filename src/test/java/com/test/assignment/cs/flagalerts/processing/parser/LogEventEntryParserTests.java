@@ -0,0 +1,76 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link LogEventEntryParser}, matching the log entries mapped by jackson data binding
+ */
+public class LogEventEntryParserTests {
+
+    private final LogEventEntryParser logEventEntryParser = new LogEventEntryParser();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Entries parsed from String, and byte slices are same as data binding for all lines of the assignment example
+     */
+    @Test
+    public void testParse_assignmentExample_matchesDataBinding() throws Exception {
+        List<String> lines = Files.readAllLines(Paths.get("./src/test/resources/logfile-assignment-example.txt"), StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            LogEventEntry expectedLogEventEntry = objectMapper.readValue(line, LogEventEntry.class);
+            Assert.assertEquals(expectedLogEventEntry, logEventEntryParser.mapLine(line, i + 1));
+
+            byte[] paddedLine = ("##" + line + "##").getBytes(StandardCharsets.UTF_8);
+            Assert.assertEquals(expectedLogEventEntry, logEventEntryParser.parse(paddedLine, 2, paddedLine.length - 4, i + 1));
+        }
+    }
+
+    /**
+     * Scalar values are coerced to the field types same as data binding
+     */
+    @Test
+    public void testParse_coercedValues_matchesDataBinding() throws Exception {
+        List<String> lines = Arrays.asList(
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"host\": 12345, \"type\": null, \"timestamp\": \"1491377495218\"}",
+                "{\"timestamp\": 1491377495218.9, \"id\":42, \"state\":null}",
+                "{}");
+        for (String line : lines) {
+            Assert.assertEquals(objectMapper.readValue(line, LogEventEntry.class), logEventEntryParser.mapLine(line, 1));
+        }
+    }
+
+    /**
+     * Malformed lines, and schema violations fail with {@link FlatFileParseException} for the skip listener
+     */
+    @Test
+    public void testParse_invalid_flatFileParseException() {
+        List<String> lines = Arrays.asList(
+                "{testInvalid}",
+                "",
+                "[]",
+                "{\"id\":\"a\", \"state\":\"PAUSED\", \"timestamp\": 1491377495218}",
+                "{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": \"now\"}",
+                "{\"id\":{\"nested\":1}, \"state\":\"STARTED\", \"timestamp\": 1491377495218}",
+                "{\"id\":\"a\", \"unknown\":\"STARTED\", \"timestamp\": 1491377495218}",
+                "{\"id\":\"a\", \"state\":\"STARTED\"");
+        for (String line : lines) {
+            try {
+                logEventEntryParser.mapLine(line, 7);
+                Assert.fail("Expected parsing to fail for " + line);
+            } catch (FlatFileParseException e) {
+                Assert.assertEquals(7, e.getLineNumber());
+                Assert.assertEquals(line, e.getInput());
+            }
+        }
+    }
+}
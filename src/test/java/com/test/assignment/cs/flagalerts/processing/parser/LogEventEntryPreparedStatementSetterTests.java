@@ -0,0 +1,85 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.processing.support.EventDictionary;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Map;
+
+/**
+ * Tests for {@link LogEventEntryPreparedStatementSetter}, binding the log entries to the insert of the temporary tables
+ */
+public class LogEventEntryPreparedStatementSetterTests {
+
+    private static final String SQL_INSERT_FINISHED = "INSERT INTO TMP_LOG_EVENT_FINISHED (" +
+            LogEventEntryPreparedStatementSetter.INSERT_COLUMNS + ") VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_SELECT_FINISHED = "SELECT EVENT_ID, EVENT_STATE, EVENT_TIMESTAMP, EVENT_HOST_ID, EVENT_TYPE_ID " +
+            "FROM TMP_LOG_EVENT_FINISHED WHERE EVENT_ID = ?";
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private EventDictionary eventDictionary;
+    private LogEventEntryPreparedStatementSetter preparedStatementSetter;
+
+    @BeforeEach
+    public void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .generateUniqueName(true)
+                .addScript("schema-all.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        eventDictionary = new EventDictionary(database);
+        preparedStatementSetter = new LogEventEntryPreparedStatementSetter(eventDictionary);
+    }
+
+    @AfterEach
+    public void shutdownDatabase() {
+        database.shutdown();
+    }
+
+    /**
+     * Host and type are bound as their dictionary ids
+     */
+    @Test
+    public void testSetValues_hostAndType_dictionaryIds() {
+        LogEventEntry logEventEntry = createLogEventEntry("scsmbstgra", "12345", "APPLICATION_LOG");
+        jdbcTemplate.update(SQL_INSERT_FINISHED, ps -> preparedStatementSetter.setValues(logEventEntry, ps));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(SQL_SELECT_FINISHED, "scsmbstgra");
+        Assert.assertEquals("FINISHED", row.get("EVENT_STATE"));
+        Assert.assertEquals(1491377495217L, row.get("EVENT_TIMESTAMP"));
+        Assert.assertEquals(eventDictionary.idOf("12345"), row.get("EVENT_HOST_ID"));
+        Assert.assertEquals(eventDictionary.idOf("APPLICATION_LOG"), row.get("EVENT_TYPE_ID"));
+    }
+
+    /**
+     * Missing host and type are bound as SQL NULL, without dictionary entries
+     */
+    @Test
+    public void testSetValues_nullHostAndType_sqlNull() {
+        LogEventEntry logEventEntry = createLogEventEntry("scsmbstgrb", null, null);
+        jdbcTemplate.update(SQL_INSERT_FINISHED, ps -> preparedStatementSetter.setValues(logEventEntry, ps));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(SQL_SELECT_FINISHED, "scsmbstgrb");
+        Assert.assertNull(row.get("EVENT_HOST_ID"));
+        Assert.assertNull(row.get("EVENT_TYPE_ID"));
+        Assert.assertEquals(0, eventDictionary.size());
+    }
+
+    private LogEventEntry createLogEventEntry(String id, String host, String type) {
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setId(id);
+        logEventEntry.setState(LogState.FINISHED);
+        logEventEntry.setTimestamp(1491377495217L);
+        logEventEntry.setHost(host);
+        logEventEntry.setType(type);
+        return logEventEntry;
+    }
+}
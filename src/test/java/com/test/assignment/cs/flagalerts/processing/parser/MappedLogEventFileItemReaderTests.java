@@ -0,0 +1,139 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.utils.RandomizedLogFileGenerator;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link MappedLogEventFileItemReader}, reading the same log entries as the flat file reader
+ */
+public class MappedLogEventFileItemReaderTests {
+
+    private final LogEventEntryParser logEventEntryParser = new LogEventEntryParser();
+
+    /**
+     * Lines crossing the mapped windows, and byte range partitions are read same as the flat file reader
+     */
+    @Test
+    public void testRead_smallWindowsAndPartitions_matchesFlatFileReader() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        RandomizedLogFileGenerator.generateLogFile(tempLogFile.toString(), (long) 20 * 1024);
+
+        List<LogEventEntry> expectedLogEventEntries = readAll(new FlatFileItemReaderBuilder<LogEventEntry>()
+                .name("logEventFileReader")
+                .resource(new FileSystemResource(tempLogFile))
+                .lineMapper(logEventEntryParser)
+                .build(), new ExecutionContext());
+
+        Assert.assertEquals(expectedLogEventEntries, readAll(createMappedReader(tempLogFile, 0, -1, 300), new ExecutionContext()));
+
+        List<LogEventEntry> partitionedLogEventEntries = new ArrayList<>();
+        Map<String, ExecutionContext> partitions = new LogFileByteRangePartitioner(tempLogFile.toString()).partition(5);
+        for (ExecutionContext partition : partitions.values()) {
+            partitionedLogEventEntries.addAll(readAll(createMappedReader(tempLogFile,
+                    partition.getLong(LogFileByteRangePartitioner.PARTITION_START_OFFSET_KEY),
+                    partition.getLong(LogFileByteRangePartitioner.PARTITION_END_OFFSET_KEY), 1024), new ExecutionContext()));
+        }
+        Assert.assertEquals(expectedLogEventEntries, partitionedLogEventEntries);
+    }
+
+    /**
+     * Restarted reader continues from the saved byte offset, with line numbers for skipped invalid lines
+     */
+    @Test
+    public void testRead_restartFromSavedOffset() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        Files.write(tempLogFile, ("{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1}\r\n" +
+                "# comment\r\n" +
+                "{\"id\":\"b\", \"state\":\"STARTED\", \"timestamp\": 2}\r\n" +
+                "{testInvalid}\r\n" +
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"timestamp\": 3}").getBytes(StandardCharsets.UTF_8));
+
+        ExecutionContext executionContext = new ExecutionContext();
+        MappedLogEventFileItemReader mappedLogEventFileReader = createMappedReader(tempLogFile, 0, -1, 64);
+        mappedLogEventFileReader.open(executionContext);
+        Assert.assertEquals("a", mappedLogEventFileReader.read().getId());
+        Assert.assertEquals("b", mappedLogEventFileReader.read().getId());
+        mappedLogEventFileReader.update(executionContext);
+        mappedLogEventFileReader.close();
+
+        MappedLogEventFileItemReader restartedLogEventFileReader = createMappedReader(tempLogFile, 0, -1, 64);
+        restartedLogEventFileReader.open(executionContext);
+        try {
+            restartedLogEventFileReader.read();
+            Assert.fail("Expected parsing to fail for invalid line");
+        } catch (FlatFileParseException e) {
+            Assert.assertEquals(4, e.getLineNumber());
+        }
+        LogEventEntry logEventEntry = restartedLogEventFileReader.read();
+        Assert.assertEquals(LogState.FINISHED, logEventEntry.getState());
+        Assert.assertEquals(Long.valueOf(3), logEventEntry.getTimestamp());
+        Assert.assertNull(restartedLogEventFileReader.read());
+        restartedLogEventFileReader.close();
+    }
+
+    /**
+     * A line longer than the mapped window fails to parse, and the reader continues with the following line
+     */
+    @Test
+    public void testRead_lineLongerThanWindow_skipped() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        StringBuilder longLine = new StringBuilder("{\"id\":\"");
+        for (int i = 0; i < 200; i++) {
+            longLine.append('x');
+        }
+        Files.write(tempLogFile, ("{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1}\n" +
+                longLine + "\", \"state\":\"STARTED\", \"timestamp\": 2}\n" +
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"timestamp\": 3}").getBytes(StandardCharsets.UTF_8));
+
+        ExecutionContext executionContext = new ExecutionContext();
+        MappedLogEventFileItemReader mappedLogEventFileReader = createMappedReader(tempLogFile, 0, -1, 64);
+        mappedLogEventFileReader.open(executionContext);
+        Assert.assertEquals("a", mappedLogEventFileReader.read().getId());
+        try {
+            mappedLogEventFileReader.read();
+            Assert.fail("Expected parsing to fail for the line longer than the window");
+        } catch (FlatFileParseException e) {
+            Assert.assertEquals(2, e.getLineNumber());
+        }
+        LogEventEntry logEventEntry = mappedLogEventFileReader.read();
+        Assert.assertEquals(LogState.FINISHED, logEventEntry.getState());
+        Assert.assertEquals(Long.valueOf(3), logEventEntry.getTimestamp());
+        Assert.assertNull(mappedLogEventFileReader.read());
+        mappedLogEventFileReader.update(executionContext);
+        mappedLogEventFileReader.close();
+        Assert.assertEquals(Files.size(tempLogFile), executionContext.getLong("logEventFileReader." + MappedLogEventFileItemReader.OFFSET_KEY));
+    }
+
+    private MappedLogEventFileItemReader createMappedReader(Path logFile, long startOffset, long endOffset, int windowSize) {
+        MappedLogEventFileItemReader mappedLogEventFileReader = new MappedLogEventFileItemReader(logFile, startOffset, endOffset, logEventEntryParser, windowSize);
+        mappedLogEventFileReader.setName("logEventFileReader");
+        return mappedLogEventFileReader;
+    }
+
+    private List<LogEventEntry> readAll(ItemStreamReader<LogEventEntry> logEventReader, ExecutionContext executionContext) throws Exception {
+        List<LogEventEntry> logEventEntries = new ArrayList<>();
+        logEventReader.open(executionContext);
+        LogEventEntry logEventEntry;
+        while ((logEventEntry = logEventReader.read()) != null) {
+            logEventEntries.add(logEventEntry);
+        }
+        logEventReader.close();
+        return logEventEntries;
+    }
+}
@@ -0,0 +1,106 @@
+package com.test.assignment.cs.flagalerts.processing.parser;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Functional/ Integration tests for the flag alerts job, with the log file parsed by the pipelined parsing step,
+ * in small batches so the ring buffer fills up and the workers complete out of order
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.parser.execution=pipelined",
+        "flag-alerts.parser.chunk-size=50", "flag-alerts.parser.pipeline.ring-buffer-capacity=4", "flag-alerts.parser.pipeline.workers=3"})
+public class PipelinedParseJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    /**
+     * Tests the job execution for data shared as example in assignment
+     */
+    @Test
+    public void testJobExecution_valid_assignmentExample() throws Exception {
+        assertAssignmentExampleAlerts();
+    }
+
+    /**
+     * Generates a randomized valid log file( approx 100KB), every line is parsed and written exactly once
+     */
+    @Test
+    public void testJobExecution_valid_generatedFile() throws Exception {
+        Path tempLogFile = generateLogFile((long) 100 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        long logEntryCount = Files.lines(tempLogFile).count();
+        StepExecution parseStepExecution = findStepExecution(jobExecution, "parseLogsEntriesStep").orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(logEntryCount, parseStepExecution.getReadCount());
+        Assert.assertEquals(logEntryCount, parseStepExecution.getWriteCount());
+
+        long logAlertRowCount = countEvents("LOG_EVENT_ALERT");
+        long logFinishedEntryCount = countEvents("TMP_LOG_EVENT_FINISHED");
+        long logStartedEntryCount = countEvents("TMP_LOG_EVENT_STARTED");
+        Assert.assertEquals("Parsed entries != log file lines", logEntryCount, logFinishedEntryCount + logStartedEntryCount);
+        Assert.assertEquals("Log Alerts != Finished count", logFinishedEntryCount, logAlertRowCount);
+    }
+
+    /**
+     * Tests for fault tolerance. One unparsable and one invalid entry are skipped by the workers, and job marked as complete
+     */
+    @Test
+    public void testJobExecution_skip_invalid_complete() throws Exception {
+        Path tempLogFile = writeLogFile(createStartedLogEntries(120, 30, 90));
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        StepExecution parseStepExecution = findStepExecution(jobExecution, "parseLogsEntriesStep").orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(1, parseStepExecution.getReadSkipCount());
+        Assert.assertEquals(1, parseStepExecution.getProcessSkipCount());
+        Assert.assertEquals(118, parseStepExecution.getWriteCount());
+    }
+
+    /**
+     * Fails beyond the skip limit(2) after writing the leading batches, and on restart with the log file corrected,
+     * parses only the lines following the written batches
+     */
+    @Test
+    public void testJobExecution_skipLimit_fail_restart() throws Exception {
+        Path tempLogFile = writeLogFile(createStartedLogEntries(300, 260, 270, 280));
+        assertFailed(tempLogFile);
+        Assert.assertEquals("Batches preceding the invalid entries were expected to be written", 250L,
+                countEvents("TMP_LOG_EVENT_STARTED"));
+
+        Files.write(tempLogFile, createStartedLogEntries(300).getBytes(StandardCharsets.UTF_8));
+        JobExecution restartedJobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", restartedJobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals(50, findStepExecution(restartedJobExecution, "parseLogsEntriesStep").orElseThrow(IllegalStateException::new).getReadCount());
+        Assert.assertEquals(300L, countEvents("TMP_LOG_EVENT_STARTED"));
+    }
+
+    /**
+     * STARTED entries, with a malformed line at the first invalid index and entries missing the id at the others
+     */
+    private String createStartedLogEntries(int entryCount, int... invalidIndexes) {
+        StringBuilder logEntries = new StringBuilder();
+        for (int i = 0; i < entryCount; i++) {
+            int invalidIndex = -1;
+            for (int j = 0; j < invalidIndexes.length; j++) {
+                invalidIndex = invalidIndexes[j] == i ? j : invalidIndex;
+            }
+            if (invalidIndex == 0) {
+                logEntries.append("{testInvalid}");
+            } else if (invalidIndex > 0) {
+                logEntries.append("{\"state\":\"STARTED\", \"timestamp\": 1491377495218}");
+            } else {
+                logEntries.append(String.format("{\"id\":\"id%d\", \"state\":\"STARTED\", \"timestamp\": 1491377495218}", i));
+            }
+            logEntries.append(System.lineSeparator());
+        }
+        return logEntries.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the event id {@link BloomFilter}, for no false negatives and a false positive rate near the configured one
+ */
+public class BloomFilterTests {
+
+    @Test
+    public void testMightContain_putIds_noFalseNegatives_falsePositiveRate() {
+        BloomFilter bloomFilter = BloomFilter.create(10_000, 0.01, Long.MAX_VALUE);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("event" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            Assert.assertTrue("Put id not found - event" + i, bloomFilter.mightContain("event" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (bloomFilter.mightContain("event" + i)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("False positive rate too high - " + falsePositives / 100_000.0, falsePositives < 2_000);
+        Assert.assertEquals(0.01, bloomFilter.getExpectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    public void testCreate_memoryLimit_higherFalsePositiveRate() {
+        BloomFilter bloomFilter = BloomFilter.create(100_000, 0.01, 1024);
+        Assert.assertEquals(1024, bloomFilter.getMemoryBytes());
+        for (int i = 0; i < 1_000; i++) {
+            bloomFilter.put("event" + i);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            Assert.assertTrue(bloomFilter.mightContain("event" + i));
+        }
+        Assert.assertTrue(bloomFilter.getHashCount() >= 1);
+        Assert.assertTrue(bloomFilter.getExpectedFalsePositiveRate() > 0.01);
+    }
+}
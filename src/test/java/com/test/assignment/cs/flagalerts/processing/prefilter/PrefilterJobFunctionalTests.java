@@ -0,0 +1,64 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Functional/ Integration tests for the flag alerts job with the orphan entries dropped by the event id prefilter before staging
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.prefilter.enabled=true",
+        "flag-alerts.prefilter.orphan-directory=target/prefilter-orphans"})
+public class PrefilterJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    /**
+     * Tests the job execution for data shared as example in assignment, all entries paired
+     */
+    @Test
+    public void testJobExecution_valid_assignmentExample() throws Exception {
+        assertAssignmentExampleAlerts();
+    }
+
+    /**
+     * Generated log file with orphan entries of both states appended, the orphans are not staged and written to the orphan
+     * directory as log lines, while all events are flagged
+     */
+    @Test
+    public void testJobExecution_generatedFile_orphansDropped() throws Exception {
+        Path tempLogFile = generateLogFile((long) 100 * 1024);
+        long eventCount = Files.lines(tempLogFile).count() / 2;
+        StringBuilder orphanEntries = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            orphanEntries.append(String.format("%n{\"id\":\"orphan-started-%d\", \"state\":\"STARTED\", \"host\":\"h1\", \"timestamp\": 1491377495210}", i));
+            orphanEntries.append(String.format("%n{\"id\":\"orphan-finished-%d\", \"state\":\"FINISHED\", \"timestamp\": 1491377495216}", i));
+        }
+        Files.write(tempLogFile, orphanEntries.toString().getBytes(StandardCharsets.UTF_8), java.nio.file.StandardOpenOption.APPEND);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        long logAlertRowCount = countEvents("LOG_EVENT_ALERT");
+        Long orphanStagedCount = jdbcTemplate.queryForObject("SELECT COUNT(EVENT_ID) FROM TMP_LOG_EVENT_STARTED WHERE EVENT_ID LIKE 'orphan-%'", Long.class)
+                + jdbcTemplate.queryForObject("SELECT COUNT(EVENT_ID) FROM TMP_LOG_EVENT_FINISHED WHERE EVENT_ID LIKE 'orphan-%'", Long.class);
+        Assert.assertEquals("Log Alerts != Event count", eventCount, logAlertRowCount);
+        Assert.assertEquals("No orphan entries were expected to be staged", 0L, orphanStagedCount.longValue());
+
+        StepExecution parseStepExecution = findStepExecution(jobExecution, "parseLogsEntriesStep").orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(20, parseStepExecution.getExecutionContext().getLong("prefilteringLogEventWriter." + PrefilteringLogEventEntryWriter.ORPHAN_STARTED_COUNT_KEY));
+        Assert.assertEquals(20, parseStepExecution.getExecutionContext().getLong("prefilteringLogEventWriter." + PrefilteringLogEventEntryWriter.ORPHAN_FINISHED_COUNT_KEY));
+
+        Path orphanFile = Paths.get("target/prefilter-orphans", String.format("orphans-%d-parseLogsEntriesStep.txt", jobExecution.getJobId()));
+        List<String> orphanLines = Files.readAllLines(orphanFile);
+        Assert.assertEquals(40, orphanLines.size());
+        Assert.assertTrue(orphanLines.contains("{\"id\":\"orphan-started-0\",\"state\":\"STARTED\",\"timestamp\":1491377495210,\"host\":\"h1\"}"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.test.assignment.cs.flagalerts.processing.prefilter;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests of {@link PrefilteringLogEventEntryWriter}, counting the orphans of the committed chunks only
+ */
+public class PrefilteringLogEventEntryWriterTests {
+
+    @Test
+    public void testWrite_rolledBackChunk_orphansNotCounted() throws Exception {
+        EventIdPrefilter eventIdPrefilter = new EventIdPrefilter(100, 0.01, Long.MAX_VALUE);
+        eventIdPrefilter.put(createLogEventEntry("a", LogState.STARTED));
+        eventIdPrefilter.put(createLogEventEntry("a", LogState.FINISHED));
+        List<LogEventEntry> writtenEntries = new ArrayList<>();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PrefilteringLogEventEntryWriter prefilteringLogEventWriter = new PrefilteringLogEventEntryWriter(writtenEntries::addAll,
+                eventIdPrefilter, null, meterRegistry);
+        prefilteringLogEventWriter.setName("prefilteringLogEventWriter");
+        ExecutionContext executionContext = new ExecutionContext();
+        prefilteringLogEventWriter.open(executionContext);
+
+        prefilteringLogEventWriter.write(Arrays.asList(createLogEventEntry("a", LogState.STARTED),
+                createLogEventEntry("b", LogState.STARTED), createLogEventEntry("c", LogState.FINISHED)));
+        prefilteringLogEventWriter.afterChunkError(null);
+        Assert.assertEquals(0, meterRegistry.get("flag.alerts.prefilter.orphans").tag("state", "STARTED").counter().count(), 0);
+
+        prefilteringLogEventWriter.write(Arrays.asList(createLogEventEntry("a", LogState.FINISHED),
+                createLogEventEntry("b", LogState.STARTED), createLogEventEntry("c", LogState.FINISHED)));
+        prefilteringLogEventWriter.update(executionContext);
+        prefilteringLogEventWriter.afterChunk(null);
+
+        Assert.assertEquals(2, writtenEntries.size());
+        Assert.assertEquals(1, meterRegistry.get("flag.alerts.prefilter.orphans").tag("state", "STARTED").counter().count(), 0);
+        Assert.assertEquals(1, meterRegistry.get("flag.alerts.prefilter.orphans").tag("state", "FINISHED").counter().count(), 0);
+        Assert.assertEquals(1, executionContext.getLong("prefilteringLogEventWriter." + PrefilteringLogEventEntryWriter.ORPHAN_STARTED_COUNT_KEY));
+        Assert.assertEquals(1, executionContext.getLong("prefilteringLogEventWriter." + PrefilteringLogEventEntryWriter.ORPHAN_FINISHED_COUNT_KEY));
+    }
+
+    private LogEventEntry createLogEventEntry(String id, LogState state) {
+        LogEventEntry logEventEntry = new LogEventEntry();
+        logEventEntry.setId(id);
+        logEventEntry.setState(state);
+        logEventEntry.setTimestamp(1491377495210L);
+        return logEventEntry;
+    }
+}
@@ -0,0 +1,117 @@
+package com.test.assignment.cs.flagalerts.processing.quarantine;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Functional/ Integration tests for the flag alerts job, with the unparseable, invalid and duplicate entries quarantined
+ * to LOG_EVENT_QUARANTINE instead of skipped
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.parser.quarantine.enabled=true",
+        "flag-alerts.parser.chunk-size=100"})
+public class QuarantineJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    public static final String SQL_SELECT_FROM_LOG_EVENT_QUARANTINE = "SELECT STEP_NAME,LINE_NUMBER,REASON,EVENT_ID,LINE from LOG_EVENT_QUARANTINE ORDER BY LINE_NUMBER";
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @BeforeEach
+    public void truncateQuarantineTable() {
+        jdbcTemplate.execute("truncate table LOG_EVENT_QUARANTINE");
+    }
+
+    /**
+     * Tests bad entries beyond the configured skip limit(2) for tests are quarantined with their line number and reason,
+     * the job completes and the alerts of the valid entries are flagged
+     */
+    @Test
+    public void testJobExecution_badEntriesQuarantined_complete() throws Exception {
+        Path tempLogFile = writeLogFile(String.format("{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495210}%n" +
+                "{\"id\":\"a\", \"state\":\"STARTED\", \"timestamp\": 1491377495211}%n" +
+                "{testInvalid}%n" +
+                "{\"id\":\"\", \"state\":\"STARTED\", \"timestamp\": 1491377495212}%n" +
+                "{\"id\":\"b\", \"state\":\"STARTED\", \"timestamp\": 1491377495212}%n" +
+                "{\"id\":\"b\", \"state\":\"FINISHED\", \"timestamp\": 1491377495213}%n" +
+                "{\"id\":\"b\", \"state\":\"FINISHED\", \"timestamp\": 1491377495214}%n" +
+                "{\"id\":\"a\", \"state\":\"FINISHED\", \"timestamp\": 1491377495216}"));
+        double duplicateCounterBefore = countQuarantined(QuarantineReason.DUPLICATE);
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals("Duplicates were expected to be counted once committed", 2, countQuarantined(QuarantineReason.DUPLICATE) - duplicateCounterBefore, 0);
+
+        List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT + " ORDER BY EVENT_ID");
+        Assert.assertEquals("Two Alerts were expected", 2, actualLogAlerts.size());
+        Assert.assertEquals(6L, ((Number) actualLogAlerts.get(0).get("EVENT_DURATION")).longValue());
+        Assert.assertEquals(1L, ((Number) actualLogAlerts.get(1).get("EVENT_DURATION")).longValue());
+
+        List<Map<String, Object>> quarantinedEntries = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_QUARANTINE);
+        Assert.assertEquals("Four quarantined entries were expected", 4, quarantinedEntries.size());
+        assertQuarantined(quarantinedEntries.get(0), 2, QuarantineReason.DUPLICATE, "a");
+        assertQuarantined(quarantinedEntries.get(1), 3, QuarantineReason.UNPARSEABLE, null);
+        Assert.assertEquals("{testInvalid}", quarantinedEntries.get(1).get("LINE"));
+        assertQuarantined(quarantinedEntries.get(2), 4, QuarantineReason.INVALID, "");
+        assertQuarantined(quarantinedEntries.get(3), 7, QuarantineReason.DUPLICATE, "b");
+
+        StepExecution parseStepExecution = findStepExecution(jobExecution, "parseLogsEntriesStep").orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(0, parseStepExecution.getSkipCount());
+        Assert.assertEquals(0, parseStepExecution.getRollbackCount());
+        Assert.assertEquals(1L, parseStepExecution.getExecutionContext().getLong("quarantiningLogEventWriter.unparseable.count"));
+        Assert.assertEquals(1L, parseStepExecution.getExecutionContext().getLong("quarantiningLogEventWriter.invalid.count"));
+        Assert.assertEquals(2L, parseStepExecution.getExecutionContext().getLong("quarantiningLogEventWriter.duplicate.count"));
+    }
+
+    /**
+     * Tests a duplicate of an entry staged by an earlier chunk is found by the update count of its quarantine insert
+     */
+    @Test
+    public void testJobExecution_duplicateOfEarlierChunk_quarantined() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        StringBuilder logLines = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            logLines.append(String.format("{\"id\":\"e%d\", \"state\":\"STARTED\", \"timestamp\": %d}%n", i, 1491377495210L + i));
+        }
+        logLines.append(String.format("{\"id\":\"e0\", \"state\":\"STARTED\", \"timestamp\": 1491377495999}%n"));
+        logLines.append(String.format("{\"id\":\"e0\", \"state\":\"FINISHED\", \"timestamp\": 1491377495220}"));
+        Files.write(tempLogFile, logLines.toString().getBytes(StandardCharsets.UTF_8));
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+
+        List<Map<String, Object>> quarantinedEntries = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_QUARANTINE);
+        Assert.assertEquals("One quarantined entry was expected", 1, quarantinedEntries.size());
+        assertQuarantined(quarantinedEntries.get(0), 251, QuarantineReason.DUPLICATE, "e0");
+        List<Map<String, Object>> actualLogAlerts = jdbcTemplate.queryForList(SQL_SELECT_FROM_LOG_EVENT_ALERT);
+        Assert.assertEquals("One Alert was expected", 1, actualLogAlerts.size());
+        Assert.assertEquals(10L, ((Number) actualLogAlerts.get(0).get("EVENT_DURATION")).longValue());
+    }
+
+    private static void assertQuarantined(Map<String, Object> quarantinedEntry, int lineNumber, QuarantineReason reason, String eventId) {
+        Assert.assertEquals("parseLogsEntriesStep", quarantinedEntry.get("STEP_NAME"));
+        Assert.assertEquals(lineNumber, ((Number) quarantinedEntry.get("LINE_NUMBER")).intValue());
+        Assert.assertEquals(reason.name(), quarantinedEntry.get("REASON"));
+        Assert.assertEquals(eventId, quarantinedEntry.get("EVENT_ID"));
+    }
+
+    /**
+     * @return count of the metric, registered once the writer of a first parsing step is created
+     */
+    private double countQuarantined(QuarantineReason reason) {
+        Counter quarantineCounter = prometheusMeterRegistry.find("flag.alerts.quarantine.entries").tag("reason", reason.getKey()).counter();
+        return quarantineCounter == null ? 0 : quarantineCounter.count();
+    }
+}
@@ -0,0 +1,154 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import com.test.assignment.cs.flagalerts.processing.AbstractJobFunctionalTests;
+import com.test.assignment.cs.flagalerts.processing.alerts.AlertThresholdRules;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Functional/ Integration tests for the flag alerts job with remote partitioning, the partitions of the parsing and flagging
+ * steps being run by two workers receiving them through the shared directory, as worker JVMs would
+ */
+@SpringBootTest({"spring.batch.job.enabled=false", "spring.datasource.url=jdbc:hsqldb:mem:remote-partitions;hsqldb.tx=mvcc",
+        "flag-alerts.parser.invalid-entry.skip-limit=2", "flag-alerts.parser.partition.grid-size=4",
+        "flag-alerts.alerts.partition.grid-size=3", "flag-alerts.partition.remote.enabled=true",
+        "flag-alerts.partition.remote.poll-interval-ms=50", "flag-alerts.partition.remote.timeout-ms=60000",
+        "flag-alerts.partition.remote.lease-ms=600"})
+public class RemotePartitionJobFunctionalTests extends AbstractJobFunctionalTests {
+
+    private static Path partitionDirectory;
+
+    @Autowired
+    private PartitionRequestTransport partitionRequestTransport;
+    @Autowired
+    private JobExplorer jobExplorer;
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private BeanFactory beanFactory;
+    @Autowired
+    private AlertThresholdRules alertThresholdRules;
+    private List<RemotePartitionWorker> workers;
+
+    @DynamicPropertySource
+    static void remotePartitionProperties(DynamicPropertyRegistry registry) throws IOException {
+        partitionDirectory = Files.createTempDirectory("partitions");
+        registry.add("flag-alerts.partition.remote.directory", partitionDirectory::toString);
+    }
+
+    @BeforeEach
+    public void startWorkers() {
+        workers = Arrays.asList(
+                new RemotePartitionWorker(partitionRequestTransport, jobExplorer, jobRepository, beanFactory, alertThresholdRules, "worker-1", 2, 50, 600),
+                new RemotePartitionWorker(partitionRequestTransport, jobExplorer, jobRepository, beanFactory, alertThresholdRules, "worker-2", 2, 50, 600));
+        workers.forEach(RemotePartitionWorker::start);
+    }
+
+    @AfterEach
+    public void stopWorkers() {
+        workers.forEach(RemotePartitionWorker::stop);
+    }
+
+    /**
+     * Generates a randomized valid log file( approx 100KB), every partition is run by one of the workers, and every entry is
+     * parsed and flagged
+     */
+    @Test
+    public void testJobExecution_valid_generatedFile_partitionsRunByWorkers() throws Exception {
+        Path tempLogFile = generateLogFile((long) 100 * 1024);
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals("Each partition was expected to be run once by the workers", 7,
+                workers.stream().mapToLong(RemotePartitionWorker::getPartitionCount).sum());
+        Assert.assertEquals("Partition step executions != grid sizes", 7, jobExplorer.getJobExecution(jobExecution.getId()).getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().contains("WorkerStep:partition"))
+                .filter(stepExecution -> stepExecution.getStatus() == BatchStatus.COMPLETED).count());
+        try (Stream<Path> requestFiles = Files.list(partitionDirectory)) {
+            Assert.assertEquals("No partition request was expected to be left", 0, requestFiles.count());
+        }
+
+        long logEntryCount = Files.lines(tempLogFile).count();
+        long logAlertRowCount = countEvents("LOG_EVENT_ALERT");
+        long logFinishedEntryCount = countEvents("TMP_LOG_EVENT_FINISHED");
+        long logStartedEntryCount = countEvents("TMP_LOG_EVENT_STARTED");
+        Assert.assertEquals("Parsed entries != log file lines", logEntryCount, logFinishedEntryCount + logStartedEntryCount);
+        Assert.assertEquals("Log Alerts != Finished count", logFinishedEntryCount, logAlertRowCount);
+    }
+
+    /**
+     * A partition request claimed by a worker that dies before running it, so never renews its lease, is sent again by the
+     * manager once the lease expires, and run by the other workers
+     */
+    @Test
+    public void testJobExecution_workerDiedAfterClaim_partitionSentAgain() throws Exception {
+        Path tempLogFile = generateLogFile((long) 20 * 1024);
+        stopWorkers();
+        Thread deadWorker = new Thread(() -> {
+            try {
+                Assert.assertNotNull(partitionRequestTransport.receive("dead-worker", 30_000));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            workers.forEach(RemotePartitionWorker::start);
+        });
+        deadWorker.start();
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        deadWorker.join();
+        Assert.assertEquals("COMPLETED", jobExecution.getExitStatus().getExitCode());
+        Assert.assertEquals("Each partition was expected to be run once by the live workers", 7,
+                workers.stream().mapToLong(RemotePartitionWorker::getPartitionCount).sum());
+        try (Stream<Path> requestFiles = Files.list(partitionDirectory)) {
+            Assert.assertEquals("No partition request was expected to be left", 0, requestFiles.count());
+        }
+        Assert.assertEquals("Log Alerts != Finished count", countEvents("TMP_LOG_EVENT_FINISHED"), countEvents("LOG_EVENT_ALERT"));
+    }
+
+    /**
+     * Tests the skip limit(2) for tests applies across the partitions run by the workers. The workers of the test share the
+     * skip policy of their JVM, so the partition skipping the entry over the limit fails before committing it
+     */
+    @Test
+    public void testJobExecution_skipLimitAcrossRemotePartitions_fail() throws Exception {
+        final Path tempLogFile = Files.createTempFile("logfile", ".txt");
+        tempLogFile.toFile().deleteOnExit();
+        StringBuilder logEntries = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            logEntries.append(i % 100 == 50 ? "{testInvalid}" : String.format("{\"id\":\"id%d\", \"state\":\"STARTED\", \"timestamp\": 1491377495218}", i))
+                    .append(System.lineSeparator());
+        }
+        Files.write(tempLogFile, logEntries.toString().getBytes(StandardCharsets.UTF_8));
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(getJobParameters(tempLogFile.toString()));
+        Assert.assertEquals("FAILED", jobExecution.getExitStatus().getExitCode());
+        List<StepExecution> partitionStepExecutions = jobExplorer.getJobExecution(jobExecution.getId()).getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("parseLogsEntriesWorkerStep"))
+                .collect(Collectors.toList());
+        Assert.assertTrue("Skips committed across partitions were expected to be within the skip limit",
+                partitionStepExecutions.stream().mapToInt(StepExecution::getSkipCount).sum() <= 2);
+        Assert.assertTrue("A partition was expected to fail on the skip over the limit",
+                partitionStepExecutions.stream().anyMatch(stepExecution -> stepExecution.getStatus() == BatchStatus.FAILED));
+    }
+}
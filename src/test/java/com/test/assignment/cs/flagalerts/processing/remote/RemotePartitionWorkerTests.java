@@ -0,0 +1,23 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+public class RemotePartitionWorkerTests {
+
+    /**
+     * A lease under 3 ms, or under 3 poll intervals, is rejected instead of failing the heartbeat or letting another worker
+     * claim a running partition
+     */
+    @Test
+    public void testRemotePartitionWorker_leaseTooShort_rejected() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> createRemotePartitionWorker(0, 2));
+        IllegalArgumentException exception = Assert.assertThrows(IllegalArgumentException.class, () -> createRemotePartitionWorker(500, 1000));
+        Assert.assertTrue(exception.getMessage().contains("flag-alerts.partition.remote.lease-ms"));
+        createRemotePartitionWorker(500, 1500);
+    }
+
+    private RemotePartitionWorker createRemotePartitionWorker(long pollIntervalMs, long leaseMs) {
+        return new RemotePartitionWorker(null, null, null, null, null, "worker-1", 1, pollIntervalMs, leaseMs);
+    }
+}
@@ -0,0 +1,101 @@
+package com.test.assignment.cs.flagalerts.processing.remote;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class SharedDirectoryPartitionTransportTests {
+
+    /**
+     * Requests received by concurrent workers, each with its own transport over the directory, are received exactly once
+     */
+    @Test
+    public void testReceive_concurrentWorkers_eachRequestReceivedOnce() throws Exception {
+        Path directory = Files.createTempDirectory("partitions");
+        SharedDirectoryPartitionTransport manager = new SharedDirectoryPartitionTransport(directory, 10);
+        for (long stepExecutionId = 1; stepExecutionId <= 200; stepExecutionId++) {
+            manager.send(new PartitionRequest(7, stepExecutionId, "parseLogsEntriesWorkerStep"));
+        }
+
+        Set<Long> receivedIds = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> receivedCounts = new ArrayList<>();
+        for (int worker = 0; worker < 4; worker++) {
+            String workerId = "worker-" + worker;
+            SharedDirectoryPartitionTransport transport = new SharedDirectoryPartitionTransport(directory, 10);
+            receivedCounts.add(executorService.submit(() -> {
+                int receivedCount = 0;
+                PartitionRequest partitionRequest;
+                while ((partitionRequest = transport.receive(workerId, 50)) != null) {
+                    Assert.assertEquals(7, partitionRequest.getJobExecutionId());
+                    Assert.assertEquals("parseLogsEntriesWorkerStep", partitionRequest.getWorkerStepName());
+                    Assert.assertTrue("Request received twice " + partitionRequest, receivedIds.add(partitionRequest.getStepExecutionId()));
+                    transport.complete(workerId, partitionRequest);
+                    receivedCount++;
+                }
+                return receivedCount;
+            }));
+        }
+        int totalReceivedCount = 0;
+        for (Future<Integer> receivedCount : receivedCounts) {
+            totalReceivedCount += receivedCount.get(30, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        Assert.assertEquals(200, totalReceivedCount);
+        Assert.assertEquals(200, receivedIds.size());
+        try (Stream<Path> files = Files.list(directory)) {
+            Assert.assertEquals("Completed requests were expected to be deleted", 0, files.count());
+        }
+    }
+
+    /**
+     * A claimed request is sent again once its lease expires without being renewed, and received by another worker
+     */
+    @Test
+    public void testResendExpired_leaseNotRenewed_receivedAgain() throws Exception {
+        Path directory = Files.createTempDirectory("partitions");
+        SharedDirectoryPartitionTransport transport = new SharedDirectoryPartitionTransport(directory, 10);
+        transport.send(new PartitionRequest(7, 1, "parseLogsEntriesWorkerStep"));
+        transport.send(new PartitionRequest(8, 2, "parseLogsEntriesWorkerStep"));
+        PartitionRequest partitionRequest = transport.receive("worker-1", 50);
+        PartitionRequest otherJobRequest = transport.receive("worker-1", 50);
+
+        Assert.assertTrue("A lease within its time was not expected to expire", transport.resendExpired(7, 60_000).isEmpty());
+        Thread.sleep(100);
+        transport.renew("worker-1", partitionRequest);
+        Assert.assertTrue("A renewed lease was not expected to expire", transport.resendExpired(7, 50).isEmpty());
+        Thread.sleep(100);
+        Assert.assertNull("No request was expected before the lease expired", transport.receive("worker-2", 0));
+
+        Assert.assertEquals(Collections.singletonList(partitionRequest), transport.resendExpired(7, 50));
+        Assert.assertEquals(partitionRequest, transport.receive("worker-2", 50));
+        transport.complete("worker-2", partitionRequest);
+        transport.complete("worker-1", partitionRequest);
+        transport.complete("worker-1", otherJobRequest);
+        try (Stream<Path> files = Files.list(directory)) {
+            Assert.assertEquals("Completed requests were expected to be deleted", 0, files.count());
+        }
+    }
+
+    /**
+     * Receiving from an empty or missing directory waits for the timeout and returns null
+     */
+    @Test
+    public void testReceive_noRequest_null() throws Exception {
+        Path directory = Files.createTempDirectory("partitions").resolve("missing");
+        Assert.assertNull(new SharedDirectoryPartitionTransport(directory, 10).receive("worker", 30));
+    }
+}
@@ -0,0 +1,140 @@
+package com.test.assignment.cs.flagalerts.processing.streaming;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link AlertMicroBatchWriter}, batching the queued alerts by size and latency, with a bounded queue
+ */
+public class AlertMicroBatchWriterTests {
+
+    /**
+     * Queued alerts are written in batches of at most the maximum batch size, and all written once stopped
+     */
+    @Test
+    public void testRun_batchedBySize() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        AlertMicroBatchWriter alertMicroBatchWriter = new AlertMicroBatchWriter(items -> batchSizes.add(items.size()),
+                new ResourcelessTransactionManager(), 100, 3, 1000, 10, new SimpleMeterRegistry());
+        for (int i = 0; i < 7; i++) {
+            Assert.assertTrue(alertMicroBatchWriter.offer(createLogEventAlert("event-" + i), 10));
+        }
+        Thread writerThread = new Thread(alertMicroBatchWriter);
+        writerThread.start();
+        alertMicroBatchWriter.stop();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+
+        Assert.assertFalse(writerThread.isAlive());
+        Assert.assertEquals(7, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        Assert.assertTrue(batchSizes.stream().allMatch(batchSize -> batchSize <= 3));
+    }
+
+    /**
+     * A partial batch is written once the maximum flush latency elapses, without waiting for more alerts
+     */
+    @Test
+    public void testRun_flushedByLatency() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        AlertMicroBatchWriter alertMicroBatchWriter = new AlertMicroBatchWriter(items -> written.countDown(),
+                new ResourcelessTransactionManager(), 100, 100, 20, 10, new SimpleMeterRegistry());
+        Thread writerThread = new Thread(alertMicroBatchWriter);
+        writerThread.start();
+        try {
+            alertMicroBatchWriter.offer(createLogEventAlert("event"), 10);
+            Assert.assertTrue("Partial batch was expected to be written", written.await(5, TimeUnit.SECONDS));
+        } finally {
+            alertMicroBatchWriter.stop();
+            writerThread.join();
+        }
+    }
+
+    /**
+     * Offers time out once the queue is full while the writer is blocked(backpressure), and retried writes resume
+     */
+    @Test
+    public void testOffer_backpressureWhenWriterFallsBehind() throws Exception {
+        CountDownLatch databaseAvailable = new CountDownLatch(1);
+        List<LogEventAlert> writtenAlerts = Collections.synchronizedList(new ArrayList<>());
+        AlertMicroBatchWriter alertMicroBatchWriter = new AlertMicroBatchWriter(items -> {
+            if (databaseAvailable.getCount() > 0) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            writtenAlerts.addAll(items);
+        }, new ResourcelessTransactionManager(), 2, 1, 10, 10, new SimpleMeterRegistry());
+        Thread writerThread = new Thread(alertMicroBatchWriter);
+        writerThread.start();
+        try {
+            int queuedAlerts = 0;
+            while (alertMicroBatchWriter.offer(createLogEventAlert("event-" + queuedAlerts), 200)) {
+                queuedAlerts++;
+                Assert.assertTrue("Queue was expected to be bounded", queuedAlerts <= 3);
+            }
+            Assert.assertEquals(3, queuedAlerts);
+
+            databaseAvailable.countDown();
+            Assert.assertTrue(alertMicroBatchWriter.offer(createLogEventAlert("event-" + queuedAlerts), 5000));
+        } finally {
+            alertMicroBatchWriter.stop();
+            writerThread.join();
+        }
+        Assert.assertEquals(4, writtenAlerts.size());
+    }
+
+    /**
+     * A batch with a duplicate alert is written one by one, and a failure of another alert meanwhile is retried after the
+     * backoff, without writing the alerts already written again
+     */
+    @Test
+    public void testRun_failureWhileWritingOneByOne_retried() throws Exception {
+        List<String> writtenEventIds = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch written = new CountDownLatch(3);
+        AtomicInteger event2Writes = new AtomicInteger();
+        AlertMicroBatchWriter alertMicroBatchWriter = new AlertMicroBatchWriter(items -> {
+            List<String> eventIds = items.stream().map(LogEventAlert::getEventId).collect(Collectors.toList());
+            if (eventIds.size() > 1 || eventIds.contains("event-1")) {
+                throw new DuplicateKeyException("Alert already written");
+            }
+            if (eventIds.contains("event-2") && event2Writes.getAndIncrement() == 0) {
+                throw new DataAccessResourceFailureException("Connection lost");
+            }
+            writtenEventIds.addAll(eventIds);
+            written.countDown();
+        }, new ResourcelessTransactionManager(), 100, 4, 1000, 10, new SimpleMeterRegistry());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(alertMicroBatchWriter.offer(createLogEventAlert("event-" + i), 10));
+        }
+        Thread writerThread = new Thread(alertMicroBatchWriter);
+        writerThread.start();
+        try {
+            Assert.assertTrue("Alerts were expected to be written once retried", written.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue("Writer was expected to keep running", writerThread.isAlive());
+        } finally {
+            alertMicroBatchWriter.stop();
+            writerThread.join();
+        }
+        Assert.assertEquals(2, event2Writes.get());
+        Assert.assertEquals(Arrays.asList("event-0", "event-2", "event-3"), writtenEventIds);
+    }
+
+    private LogEventAlert createLogEventAlert(String eventId) {
+        LogEventAlert logEventAlert = new LogEventAlert();
+        logEventAlert.setEventId(eventId);
+        logEventAlert.setEventDuration(5L);
+        logEventAlert.setAlertThreshold(4L);
+        return logEventAlert;
+    }
+}
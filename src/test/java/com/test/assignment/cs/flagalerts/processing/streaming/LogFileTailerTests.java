@@ -0,0 +1,49 @@
+package com.test.assignment.cs.flagalerts.processing.streaming;
+
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryParser;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests of {@link LogFileTailer} tailing a log directory with rotated files
+ */
+public class LogFileTailerTests {
+
+    /**
+     * A tailed file renamed by the rotation is tailed on from its offset, so its lines are read once. Compressed files,
+     * and rotated files not renamed from a tailed file, are not tailed
+     */
+    @Test
+    public void testTail_renamedFile_notReadAgain() throws Exception {
+        Path logDirectory = Files.createTempDirectory("streaming");
+        Path logFile = logDirectory.resolve("app.log");
+        Files.write(logFile, logEntry("a").getBytes(StandardCharsets.UTF_8));
+        Files.write(logDirectory.resolve("app.log.2"), logEntry("old").getBytes(StandardCharsets.UTF_8));
+        LogFileTailer logFileTailer = new LogFileTailer(logDirectory, true, new LogEventEntryParser());
+        List<String> tailedIds = new ArrayList<>();
+
+        Assert.assertEquals(1, logFileTailer.tail(logEventEntry -> tailedIds.add(logEventEntry.getId())));
+
+        Files.write(logFile, logEntry("b").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Files.move(logFile, logDirectory.resolve("app.log.1"));
+        Files.write(logFile, logEntry("c").getBytes(StandardCharsets.UTF_8));
+        Files.write(logDirectory.resolve("app.log.3.gz"), new byte[]{31, -117, 8, 0});
+        logFileTailer.tail(logEventEntry -> tailedIds.add(logEventEntry.getId()));
+
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), tailedIds.stream().sorted().collect(Collectors.toList()));
+        Assert.assertEquals(0, logFileTailer.getInvalidLineCount());
+    }
+
+    private static String logEntry(String id) {
+        return String.format("{\"id\":\"%s\", \"state\":\"STARTED\", \"timestamp\": 1}%n", id);
+    }
+}
@@ -0,0 +1,114 @@
+package com.test.assignment.cs.flagalerts.processing.streaming;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Functional/ Integration tests for the streaming mode, tailing a log file appended to while the service runs
+ */
+@ActiveProfiles({"test", "streaming"})
+@SpringBootTest({"flag-alerts.streaming.poll-interval-ms=50", "flag-alerts.streaming.max-flush-latency-ms=50"})
+@Slf4j
+public class StreamingFlagAlertsServiceTests {
+
+    private static final String SQL_SELECT_ALERT = "SELECT EVENT_ID,EVENT_DURATION,ALERT from LOG_EVENT_ALERT where EVENT_ID=?";
+    private static final long MAX_WAIT_MS = TimeUnit.SECONDS.toMillis(10);
+
+    private static Path streamingLogFile;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @DynamicPropertySource
+    static void streamingProperties(DynamicPropertyRegistry registry) throws Exception {
+        streamingLogFile = Files.createTempDirectory("streaming").resolve("events.log");
+        Files.write(streamingLogFile, logEntry("existing", "STARTED", 1).getBytes(StandardCharsets.UTF_8));
+        registry.add("flag-alerts.streaming.path", streamingLogFile::toString);
+    }
+
+    /**
+     * Events are flagged as their entries are appended, including a line written in parts.
+     * The content present at startup is not read
+     */
+    @Test
+    public void testStreaming_appendedEntries_flagged() throws Exception {
+        append(logEntry("stream-a", "STARTED", 100) + logEntry("stream-b", "FINISHED", 203) + "{\"id\":\"stream-a\", ");
+        append("\"state\":\"FINISHED\", \"timestamp\": 110}\n");
+        Map<String, Object> alertA = awaitAlert("stream-a");
+        Assert.assertEquals(10L, ((Number) alertA.get("EVENT_DURATION")).longValue());
+        Assert.assertEquals("true", alertA.get("ALERT"));
+
+        append(logEntry("stream-b", "STARTED", 200) + logEntry("existing", "FINISHED", 2));
+        Map<String, Object> alertB = awaitAlert("stream-b");
+        Assert.assertEquals(3L, ((Number) alertB.get("EVENT_DURATION")).longValue());
+        Assert.assertEquals("false", alertB.get("ALERT"));
+        Assert.assertTrue("Entry present at startup was not expected to be read",
+                jdbcTemplate.queryForList(SQL_SELECT_ALERT, "existing").isEmpty());
+    }
+
+    /**
+     * An unmatched entry older than the max age behind the latest entry is evicted, and not paired with a later entry
+     */
+    @Test
+    public void testStreaming_orphanEntry_evictedByAge() throws Exception {
+        Counter agedOutEntryCounter = prometheusMeterRegistry.get("flag.alerts.streaming.evicted.entries").tag("reason", "age").counter();
+        // entries left unmatched by the other tests may be evicted as well
+        double agedOutEntryCount = agedOutEntryCounter.count();
+        long orphanTimestamp = 10_000_000;
+        append(logEntry("stream-orphan", "STARTED", orphanTimestamp));
+        append(logEntry("stream-late", "STARTED", orphanTimestamp + TimeUnit.HOURS.toMillis(2))
+                + logEntry("stream-late", "FINISHED", orphanTimestamp + TimeUnit.HOURS.toMillis(2) + 1));
+        awaitAlert("stream-late");
+
+        long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+        while (agedOutEntryCounter.count() <= agedOutEntryCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertTrue(agedOutEntryCounter.count() > agedOutEntryCount);
+
+        append(logEntry("stream-orphan", "FINISHED", orphanTimestamp + 1) + logEntry("stream-after", "STARTED", orphanTimestamp + 2)
+                + logEntry("stream-after", "FINISHED", orphanTimestamp + 3));
+        awaitAlert("stream-after");
+        Assert.assertTrue("Evicted entry was not expected to be paired",
+                jdbcTemplate.queryForList(SQL_SELECT_ALERT, "stream-orphan").isEmpty());
+    }
+
+    private Map<String, Object> awaitAlert(String eventId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            List<Map<String, Object>> alerts = jdbcTemplate.queryForList(SQL_SELECT_ALERT, eventId);
+            if (!alerts.isEmpty()) {
+                return alerts.get(0);
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Alert for event " + eventId + " was not written within " + MAX_WAIT_MS + " ms");
+    }
+
+    private static String logEntry(String id, String state, long timestamp) {
+        return String.format("{\"id\":\"%s\", \"state\":\"%s\", \"timestamp\": %d}%n", id, state, timestamp);
+    }
+
+    private void append(String logEntries) throws Exception {
+        Files.write(streamingLogFile, logEntries.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,124 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link AdaptiveChunkCompletionPolicy}
+ */
+public class AdaptiveChunkCompletionPolicyTests {
+
+    private static final long ITEM_PROCESSING_NANOS = 1_000_000;
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    /**
+     * Chunks committed well within the target latency grow the chunk size up to the max size
+     */
+    @Test
+    public void testAfterChunk_fastCommits_growToMaxSize() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        AdaptiveChunkCompletionPolicy chunkCompletionPolicy = new AdaptiveChunkCompletionPolicy(10, true, 10, 80, 1000, nanoClock::get);
+
+        for (int i = 0; i < 10; i++) {
+            runChunk(chunkCompletionPolicy, stepExecution, chunkCompletionPolicy.getChunkSize());
+        }
+        Assert.assertEquals(80, chunkCompletionPolicy.getChunkSize());
+        Assert.assertEquals(80, stepExecution.getExecutionContext().getInt(AdaptiveChunkCompletionPolicy.CHUNK_SIZE_KEY));
+    }
+
+    /**
+     * Chunks committed beyond the target latency shrink the chunk size down to the min size, incomplete chunks are ignored
+     */
+    @Test
+    public void testAfterChunk_slowCommits_shrinkToMinSize() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        AdaptiveChunkCompletionPolicy chunkCompletionPolicy = new AdaptiveChunkCompletionPolicy(100, true, 20, 1000, 10, nanoClock::get);
+
+        runChunk(chunkCompletionPolicy, stepExecution, 5);
+        Assert.assertEquals(100, chunkCompletionPolicy.getChunkSize());
+        for (int i = 0; i < 10; i++) {
+            runChunk(chunkCompletionPolicy, stepExecution, chunkCompletionPolicy.getChunkSize());
+        }
+        Assert.assertEquals(20, chunkCompletionPolicy.getChunkSize());
+    }
+
+    /**
+     * Growing chunk size is reverted when the throughput drops, and not grown beyond it again
+     */
+    @Test
+    public void testAfterChunk_throughputDrop_revertToPreviousSize() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        AdaptiveChunkCompletionPolicy chunkCompletionPolicy = new AdaptiveChunkCompletionPolicy(10, true, 10, 1000, 1000, nanoClock::get);
+
+        runChunk(chunkCompletionPolicy, stepExecution, 10);
+        Assert.assertEquals(20, chunkCompletionPolicy.getChunkSize());
+        // chunk of 20 items processed at half the throughput
+        runChunk(chunkCompletionPolicy, stepExecution, 20, 2 * ITEM_PROCESSING_NANOS);
+        Assert.assertEquals(10, chunkCompletionPolicy.getChunkSize());
+        runChunk(chunkCompletionPolicy, stepExecution, 10);
+        Assert.assertEquals(10, chunkCompletionPolicy.getChunkSize());
+    }
+
+    /**
+     * Only the write and commit of a chunk is timed, slow reading of the items does not shrink the chunk size
+     */
+    @Test
+    public void testAfterChunk_slowReads_notTimed() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        AdaptiveChunkCompletionPolicy chunkCompletionPolicy = new AdaptiveChunkCompletionPolicy(10, true, 10, 80, 100, nanoClock::get);
+
+        for (int i = 0; i < 5; i++) {
+            runChunk(chunkCompletionPolicy, stepExecution, chunkCompletionPolicy.getChunkSize(), ITEM_PROCESSING_NANOS, 1_000_000_000);
+        }
+        Assert.assertEquals(80, chunkCompletionPolicy.getChunkSize());
+    }
+
+    /**
+     * Chunk size stays fixed when not adaptive
+     */
+    @Test
+    public void testAfterChunk_notAdaptive_fixedSize() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        AdaptiveChunkCompletionPolicy chunkCompletionPolicy = new AdaptiveChunkCompletionPolicy(10, false, 1, 1000, 1000, nanoClock::get);
+
+        runChunk(chunkCompletionPolicy, stepExecution, 10);
+        Assert.assertEquals(10, chunkCompletionPolicy.getChunkSize());
+        Assert.assertEquals(0, chunkCompletionPolicy.getAdjustmentCount());
+    }
+
+    private void runChunk(AdaptiveChunkCompletionPolicy chunkCompletionPolicy, StepExecution stepExecution, int itemCount) {
+        runChunk(chunkCompletionPolicy, stepExecution, itemCount, ITEM_PROCESSING_NANOS);
+    }
+
+    private void runChunk(AdaptiveChunkCompletionPolicy chunkCompletionPolicy, StepExecution stepExecution, int itemCount,
+                          long itemProcessingNanos) {
+        runChunk(chunkCompletionPolicy, stepExecution, itemCount, itemProcessingNanos, 0);
+    }
+
+    /**
+     * Runs a chunk of the items, read in readNanos, then written and committed in itemProcessingNanos per item
+     */
+    private void runChunk(AdaptiveChunkCompletionPolicy chunkCompletionPolicy, StepExecution stepExecution, int itemCount,
+                          long itemProcessingNanos, long readNanos) {
+        ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+        chunkCompletionPolicy.beforeChunk(chunkContext);
+        StepContribution stepContribution = stepExecution.createStepContribution();
+        for (int i = 0; i < itemCount; i++) {
+            stepContribution.incrementReadCount();
+        }
+        nanoClock.addAndGet(readNanos);
+        chunkCompletionPolicy.beforeWrite(Collections.nCopies(itemCount, "item"));
+        nanoClock.addAndGet(itemCount * itemProcessingNanos);
+        chunkCompletionPolicy.afterWrite(Collections.nCopies(itemCount, "item"));
+        stepExecution.apply(stepContribution);
+        chunkCompletionPolicy.afterChunk(chunkContext);
+    }
+}
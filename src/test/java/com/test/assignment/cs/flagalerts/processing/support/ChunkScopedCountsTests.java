@@ -0,0 +1,38 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.Collections;
+
+/**
+ * Tests of {@link ChunkScopedCounts}, adding the counts of a chunk to the metric once committed only
+ */
+public class ChunkScopedCountsTests {
+
+    @Test
+    public void testCommit_rolledBackChunk_notCounted() {
+        Counter counter = new SimpleMeterRegistry().counter("test.entries");
+        ChunkScopedCounts<String> chunkScopedCounts = new ChunkScopedCounts<>(Collections.singletonMap("a", counter), key -> "writer." + key);
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putLong("writer.a", 5);
+        chunkScopedCounts.open(executionContext);
+
+        chunkScopedCounts.add("a", 2);
+        chunkScopedCounts.update(executionContext);
+        Assert.assertEquals("The execution context was expected to include the chunk", 7, executionContext.getLong("writer.a"));
+        chunkScopedCounts.rollback();
+        Assert.assertEquals(5, chunkScopedCounts.get("a"));
+        Assert.assertEquals(0, counter.count(), 0);
+
+        chunkScopedCounts.add("a", 3);
+        chunkScopedCounts.update(executionContext);
+        chunkScopedCounts.commit();
+        Assert.assertEquals(8, executionContext.getLong("writer.a"));
+        Assert.assertEquals(8, chunkScopedCounts.get("a"));
+        Assert.assertEquals(3, counter.count(), 0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests for {@link EventDictionary}, encoding the host and type values to the ids persisted in EVENT_DICTIONARY
+ */
+public class EventDictionaryTests {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .generateUniqueName(true)
+                .addScript("schema-all.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    public void shutdownDatabase() {
+        database.shutdown();
+    }
+
+    /**
+     * Equal values share an id, persisted once, and the ids decode back to the values. Null is kept as null
+     */
+    @Test
+    public void testIdOf_valueOf() {
+        EventDictionary eventDictionary = new EventDictionary(database);
+        Integer applicationLogId = eventDictionary.idOf("APPLICATION_LOG");
+        Integer hostId = eventDictionary.idOf("12345");
+
+        Assert.assertNotEquals(applicationLogId, hostId);
+        Assert.assertEquals(applicationLogId, eventDictionary.idOf(new String("APPLICATION_LOG")));
+        Assert.assertEquals("APPLICATION_LOG", eventDictionary.valueOf(applicationLogId));
+        Assert.assertEquals("12345", eventDictionary.valueOf(hostId));
+        Assert.assertNull(eventDictionary.idOf(null));
+        Assert.assertNull(eventDictionary.valueOf(null));
+        Assert.assertEquals(2, eventDictionary.size());
+        Assert.assertEquals(Long.valueOf(2), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM EVENT_DICTIONARY", Long.class));
+    }
+
+    /**
+     * A value added within a transaction that rolls back keeps its id, and values added by another dictionary are loaded
+     */
+    @Test
+    public void testIdOf_rolledBackTransaction_sharedAcrossDictionaries() {
+        EventDictionary eventDictionary = new EventDictionary(database);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+        Integer[] rolledBackId = new Integer[1];
+        transactionTemplate.execute(status -> {
+            rolledBackId[0] = eventDictionary.idOf("SYSTEM_LOG");
+            jdbcTemplate.update("INSERT INTO TMP_LOG_EVENT_STARTED (EVENT_ID, EVENT_STATE, EVENT_TIMESTAMP, EVENT_TYPE_ID) VALUES (?, ?, ?, ?)",
+                    "scsmbstgra", "STARTED", 1491377495212L, rolledBackId[0]);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        Assert.assertEquals("SYSTEM_LOG", jdbcTemplate.queryForObject(
+                "SELECT DICTIONARY_VALUE FROM EVENT_DICTIONARY WHERE DICTIONARY_ID = ?", String.class, rolledBackId[0]));
+        EventDictionary otherEventDictionary = new EventDictionary(database);
+        Assert.assertEquals("SYSTEM_LOG", otherEventDictionary.valueOf(rolledBackId[0]));
+        Assert.assertEquals(rolledBackId[0], otherEventDictionary.idOf("SYSTEM_LOG"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.test.assignment.cs.flagalerts.processing.support;
+
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlert;
+import com.test.assignment.cs.flagalerts.processing.alerts.LogEventAlertValidator;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
+import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntryValidator;
+import com.test.assignment.cs.flagalerts.processing.parser.LogState;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.util.ReflectionUtils;
+
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The fast path validators accept exactly the values accepted by the JSR-303 constraints of the beans. Each field of a valid bean
+ * is set in turn to boundary values of its type, failing the test when the validators disagree, e.g. after a constraint
+ * annotation is added or changed without updating the fast path validator
+ */
+public class FastValidatorConsistencyTests {
+
+    private static ValidatorFactory validatorFactory;
+
+    @BeforeAll
+    public static void createValidatorFactory() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+    }
+
+    @AfterAll
+    public static void closeValidatorFactory() {
+        validatorFactory.close();
+    }
+
+    @Test
+    public void testLogEventEntryValidator_consistentWithConstraints() {
+        assertConsistentWithConstraints(LogEventEntry.class, () -> {
+            LogEventEntry logEventEntry = new LogEventEntry();
+            logEventEntry.setId("scsmbstgra");
+            logEventEntry.setState(LogState.STARTED);
+            logEventEntry.setTimestamp(1491377495212L);
+            logEventEntry.setType("APPLICATION_LOG");
+            logEventEntry.setHost("12345");
+            return logEventEntry;
+        }, new LogEventEntryValidator());
+    }
+
+    @Test
+    public void testLogEventAlertValidator_consistentWithConstraints() {
+        assertConsistentWithConstraints(LogEventAlert.class, () -> {
+            LogEventAlert logEventAlert = new LogEventAlert();
+            logEventAlert.setEventId("scsmbstgra");
+            logEventAlert.setEventDuration(5L);
+            logEventAlert.setEventType("APPLICATION_LOG");
+            logEventAlert.setEventHost("12345");
+            logEventAlert.setAlertThreshold(4L);
+            return logEventAlert;
+        }, new LogEventAlertValidator());
+    }
+
+    private <T> void assertConsistentWithConstraints(Class<T> beanClass, Supplier<T> validBean,
+                                                     org.springframework.batch.item.validator.Validator<T> fastValidator) {
+        javax.validation.Validator jsrValidator = validatorFactory.getValidator();
+        T bean = validBean.get();
+        Assert.assertTrue("Bean was expected to be valid " + bean, jsrValidator.validate(bean).isEmpty());
+        Assert.assertTrue("Bean was expected to be valid " + bean, isValid(fastValidator, bean));
+
+        for (Field field : beanClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            ReflectionUtils.makeAccessible(field);
+            for (Object value : boundaryValues(field)) {
+                bean = validBean.get();
+                ReflectionUtils.setField(field, bean, value);
+                Assert.assertEquals(String.format("Validators disagree on %s.%s = [%s]", beanClass.getSimpleName(), field.getName(), value),
+                        jsrValidator.validate(bean).isEmpty(), isValid(fastValidator, bean));
+            }
+        }
+    }
+
+    private <T> boolean isValid(org.springframework.batch.item.validator.Validator<T> fastValidator, T bean) {
+        try {
+            fastValidator.validate(bean);
+            return true;
+        } catch (ValidationException e) {
+            return false;
+        }
+    }
+
+    private List<Object> boundaryValues(Field field) {
+        List<Object> values = new ArrayList<>(field.getType().isPrimitive() ? Collections.emptyList() : Collections.singletonList(null));
+        if (field.getType() == String.class) {
+            values.addAll(Arrays.asList("", " ", "\t\n", "a", " a "));
+        } else if (field.getType() == Long.class) {
+            values.addAll(Arrays.asList(Long.MIN_VALUE, -1L, 0L, 1L, 2L, Long.MAX_VALUE));
+        } else if (field.getType() == int.class) {
+            values.addAll(Arrays.asList(Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE));
+        } else if (field.getType().isEnum()) {
+            values.addAll(Arrays.asList(field.getType().getEnumConstants()));
+        } else {
+            Assert.fail("No boundary values for field " + field.getName() + " of type " + field.getType() + ", to be added to the test");
+        }
+        return values;
+    }
+}
@@ -1,82 +1,143 @@
 package com.test.assignment.cs.flagalerts.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.test.assignment.cs.flagalerts.processing.parser.LogEventEntry;
-import com.test.assignment.cs.flagalerts.processing.parser.LogState;
 import lombok.experimental.UtilityClass;
-import org.apache.commons.lang3.RandomStringUtils;
 
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.util.*;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Generates log files of randomized STARTED/FINISHED entry pairs, shuffled within batches of {@link #PAIRS_PER_BATCH} events.
+ * The content is determined by the seed, so generated files can be reproduced across runs and releases
+ */
 @UtilityClass
 public class RandomizedLogFileGenerator {
-    public void generateLogFile(String fileName, long maxFileSizeBytes) throws IOException {
-        Path filePath = Paths.get(fileName);
-        createEmptyFile(filePath);
 
-        writeLogEntriesToFile(filePath, maxFileSizeBytes);
+    public static final long DEFAULT_SEED = 20210401L;
+    private static final int PAIRS_PER_BATCH = 10;
+    private static final long BASE_TIMESTAMP = 1491377495000L;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    public void generateLogFile(String fileName, long maxFileSizeBytes) throws IOException {
+        generateLogFile(fileName, maxFileSizeBytes, DEFAULT_SEED);
     }
 
-    private static void writeLogEntriesToFile(Path filePath, long maxFileSize) throws IOException {
-        final ObjectMapper objectMapper = new ObjectMapper();
-        try (BufferedWriter bw = Files.newBufferedWriter(filePath)) {
-            while (Files.size(filePath) < maxFileSize) {
-                for (LogEventEntry logEventEntry : getRandomizedLogEntries(10)) {
-                    bw.write(objectMapper.writeValueAsString(logEventEntry));
-                    bw.newLine();
+    /**
+     * Writes entry batches until the file reaches the given size
+     *
+     * @param seed seed of the random values, the same seed generates the same file
+     */
+    public void generateLogFile(String fileName, long maxFileSizeBytes, long seed) throws IOException {
+        final SplittableRandom random = new SplittableRandom(seed);
+        final byte[][] lines = new byte[PAIRS_PER_BATCH * 2][];
+        final StringBuilder lineBuilder = new StringBuilder(160);
+        long fileSize = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(fileName)), 64 * 1024)) {
+            while (fileSize < maxFileSizeBytes) {
+                for (int i = 0; i < PAIRS_PER_BATCH; i++) {
+                    createLogEntryPair(random, lineBuilder, lines, i * 2);
+                }
+                shuffle(random, lines);
+                for (byte[] line : lines) {
+                    out.write(line);
+                    fileSize += line.length;
                 }
             }
         }
     }
 
-    private List<LogEventEntry> getRandomizedLogEntries(int logEntryPairCount) {
-        List<LogEventEntry> logEventEntries = new ArrayList<>(logEntryPairCount*2);
-        for (int i = 0; i < logEntryPairCount; i++) {
-            logEventEntries.addAll(createLogEntryPair());
+    /**
+     * Generates a log file, split by lines into rotated log files "baseName", "baseName.1", "baseName.2.gz".. "baseName.[n].gz",
+     * oldest entries in the highest index. Events started in a file can finish in the next one
+     *
+     * @return number of lines of the rotated log files
+     */
+    public long generateRotatedLogFiles(Path directory, String baseName, int fileCount, long maxFileSizeBytes) throws IOException {
+        Path logFile = Files.createTempFile("logfile", ".txt");
+        generateLogFile(logFile.toString(), maxFileSizeBytes);
+        List<String> lines = Files.readAllLines(logFile, StandardCharsets.US_ASCII);
+        Files.delete(logFile);
+        for (int fileIndex = 0; fileIndex < fileCount; fileIndex++) {
+            int rotation = fileCount - 1 - fileIndex;
+            String fileName = rotation == 0 ? baseName : rotation == 1 ? baseName + ".1" : baseName + "." + rotation + ".gz";
+            OutputStream fileStream = Files.newOutputStream(directory.resolve(fileName));
+            try (OutputStream out = fileName.endsWith(".gz") ? new GZIPOutputStream(fileStream) : fileStream) {
+                for (String line : lines.subList(lines.size() * fileIndex / fileCount, lines.size() * (fileIndex + 1) / fileCount)) {
+                    out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+                }
+            }
         }
-        Collections.shuffle(logEventEntries);
-        return logEventEntries;
+        return lines.size();
     }
 
-    private List<LogEventEntry> createLogEntryPair() {
-        String id = UUID.randomUUID().toString();
-        Long timeStamp = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    private void createLogEntryPair(SplittableRandom random, StringBuilder lineBuilder, byte[][] lines, int index) {
+        String id = randomUuid(random);
+        long timestamp = BASE_TIMESTAMP + random.nextInt(1_000_000_000);
         String host = null;
         String type = null;
-        if(new Random().nextBoolean()) {
-            host = RandomStringUtils.randomAlphabetic(10);
-            type = RandomStringUtils.randomAlphabetic(10);
+        if (random.nextBoolean()) {
+            host = randomAlphabetic(random, 10);
+            type = randomAlphabetic(random, 10);
         }
+        lines[index] = toJsonLine(lineBuilder, id, "STARTED", timestamp, host, type);
+        lines[index + 1] = toJsonLine(lineBuilder, id, "FINISHED", timestamp + random.nextInt(10), host, type);
+    }
 
-        LogEventEntry startedLogEventEntry = new LogEventEntry();
-        startedLogEventEntry.setId(id);
-        startedLogEventEntry.setState(LogState.STARTED);
-        startedLogEventEntry.setTimestamp(timeStamp);
-        startedLogEventEntry.setHost(host);
-        startedLogEventEntry.setType(type);
-
-        LogEventEntry finishedLogEventEntry = new LogEventEntry();
-        finishedLogEventEntry.setId(id);
-        finishedLogEventEntry.setState(LogState.FINISHED);
-        finishedLogEventEntry.setTimestamp(timeStamp+Double.valueOf(Math.random()*10).longValue());
-        finishedLogEventEntry.setHost(host);
-        finishedLogEventEntry.setType(type);
+    private byte[] toJsonLine(StringBuilder lineBuilder, String id, String state, long timestamp, String host, String type) {
+        lineBuilder.setLength(0);
+        lineBuilder.append("{\"id\":\"").append(id)
+                .append("\",\"state\":\"").append(state)
+                .append("\",\"timestamp\":").append(timestamp);
+        if (type != null) {
+            lineBuilder.append(",\"type\":\"").append(type).append('"');
+        }
+        if (host != null) {
+            lineBuilder.append(",\"host\":\"").append(host).append('"');
+        }
+        lineBuilder.append("}\n");
+        return lineBuilder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
 
-        return Arrays.asList(startedLogEventEntry, finishedLogEventEntry);
+    private String randomUuid(SplittableRandom random) {
+        char[] uuid = new char[36];
+        long bits = 0;
+        int digits = 0;
+        for (int i = 0; i < uuid.length; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                uuid[i] = '-';
+                continue;
+            }
+            if (digits++ % 16 == 0) {
+                bits = random.nextLong();
+            }
+            uuid[i] = HEX_DIGITS[(int) (bits & 0xf)];
+            bits >>>= 4;
+        }
+        return new String(uuid);
+    }
 
+    private String randomAlphabetic(SplittableRandom random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int letter = random.nextInt(52);
+            chars[i] = (char) (letter < 26 ? 'A' + letter : 'a' + letter - 26);
+        }
+        return new String(chars);
     }
 
-    private void createEmptyFile(Path filePath) throws IOException {
-        if(filePath.toFile().exists()) {
-            filePath.toFile().delete();
+    private void shuffle(SplittableRandom random, byte[][] lines) {
+        for (int i = lines.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte[] line = lines[i];
+            lines[i] = lines[j];
+            lines[j] = line;
         }
-        Files.createFile(filePath);
     }
 }